@@ -153,6 +153,10 @@ db.createCollection('conversations', {
           bsonType: ['date', 'null'],
           description: 'Timestamp of the most recent message'
         },
+        last_message: {
+          bsonType: ['object', 'null'],
+          description: 'Preview of the most recent message (message_id, sender_id, snippet, content_type, timestamp)'
+        },
         created_at: {
           bsonType: 'date',
           description: 'When the conversation was created'
@@ -77,6 +77,18 @@ case "$TEST_TYPE" in
         SCRIPT="scenarios/spike-test.js"
         log_info "Running spike test..."
         ;;
+    status|st)
+        SCRIPT="scenarios/status-update-latency.js"
+        log_info "Running status update latency benchmark..."
+        ;;
+    history|hr)
+        SCRIPT="scenarios/history-read-latency.js"
+        log_info "Running history read latency benchmark..."
+        ;;
+    fanout|wf)
+        SCRIPT="scenarios/websocket-fanout.js"
+        log_info "Running WebSocket fan-out benchmark..."
+        ;;
     *)
         log_error "Unknown test type: $TEST_TYPE"
         echo ""
@@ -85,6 +97,9 @@ case "$TEST_TYPE" in
         echo "  load (l)       - 10K concurrent conversations"
         echo "  10k (rpm)      - 10,000 requests/minute throughput test"
         echo "  spike (sp)     - Sudden traffic surge test"
+        echo "  status (st)    - Status update latency benchmark"
+        echo "  history (hr)   - History read latency benchmark (storage modes)"
+        echo "  fanout (wf)    - WebSocket group fan-out benchmark (serialization, allocation)"
         exit 1
         ;;
 esac
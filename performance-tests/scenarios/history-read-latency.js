@@ -0,0 +1,176 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import { Trend } from 'k6/metrics';
+
+/**
+ * K6 Benchmark: Conversation History Read Latency
+ *
+ * Pages through the history of one large group conversation, comparing the document
+ * and bucketed storage modes (message.storage.mode) on the same data:
+ * - history_first_page: newest page (usually served by the recent messages buffer)
+ * - history_deep_page: pages reached through nextCursor (MongoDB keyset reads)
+ * - messages.history.query.time: message-service timer, diffed before/after the run
+ *
+ * Without CONVERSATION_ID, setup() creates a conversation, seeds SEED_MESSAGES messages
+ * through POST /api/messages/batch and logs its ID; pass that ID to the following runs
+ * so every run reads the same history. See README "History Read Latency" for the full
+ * procedure (seed, measure, archive, measure again) and storage-footprint.js for the
+ * index size and cache (RAM working set) side of the comparison.
+ *
+ * Calls message-service directly (conversation routes are not exposed by the gateway).
+ *
+ * Environment:
+ * - MESSAGE_SERVICE_URL: message-service (default http://localhost:8081)
+ * - CONVERSATION_ID: existing conversation to read (default: create and seed one)
+ * - SEED_MESSAGES: messages seeded into a new conversation (default 20000)
+ * - PAGES: pages read per iteration, first page included (default 10)
+ * - LIMIT: page size (default 50)
+ * - VIEW: FULL or LIST (default LIST)
+ * - VUS: concurrent readers (default 20)
+ * - DURATION: run length (default 2m)
+ */
+
+const firstPage = new Trend('history_first_page', true);
+const deepPage = new Trend('history_deep_page', true);
+
+const MESSAGE_SERVICE_URL = __ENV.MESSAGE_SERVICE_URL || 'http://localhost:8081';
+const SEED_MESSAGES = parseInt(__ENV.SEED_MESSAGES || '20000');
+const PAGES = parseInt(__ENV.PAGES || '10');
+const LIMIT = parseInt(__ENV.LIMIT || '50');
+const VIEW = __ENV.VIEW || 'LIST';
+const VUS = parseInt(__ENV.VUS || '20');
+const TEST_DURATION = __ENV.DURATION || '2m';
+
+const QUERY_TIMER = 'messages_history_query_time_seconds';
+const SEED_BATCH = 1000;
+const MEMBERS = 20;
+
+export const options = {
+  scenarios: {
+    history_reads: {
+      executor: 'constant-vus',
+      vus: VUS,
+      duration: TEST_DURATION,
+    },
+  },
+
+  thresholds: {
+    'http_req_failed': ['rate<0.01'],
+    'history_deep_page': ['p(95)<2000'], // SC-009
+  },
+
+  setupTimeout: '10m',
+  insecureSkipTLSVerify: true,
+  noConnectionReuse: false,
+};
+
+/**
+ * Reads count and sum of a timer (summed over all tag combinations).
+ */
+function timer(body, name) {
+  let count = 0;
+  let sum = 0;
+  for (const line of body.split('\n')) {
+    if (line.startsWith(`${name}_count`)) {
+      count += parseFloat(line.substring(line.lastIndexOf(' ') + 1));
+    } else if (line.startsWith(`${name}_sum`)) {
+      sum += parseFloat(line.substring(line.lastIndexOf(' ') + 1));
+    }
+  }
+  return { count, sum };
+}
+
+function readQueryTimer() {
+  const res = http.get(`${MESSAGE_SERVICE_URL}/actuator/prometheus`);
+  if (res.status !== 200) {
+    throw new Error(`message-service metrics not reachable: ${res.status}`);
+  }
+  return timer(res.body, QUERY_TIMER);
+}
+
+/**
+ * Creates a group conversation and fills it through the batch endpoint.
+ */
+function seedConversation() {
+  const participants = [];
+  for (let i = 0; i < MEMBERS; i++) {
+    participants.push(`history-bench-user-${i}`);
+  }
+
+  const created = http.post(`${MESSAGE_SERVICE_URL}/api/v1/conversations`, JSON.stringify({
+    type: 'GROUP',
+    participants,
+    title: 'History read benchmark',
+  }), { headers: { 'Content-Type': 'application/json' } });
+  if (created.status !== 201) {
+    throw new Error(`Conversation not created: ${created.status}`);
+  }
+  const conversationId = created.json('conversationId');
+
+  for (let sent = 0; sent < SEED_MESSAGES; sent += SEED_BATCH) {
+    const batch = [];
+    for (let i = sent; i < Math.min(sent + SEED_BATCH, SEED_MESSAGES); i++) {
+      batch.push({
+        conversationId,
+        senderId: participants[i % MEMBERS],
+        content: `History benchmark message ${i}`,
+        channel: 'INTERNAL',
+      });
+    }
+
+    const res = http.post(`${MESSAGE_SERVICE_URL}/api/messages/batch`, JSON.stringify(batch), {
+      headers: { 'Content-Type': 'application/json' },
+      timeout: '120s',
+    });
+    if (res.status !== 200) {
+      throw new Error(`Seed batch failed: ${res.status}`);
+    }
+  }
+
+  console.log(`Seeded ${SEED_MESSAGES} messages into conversation ${conversationId}`);
+  console.log(`Re-run with -e CONVERSATION_ID=${conversationId} to read the same history`);
+  return conversationId;
+}
+
+export function setup() {
+  const conversationId = __ENV.CONVERSATION_ID || seedConversation();
+  return { conversationId, before: readQueryTimer(), at: Date.now() };
+}
+
+export default function (data) {
+  let cursor = null;
+
+  for (let page = 0; page < PAGES; page++) {
+    let url = `${MESSAGE_SERVICE_URL}/api/v1/conversations/${data.conversationId}/messages?limit=${LIMIT}&view=${VIEW}`;
+    if (cursor) {
+      url += `&before=${encodeURIComponent(cursor)}`;
+    }
+
+    const res = http.get(url, { tags: { name: page === 0 ? 'history_first_page' : 'history_deep_page' } });
+    if (!check(res, { 'history: status 200': (r) => r.status === 200 })) {
+      return;
+    }
+
+    (page === 0 ? firstPage : deepPage).add(res.timings.duration);
+
+    cursor = res.json('nextCursor');
+    if (!cursor) {
+      return;
+    }
+  }
+}
+
+export function teardown(data) {
+  const after = readQueryTimer();
+  const seconds = (Date.now() - data.at) / 1000;
+  const queries = after.count - data.before.count;
+
+  console.log('=== History Read Benchmark ===');
+  console.log(`conversation: ${data.conversationId}`);
+  console.log(`MongoDB page reads: ${queries} (${(queries / seconds).toFixed(1)}/s)`);
+  if (queries > 0) {
+    const meanMs = ((after.sum - data.before.sum) / queries) * 1000;
+    console.log(`MongoDB page read mean: ${meanMs.toFixed(2)}ms`);
+  }
+  console.log('==============================');
+}
@@ -0,0 +1,116 @@
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+
+/**
+ * K6 Benchmark: Message Status Update Latency
+ *
+ * Drives outbound messages at a constant rate; every accepted message is routed and
+ * comes back to message-service as status updates (SENT, DELIVERED) on the
+ * status-updates topic. Each iteration then polls GET /api/messages/{id}/status until
+ * the message reaches each status and records, from the client's side:
+ * - status_send: POST /api/messages (accept) latency
+ * - status_poll: GET /api/messages/{id}/status latency (status read path)
+ * - status_sent_latency / status_delivered_latency: accept to status visible
+ *
+ * Only public endpoints are used, so the same script measures any build: run it once
+ * per build against the same environment and compare the trends.
+ *
+ * Environment:
+ * - BASE_URL: API Gateway (default http://localhost:8080)
+ * - RATE: messages per second (default 100)
+ * - DURATION: run length (default 2m)
+ * - POLL_INTERVAL_MS: delay between status polls (default 50)
+ * - POLL_TIMEOUT_MS: give up on a message after this long (default 10000)
+ */
+
+const sendLatency = new Trend('status_send', true);
+const pollLatency = new Trend('status_poll', true);
+const sentLatency = new Trend('status_sent_latency', true);
+const deliveredLatency = new Trend('status_delivered_latency', true);
+const timeouts = new Counter('status_timeouts');
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '100');
+const TEST_DURATION = __ENV.DURATION || '2m';
+const POLL_INTERVAL_MS = parseInt(__ENV.POLL_INTERVAL_MS || '50');
+const POLL_TIMEOUT_MS = parseInt(__ENV.POLL_TIMEOUT_MS || '10000');
+
+// Statuses at or past SENT / DELIVERED (status updates may skip one)
+const SENT_OR_LATER = ['SENT', 'DELIVERED', 'READ'];
+const DELIVERED_OR_LATER = ['DELIVERED', 'READ'];
+
+export const options = {
+  scenarios: {
+    status_updates: {
+      executor: 'constant-arrival-rate',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: TEST_DURATION,
+      preAllocatedVUs: 100,
+      maxVUs: 1000,
+    },
+  },
+
+  thresholds: {
+    'http_req_failed': ['rate<0.01'],
+    'status_timeouts': ['count<1'],
+  },
+
+  insecureSkipTLSVerify: true,
+  noConnectionReuse: false,
+};
+
+export function setup() {
+  const healthRes = http.get(`${BASE_URL}/actuator/health`);
+  if (healthRes.status !== 200) {
+    throw new Error(`API Gateway not healthy: ${healthRes.status}`);
+  }
+}
+
+export default function () {
+  const payload = JSON.stringify({
+    conversationId: `conv-status-bench-${__VU % 100}`,
+    senderId: `user-${__VU % 50}`,
+    content: `Status update benchmark ${__ITER}`,
+    channel: 'WHATSAPP',
+  });
+
+  const res = http.post(`${BASE_URL}/api/messages`, payload, {
+    headers: { 'Content-Type': 'application/json' },
+    tags: { name: 'send_message' },
+  });
+  sendLatency.add(res.timings.duration);
+
+  if (!check(res, { 'send: status 202': (r) => r.status === 202 })) {
+    return;
+  }
+
+  const messageId = res.json('messageId');
+  const acceptedAt = Date.now();
+  let sentRecorded = false;
+
+  while (Date.now() - acceptedAt < POLL_TIMEOUT_MS) {
+    const statusRes = http.get(`${BASE_URL}/api/messages/${messageId}/status`, {
+      tags: { name: 'get_status' },
+    });
+    pollLatency.add(statusRes.timings.duration);
+
+    const status = statusRes.status === 200 ? statusRes.json('status') : null;
+    if (!sentRecorded && SENT_OR_LATER.includes(status)) {
+      sentLatency.add(Date.now() - acceptedAt);
+      sentRecorded = true;
+    }
+    if (DELIVERED_OR_LATER.includes(status)) {
+      deliveredLatency.add(Date.now() - acceptedAt);
+      return;
+    }
+    if (status === 'FAILED') {
+      return;
+    }
+
+    sleep(POLL_INTERVAL_MS / 1000);
+  }
+
+  timeouts.add(1);
+}
@@ -0,0 +1,172 @@
+import http from 'k6/http';
+import ws from 'k6/ws';
+import { check } from 'k6';
+import { Counter, Trend } from 'k6/metrics';
+
+/**
+ * K6 Benchmark: WebSocket Group Fan-out (serialization and allocation)
+ *
+ * MEMBERS receivers hold a /ws/chat session each while one sender posts group messages
+ * at RATE per second, so every message is pushed to MEMBERS - 1 sessions. Reports:
+ * - ws_fanout_latency: send (client clock) to frame received, per recipient
+ * - ws_frames_received: frames received by all sessions
+ * - from message-service's Prometheus endpoint, diffed before/after the run:
+ *   - websocket.outbound.encoded / websocket.outbound.frames: events serialized vs
+ *     frames sent (serialize-once: one encoding per message, not per recipient)
+ *   - jvm.gc.memory.allocated: heap allocated by message-service per frame sent
+ *
+ * Allocation covers the whole JVM (HTTP, Kafka, MongoDB included), so compare builds
+ * with the same MEMBERS and RATE on the same environment; the per-frame figure drops
+ * as the share of per-recipient work drops.
+ *
+ * Calls message-service directly (conversation routes are not exposed by the gateway).
+ *
+ * Environment:
+ * - MESSAGE_SERVICE_URL: message-service (default http://localhost:8081)
+ * - MEMBERS: group size, one WebSocket session per member (default 100)
+ * - RATE: messages per second (default 20)
+ * - DURATION_SECONDS: sending time (default 120)
+ */
+
+const fanoutLatency = new Trend('ws_fanout_latency', true);
+const framesReceived = new Counter('ws_frames_received');
+
+const MESSAGE_SERVICE_URL = __ENV.MESSAGE_SERVICE_URL || 'http://localhost:8081';
+const WS_URL = MESSAGE_SERVICE_URL.replace(/^http/, 'ws');
+const MEMBERS = parseInt(__ENV.MEMBERS || '100');
+const RATE = parseInt(__ENV.RATE || '20');
+const DURATION_SECONDS = parseInt(__ENV.DURATION_SECONDS || '120');
+
+const CONNECT_SECONDS = 10; // receivers connect before the sender starts
+const DRAIN_SECONDS = 10;   // receivers stay connected after the sender stops
+
+export const options = {
+  scenarios: {
+    receivers: {
+      executor: 'per-vu-iterations',
+      exec: 'receive',
+      vus: MEMBERS,
+      iterations: 1,
+      maxDuration: `${CONNECT_SECONDS + DURATION_SECONDS + DRAIN_SECONDS + 30}s`,
+    },
+    sender: {
+      executor: 'constant-arrival-rate',
+      exec: 'send',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: `${DURATION_SECONDS}s`,
+      startTime: `${CONNECT_SECONDS}s`,
+      preAllocatedVUs: 10,
+      maxVUs: 50,
+    },
+  },
+
+  thresholds: {
+    'http_req_failed{scenario:sender}': ['rate<0.01'],
+    'ws_fanout_latency': ['p(95)<500'],
+  },
+
+  insecureSkipTLSVerify: true,
+  noConnectionReuse: false,
+};
+
+function member(index) {
+  return `fanout-bench-user-${index}`;
+}
+
+/**
+ * Sums a counter over all tag combinations.
+ */
+function counter(body, name) {
+  let total = 0;
+  for (const line of body.split('\n')) {
+    if (line.startsWith(`${name}{`) || line.startsWith(`${name} `)) {
+      total += parseFloat(line.substring(line.lastIndexOf(' ') + 1));
+    }
+  }
+  return total;
+}
+
+function readCounters() {
+  const res = http.get(`${MESSAGE_SERVICE_URL}/actuator/prometheus`);
+  if (res.status !== 200) {
+    throw new Error(`message-service metrics not reachable: ${res.status}`);
+  }
+  return {
+    encoded: counter(res.body, 'websocket_outbound_encoded_total'),
+    frames: counter(res.body, 'websocket_outbound_frames_total'),
+    allocated: counter(res.body, 'jvm_gc_memory_allocated_bytes_total'),
+  };
+}
+
+export function setup() {
+  const participants = [];
+  for (let i = 0; i < MEMBERS; i++) {
+    participants.push(member(i));
+  }
+
+  const created = http.post(`${MESSAGE_SERVICE_URL}/api/v1/conversations`, JSON.stringify({
+    type: 'GROUP',
+    participants,
+    title: 'WebSocket fan-out benchmark',
+  }), { headers: { 'Content-Type': 'application/json' } });
+  if (created.status !== 201) {
+    throw new Error(`Conversation not created: ${created.status}`);
+  }
+
+  return { conversationId: created.json('conversationId'), before: readCounters() };
+}
+
+/**
+ * Receiver: one member's session, open for the whole run.
+ */
+export function receive() {
+  const userId = member(__VU - 1);
+  const holdMs = (CONNECT_SECONDS + DURATION_SECONDS + DRAIN_SECONDS) * 1000;
+
+  const res = ws.connect(`${WS_URL}/ws/chat?userId=${userId}`, {}, (socket) => {
+    socket.on('message', (data) => {
+      const event = JSON.parse(data);
+      const sentAt = parseInt((event.content || '').split(' ').pop());
+      if (!isNaN(sentAt)) {
+        fanoutLatency.add(Date.now() - sentAt);
+      }
+      framesReceived.add(1);
+    });
+    socket.setTimeout(() => socket.close(), holdMs);
+  });
+
+  check(res, { 'receiver: status 101': (r) => r && r.status === 101 });
+}
+
+/**
+ * Sender: one group message, stamped with the client send time.
+ */
+export function send(data) {
+  const res = http.post(`${MESSAGE_SERVICE_URL}/api/messages`, JSON.stringify({
+    conversationId: data.conversationId,
+    senderId: member(0),
+    content: `Fan-out benchmark ${Date.now()}`,
+    channel: 'INTERNAL',
+  }), { headers: { 'Content-Type': 'application/json' } });
+
+  check(res, { 'sender: accepted': (r) => r.status >= 200 && r.status < 300 });
+}
+
+export function teardown(data) {
+  const after = readCounters();
+  const encoded = after.encoded - data.before.encoded;
+  const frames = after.frames - data.before.frames;
+  const allocated = after.allocated - data.before.allocated;
+
+  console.log('=== WebSocket Fan-out Benchmark ===');
+  console.log(`members: ${MEMBERS}, rate: ${RATE}/s, duration: ${DURATION_SECONDS}s`);
+  console.log(`events serialized: ${encoded}, frames sent: ${frames}`);
+  if (encoded > 0) {
+    console.log(`frames per serialization: ${(frames / encoded).toFixed(1)}`);
+  }
+  if (frames > 0) {
+    console.log(`heap allocated per frame: ${(allocated / frames / 1024).toFixed(2)} KB (whole JVM)`);
+  }
+  console.log('===================================');
+}
@@ -0,0 +1,56 @@
+/**
+ * MongoDB storage footprint of the message storage modes (mongosh)
+ *
+ * Reports, for the messages and message_buckets collections:
+ * - documents, data size and storage size
+ * - total and per-index size on disk
+ * - bytes of the collection and of each index currently held in the WiredTiger cache
+ *   (the RAM working set; read it after a benchmark run, on a warm cache)
+ *
+ * Run it after history-read-latency.js in each storage mode and compare the two reports:
+ *   docker exec -i chat4all-mongodb mongosh -u chat4all -p chat4all_dev_password \
+ *     --authenticationDatabase admin chat4all --quiet < scripts/storage-footprint.js
+ */
+
+const MB = 1024 * 1024;
+
+function mb(bytes) {
+  return `${(bytes / MB).toFixed(2)} MB`;
+}
+
+function cached(stats) {
+  const cache = stats.wiredTiger && stats.wiredTiger.cache;
+  return cache ? cache['bytes currently in the cache'] : 0;
+}
+
+function report(name) {
+  if (!db.getCollectionNames().includes(name)) {
+    print(`${name}: (collection does not exist)`);
+    return;
+  }
+
+  const stats = db.getCollection(name).stats({ indexDetails: true });
+  print(`${name}:`);
+  print(`  documents:        ${stats.count}`);
+  print(`  data size:        ${mb(stats.size)} (avg document ${stats.avgObjSize || 0} bytes)`);
+  print(`  storage size:     ${mb(stats.storageSize)}`);
+  print(`  total index size: ${mb(stats.totalIndexSize)}`);
+  print(`  cached (data):    ${mb(cached(stats))}`);
+
+  let cachedIndexes = 0;
+  for (const [index, size] of Object.entries(stats.indexSizes)) {
+    const details = stats.indexDetails ? stats.indexDetails[index] : null;
+    const inCache = details ? cached(details) : 0;
+    cachedIndexes += inCache;
+    print(`  index ${index}: ${mb(size)} on disk, ${mb(inCache)} cached`);
+  }
+  print(`  cached (indexes): ${mb(cachedIndexes)}`);
+}
+
+report('messages');
+report('message_buckets');
+
+const cache = db.serverStatus().wiredTiger.cache;
+print('WiredTiger cache:');
+print(`  in use:  ${mb(cache['bytes currently in the cache'])}`);
+print(`  maximum: ${mb(cache['maximum bytes configured'])}`);
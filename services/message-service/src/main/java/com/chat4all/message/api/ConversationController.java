@@ -2,11 +2,10 @@ package com.chat4all.message.api;
 
 import com.chat4all.message.api.dto.CreateConversationRequest;
 import com.chat4all.message.domain.Conversation;
-import com.chat4all.message.domain.ConversationType;
 import com.chat4all.message.domain.Message;
-import com.chat4all.message.repository.ConversationRepository;
-import com.chat4all.message.repository.MessageRepository;
 import com.chat4all.message.service.ConversationService;
+import com.chat4all.message.service.HistoryCursor;
+import com.chat4all.message.service.MessageHistoryService;
 import com.chat4all.message.service.ParticipantManager;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -15,7 +14,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -44,9 +42,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ConversationController {
 
-    private final MessageRepository messageRepository;
-    private final ConversationRepository conversationRepository;
     private final ConversationService conversationService;
+    private final MessageHistoryService messageHistoryService;
     private final ParticipantManager participantManager;
 
     /**
@@ -122,7 +119,9 @@ public class ConversationController {
      * - includeArchived: Whether to include archived conversations (default: false)
      * - limit: Max number of conversations to return (default: 50, max: 100)
      * 
-     * Response: HTTP 200 OK with list of conversations sorted by last activity descending
+     * Response: HTTP 200 OK with list of conversations sorted by last activity descending.
+     * Each conversation carries messageCount and lastMessage (preview), so an inbox renders
+     * from this single indexed query without per-conversation history lookups.
      * 
      * Example:
      * GET /api/v1/conversations?participantId=user-001&limit=20
@@ -179,22 +178,29 @@ public class ConversationController {
      * Endpoint: GET /api/v1/conversations/{id}/messages
      * 
      * Query Parameters:
-     * - before: Cursor timestamp (ISO-8601) for pagination (optional)
-     * - limit: Max number of messages to return (default: 50, max: 100)
+     * - userId: Requesting user; in GROUP conversations messages sent before they joined
+     *   are excluded (Task T080) (optional)
+     * - before: nextCursor of the previous page (opaque), or an ISO-8601 timestamp (optional)
+     * - limit: Max number of messages to return (default: 50, capped at message.history.max-limit)
+     * - view: FULL (whole messages, default) or LIST (fields a message list renders)
      * 
-     * Response: HTTP 200 OK with list of messages sorted by timestamp descending (newest first)
+     * Response: HTTP 200 OK with list of messages sorted by timestamp descending (newest first);
+     * HTTP 400 if the cursor is invalid
      * 
      * Performance:
-     * - Uses compound index: {conversation_id: 1, timestamp: -1}
+     * - Keyset pagination on (timestamp, _id) with the join-date bound in the query: every
+     *   page is one range scan of {conversation_id: 1, timestamp: -1, _id: -1}
      * - Satisfies SC-009 requirement: <2s response time for conversation history
      * 
      * Example:
-     * GET /api/v1/conversations/conv-001/messages?limit=20
-     * GET /api/v1/conversations/conv-001/messages?before=2025-11-24T18:30:00Z&limit=20
+     * GET /api/v1/conversations/conv-001/messages?limit=20&view=LIST
+     * GET /api/v1/conversations/conv-001/messages?before={nextCursor}&limit=20
      * 
      * @param conversationId Conversation identifier
-     * @param before Optional cursor timestamp (pagination)
-     * @param limit Number of messages to return (default: 50, max: 100)
+     * @param userId Optional requesting user (join-date filter)
+     * @param before Optional cursor (pagination)
+     * @param limit Number of messages to return
+     * @param view Fields to return
      * @return Mono<ResponseEntity<MessageHistoryResponse>> with message list
      */
     @GetMapping("/{conversationId}/messages")
@@ -202,120 +208,79 @@ public class ConversationController {
         @PathVariable String conversationId,
         @RequestParam(required = false) String userId,
         @RequestParam(required = false) String before,
-        @RequestParam(defaultValue = "50") int limit
+        @RequestParam(defaultValue = "50") int limit,
+        @RequestParam(defaultValue = "FULL") MessageHistoryService.View view
     ) {
-        log.debug("Fetching messages for conversation: {}, userId={}, before={}, limit={}", 
-            conversationId, userId, before, limit);
-
-        // Validate and cap limit
-        if (limit <= 0) {
-            limit = 50;
-        }
-        if (limit > 100) {
-            limit = 100;
+        log.debug("Fetching messages for conversation: {}, userId={}, before={}, limit={}, view={}", 
+            conversationId, userId, before, limit, view);
+
+        // Only a malformed cursor is a client error; failures of the query itself propagate
+        HistoryCursor position;
+        try {
+            position = before != null && !before.isBlank() ? HistoryCursor.decode(before) : null;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(before, e);
         }
 
-        final int finalLimit = limit;
+        return messageHistoryService.getHistory(conversationId, userId, position, limit, view)
+            .map(page -> {
+                log.info("Retrieved {} messages for conversation: {} (userId={}, hasMore={})", 
+                    page.messages().size(), conversationId, userId, page.hasMore());
+
+                MessageHistoryResponse response = MessageHistoryResponse.builder()
+                    .conversationId(conversationId)
+                    .messages(page.messages())
+                    .nextCursor(page.nextCursor())
+                    .hasMore(page.hasMore())
+                    .count(page.messages().size())
+                    .build();
 
-        // Task T080: Get conversation to check join date for filtering
-        return conversationRepository.findByConversationId(conversationId)
-            .flatMap(conversation -> {
-                // Determine if join-date filtering applies (Task T080)
-                Instant joinDate = null;
-                if (userId != null && conversation.getType() == ConversationType.GROUP) {
-                    if (conversation.getParticipantJoinDates() != null) {
-                        joinDate = conversation.getParticipantJoinDates().get(userId);
-                        if (joinDate != null) {
-                            log.debug("Applying join-date filter for userId={}, joinDate={}", userId, joinDate);
-                        }
-                    }
-                }
-
-                final Instant filterJoinDate = joinDate;
-
-                // Parse cursor timestamp if provided
-                Mono<List<Message>> messagesMono;
-                if (before != null && !before.trim().isEmpty()) {
-                    try {
-                        Instant cursor = Instant.parse(before);
-                        log.debug("Using cursor-based pagination: before={}", cursor);
-
-                        // Apply join date filter if needed
-                        if (filterJoinDate != null) {
-                            messagesMono = messageRepository
-                                .findByConversationIdAndTimestampBefore(conversationId, cursor, PageRequest.of(0, finalLimit))
-                                .filter(msg -> !msg.getTimestamp().isBefore(filterJoinDate))
-                                .collectList();
-                        } else {
-                            messagesMono = messageRepository
-                                .findByConversationIdAndTimestampBefore(conversationId, cursor, PageRequest.of(0, finalLimit))
-                                .collectList();
-                        }
-                    } catch (Exception e) {
-                        log.warn("Invalid 'before' parameter: {}. Ignoring cursor.", before);
-                        // Fallback to first page if cursor is invalid
-                        if (filterJoinDate != null) {
-                            messagesMono = messageRepository
-                                .findByConversationIdOrderByTimestampDesc(conversationId, PageRequest.of(0, finalLimit))
-                                .filter(msg -> !msg.getTimestamp().isBefore(filterJoinDate))
-                                .collectList();
-                        } else {
-                            messagesMono = messageRepository
-                                .findByConversationIdOrderByTimestampDesc(conversationId, PageRequest.of(0, finalLimit))
-                                .collectList();
-                        }
-                    }
-                } else {
-                    // First page - no cursor
-                    if (filterJoinDate != null) {
-                        messagesMono = messageRepository
-                            .findByConversationIdOrderByTimestampDesc(conversationId, PageRequest.of(0, finalLimit))
-                            .filter(msg -> !msg.getTimestamp().isBefore(filterJoinDate))
-                            .collectList();
-                    } else {
-                        messagesMono = messageRepository
-                            .findByConversationIdOrderByTimestampDesc(conversationId, PageRequest.of(0, finalLimit))
-                            .collectList();
-                    }
-                }
-
-                // Build response
-                return messagesMono
-                    .map(messages -> {
-                        log.info("Retrieved {} messages for conversation: {} (userId={}, joinDateFilter={})", 
-                            messages.size(), conversationId, userId, filterJoinDate != null);
-
-                        // Calculate next cursor (oldest message timestamp)
-                        String nextCursor = null;
-                        if (!messages.isEmpty() && messages.size() == finalLimit) {
-                            // More messages may exist - provide next cursor
-                            Message oldestMessage = messages.get(messages.size() - 1);
-                            nextCursor = oldestMessage.getTimestamp().toString();
-                        }
-
-                        MessageHistoryResponse response = MessageHistoryResponse.builder()
-                            .conversationId(conversationId)
-                            .messages(messages)
-                            .nextCursor(nextCursor)
-                            .hasMore(nextCursor != null)
-                            .count(messages.size())
-                            .build();
-
-                        return ResponseEntity.ok(response);
-                    });
-            })
-            .switchIfEmpty(Mono.just(ResponseEntity.ok(MessageHistoryResponse.builder()
-                .conversationId(conversationId)
-                .messages(List.of())
-                .hasMore(false)
-                .count(0)
-                .build())))
-            .defaultIfEmpty(ResponseEntity.ok(MessageHistoryResponse.builder()
-                .conversationId(conversationId)
-                .messages(List.of())
-                .hasMore(false)
-                .count(0)
-                .build()));
+                return ResponseEntity.ok(response);
+            });
+    }
+
+    /**
+     * Exception handler for an undecodable 'before' cursor.
+     * 
+     * Returns HTTP 400 Bad Request.
+     * 
+     * @param ex InvalidCursorException with the rejected cursor
+     * @return ResponseEntity with HTTP 400 and error message
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        log.warn("Invalid 'before' parameter: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .error("Invalid Cursor")
+            .message(ex.getMessage())
+            .timestamp(Instant.now())
+            .build();
+
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    /**
+     * The 'before' parameter is neither a nextCursor nor an ISO-8601 timestamp
+     */
+    private static class InvalidCursorException extends RuntimeException {
+
+        InvalidCursorException(String cursor, IllegalArgumentException cause) {
+            super("Invalid 'before' cursor: " + cursor, cause);
+        }
+    }
+
+    /**
+     * Error response DTO for exception handling
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    private static class ErrorResponse {
+        private String error;
+        private String message;
+        private Instant timestamp;
     }
 
     /**
@@ -366,7 +331,7 @@ public class ConversationController {
         private List<Message> messages;
 
         /**
-         * Cursor for next page (timestamp of oldest message in current page)
+         * Opaque cursor for next page (position of oldest message in current page)
          * Use this value in the 'before' parameter to fetch the next page
          */
         private String nextCursor;
@@ -1,8 +1,11 @@
 package com.chat4all.message.api;
 
+import com.chat4all.message.api.dto.BatchSendResult;
 import com.chat4all.message.api.dto.SendMessageRequest;
 import com.chat4all.message.api.dto.SendMessageResponse;
 import com.chat4all.message.domain.Message;
+import com.chat4all.message.service.AcceptOutcome;
+import com.chat4all.message.service.DuplicateMessageException;
 import com.chat4all.message.service.MessageService;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -13,21 +16,35 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Reactive REST Controller for message operations
  * 
  * Endpoints:
  * - POST /messages - Accept a new message for processing (returns HTTP 202)
+ * - POST /messages/batch - Accept a batch of messages (JSON array or NDJSON in, NDJSON results out)
  * - GET /messages/{id}/status - Get message delivery status
  * 
  * Security: Protected by API Gateway OAuth2 (scope: messages:write)
@@ -47,6 +64,16 @@ public class MessageController {
 
     private final MessageService messageService;
     private final MeterRegistry meterRegistry;
+    private final Validator validator;
+
+    @Value("${message.batch.max-size:1000}")
+    private int batchMaxSize;
+
+    @Value("${message.batch.chunk-size:100}")
+    private int batchChunkSize;
+
+    @Value("${message.batch.chunk-delay-ms:20}")
+    private long batchChunkDelayMs;
 
     /**
      * Accepts a new message for processing (reactive).
@@ -89,6 +116,10 @@ public class MessageController {
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error"
+        ),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Datastore temporarily unavailable (retry later)"
         )
     })
     public Mono<ResponseEntity<SendMessageResponse>> sendMessage(
@@ -98,25 +129,10 @@ public class MessageController {
             request.getConversationId(), request.getSenderId(), request.getChannel());
 
         // Metric: Count inbound messages by channel (T112)
-        Counter.builder("messages.inbound.total")
-            .tag("channel", request.getChannel() != null ? request.getChannel().name() : "UNKNOWN")
-            .description("Total number of inbound messages received")
-            .register(meterRegistry)
-            .increment();
+        countInbound(request);
 
         // Convert DTO to Message entity
-        Message message = Message.builder()
-            .messageId(request.getMessageId()) // May be null, will be generated by service
-            .conversationId(request.getConversationId())
-            .senderId(request.getSenderId())
-            .recipientIds(request.getRecipientIds())
-            .content(request.getContent())
-            .contentType(request.getContentType())
-            .fileId(request.getFileId()) // Deprecated - kept for backward compatibility
-            .fileIds(request.getFileIds()) // New: supports multiple file attachments (T072)
-            .channel(request.getChannel())
-            .timestamp(Instant.now())
-            .build();
+        Message message = toMessage(request);
 
         // Accept message (persist + publish)
         return messageService.acceptMessage(message)
@@ -137,6 +153,62 @@ public class MessageController {
             });
     }
 
+    /**
+     * Accepts a batch of messages for processing (reactive, streaming).
+     * 
+     * Endpoint: POST /api/messages/batch
+     * Request: JSON array or NDJSON stream (application/x-ndjson) of SendMessageRequest
+     * Response: HTTP 200 with an NDJSON stream of BatchSendResult, one line per message
+     * 
+     * Flow:
+     * 1. Validate each message (same constraints as POST /api/messages)
+     * 2. Group valid messages into chunks (message.batch.chunk-size, or whatever arrived
+     *    within message.batch.chunk-delay-ms)
+     * 3. Call MessageService.acceptMessages() per chunk: one idempotency claim, one bulk
+     *    insert and one Kafka producer batch per chunk
+     * 4. Stream each chunk's results as soon as it completes, in input order
+     * 
+     * Rejected items (invalid, duplicate, failed) do not fail the batch; each line carries
+     * the HTTP status the item would have had on its own. Reading stops at the first item
+     * beyond message.batch.max-size, which gets a single 413 line.
+     * 
+     * @param requests Messages to send
+     * @return Flux<BatchSendResult> Per-item results (NDJSON)
+     */
+    @PostMapping(
+        value = "/batch",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @Operation(
+        summary = "Send a batch of messages",
+        description = "Accepts up to message.batch.max-size messages (JSON array or NDJSON) for asynchronous delivery. Streams one NDJSON result per message (202 accepted, 400 invalid, 409 duplicate, 413 over the batch limit, 503 datastore unavailable, 500 error)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Per-message results streamed as NDJSON",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                schema = @Schema(implementation = BatchSendResult.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Malformed request body"
+        )
+    })
+    public Flux<BatchSendResult> sendMessages(
+        @Parameter(description = "Messages to send", required = true)
+        @RequestBody Flux<SendMessageRequest> requests) {
+
+        // One item past the limit is read to report it; the rest of the body is not consumed
+        return requests
+            .take(batchMaxSize + 1L)
+            .index()
+            .map(item -> toBatchItem(item.getT1(), item.getT2()))
+            .bufferTimeout(batchChunkSize, Duration.ofMillis(batchChunkDelayMs))
+            .concatMap(this::acceptChunk);
+    }
+
     /**
      * Retrieves the current status of a message (reactive).
      * 
@@ -166,16 +238,168 @@ public class MessageController {
             });
     }
 
+    /**
+     * Validates one submitted item.
+     */
+    private BatchItem toBatchItem(long index, SendMessageRequest request) {
+        if (index >= batchMaxSize) {
+            return BatchItem.rejected(index, request, HttpStatus.PAYLOAD_TOO_LARGE, "Batch Too Large",
+                "Batch exceeds " + batchMaxSize + " messages; remaining items were not read");
+        }
+
+        Set<ConstraintViolation<SendMessageRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String details = violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+            return BatchItem.rejected(index, request, HttpStatus.BAD_REQUEST, "Invalid Request", details);
+        }
+
+        return new BatchItem(index, request, null);
+    }
+
+    /**
+     * Accepts the valid items of a chunk and merges their outcomes with the rejected ones.
+     */
+    private Flux<BatchSendResult> acceptChunk(List<BatchItem> chunk) {
+        List<BatchItem> valid = chunk.stream().filter(item -> item.rejection() == null).toList();
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(chunk).map(BatchItem::rejection);
+        }
+
+        valid.forEach(item -> countInbound(item.request()));
+        List<Message> messages = valid.stream().map(item -> toMessage(item.request())).toList();
+
+        return messageService.acceptMessages(messages)
+            .collectList()
+            .map(outcomes -> {
+                Map<Long, BatchSendResult> resultsByIndex = new HashMap<>();
+                for (int i = 0; i < outcomes.size(); i++) {
+                    resultsByIndex.put(valid.get(i).index(), toResult(valid.get(i).index(), outcomes.get(i)));
+                }
+
+                log.info("Message batch chunk processed: {} items, {} accepted", chunk.size(),
+                    outcomes.stream().filter(AcceptOutcome::isAccepted).count());
+                return resultsByIndex;
+            })
+            .onErrorResume(e -> {
+                // Chunk-level failure (e.g. participant lookup): fail its items, not the stream
+                log.error("Message batch chunk failed ({} items): {}", valid.size(), e.getMessage(), e);
+                HttpStatus status = errorStatus(e);
+                Map<Long, BatchSendResult> resultsByIndex = new HashMap<>();
+                valid.forEach(item -> resultsByIndex.put(item.index(), BatchItem.rejected(item.index(), item.request(),
+                    status, errorLabel(status), e.getMessage()).rejection()));
+                return Mono.just(resultsByIndex);
+            })
+            .flatMapIterable(resultsByIndex -> chunk.stream()
+                .map(item -> item.rejection() != null ? item.rejection() : resultsByIndex.get(item.index()))
+                .toList());
+    }
+
+    private static BatchSendResult toResult(long index, AcceptOutcome outcome) {
+        Message message = outcome.message();
+        if (outcome.isAccepted()) {
+            return BatchSendResult.builder()
+                .index(index)
+                .status(HttpStatus.ACCEPTED.value())
+                .messageId(message.getMessageId())
+                .conversationId(message.getConversationId())
+                .messageStatus(message.getStatus())
+                .acceptedAt(message.getCreatedAt())
+                .statusUrl("/api/messages/" + message.getMessageId() + "/status")
+                .build();
+        }
+
+        HttpStatus status = errorStatus(outcome.error());
+        return BatchSendResult.builder()
+            .index(index)
+            .status(status.value())
+            .messageId(message.getMessageId())
+            .conversationId(message.getConversationId())
+            .error(errorLabel(status))
+            .message(outcome.error().getMessage())
+            .build();
+    }
+
+    /**
+     * HTTP status of a rejected message: 409 for duplicates, 503 when the datastore is
+     * unreachable or timed out (worth retrying), 500 otherwise.
+     */
+    private static HttpStatus errorStatus(Throwable error) {
+        if (error instanceof DuplicateMessageException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (error instanceof DataAccessResourceFailureException || error instanceof TransientDataAccessException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private static String errorLabel(HttpStatus status) {
+        return switch (status) {
+            case CONFLICT -> "Duplicate Message";
+            case SERVICE_UNAVAILABLE -> "Service Unavailable";
+            default -> "Internal Error";
+        };
+    }
+
+    /**
+     * Converts a send request DTO to a Message entity.
+     */
+    private static Message toMessage(SendMessageRequest request) {
+        return Message.builder()
+            .messageId(request.getMessageId()) // May be null, will be generated by service
+            .conversationId(request.getConversationId())
+            .senderId(request.getSenderId())
+            .recipientIds(request.getRecipientIds())
+            .content(request.getContent())
+            .contentType(request.getContentType())
+            .fileId(request.getFileId()) // Deprecated - kept for backward compatibility
+            .fileIds(request.getFileIds()) // New: supports multiple file attachments (T072)
+            .channel(request.getChannel())
+            .timestamp(Instant.now())
+            .build();
+    }
+
+    /**
+     * Metric: Count inbound messages by channel (T112)
+     */
+    private void countInbound(SendMessageRequest request) {
+        Counter.builder("messages.inbound.total")
+            .tag("channel", request.getChannel() != null ? request.getChannel().name() : "UNKNOWN")
+            .description("Total number of inbound messages received")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * A submitted batch item; rejection is set if it must not be sent.
+     */
+    private record BatchItem(long index, SendMessageRequest request, BatchSendResult rejection) {
+
+        static BatchItem rejected(long index, SendMessageRequest request, HttpStatus status, String error, String message) {
+            return new BatchItem(index, request, BatchSendResult.builder()
+                .index(index)
+                .status(status.value())
+                .messageId(request.getMessageId())
+                .conversationId(request.getConversationId())
+                .error(error)
+                .message(message)
+                .build());
+        }
+    }
+
     /**
      * Exception handler for duplicate message errors.
      * 
      * Returns HTTP 409 Conflict when idempotency check detects a duplicate.
      * 
-     * @param ex IllegalStateException with duplicate message details
+     * @param ex DuplicateMessageException with duplicate message details
      * @return ResponseEntity with HTTP 409 and error message
      */
-    @ExceptionHandler(IllegalStateException.class)
-    public ResponseEntity<ErrorResponse> handleDuplicateMessage(IllegalStateException ex) {
+    @ExceptionHandler(DuplicateMessageException.class)
+    public ResponseEntity<ErrorResponse> handleDuplicateMessage(DuplicateMessageException ex) {
         log.warn("Duplicate message request: {}", ex.getMessage());
 
         ErrorResponse error = ErrorResponse.builder()
@@ -187,6 +411,28 @@ public class MessageController {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    /**
+     * Exception handler for datastore outages.
+     * 
+     * Returns HTTP 503 Service Unavailable when MongoDB is unreachable or timed out, so
+     * clients retry instead of treating the message as a duplicate or a bad request.
+     * 
+     * @param ex Data access exception
+     * @return ResponseEntity with HTTP 503 and error message
+     */
+    @ExceptionHandler({DataAccessResourceFailureException.class, TransientDataAccessException.class})
+    public ResponseEntity<ErrorResponse> handleDatastoreUnavailable(RuntimeException ex) {
+        log.error("Datastore unavailable: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+            .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+            .message(ex.getMessage())
+            .timestamp(Instant.now())
+            .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+
     /**
      * Error response DTO for exception handling
      */
@@ -0,0 +1,73 @@
+package com.chat4all.message.api.dto;
+
+import com.chat4all.common.constant.MessageStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Per-item result of the batch send operation
+ * 
+ * Streamed by POST /api/messages/batch, one NDJSON line per submitted message (in input
+ * order), as soon as the chunk containing the message has been accepted or rejected.
+ * 
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchSendResult {
+
+    /**
+     * Position of the message in the request (0-based)
+     */
+    private long index;
+
+    /**
+     * HTTP status the item would have had as a single POST /api/messages
+     * (202 accepted, 400 invalid, 409 duplicate, 413 over batch limit, 500 error)
+     */
+    private int status;
+
+    /**
+     * Unique message identifier (absent if the item was rejected before an ID was assigned)
+     */
+    private String messageId;
+
+    /**
+     * Conversation ID
+     */
+    private String conversationId;
+
+    /**
+     * Message status (PENDING when accepted)
+     */
+    private MessageStatus messageStatus;
+
+    /**
+     * Timestamp when message was accepted
+     */
+    private Instant acceptedAt;
+
+    /**
+     * URL to check message status (accepted items only)
+     */
+    private String statusUrl;
+
+    /**
+     * Error type (rejected items only)
+     */
+    private String error;
+
+    /**
+     * Error details (rejected items only)
+     */
+    private String message;
+}
@@ -1,11 +1,13 @@
 package com.chat4all.message.config;
 
+import com.mongodb.MongoCommandException;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
 import org.springframework.stereotype.Component;
 
 /**
@@ -16,15 +18,20 @@ import org.springframework.stereotype.Component;
  * 
  * Performance Requirements:
  * - SC-009: Message history retrieval <2s for conversations with 10K+ messages
- * - Pagination queries use compound index: {conversationId: 1, timestamp: -1}
+ * - Pagination queries use compound index: {conversation_id: 1, timestamp: -1, _id: -1}
  * 
  * Indexes Created:
  * 1. messages collection:
- *    - {conversationId: 1, timestamp: -1} - For history retrieval with pagination
+ *    - {message_id: 1} unique - Source of truth for message idempotency (FR-006)
+ *    - {conversation_id: 1, timestamp: -1, _id: -1} - For history retrieval (keyset pagination)
  *    - {metadata.platform_message_id: 1} - For webhook idempotency checks
  * 
  * 2. conversations collection:
- *    - {participants.userId: 1, lastMessageAt: -1} - For conversation listing
+ *    - {participants: 1, last_message_at: -1} - For conversation listing (inbox)
+ * 
+ * 3. message_buckets collection (bucketed storage mode, see MessageBucketStore):
+ *    - {conversation_id: 1, bucket_start: -1} - For history reads and archiving
+ *    - {messages.message_id: 1} unique - For lookups and status updates of archived messages
  * 
  * Task: T061
  * 
@@ -36,6 +43,12 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class MongoIndexConfig {
 
+    /**
+     * MongoDB error codes: an index with the same name exists with other keys / options
+     */
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
     private final ReactiveMongoTemplate mongoTemplate;
 
     /**
@@ -48,8 +61,11 @@ public class MongoIndexConfig {
         try {
             log.info("Creating MongoDB indexes for message-service...");
 
+            // Index 0: Unique message_id (duplicate inserts fail with DuplicateKeyException)
+            createMessageIdUniqueIndex();
+
             // Index 1: Compound index for message history retrieval
-            // Supports queries: db.messages.find({conversationId: "xxx"}).sort({timestamp: -1}).limit(50)
+            // Supports queries: db.messages.find({conversation_id: "xxx", timestamp: {$lte: t}}).sort({timestamp: -1, _id: -1}).limit(51)
             createMessageHistoryIndex();
 
             // Index 2: Index for webhook idempotency checks
@@ -57,9 +73,13 @@ public class MongoIndexConfig {
             createPlatformMessageIdIndex();
 
             // Index 3: Index for conversation listing by participant
-            // Supports queries: db.conversations.find({"participants.userId": "user123"}).sort({lastMessageAt: -1})
+            // Supports queries: db.conversations.find({"participants": "user123"}).sort({last_message_at: -1})
             createConversationParticipantIndex();
 
+            // Index 4: Indexes of the bucketed storage mode (empty collection otherwise)
+            // Supports queries: db.message_buckets.find({conversation_id: "xxx", bucket_start: {$lte: t}}).sort({bucket_start: -1})
+            createMessageBucketIndexes();
+
             log.info("MongoDB indexes created successfully");
 
         } catch (Exception e) {
@@ -68,22 +88,54 @@ public class MongoIndexConfig {
         }
     }
 
+    /**
+     * Creates unique index on message_id
+     * 
+     * Index: {message_id: 1} unique
+     * Purpose: MessageService.acceptMessage inserts without a prior read and relies on
+     * this index to reject duplicates, so it must exist even with auto-index-creation off
+     */
+    private void createMessageIdUniqueIndex() {
+        try {
+            Index index = new Index()
+                .on("message_id", Sort.Direction.ASC)
+                .named("message_id")
+                .unique();
+
+            mongoTemplate.indexOps("messages")
+                .ensureIndex(index)
+                .subscribe(
+                    success -> log.info("Created index: message_id (unique) on messages collection"),
+                    error -> log.debug("Index message_id may already exist: {}", error.getMessage())
+                );
+
+        } catch (Exception e) {
+            log.debug("Index message_id may already exist: {}", e.getMessage());
+        }
+    }
+
     /**
      * Creates compound index on messages collection for history retrieval
      * 
-     * Index: {conversationId: 1, timestamp: -1}
+     * Index: {conversation_id: 1, timestamp: -1, _id: -1}
      * Purpose: Optimize GET /conversations/{id}/messages?before=xxx&limit=50
-     * Performance: Enables efficient pagination with descending timestamp sort
+     * Performance: Keyset pagination on (timestamp, _id) is one range scan per page.
+     * An index left by an earlier version under the same name (other keys) is replaced.
      */
     private void createMessageHistoryIndex() {
         try {
             Index index = new Index()
-                .on("conversationId", Sort.Direction.ASC)
+                .on("conversation_id", Sort.Direction.ASC)
                 .on("timestamp", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
                 .named("idx_conversation_timestamp");
 
-            mongoTemplate.indexOps("messages")
-                .ensureIndex(index)
+            ReactiveIndexOperations indexOps = mongoTemplate.indexOps("messages");
+            indexOps.ensureIndex(index)
+                .onErrorResume(MongoIndexConfig::isIndexConflict, e -> {
+                    log.info("Replacing outdated index idx_conversation_timestamp on messages collection");
+                    return indexOps.dropIndex("idx_conversation_timestamp").then(indexOps.ensureIndex(index));
+                })
                 .subscribe(
                     success -> log.info("Created index: idx_conversation_timestamp on messages collection"),
                     error -> log.debug("Index idx_conversation_timestamp may already exist: {}", error.getMessage())
@@ -94,6 +146,20 @@ public class MongoIndexConfig {
         }
     }
 
+    /**
+     * Whether index creation failed because an index with the same name but other keys or
+     * options exists (the driver error may be wrapped by Spring's exception translation).
+     */
+    private static boolean isIndexConflict(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() != t ? t.getCause() : null) {
+            if (t instanceof MongoCommandException commandException) {
+                int code = commandException.getErrorCode();
+                return code == INDEX_KEY_SPECS_CONFLICT || code == INDEX_OPTIONS_CONFLICT;
+            }
+        }
+        return false;
+    }
+
     /**
      * Creates index on platform_message_id for webhook idempotency
      * 
@@ -120,29 +186,61 @@ public class MongoIndexConfig {
         }
     }
 
+    /**
+     * Creates the message_buckets indexes
+     * 
+     * Index: {conversation_id: 1, bucket_start: -1} - buckets of a conversation, newest first
+     * Index: {messages.message_id: 1} unique - multikey, one entry per archived message;
+     * also prevents a message from being archived into two buckets
+     */
+    private void createMessageBucketIndexes() {
+        try {
+            Index history = new Index()
+                .on("conversation_id", Sort.Direction.ASC)
+                .on("bucket_start", Sort.Direction.DESC)
+                .named("idx_conversation_bucket_start");
+            Index messageId = new Index()
+                .on("messages.message_id", Sort.Direction.ASC)
+                .named("idx_bucket_message_id")
+                .unique();
+
+            ReactiveIndexOperations indexOps = mongoTemplate.indexOps("message_buckets");
+            indexOps.ensureIndex(history)
+                .then(indexOps.ensureIndex(messageId))
+                .subscribe(
+                    success -> log.info("Created indexes: idx_conversation_bucket_start, idx_bucket_message_id on message_buckets collection"),
+                    error -> log.debug("Indexes of message_buckets may already exist: {}", error.getMessage())
+                );
+
+        } catch (Exception e) {
+            log.debug("Indexes of message_buckets may already exist: {}", e.getMessage());
+        }
+    }
+
     /**
      * Creates compound index on conversations collection for participant queries
      * 
-     * Index: {participants.userId: 1, lastMessageAt: -1}
+     * Index: {participants: 1, last_message_at: -1} (multikey on the participant ID array)
      * Purpose: Optimize GET /conversations?participantId=xxx queries
-     * Performance: Enables efficient filtering and sorting
+     * Performance: The inbox is one index scan; messageCount and the last message preview
+     * are stored on the conversation, so no per-row history lookups are needed
      */
     private void createConversationParticipantIndex() {
         try {
             Index index = new Index()
-                .on("participants.userId", Sort.Direction.ASC)
-                .on("lastMessageAt", Sort.Direction.DESC)
-                .named("idx_participant_lastmessage");
+                .on("participants", Sort.Direction.ASC)
+                .on("last_message_at", Sort.Direction.DESC)
+                .named("idx_participants_last_message_at");
 
             mongoTemplate.indexOps("conversations")
                 .ensureIndex(index)
                 .subscribe(
-                    success -> log.info("Created index: idx_participant_lastmessage on conversations collection"),
-                    error -> log.debug("Index idx_participant_lastmessage may already exist: {}", error.getMessage())
+                    success -> log.info("Created index: idx_participants_last_message_at on conversations collection"),
+                    error -> log.debug("Index idx_participants_last_message_at may already exist: {}", error.getMessage())
                 );
 
         } catch (Exception e) {
-            log.debug("Index idx_participant_lastmessage may already exist: {}", e.getMessage());
+            log.debug("Index idx_participants_last_message_at may already exist: {}", e.getMessage());
         }
     }
 }
@@ -18,9 +18,10 @@ import java.util.Map;
  * 
  * Enables two WebSocket endpoints:
  * 
- * 1. /ws/messages - Message status updates (broadcast)
+ * 1. /ws/messages - Message status updates (subscription-scoped)
  *    - Real-time message status updates (PENDING → SENT → DELIVERED → READ)
- *    - Broadcast to all connected clients
+ *    - Pushed to the sessions subscribed to the message's conversation
+ *      (explicit conversationId subscriptions, or all conversations of the user)
  * 
  * 2. /ws/chat - Real-time chat message delivery (user-specific)
  *    - MESSAGE_CREATED events (new messages in conversations)
@@ -31,12 +32,12 @@ import java.util.Map;
  * Architecture:
  * - Reactive WebSocket using Spring WebFlux
  * - User-specific message queues for /ws/chat
- * - Broadcast sink for /ws/messages
+ * - Subscription index (conversation → sessions) for /ws/messages
  * 
  * Example Client Usage (JavaScript):
  * ```javascript
- * // Status updates (broadcast)
- * const wsStatus = new WebSocket('ws://localhost:8081/ws/messages');
+ * // Status updates (one conversation; omit conversationId for all of the user's)
+ * const wsStatus = new WebSocket('ws://localhost:8081/ws/messages?userId=user123&conversationId=conv-456');
  * wsStatus.onmessage = (event) => {
  *   const update = JSON.parse(event.data);
  *   console.log('Status update:', update);
@@ -64,7 +65,7 @@ public class WebSocketConfig {
      * Maps WebSocket endpoints to handlers
      * 
      * Routes:
-     * - /ws/messages -> MessageStatusWebSocketHandler (status updates, broadcast)
+     * - /ws/messages -> MessageStatusWebSocketHandler (status updates, subscription-scoped)
      * - /ws/chat -> WebSocketChatHandler (chat messages, user-specific)
      * 
      * @return HandlerMapping with WebSocket routes
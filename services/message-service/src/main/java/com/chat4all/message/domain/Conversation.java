@@ -38,7 +38,7 @@ import java.util.Map;
 @AllArgsConstructor
 @Document(collection = "conversations")
 @CompoundIndexes({
-    @CompoundIndex(name = "idx_participants_lastmessage", def = "{'participants.userId': 1, 'lastMessageAt': -1}"),
+    @CompoundIndex(name = "idx_participants_last_message_at", def = "{'participants': 1, 'lastMessageAt': -1}"),
     @CompoundIndex(name = "idx_channel_archived", def = "{'primaryChannel': 1, 'archived': 1}")
 })
 public class Conversation {
@@ -133,6 +133,13 @@ public class Conversation {
     @Field("last_message_at")
     private Instant lastMessageAt;
 
+    /**
+     * Preview of the most recent message (inbox rendering without a history lookup)
+     * Maintained atomically together with messageCount and lastMessageAt
+     */
+    @Field("last_message")
+    private LastMessage lastMessage;
+
     /**
      * Conversation creation timestamp
      */
@@ -190,6 +197,43 @@ public class Conversation {
         private Instant leftAt;
     }
 
+    /**
+     * Last message preview nested object
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LastMessage {
+        /**
+         * Message identifier
+         */
+        @Field("message_id")
+        private String messageId;
+
+        /**
+         * User ID of the message sender
+         */
+        @Field("sender_id")
+        private String senderId;
+
+        /**
+         * Message content truncated for display
+         */
+        private String snippet;
+
+        /**
+         * Content type of the message (TEXT, IMAGE, ...)
+         */
+        @Field("content_type")
+        private String contentType;
+
+        /**
+         * Message timestamp
+         */
+        private Instant timestamp;
+    }
+
     /**
      * Conversation metadata nested object
      */
@@ -0,0 +1,71 @@
+package com.chat4all.message.domain;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversation Participants
+ *
+ * Immutable membership snapshot of a conversation: type, participant IDs and join dates
+ * (Task T080). This is the subset of {@link Conversation} that the message paths need,
+ * held by ParticipantCache so recipient population and history filtering do not load
+ * the whole conversation document.
+ *
+ * @param conversationId Conversation identifier
+ * @param type Conversation type
+ * @param participants Participant user IDs
+ * @param joinDates Join date per participant (may not contain every participant)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record ConversationParticipants(
+    String conversationId,
+    ConversationType type,
+    List<String> participants,
+    Map<String, Instant> joinDates
+) {
+
+    public ConversationParticipants {
+        participants = participants != null ? List.copyOf(participants) : List.of();
+        joinDates = joinDates != null ? Map.copyOf(joinDates) : Map.of();
+    }
+
+    /**
+     * Builds a snapshot from a (possibly projected) conversation document.
+     *
+     * @param conversation Conversation document
+     * @return Membership snapshot
+     */
+    public static ConversationParticipants of(Conversation conversation) {
+        return new ConversationParticipants(
+            conversation.getConversationId(),
+            conversation.getType(),
+            conversation.getParticipants(),
+            conversation.getParticipantJoinDates()
+        );
+    }
+
+    /**
+     * Gets all participants except the sender (message recipients).
+     *
+     * @param senderId Sender user ID
+     * @return Recipient user IDs
+     */
+    public List<String> recipientsExcluding(String senderId) {
+        return participants.stream()
+            .filter(participantId -> !participantId.equals(senderId))
+            .toList();
+    }
+
+    /**
+     * Gets the date a participant joined the conversation.
+     *
+     * @param userId Participant user ID
+     * @return Join date, or null if unknown
+     */
+    public Instant joinDateOf(String userId) {
+        return userId != null ? joinDates.get(userId) : null;
+    }
+}
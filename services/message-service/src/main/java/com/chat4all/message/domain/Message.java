@@ -41,7 +41,7 @@ import java.util.Map;
 @AllArgsConstructor
 @Document(collection = "messages")
 @CompoundIndexes({
-    @CompoundIndex(name = "idx_conversation_timestamp", def = "{'conversationId': 1, 'timestamp': -1}"),
+    @CompoundIndex(name = "idx_conversation_timestamp", def = "{'conversationId': 1, 'timestamp': -1, '_id': -1}"),
     @CompoundIndex(name = "idx_sender_timestamp", def = "{'senderId': 1, 'timestamp': -1}"),
     @CompoundIndex(name = "idx_status_updated", def = "{'status': 1, 'updatedAt': 1}")
 })
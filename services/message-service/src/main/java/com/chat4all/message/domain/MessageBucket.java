@@ -0,0 +1,86 @@
+package com.chat4all.message.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Message Bucket Entity for MongoDB (bucketed storage mode)
+ *
+ * Packs archived messages of one conversation into a single document covering a
+ * time range (at most message.storage.buckets.max-messages messages and
+ * max-span-minutes minutes). Only used when message.storage.mode=bucketed.
+ *
+ * Collection: message_buckets
+ *
+ * Layout:
+ * - Buckets of a conversation never overlap in time, so ordering them by bucket_start
+ *   orders their messages
+ * - messages holds the message documents exactly as stored in the messages collection
+ *   (same field names); they are not sorted inside a bucket
+ * - _id: "{conversationId}:{_id of the first message}" (deterministic, so archiving the
+ *   same messages twice cannot create a second bucket)
+ *
+ * Indexes (created by MongoIndexConfig, not by entity annotations: nested message
+ * indexes must not be derived here):
+ * - {conversation_id: 1, bucket_start: -1} - history reads and archiving
+ * - {messages.message_id: 1} unique - lookups and status updates of archived messages
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ * @see Message
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "message_buckets")
+public class MessageBucket {
+
+    /**
+     * Bucket identifier: "{conversationId}:{_id of the first message}"
+     */
+    @Id
+    private String id;
+
+    /**
+     * Conversation all messages of the bucket belong to
+     */
+    @Field("conversation_id")
+    private String conversationId;
+
+    /**
+     * Timestamp of the oldest message in the bucket
+     */
+    @Field("bucket_start")
+    private Instant bucketStart;
+
+    /**
+     * Timestamp of the newest message in the bucket
+     */
+    @Field("bucket_end")
+    private Instant bucketEnd;
+
+    /**
+     * Number of messages in the bucket
+     */
+    private int count;
+
+    /**
+     * Message documents (raw, as written by the Message mapping)
+     */
+    private List<org.bson.Document> messages;
+
+    /**
+     * Document last update timestamp
+     */
+    @Field("updated_at")
+    private Instant updatedAt;
+}
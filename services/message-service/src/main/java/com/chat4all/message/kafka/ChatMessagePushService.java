@@ -1,9 +1,11 @@
 package com.chat4all.message.kafka;
 
 import com.chat4all.common.event.MessageEvent;
+import com.chat4all.message.websocket.ClusterPushRouter;
 import com.chat4all.message.websocket.WebSocketChatHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -11,6 +13,7 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -27,17 +30,18 @@ import java.util.List;
  * Architecture:
  * - Listens to 'chat-events' Kafka topic
  * - Filters for MESSAGE_CREATED and MESSAGE_RECEIVED events
- * - Pushes to WebSocket clients based on recipientIds
+ * - Pushes to WebSocket clients based on recipientIds, on whichever node they are
+ *   connected (ClusterPushRouter: presence lookup + node-addressed delivery)
  * - Fan-out delivery: One message event → Multiple WebSocket deliveries
  * 
  * Event Flow:
  * 1. User sends message → MessageService publishes MESSAGE_CREATED to Kafka
  * 2. This service consumes MESSAGE_CREATED event
  * 3. Extracts recipientIds from event
- * 4. For each recipientId:
- *    a. Check if user has active WebSocket connection
- *    b. If connected, push message event to user's WebSocket sink
- *    c. If not connected, skip (user will fetch via REST API)
+ * 4. ClusterPushRouter looks up the nodes holding the recipients' sessions:
+ *    a. Recipients connected here: pushed to their WebSocket sinks
+ *    b. Recipients connected to other nodes: forwarded once per node (Redis pub/sub)
+ *    c. Offline recipients: skipped (user will fetch via REST API)
  * 5. Acknowledge Kafka message
  * 
  * Security:
@@ -48,7 +52,8 @@ import java.util.List;
  * Performance:
  * - Non-blocking reactive implementation
  * - Minimal latency: Kafka → WebSocket < 50ms
- * - Scales horizontally: Multiple instances with Kafka consumer groups
+ * - Scales horizontally: each event is consumed by one instance (shared consumer group)
+ *   and sent only to the instances holding its recipients, never broadcast to all
  * 
  * Example Use Case (Group Chat):
  * - Admin sends message to group with 3 participants
@@ -58,15 +63,25 @@ import java.util.List;
  * - User2 is online → receives message instantly via WebSocket
  * - User3 is online → receives message instantly via WebSocket
  * 
+ * Not created while the storage migration tool runs (message.storage.migration.action
+ * set, see MessageBucketMigration): a migration must not join the push consumer group.
+ * 
  * @author Chat4All Team
  * @version 1.0.0
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "message.storage.migration.action", havingValue = "__none__", matchIfMissing = true)
 public class ChatMessagePushService {
 
+    /**
+     * Longest the consumer waits for an event's presence lookup and forwarding
+     */
+    private static final Duration ROUTE_TIMEOUT = Duration.ofSeconds(2);
+
     private final WebSocketChatHandler webSocketChatHandler;
+    private final ClusterPushRouter clusterPushRouter;
 
     /**
      * Consumes message events from Kafka and pushes to WebSocket clients
@@ -123,24 +138,11 @@ public class ChatMessagePushService {
                 messageEvent.getConversationId(),
                 recipientIds);
 
-            // Fan-out delivery: Push to each recipient
-            int deliveredCount = 0;
-            int skippedCount = 0;
-
-            for (String recipientId : recipientIds) {
-                // Check if recipient has active WebSocket connection
-                if (webSocketChatHandler.isUserConnected(recipientId)) {
-                    // Deliver message to user's WebSocket
-                    webSocketChatHandler.deliverToUser(recipientId, messageEvent);
-                    deliveredCount++;
-                    log.debug("Delivered message to user via WebSocket: userId={}, messageId={}", 
-                        recipientId, messageEvent.getMessageId());
-                } else {
-                    skippedCount++;
-                    log.debug("Skipped WebSocket delivery for offline user: userId={}, messageId={}", 
-                        recipientId, messageEvent.getMessageId());
-                }
-            }
+            // Fan-out delivery: local sessions and other nodes' sessions
+            // (blocking keeps the partition's event order per recipient)
+            Integer routed = clusterPushRouter.route(recipientIds, messageEvent).block(ROUTE_TIMEOUT);
+            int deliveredCount = routed != null ? routed : 0;
+            int skippedCount = recipientIds.size() - deliveredCount;
 
             log.info("WebSocket push completed: messageId={}, delivered={}, skipped={} (offline users)",
                 messageEvent.getMessageId(), deliveredCount, skippedCount);
@@ -11,7 +11,9 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -38,9 +40,13 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id:message-service-status-group}")
     private String groupId;
 
+    @Value("${message.status.update-batch-size:100}")
+    private int statusUpdateBatchSize;
+
     /**
      * Consumer factory for Map<String, Object> payloads
-     * Used for consuming status update events
+     * Used for consuming status update events, up to message.status.update-batch-size
+     * records per poll. Offsets are committed by the container after each batch is applied.
      */
     @Bean
     public ConsumerFactory<String, Map<String, Object>> statusUpdateConsumerFactory() {
@@ -52,7 +58,8 @@ public class KafkaConsumerConfig {
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, "java.util.Map");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false); // Committed per batch by the container
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, statusUpdateBatchSize);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         
         return new DefaultKafkaConsumerFactory<>(props);
@@ -60,6 +67,8 @@ public class KafkaConsumerConfig {
 
     /**
      * Kafka listener container factory for status updates
+     * Batch listener: each poll is applied with one MessageService.updateStatuses() call.
+     * A failed batch is redelivered (1s apart, 3 retries); re-applying it is idempotent.
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Map<String, Object>> statusUpdateKafkaListenerContainerFactory() {
@@ -67,6 +76,9 @@ public class KafkaConsumerConfig {
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(statusUpdateConsumerFactory());
         factory.setConcurrency(3); // 3 concurrent consumers for parallelism
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(1000L, 3)));
         return factory;
     }
 
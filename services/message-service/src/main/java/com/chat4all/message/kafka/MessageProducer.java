@@ -7,6 +7,8 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -94,6 +96,51 @@ public class MessageProducer {
         }
     }
 
+    /**
+     * Sends a batch of message events to Kafka.
+     * 
+     * All records are handed to the producer back-to-back, so they share its record
+     * batches (batch-size / linger-ms) instead of each waiting for a linger window.
+     * Ordering per conversation is preserved (same partition key, list order).
+     * 
+     * Async, fire-and-forget like {@link #sendMessageEvent(MessageEvent)}; one summary
+     * log line per batch instead of one per record.
+     * 
+     * @param events MessageEvents to publish
+     */
+    public void sendMessageEvents(List<MessageEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(events.size());
+        for (MessageEvent event : events) {
+            try {
+                CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(
+                    TOPIC_CHAT_EVENTS,
+                    event.getPartitionKey(),
+                    event
+                );
+
+                future.exceptionally(ex -> {
+                    log.error("Failed to publish message event: messageId={}, conversationId={}, error={}",
+                        event.getMessageId(), event.getConversationId(), ex.getMessage());
+                    return null;
+                });
+                futures.add(future);
+
+            } catch (Exception e) {
+                // Catch synchronous errors (e.g., serialization failures)
+                log.error("Synchronous error publishing message event: messageId={}, error={}",
+                    event.getMessageId(), e.getMessage(), e);
+            }
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenRun(() -> log.info("Message event batch published successfully: {} events, topic={}",
+                futures.size(), TOPIC_CHAT_EVENTS));
+    }
+
     /**
      * Sends a message event synchronously (blocks until sent).
      * 
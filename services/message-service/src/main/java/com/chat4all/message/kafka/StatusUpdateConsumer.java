@@ -2,29 +2,32 @@ package com.chat4all.message.kafka;
 
 import com.chat4all.common.constant.MessageStatus;
 import com.chat4all.common.event.MessageEvent;
+import com.chat4all.message.domain.Message;
 import com.chat4all.message.service.MessageService;
+import com.chat4all.message.service.StatusUpdate;
 import com.chat4all.message.websocket.MessageStatusWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Kafka Consumer for status-updates topic
- * 
+ *
  * Consumes status update events published by router-service and updates
  * message status in MongoDB with audit trail.
- * 
+ *
  * Topic: status-updates
  * Group ID: message-service-status-group
  * Concurrency: 3 parallel consumers
- * 
+ * Batch size: message.status.update-batch-size records per poll (default: 100)
+ *
  * Event Format:
  * {
  *   "messageId": "uuid",
@@ -33,114 +36,126 @@ import java.util.Map;
  *   "timestamp": "2025-11-24T18:30:00Z",
  *   "updatedBy": "router-service"
  * }
- * 
+ *
  * Flow:
- * 1. Receive status update event from Kafka
- * 2. Extract messageId and new status
- * 3. Call MessageService.updateStatus() (reactive)
- * 4. Update persisted in MongoDB with status history
- * 5. Acknowledge Kafka message (auto-commit)
- * 
+ * 1. Receive a batch of status update events from Kafka
+ * 2. Extract messageId and new status of each (malformed events are logged and skipped)
+ * 3. Call MessageService.updateStatuses() once for the whole batch (reactive); updates
+ *    for the same message are coalesced
+ * 4. Updates persisted in MongoDB with status history
+ * 5. Broadcast one STATUS_UPDATE per changed message to WebSocket clients
+ * 6. Acknowledge the batch (container commits offsets)
+ *
+ * Errors: unknown messages and invalid transitions are skipped by MessageService.
+ * Infrastructure errors (MongoDB unavailable...) fail the batch so the container
+ * redelivers it; re-applying a batch is idempotent.
+ *
+ * Not created while the storage migration tool runs (message.storage.migration.action
+ * set, see MessageBucketMigration), so a migration never consumes status updates.
+ *
  * @author Chat4All Team
- * @version 1.0.0
+ * @version 1.1.0
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "message.storage.migration.action", havingValue = "__none__", matchIfMissing = true)
 public class StatusUpdateConsumer {
 
     private final MessageService messageService;
     private final MessageStatusWebSocketHandler webSocketHandler;
 
     /**
-     * Consumes status update events from Kafka
-     * 
-     * @param statusUpdate Event payload containing messageId, status, etc.
-     * @param partition Kafka partition for logging
-     * @param offset Kafka offset for logging
+     * Consumes a batch of status update events from Kafka
+     *
+     * @param records Status update events (payload contains messageId, status, etc.)
      */
     @KafkaListener(
         topics = "status-updates",
         groupId = "message-service-status-group",
         containerFactory = "statusUpdateKafkaListenerContainerFactory"
     )
-    public void consumeStatusUpdate(
-        @Payload Map<String, Object> statusUpdate,
-        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-        @Header(KafkaHeaders.OFFSET) long offset
-    ) {
-        try {
-            // Extract event data
-            String messageId = (String) statusUpdate.get("messageId");
-            String statusStr = (String) statusUpdate.get("status");
-            String updatedBy = (String) statusUpdate.getOrDefault("updatedBy", "router-service");
-
-            log.info("Received status update: messageId={}, status={}, partition={}, offset={}",
-                messageId, statusStr, partition, offset);
-
-            // Validate required fields
-            if (messageId == null || messageId.trim().isEmpty()) {
-                log.error("Invalid status update: missing messageId in event: {}", statusUpdate);
-                return;
+    public void consumeStatusUpdates(List<ConsumerRecord<String, Map<String, Object>>> records) {
+        List<StatusUpdate> updates = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Map<String, Object>> record : records) {
+            StatusUpdate update = parse(record);
+            if (update != null) {
+                updates.add(update);
             }
+        }
 
-            if (statusStr == null || statusStr.trim().isEmpty()) {
-                log.error("Invalid status update: missing status in event: {}", statusUpdate);
-                return;
-            }
+        log.info("Received status update batch: {} events, {} valid", records.size(), updates.size());
 
-            // Parse status enum
-            MessageStatus newStatus;
-            try {
-                newStatus = MessageStatus.valueOf(statusStr);
-            } catch (IllegalArgumentException e) {
-                log.error("Invalid status update: unknown status '{}' for message {}", statusStr, messageId);
-                return;
-            }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        // Block to ensure updates complete before Kafka ACK; errors propagate for redelivery
+        List<Message> updatedMessages = messageService.updateStatuses(updates).block();
 
-            // Update message status (reactive) - block to ensure completion before ACK
-            messageService.updateStatus(messageId, newStatus, updatedBy)
-                .then(messageService.getMessageById(messageId))
-                .doOnSuccess(updatedMessage -> {
-                    // Broadcast status update to WebSocket clients
-                    if (updatedMessage != null) {
-                        MessageEvent event = MessageEvent.builder()
-                            .eventType(MessageEvent.EventType.STATUS_UPDATE)
-                            .messageId(updatedMessage.getMessageId())
-                            .conversationId(updatedMessage.getConversationId())
-                            .senderId(updatedMessage.getSenderId())
-                            .channel(updatedMessage.getChannel())
-                            .status(updatedMessage.getStatus())
-                            .timestamp(updatedMessage.getUpdatedAt())
-                            .build();
-                        
-                        webSocketHandler.publishEvent(event);
-                        log.debug("Broadcasted status update to {} WebSocket clients", 
-                            webSocketHandler.getActiveSessionCount());
-                    }
-                })
-                .onErrorResume(IllegalArgumentException.class, e -> {
-                    // Message not found - log warning and continue
-                    log.warn("Status update for unknown message: {} (status: {})", messageId, newStatus);
-                    return Mono.empty();
-                })
-                .onErrorResume(IllegalStateException.class, e -> {
-                    // Invalid status transition - log error and continue
-                    log.error("Invalid status transition for message {}: {}", messageId, e.getMessage());
-                    return Mono.empty();
-                })
-                .onErrorResume(e -> {
-                    // Unexpected error - log and continue
-                    log.error("Error updating status for message {}: {}", messageId, e.getMessage(), e);
-                    return Mono.empty();
-                })
-                .block(); // Block to ensure update completes before Kafka ACK
-
-            log.debug("Successfully processed status update for message: {}", messageId);
-
-        } catch (Exception e) {
-            log.error("Error processing status update event: {}", e.getMessage(), e);
-            // Don't rethrow - acknowledge and continue to prevent infinite retries
+        if (updatedMessages != null) {
+            updatedMessages.forEach(this::broadcast);
+            log.debug("Broadcasted {} status updates to {} WebSocket clients",
+                updatedMessages.size(), webSocketHandler.getActiveSessionCount());
         }
     }
+
+    /**
+     * Extracts and validates a status update event.
+     *
+     * @return StatusUpdate, or null if the event is malformed
+     */
+    private StatusUpdate parse(ConsumerRecord<String, Map<String, Object>> record) {
+        Map<String, Object> statusUpdate = record.value();
+        if (statusUpdate == null) {
+            log.error("Invalid status update: empty event at partition={}, offset={}",
+                record.partition(), record.offset());
+            return null;
+        }
+
+        // Extract event data
+        String messageId = (String) statusUpdate.get("messageId");
+        String statusStr = (String) statusUpdate.get("status");
+        String updatedBy = (String) statusUpdate.getOrDefault("updatedBy", "router-service");
+
+        log.debug("Received status update: messageId={}, status={}, partition={}, offset={}",
+            messageId, statusStr, record.partition(), record.offset());
+
+        // Validate required fields
+        if (messageId == null || messageId.trim().isEmpty()) {
+            log.error("Invalid status update: missing messageId in event: {}", statusUpdate);
+            return null;
+        }
+
+        if (statusStr == null || statusStr.trim().isEmpty()) {
+            log.error("Invalid status update: missing status in event: {}", statusUpdate);
+            return null;
+        }
+
+        // Parse status enum
+        try {
+            return new StatusUpdate(messageId, MessageStatus.valueOf(statusStr), updatedBy);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid status update: unknown status '{}' for message {}", statusStr, messageId);
+            return null;
+        }
+    }
+
+    /**
+     * Broadcasts a status change to WebSocket clients.
+     */
+    private void broadcast(Message updatedMessage) {
+        MessageEvent event = MessageEvent.builder()
+            .eventType(MessageEvent.EventType.STATUS_UPDATE)
+            .messageId(updatedMessage.getMessageId())
+            .conversationId(updatedMessage.getConversationId())
+            .senderId(updatedMessage.getSenderId())
+            .recipientIds(updatedMessage.getRecipientIds()) // Scopes the push to the message's users
+            .channel(updatedMessage.getChannel())
+            .status(updatedMessage.getStatus())
+            .timestamp(updatedMessage.getUpdatedAt())
+            .build();
+
+        webSocketHandler.publishEvent(event);
+    }
 }
@@ -37,14 +37,14 @@ public interface ConversationRepository extends ReactiveMongoRepository<Conversa
     /**
      * Finds all conversations for a specific user (participant)
      * 
-     * Uses compound index: {participants.user_id: 1, last_message_at: -1}
+     * Uses compound index: {participants: 1, last_message_at: -1}
      * Returns conversations sorted by most recent activity
      * 
      * @param userId User ID (participant)
      * @param pageable Pagination parameters
      * @return Flux of conversations where user is a participant
      */
-    @Query("{ 'participants.userId': ?0 }")
+    @Query("{ 'participants': ?0 }")
     Flux<Conversation> findByParticipantUserId(String userId, Pageable pageable);
 
     /**
@@ -55,7 +55,7 @@ public interface ConversationRepository extends ReactiveMongoRepository<Conversa
      * @param pageable Pagination parameters
      * @return Flux of active conversations
      */
-    @Query("{ 'participants.userId': ?0, 'archived': ?1 }")
+    @Query("{ 'participants': ?0, 'archived': ?1 }")
     Flux<Conversation> findByParticipantUserIdAndArchived(String userId, boolean archived, Pageable pageable);
 
     /**
@@ -129,19 +129,19 @@ public interface ConversationRepository extends ReactiveMongoRepository<Conversa
      * @param userId User ID (participant)
      * @return Mono<Long> Total number of conversations
      */
-    @Query(value = "{ 'participants.userId': ?0 }", count = true)
+    @Query(value = "{ 'participants': ?0 }", count = true)
     Mono<Long> countByParticipantUserId(String userId);
 
     /**
      * Finds conversations by participant user ID ordered by last message timestamp
      * 
-     * Uses compound index: {participants.user_id: 1, last_message_at: -1}
+     * Uses compound index: {participants: 1, last_message_at: -1}
      * 
      * @param userId User ID (participant)
      * @param pageable Pagination parameters
      * @return Flux of conversations sorted by recent activity
      */
-    @Query(value = "{ 'participants.userId': ?0 }", sort = "{ 'lastMessageAt': -1 }")
+    @Query(value = "{ 'participants': ?0 }", sort = "{ 'lastMessageAt': -1 }")
     Flux<Conversation> findByParticipantsUserIdOrderByLastMessageAtDesc(String userId, Pageable pageable);
 
     /**
@@ -152,7 +152,7 @@ public interface ConversationRepository extends ReactiveMongoRepository<Conversa
      * @param pageable Pagination parameters
      * @return Flux of filtered conversations sorted by recent activity
      */
-    @Query(value = "{ 'participants.userId': ?0, 'archived': ?1 }", sort = "{ 'lastMessageAt': -1 }")
+    @Query(value = "{ 'participants': ?0, 'archived': ?1 }", sort = "{ 'lastMessageAt': -1 }")
     Flux<Conversation> findByParticipantsUserIdAndArchivedOrderByLastMessageAtDesc(
         String userId, 
         boolean archived, 
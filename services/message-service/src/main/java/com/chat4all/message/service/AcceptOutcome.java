@@ -0,0 +1,28 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.Message;
+
+/**
+ * Result of accepting one message of a batch (see MessageService.acceptMessages).
+ *
+ * @param message The message (persisted if accepted; messageId always set)
+ * @param error Why the message was rejected, or null if it was accepted
+ *              (DuplicateMessageException for duplicates, as in MessageService.acceptMessage)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record AcceptOutcome(Message message, RuntimeException error) {
+
+    public static AcceptOutcome accepted(Message message) {
+        return new AcceptOutcome(message, null);
+    }
+
+    public static AcceptOutcome rejected(Message message, RuntimeException error) {
+        return new AcceptOutcome(message, error);
+    }
+
+    public boolean isAccepted() {
+        return error == null;
+    }
+}
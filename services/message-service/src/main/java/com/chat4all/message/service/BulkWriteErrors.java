@@ -0,0 +1,77 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.Message;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-document errors of an unordered bulk insert of messages.
+ *
+ * Shared by the bulk write paths (InboundMessageWriter group commit, MessageService batch
+ * accept, MessageBucketStore restore): one failing document fails only its own item, the
+ * rest of the batch is persisted.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+final class BulkWriteErrors {
+
+    private static final int DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    private BulkWriteErrors() {
+    }
+
+    /**
+     * Extracts per-document write errors (keyed by batch index) from a bulk insert failure.
+     *
+     * @return Errors by index, or null if the failure is not a per-document bulk write error
+     */
+    static Map<Integer, BulkWriteError> byIndex(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            List<BulkWriteError> errors = null;
+            if (t instanceof BulkOperationException bulkOperationException) {
+                errors = bulkOperationException.getErrors();
+            } else if (t instanceof MongoBulkWriteException mongoBulkWriteException) {
+                errors = mongoBulkWriteException.getWriteErrors();
+            }
+
+            if (errors != null && !errors.isEmpty()) {
+                Map<Integer, BulkWriteError> byIndex = new HashMap<>();
+                errors.forEach(writeError -> byIndex.put(writeError.getIndex(), writeError));
+                return byIndex;
+            }
+
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether a write error is a unique index violation.
+     */
+    static boolean isDuplicateKey(BulkWriteError error) {
+        return error.getCode() == DUPLICATE_KEY_ERROR_CODE;
+    }
+
+    /**
+     * Converts a write error into the exception reported for its message.
+     *
+     * @return DuplicateKeyException for a duplicate message_id, DataIntegrityViolationException otherwise
+     */
+    static RuntimeException toException(Message message, BulkWriteError error) {
+        if (isDuplicateKey(error)) {
+            return new DuplicateKeyException("Duplicate message: " + message.getMessageId());
+        }
+        return new DataIntegrityViolationException(
+            "Failed to insert message " + message.getMessageId() + ": " + error.getMessage());
+    }
+}
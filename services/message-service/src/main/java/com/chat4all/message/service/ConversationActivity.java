@@ -0,0 +1,114 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.Message;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Conversation Activity Update
+ *
+ * Builds the single atomic update that records new messages on their conversation
+ * document: message_count, last_message_at and the last message preview
+ * (conversation list / inbox rendering without history lookups).
+ *
+ * The update is an aggregation pipeline so that all three fields move together in one
+ * write, without reading the conversation first:
+ * - message_count: + number of messages
+ * - last_message_at / updated_at: max(current, newest message timestamp)
+ * - last_message: replaced only if the newest message is not older than the current
+ *   last_message_at, so out-of-order writers never regress the preview
+ *
+ * Used by MessageService (outbound accept path, one message) and InboundMessageWriter
+ * (group commit, all messages of a conversation in the batch).
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+final class ConversationActivity {
+
+    /**
+     * Maximum length of the last message snippet (characters)
+     */
+    static final int SNIPPET_MAX_LENGTH = 100;
+
+    private ConversationActivity() {
+    }
+
+    /**
+     * Selects the conversation to update.
+     *
+     * @param conversationId Conversation identifier
+     * @return Query on conversation_id (unique index)
+     */
+    static Query query(String conversationId) {
+        return Query.query(Criteria.where("conversationId").is(conversationId));
+    }
+
+    /**
+     * Builds the update recording messages of a single conversation.
+     *
+     * @param messages Newly persisted messages of one conversation (not empty, timestamps set)
+     * @return Pipeline update for the conversation document
+     */
+    static AggregationUpdate update(Collection<Message> messages) {
+        Message newest = messages.stream()
+            .max(Comparator.comparing(Message::getTimestamp))
+            .orElseThrow(() -> new IllegalArgumentException("No messages to record"));
+        Date newestAt = Date.from(newest.getTimestamp());
+
+        // All expressions of one $set stage read the document as it was before the stage
+        Document isNewest = new Document("$gte", List.of(newestAt,
+            new Document("$ifNull", List.of("$last_message_at", new Date(0)))));
+
+        return AggregationUpdate.update()
+            .set("message_count").toValue(expression(new Document("$add", List.of(
+                new Document("$ifNull", List.of("$message_count", 0)), messages.size()))))
+            .set("last_message").toValue(expression(new Document("$cond", List.of(
+                isNewest,
+                // $literal: the snippet is user content and may start with '$'
+                new Document("$literal", preview(newest)),
+                "$last_message"))))
+            .set("last_message_at").toValue(expression(new Document("$max", List.of("$last_message_at", newestAt))))
+            .set("updated_at").toValue(expression(new Document("$max", List.of("$updated_at", newestAt))));
+    }
+
+    /**
+     * Builds the stored preview of a message (field names as in Conversation.LastMessage).
+     */
+    private static Document preview(Message message) {
+        return new Document("message_id", message.getMessageId())
+            .append("sender_id", message.getSenderId())
+            .append("snippet", snippet(message.getContent()))
+            .append("content_type", message.getContentType() != null ? message.getContentType().name() : null)
+            .append("timestamp", Date.from(message.getTimestamp()));
+    }
+
+    /**
+     * Truncates content for display without splitting a surrogate pair.
+     *
+     * @param content Message content (may be null for media-only messages)
+     * @return Snippet of at most SNIPPET_MAX_LENGTH characters (plus ellipsis), or null
+     */
+    static String snippet(String content) {
+        if (content == null || content.length() <= SNIPPET_MAX_LENGTH) {
+            return content;
+        }
+        int end = SNIPPET_MAX_LENGTH;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end) + "…";
+    }
+
+    private static AggregationExpression expression(Document document) {
+        return context -> document;
+    }
+}
@@ -10,12 +10,22 @@ import com.chat4all.message.repository.MessageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -31,8 +41,9 @@ import java.util.UUID;
  * Business Rules:
  * - Conversations are created automatically when first message arrives
  * - Primary channel is determined from first message
- * - Last activity timestamp updated on each message
+ * - Last activity timestamp, message count and last message preview updated on each message
  * - Archived conversations excluded from default queries
+ * - Membership changes invalidate {@link ParticipantCache} on every instance
  * 
  * @author Chat4All Team
  * @version 1.0.0
@@ -44,6 +55,8 @@ public class ConversationService {
 
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
+    private final ParticipantCache participantCache;
+    private final ReactiveMongoTemplate mongoTemplate;
 
     /**
      * Gets or creates a conversation (upsert logic)
@@ -100,7 +113,8 @@ public class ConversationService {
                     .updatedAt(now)
                     .build();
 
-                return conversationRepository.save(newConversation);
+                return conversationRepository.save(newConversation)
+                    .flatMap(conv -> participantCache.evict(safeConversationId).thenReturn(conv));
             }))
             .doOnSuccess(conv -> log.debug("Conversation ready: {}", safeConversationId));
     }
@@ -172,6 +186,9 @@ public class ConversationService {
      * 
      * Called automatically when new message arrives or is sent
      * 
+     * Single atomic update ($max): never moves last activity backwards, so concurrent
+     * or out-of-order callers cannot overwrite a newer timestamp.
+     * 
      * @param conversationId Conversation identifier
      * @param timestamp Activity timestamp
      * @return Mono<Void> Completion signal
@@ -179,13 +196,67 @@ public class ConversationService {
     public Mono<Void> updateLastActivity(String conversationId, Instant timestamp) {
         log.debug("Updating last activity for conversation: {} to {}", conversationId, timestamp);
 
-        return conversationRepository.findByConversationId(conversationId)
-            .flatMap(conversation -> {
-                conversation.setLastMessageAt(timestamp);
-                conversation.setUpdatedAt(timestamp);
-                return conversationRepository.save(conversation);
-            })
-            .doOnSuccess(conv -> log.debug("Last activity updated for conversation: {}", conversationId))
+        Update update = new Update()
+            .max("lastMessageAt", timestamp)
+            .max("updatedAt", timestamp);
+
+        return mongoTemplate.updateFirst(byConversationId(conversationId), update, Conversation.class)
+            .doOnSuccess(result -> log.debug("Last activity updated for conversation: {} (matched: {})",
+                conversationId, result.getMatchedCount()))
+            .then();
+    }
+
+    /**
+     * Records a new message on its conversation
+     * 
+     * Single atomic pipeline update (no read): increments messageCount, moves
+     * lastMessageAt forward and replaces the last message preview if this message is the
+     * newest (see {@link ConversationActivity}). Unknown conversations are left untouched.
+     * 
+     * @param message Persisted message (conversationId and timestamp set)
+     * @return Mono<Void> Completion signal
+     */
+    public Mono<Void> recordMessageActivity(Message message) {
+        if (message.getConversationId() == null || message.getTimestamp() == null) {
+            return Mono.empty();
+        }
+
+        return mongoTemplate.updateFirst(ConversationActivity.query(message.getConversationId()),
+                ConversationActivity.update(List.of(message)), Conversation.class)
+            .doOnSuccess(result -> log.debug("Message activity recorded for conversation: {} (matched: {})",
+                message.getConversationId(), result.getMatchedCount()))
+            .then();
+    }
+
+    /**
+     * Records new messages on their conversations
+     * 
+     * One unordered bulk write with one pipeline update per conversation (same update as
+     * {@link #recordMessageActivity(Message)}, covering all of that conversation's messages).
+     * 
+     * @param messages Persisted messages (messages without conversationId or timestamp are ignored)
+     * @return Mono<Void> Completion signal
+     */
+    public Mono<Void> recordMessageActivity(Collection<Message> messages) {
+        Map<String, List<Message>> messagesByConversation = new HashMap<>();
+        for (Message message : messages) {
+            if (message.getConversationId() != null && message.getTimestamp() != null) {
+                messagesByConversation.computeIfAbsent(message.getConversationId(), id -> new ArrayList<>())
+                    .add(message);
+            }
+        }
+
+        if (messagesByConversation.isEmpty()) {
+            return Mono.empty();
+        }
+
+        ReactiveBulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+        messagesByConversation.forEach((conversationId, conversationMessages) ->
+            updates.updateOne(ConversationActivity.query(conversationId), ConversationActivity.update(conversationMessages)));
+
+        return updates.execute()
+            .doOnSuccess(result -> log.debug("Message activity recorded for {} conversations (matched: {})",
+                messagesByConversation.size(), result.getMatchedCount()))
             .then();
     }
 
@@ -343,6 +414,7 @@ public class ConversationService {
             .build();
 
         return conversationRepository.save(newConversation)
+            .flatMap(conv -> participantCache.evict(conversationId).thenReturn(conv))
             .doOnSuccess(conv -> log.info("Conversation created: id={}, type={}, participants={}", 
                 conversationId, type, request.getParticipants().size()));
     }
@@ -374,13 +446,8 @@ public class ConversationService {
     public Mono<Void> archiveConversation(String conversationId) {
         log.info("Archiving conversation: {}", conversationId);
 
-        return conversationRepository.findByConversationId(conversationId)
-            .flatMap(conversation -> {
-                conversation.setArchived(true);
-                return conversationRepository.save(conversation);
-            })
-            .doOnSuccess(conv -> log.info("Conversation archived: {}", conversationId))
-            .then();
+        return setArchived(conversationId, true)
+            .doOnSuccess(v -> log.info("Conversation archived: {}", conversationId));
     }
 
     /**
@@ -392,12 +459,23 @@ public class ConversationService {
     public Mono<Void> unarchiveConversation(String conversationId) {
         log.info("Unarchiving conversation: {}", conversationId);
 
-        return conversationRepository.findByConversationId(conversationId)
-            .flatMap(conversation -> {
-                conversation.setArchived(false);
-                return conversationRepository.save(conversation);
-            })
-            .doOnSuccess(conv -> log.info("Conversation unarchived: {}", conversationId))
+        return setArchived(conversationId, false)
+            .doOnSuccess(v -> log.info("Conversation unarchived: {}", conversationId));
+    }
+
+    /**
+     * Sets the archived flag with a single atomic update ($set)
+     * 
+     * @param conversationId Conversation identifier
+     * @param archived New archived flag
+     * @return Mono<Void> Completion signal
+     */
+    private Mono<Void> setArchived(String conversationId, boolean archived) {
+        Update update = new Update()
+            .set("archived", archived)
+            .set("updatedAt", Instant.now());
+
+        return mongoTemplate.updateFirst(byConversationId(conversationId), update, Conversation.class)
             .then();
     }
 
@@ -415,25 +493,33 @@ public class ConversationService {
     public Mono<Void> addParticipant(String conversationId, String participantId, String participantType) {
         log.info("Adding participant {} to conversation: {}", participantId, conversationId);
 
-        return conversationRepository.findByConversationId(conversationId)
-            .flatMap(conversation -> {
-                // Check if participant already exists
-                boolean exists = conversation.getParticipants() != null && 
-                                conversation.getParticipants().contains(participantId);
+        // Predicate skips conversations that already contain the participant (matchedCount = 0)
+        Query query = byConversationId(conversationId);
+        query.addCriteria(Criteria.where("participants").ne(participantId));
 
-                if (exists) {
-                    log.warn("Participant {} already in conversation {}", participantId, conversationId);
-                    return Mono.just(conversation);
+        Update update = new Update()
+            .addToSet("participants", participantId)
+            .set("updatedAt", Instant.now());
+
+        return mongoTemplate.updateFirst(query, update, Conversation.class)
+            .flatMap(result -> {
+                if (result.getMatchedCount() == 0) {
+                    log.warn("Participant {} already in conversation {} (or conversation not found)",
+                        participantId, conversationId);
+                    return Mono.<Void>empty();
                 }
+                log.info("Participant {} added to conversation {}", participantId, conversationId);
+                return participantCache.evict(conversationId);
+            });
+    }
 
-                // Add participant to simple ID list
-                List<String> updatedParticipants = new java.util.ArrayList<>(conversation.getParticipants());
-                updatedParticipants.add(participantId);
-                conversation.setParticipants(updatedParticipants);
-                
-                return conversationRepository.save(conversation);
-            })
-            .doOnSuccess(conv -> log.info("Participant {} added to conversation {}", participantId, conversationId))
-            .then();
+    /**
+     * Builds the query selecting a conversation by its business identifier
+     * 
+     * @param conversationId Conversation identifier
+     * @return Query on conversation_id (unique index)
+     */
+    private static Query byConversationId(String conversationId) {
+        return Query.query(Criteria.where("conversationId").is(conversationId));
     }
 }
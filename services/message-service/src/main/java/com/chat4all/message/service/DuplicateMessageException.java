@@ -0,0 +1,25 @@
+package com.chat4all.message.service;
+
+/**
+ * Thrown when a message is rejected because its message_id was already accepted
+ * (unique message_id index, or the same ID repeated within a batch).
+ *
+ * Only this exception means "duplicate": the API maps it to 409 Conflict, while any
+ * other accept failure (MongoDB, Redis, participant lookup) is reported as a server error.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public class DuplicateMessageException extends RuntimeException {
+
+    private final String messageId;
+
+    public DuplicateMessageException(String messageId, Throwable cause) {
+        super("Duplicate message: " + messageId, cause);
+        this.messageId = messageId;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+}
@@ -0,0 +1,64 @@
+package com.chat4all.message.service;
+
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Message History Cursor
+ *
+ * Position in a conversation's history, ordered by (timestamp desc, _id desc). The _id
+ * tie-breaker makes the order total, so messages sharing a timestamp are neither
+ * skipped nor repeated across pages.
+ *
+ * Encoded for clients as an opaque URL-safe token: base64url("{epochMillis}:{_id hex}").
+ * Plain ISO-8601 timestamps (the previous nextCursor format) are still accepted and
+ * position before every message of that instant.
+ *
+ * @param timestamp Timestamp of the last message returned (millisecond precision, as stored)
+ * @param id _id of the last message returned, or null for a timestamp-only position
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record HistoryCursor(Instant timestamp, ObjectId id) {
+
+    /**
+     * Encodes the position after the given message.
+     *
+     * @param timestamp Message timestamp
+     * @param id Message _id (hex)
+     * @return Opaque cursor token
+     */
+    static String encode(Instant timestamp, String id) {
+        String raw = timestamp.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor token (opaque cursor or legacy ISO-8601 timestamp).
+     *
+     * @param token Client-supplied cursor
+     * @return Decoded cursor
+     * @throws IllegalArgumentException if the token is neither
+     */
+    public static HistoryCursor decode(String token) {
+        try {
+            return new HistoryCursor(Instant.parse(token), null);
+        } catch (DateTimeParseException e) {
+            // Not a legacy timestamp: opaque cursor
+        }
+
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator <= 0 || !ObjectId.isValid(raw.substring(separator + 1))) {
+            throw new IllegalArgumentException("Invalid history cursor: " + token);
+        }
+        return new HistoryCursor(
+            Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator))),
+            new ObjectId(raw.substring(separator + 1)));
+    }
+}
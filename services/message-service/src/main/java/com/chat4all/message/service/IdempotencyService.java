@@ -4,9 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Reactive Idempotency Service using Redis
@@ -91,6 +95,41 @@ public class IdempotencyService {
             });
     }
 
+    /**
+     * Claims the idempotency keys of a batch of messages - reactive.
+     * 
+     * Same SET NX as {@link #isDuplicate(String)} for every ID, issued back-to-back on the
+     * shared connection without waiting for replies in between (the driver pipelines them),
+     * so the whole batch costs about one Redis round-trip.
+     * 
+     * @param messageIds Unique message identifiers
+     * @return Mono<Set<String>> IDs whose key already existed (duplicates); empty set on Redis failure
+     */
+    public Mono<Set<String>> claimAll(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return Mono.just(Set.of());
+        }
+
+        return Flux.fromIterable(messageIds)
+            .flatMap(messageId -> reactiveRedisTemplate.opsForValue()
+                .setIfAbsent(buildIdempotencyKey(messageId), "processed", IDEMPOTENCY_TTL)
+                .filter(wasSet -> !Boolean.TRUE.equals(wasSet))
+                .map(wasSet -> messageId), messageIds.size())
+            .collect(Collectors.toSet())
+            .doOnSuccess(duplicates -> {
+                if (!duplicates.isEmpty()) {
+                    log.warn("Duplicate messages detected: {} of {} (idempotency keys exist in Redis)",
+                        duplicates.size(), messageIds.size());
+                }
+            })
+            .onErrorResume(e -> {
+                // Redis failure should not block message processing (MongoDB unique index enforces)
+                log.error("Redis idempotency claim failed for {} messages: {}. Falling back to MongoDB check.",
+                    messageIds.size(), e.getMessage());
+                return Mono.just(Set.of());
+            });
+    }
+
     /**
      * Marks a message as processed (for manual idempotency marking) - reactive.
      * 
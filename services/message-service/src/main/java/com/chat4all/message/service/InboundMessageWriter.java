@@ -0,0 +1,293 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.Conversation;
+import com.chat4all.message.domain.Message;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inbound Message Writer (group commit)
+ *
+ * Micro-batching writer for inbound webhook messages. Instead of one insert plus one
+ * read-modify-save of the conversation per webhook, callers are buffered for up to
+ * max-delay-ms or max-batch-size messages and each batch is written with:
+ * 1. One unordered bulk insert of all messages
+ * 2. One unordered bulk update per batch recording the new messages on each conversation
+ *    that received some (message_count, last_message_at, last message preview; see
+ *    {@link ConversationActivity}), concurrently with the recent messages buffer update
+ *    ({@link RecentMessagesCache})
+ *
+ * Behaviour:
+ * - Every caller still gets its own Mono<Message>, completed after its batch is written
+ * - Unordered insert: one bad document (e.g. duplicate message_id) fails only its own
+ *   caller, with DuplicateKeyException; the rest of the batch is persisted
+ * - The conversation update is commutative (count increment, $max, newest-wins preview),
+ *   so batches may be flushed concurrently and in any order
+ * - The conversation update is best-effort: a failure is logged and does not fail
+ *   callers whose messages were persisted
+ * - On shutdown the buffer is flushed before the writer stops; later writes fail
+ *
+ * Configuration (message.inbound-writer.*):
+ * - enabled (default: true; false writes each message on its own, same operations;
+ *   always false while message.storage.migration.action is set)
+ * - max-batch-size (default: 256)
+ * - max-delay-ms (default: 5)
+ * - max-concurrent-flushes (default: 4)
+ *
+ * Metrics:
+ * - messages.inbound.batch.size: messages per flush
+ * - messages.inbound.batch.flush: flush duration
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class InboundMessageWriter {
+
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final RecentMessagesCache recentMessagesCache;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer flushTimer;
+
+    @Value("${message.inbound-writer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${message.inbound-writer.max-batch-size:256}")
+    private int maxBatchSize;
+
+    @Value("${message.inbound-writer.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Value("${message.inbound-writer.max-concurrent-flushes:4}")
+    private int maxConcurrentFlushes;
+
+    @Value("${message.storage.migration.action:}")
+    private String migrationAction;
+
+    private final Sinks.Many<PendingWrite> queue = Sinks.many().unicast().onBackpressureBuffer();
+
+    private Disposable subscription;
+
+    public InboundMessageWriter(ReactiveMongoTemplate mongoTemplate, RecentMessagesCache recentMessagesCache,
+                                MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.recentMessagesCache = recentMessagesCache;
+        this.batchSizeSummary = DistributionSummary.builder("messages.inbound.batch.size")
+            .description("Inbound messages written per group commit")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("messages.inbound.batch.flush")
+            .description("Time to write one group commit of inbound messages")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!migrationAction.isBlank()) {
+            // Storage migration run (MessageBucketMigration): no webhooks to batch
+            enabled = false;
+            log.info("Inbound message writer not started during storage migration");
+            return;
+        }
+
+        if (!enabled) {
+            log.info("Inbound message writer disabled, messages are written one at a time");
+            return;
+        }
+
+        subscription = queue.asFlux()
+            .bufferTimeout(maxBatchSize, Duration.ofMillis(maxDelayMs))
+            .flatMap(batch -> Mono.defer(() -> flush(batch))
+                .onErrorResume(e -> {
+                    // Unexpected failure (e.g. thrown while building the batch): fail its callers
+                    // instead of terminating the writer
+                    log.error("Inbound batch flush failed ({} messages): {}", batch.size(), e.getMessage(), e);
+                    batch.forEach(write -> write.sink().error(e));
+                    return Mono.empty();
+                }), maxConcurrentFlushes)
+            .subscribe();
+
+        log.info("Inbound message writer started: maxBatchSize={}, maxDelay={}ms, maxConcurrentFlushes={}",
+            maxBatchSize, maxDelayMs, maxConcurrentFlushes);
+    }
+
+    /**
+     * Completes the queue so buffered messages are flushed before shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            queue.emitComplete(Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+        }
+    }
+
+    /**
+     * Persists an inbound message as part of the next group commit.
+     *
+     * Records the message on its conversation (message count, last activity and preview).
+     *
+     * @param message Fully built inbound message (messageId, conversationId and timestamp set)
+     * @return Mono<Message> The persisted message
+     * @throws DuplicateKeyException if a message with the same message_id already exists
+     * @throws IllegalStateException if the writer no longer accepts messages (shutting down)
+     */
+    public Mono<Message> write(Message message) {
+        if (!enabled) {
+            return writeSingle(message);
+        }
+
+        return Mono.create(sink -> {
+            PendingWrite write = new PendingWrite(message, sink);
+
+            // Concurrent callers contend for the sink: retry those, fail on anything else
+            long deadline = System.nanoTime() + EMIT_TIMEOUT.toNanos();
+            Sinks.EmitResult result = queue.tryEmitNext(write);
+            while (result == Sinks.EmitResult.FAIL_NON_SERIALIZED && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+                result = queue.tryEmitNext(write);
+            }
+
+            if (result.isFailure()) {
+                // e.g. FAIL_TERMINATED once the writer is stopped
+                sink.error(new IllegalStateException("Inbound message writer rejected message " +
+                    message.getMessageId() + ": " + result));
+            }
+        });
+    }
+
+    /**
+     * Writes one batch. Never errors: failures are delivered to the affected callers.
+     */
+    private Mono<Void> flush(List<PendingWrite> batch) {
+        Timer.Sample sample = Timer.start();
+        batchSizeSummary.record(batch.size());
+
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            // Assign _id up front so callers get it back, as with a single insert
+            if (write.message().getId() == null) {
+                write.message().setId(new ObjectId().toHexString());
+            }
+            messages.add(write.message());
+        }
+
+        ReactiveBulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+        inserts.insert(messages);
+
+        return inserts.execute()
+            .map(result -> Map.<Integer, BulkWriteError>of())
+            .onErrorResume(e -> {
+                Map<Integer, BulkWriteError> writeErrors = BulkWriteErrors.byIndex(e);
+                if (writeErrors == null) {
+                    // Not a per-document failure (connection, timeout...): nothing was confirmed
+                    log.error("Inbound batch insert failed ({} messages): {}", batch.size(), e.getMessage());
+                    batch.forEach(write -> write.sink().error(e));
+                    return Mono.empty();
+                }
+                return Mono.just(writeErrors);
+            })
+            .flatMap(writeErrors -> {
+                List<PendingWrite> persisted = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    BulkWriteError error = writeErrors.get(i);
+                    if (error == null) {
+                        persisted.add(batch.get(i));
+                    } else {
+                        batch.get(i).sink().error(BulkWriteErrors.toException(batch.get(i).message(), error));
+                    }
+                }
+
+                return Mono.when(
+                        recordActivity(persisted),
+                        recentMessagesCache.append(persisted.stream().map(PendingWrite::message).toList()))
+                    .then(Mono.fromRunnable(() ->
+                        persisted.forEach(write -> write.sink().success(write.message()))));
+            })
+            .doFinally(signal -> {
+                sample.stop(flushTimer);
+                log.debug("Inbound batch flushed: {} messages", batch.size());
+            })
+            .then();
+    }
+
+    /**
+     * Records the batch's messages on their conversations, one update per conversation,
+     * in one bulk write.
+     */
+    private Mono<Void> recordActivity(List<PendingWrite> persisted) {
+        Map<String, List<Message>> messagesByConversation = new HashMap<>();
+        for (PendingWrite write : persisted) {
+            Message message = write.message();
+            if (message.getConversationId() != null && message.getTimestamp() != null) {
+                messagesByConversation.computeIfAbsent(message.getConversationId(), id -> new ArrayList<>())
+                    .add(message);
+            }
+        }
+
+        if (messagesByConversation.isEmpty()) {
+            return Mono.empty();
+        }
+
+        ReactiveBulkOperations updates = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Conversation.class);
+        messagesByConversation.forEach((conversationId, messages) ->
+            updates.updateOne(ConversationActivity.query(conversationId), ConversationActivity.update(messages)));
+
+        return updates.execute()
+            .doOnError(e -> log.warn("Failed to record activity of {} conversations: {}",
+                messagesByConversation.size(), e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    /**
+     * Unbatched fallback (writer disabled): same operations, one message at a time.
+     */
+    private Mono<Message> writeSingle(Message message) {
+        return mongoTemplate.insert(message)
+            .flatMap(saved -> {
+                if (saved.getConversationId() == null || saved.getTimestamp() == null) {
+                    return Mono.just(saved);
+                }
+                return Mono.when(
+                        mongoTemplate.updateFirst(ConversationActivity.query(saved.getConversationId()),
+                                ConversationActivity.update(List.of(saved)), Conversation.class)
+                            .onErrorResume(e -> {
+                                log.warn("Failed to record activity of conversation {}: {}",
+                                    saved.getConversationId(), e.getMessage());
+                                return Mono.empty();
+                            }),
+                        recentMessagesCache.append(List.of(saved)))
+                    .thenReturn(saved);
+            });
+    }
+
+    /**
+     * A caller waiting for its message to be written.
+     */
+    private record PendingWrite(Message message, MonoSink<Message> sink) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.chat4all.message.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Message Bucket Migration (one-shot tool)
+ *
+ * Converts existing data between the document and bucketed storage modes (see
+ * {@link MessageBucketStore}), then stops the application. Only active when
+ * message.storage.migration.action is set:
+ *
+ * - archive: moves messages older than older-than-hours from the messages collection into
+ *   buckets (requires message.storage.mode=bucketed, otherwise they would no longer be read)
+ * - restore: moves every bucketed message back into the messages collection (run before
+ *   switching back to message.storage.mode=document)
+ *
+ * Usage:
+ *   java -jar message-service.jar --spring.main.web-application-type=none \
+ *     --message.storage.mode=bucketed --message.storage.migration.action=archive
+ *
+ * Both actions are idempotent and may be interrupted and re-run, also while other
+ * instances serve traffic. While an action is set, the instance does no other work: the
+ * Kafka listeners (ChatMessagePushService, StatusUpdateConsumer) are not created, and
+ * neither the inbound writer nor the background archiver is started.
+ *
+ * Configuration (message.storage.migration.*):
+ * - action: archive | restore
+ * - older-than-hours (default: message.storage.buckets.hot-window-hours)
+ * - exit (default: true; false keeps the application running afterwards)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "message.storage.migration.action")
+public class MessageBucketMigration implements ApplicationRunner {
+
+    private final MessageBucketStore messageBucketStore;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${message.storage.migration.action}")
+    private String action;
+
+    @Value("${message.storage.migration.older-than-hours:${message.storage.buckets.hot-window-hours:168}}")
+    private long olderThanHours;
+
+    @Value("${message.storage.migration.exit:true}")
+    private boolean exit;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.currentTimeMillis();
+        int exitCode = 0;
+
+        try {
+            Long migrated = switch (action.toLowerCase()) {
+                case "archive" -> archive();
+                case "restore" -> messageBucketStore.restoreAll().block();
+                default -> throw new IllegalArgumentException("Unknown migration action: " + action);
+            };
+            log.info("Message storage migration '{}' completed: {} messages in {} ms",
+                action, migrated, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Message storage migration '{}' failed: {}", action, e.getMessage(), e);
+            exitCode = 1;
+        }
+
+        if (exit) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+
+    private Long archive() {
+        if (!messageBucketStore.isEnabled()) {
+            throw new IllegalStateException("Archiving requires message.storage.mode=bucketed");
+        }
+
+        Instant cutoff = Instant.now().minus(Duration.ofHours(olderThanHours));
+        log.info("Archiving messages older than {} into buckets", cutoff);
+        return messageBucketStore.archiveAll(cutoff).block();
+    }
+}
@@ -0,0 +1,644 @@
+package com.chat4all.message.service;
+
+import com.chat4all.common.constant.MessageStatus;
+import com.chat4all.message.domain.Conversation;
+import com.chat4all.message.domain.Message;
+import com.chat4all.message.domain.MessageBucket;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Message Bucket Store (bucketed storage mode)
+ *
+ * Optional storage layout for very large conversations: messages older than the hot
+ * window are moved from the messages collection (one document per message) into
+ * per-conversation time buckets ({@link MessageBucket}, at most max-messages messages
+ * and max-span-minutes per document). The hot collection then holds only recent
+ * messages, so its documents and its five indexes stop growing with history; archived
+ * history costs one document and two index entries per bucket plus one
+ * messages.message_id entry per message.
+ *
+ * Writes are unchanged: new messages are inserted into the messages collection, where
+ * the unique message_id index enforces idempotency (FR-006). The hot window therefore
+ * defaults to the idempotency retention (message.idempotency.ttl-days).
+ *
+ * Archiving (per conversation, oldest first):
+ * 1. Read hot messages older than now - hot-window (archive-batch-size per pass)
+ * 2. Fill the conversation's newest bucket, then open new buckets
+ * 3. Messages older than the newest bucket (late arrivals) are pushed into the bucket
+ *    covering their timestamp, so buckets never overlap in time
+ * 4. Delete the archived messages from the hot collection, each guarded by the status and
+ *    updated_at that were copied: a message updated meanwhile stays hot, and its bucket
+ *    copy is refreshed from it by the next pass
+ * Every step is idempotent, and concurrent archivers (several instances) are detected
+ * through the bucket count and the unique messages.message_id index, so a pass can be
+ * interrupted or raced at any point.
+ *
+ * Reads (used by MessageService and MessageHistoryService when the message is not hot):
+ * - {@link #findByMessageId(String)}, {@link #findByMessageIds(Collection)}
+ * - {@link #findOlder(String, HistoryCursor, Instant)}: newest-first stream of archived
+ *   messages, reading buckets one at a time
+ * - Status changes of archived messages: positional updates inside their bucket
+ *
+ * Every method is a no-op (empty) in document mode.
+ *
+ * Configuration (message.storage.*):
+ * - mode: document (default) | bucketed
+ * - buckets.max-messages (default: 200)
+ * - buckets.max-span-minutes (default: 60)
+ * - buckets.hot-window-hours (default: 168, the idempotency retention)
+ * - buckets.archive-interval-minutes (default: 10; 0 disables the background archiver)
+ * - buckets.archive-batch-size (default: 5000 messages per conversation pass)
+ *
+ * Metrics:
+ * - messages.buckets.archived: messages moved into buckets
+ * - messages.buckets.archive.time: one archiving run over all conversations
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ * @see MessageBucketMigration
+ */
+@Slf4j
+@Service
+public class MessageBucketStore {
+
+    /**
+     * History order: timestamp desc, _id desc (ObjectId hex strings sort like ObjectIds)
+     */
+    static final Comparator<Message> NEWEST_FIRST =
+        Comparator.comparing(Message::getTimestamp).thenComparing(Message::getId).reversed();
+
+    /**
+     * Raw name of a field of the message matched by a positional query
+     */
+    private static final String MATCHED = "messages.$.";
+
+    /**
+     * Conversations archived concurrently
+     */
+    private static final int ARCHIVE_CONCURRENCY = 4;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final Counter archivedCounter;
+    private final Timer archiveTimer;
+
+    @Value("${message.storage.mode:document}")
+    private String mode;
+
+    @Value("${message.storage.buckets.max-messages:200}")
+    private int maxMessages;
+
+    @Value("${message.storage.buckets.max-span-minutes:60}")
+    private long maxSpanMinutes;
+
+    @Value("${message.storage.buckets.hot-window-hours:168}")
+    private long hotWindowHours;
+
+    @Value("${message.storage.buckets.archive-interval-minutes:10}")
+    private long archiveIntervalMinutes;
+
+    @Value("${message.storage.buckets.archive-batch-size:5000}")
+    private int archiveBatchSize;
+
+    @Value("${message.storage.migration.action:}")
+    private String migrationAction;
+
+    private Disposable archiver;
+
+    public MessageBucketStore(ReactiveMongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.archivedCounter = Counter.builder("messages.buckets.archived")
+            .description("Messages moved from the messages collection into buckets")
+            .register(meterRegistry);
+        this.archiveTimer = Timer.builder("messages.buckets.archive.time")
+            .description("Time taken by one archiving run over all conversations")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts the background archiver (bucketed mode only, not during a storage migration).
+     */
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            log.info("Message storage mode: document");
+            return;
+        }
+
+        log.info("Message storage mode: bucketed (maxMessages={}, maxSpan={}min, hotWindow={}h)",
+            maxMessages, maxSpanMinutes, hotWindowHours);
+
+        if (archiveIntervalMinutes <= 0 || !migrationAction.isBlank()) {
+            // Disabled, or a migration run (MessageBucketMigration moves the data itself)
+            return;
+        }
+
+        Duration interval = Duration.ofMinutes(archiveIntervalMinutes);
+        archiver = Flux.interval(interval, interval)
+            .onBackpressureDrop()
+            .concatMap(tick -> archiveAll(defaultCutoff())
+                .onErrorResume(e -> {
+                    log.error("Message archiving run failed: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (archiver != null) {
+            archiver.dispose();
+        }
+    }
+
+    /**
+     * Whether the bucketed storage mode is active.
+     */
+    public boolean isEnabled() {
+        return "bucketed".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Archiving cutoff of the configured hot window.
+     *
+     * @return now - hot-window-hours
+     */
+    public Instant defaultCutoff() {
+        return Instant.now().minus(Duration.ofHours(hotWindowHours));
+    }
+
+    /**
+     * Finds an archived message by its business identifier.
+     *
+     * @param messageId Message identifier
+     * @return Mono<Message> The archived message, empty if not archived (or document mode)
+     */
+    public Mono<Message> findByMessageId(String messageId) {
+        if (!isEnabled()) {
+            return Mono.empty();
+        }
+
+        Query query = Query.query(Criteria.where("messages.message_id").is(messageId));
+        query.fields().position("messages", 1);
+
+        return mongoTemplate.findOne(query, MessageBucket.class)
+            .mapNotNull(this::matchedMessage);
+    }
+
+    /**
+     * Finds archived messages by business identifier (one query).
+     *
+     * @param messageIds Message identifiers
+     * @return Flux<Message> The archived ones among them
+     */
+    public Flux<Message> findByMessageIds(Collection<String> messageIds) {
+        if (!isEnabled() || messageIds.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Set<String> wanted = Set.copyOf(messageIds);
+        return mongoTemplate.find(Query.query(Criteria.where("messages.message_id").in(wanted)), MessageBucket.class)
+            .flatMapIterable(bucket -> bucket.getMessages().stream()
+                .filter(document -> wanted.contains(document.getString("message_id")))
+                .map(this::toMessage)
+                .toList());
+    }
+
+    /**
+     * Streams a conversation's archived messages, newest first.
+     *
+     * Buckets are read in bucket_start order (one at a time), so a consumer that stops
+     * after n messages reads only the buckets holding them.
+     *
+     * @param conversationId Conversation identifier
+     * @param position Only messages before this (timestamp, _id) position, null for all
+     * @param notBefore Only messages at or after this timestamp, may be null
+     * @return Flux<Message> Archived messages in history order (timestamp desc, _id desc)
+     */
+    Flux<Message> findOlder(String conversationId, HistoryCursor position, Instant notBefore) {
+        if (!isEnabled()) {
+            return Flux.empty();
+        }
+
+        Criteria criteria = Criteria.where("conversationId").is(conversationId);
+        if (position != null) {
+            criteria.and("bucketStart").lte(position.timestamp());
+        }
+        if (notBefore != null) {
+            criteria.and("bucketEnd").gte(notBefore);
+        }
+
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Order.desc("bucketStart")))
+            .cursorBatchSize(2);
+
+        return mongoTemplate.find(query, MessageBucket.class)
+            .concatMapIterable(bucket -> bucket.getMessages().stream()
+                .map(this::toMessage)
+                .filter(message -> isBefore(message, position)
+                    && (notBefore == null || !message.getTimestamp().isBefore(notBefore)))
+                .sorted(NEWEST_FIRST)
+                .toList());
+    }
+
+    private static boolean isBefore(Message message, HistoryCursor position) {
+        if (position == null) {
+            return true;
+        }
+        int byTimestamp = message.getTimestamp().compareTo(position.timestamp());
+        if (byTimestamp != 0 || position.id() == null) {
+            return byTimestamp < 0;
+        }
+        return new ObjectId(message.getId()).compareTo(position.id()) < 0;
+    }
+
+    /**
+     * Applies a status transition to an archived message (single atomic findAndModify,
+     * guarded by the allowed prior statuses as in MessageService.updateStatus).
+     *
+     * @param messageId Message identifier
+     * @param priorStatuses Statuses the message may currently have
+     * @param newStatus New status
+     * @param now Update timestamp
+     * @return Mono<Message> The message before the update, empty if not archived or not in a prior status
+     */
+    public Mono<Message> updateStatus(String messageId, Collection<MessageStatus> priorStatuses,
+                                      MessageStatus newStatus, Instant now) {
+        Criteria element = Criteria.where("message_id").is(messageId)
+            .and("status").in(priorStatuses.stream().map(MessageStatus::name).toList());
+        Update update = new Update()
+            .set(MATCHED + "status", newStatus.name())
+            .set(MATCHED + "updated_at", Date.from(now));
+
+        return modify(element, update, false);
+    }
+
+    /**
+     * Increments the retry count of an archived message.
+     *
+     * @param messageId Message identifier
+     * @param now Update timestamp
+     * @return Mono<Message> The updated message, empty if not archived
+     */
+    public Mono<Message> incrementRetryCount(String messageId, Instant now) {
+        Update update = new Update()
+            .inc(MATCHED + "metadata.retry_count", 1)
+            .set(MATCHED + "updated_at", Date.from(now));
+
+        return modify(Criteria.where("message_id").is(messageId), update, true);
+    }
+
+    /**
+     * Marks an archived message as failed.
+     *
+     * @param messageId Message identifier
+     * @param errorMessage Error description
+     * @param now Update timestamp
+     * @return Mono<Message> The updated message, empty if not archived
+     */
+    public Mono<Message> markAsFailed(String messageId, String errorMessage, Instant now) {
+        Update update = new Update()
+            .set(MATCHED + "status", MessageStatus.FAILED.name())
+            .set(MATCHED + "metadata.error_message", errorMessage)
+            .set(MATCHED + "updated_at", Date.from(now));
+
+        return modify(Criteria.where("message_id").is(messageId), update, true);
+    }
+
+    /**
+     * Updates the bucket element matching the criteria and returns that element.
+     */
+    private Mono<Message> modify(Criteria element, Update update, boolean returnNew) {
+        if (!isEnabled()) {
+            return Mono.empty();
+        }
+
+        Query query = Query.query(Criteria.where("messages").elemMatch(element));
+        query.fields().position("messages", 1);
+
+        return mongoTemplate.findAndModify(query, update.set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(returnNew), MessageBucket.class)
+            .mapNotNull(this::matchedMessage);
+    }
+
+    /**
+     * Archives hot messages older than the cutoff, for every conversation.
+     *
+     * @param cutoff Messages with an older timestamp are moved into buckets
+     * @return Mono<Long> Number of messages archived
+     */
+    public Mono<Long> archiveAll(Instant cutoff) {
+        Timer.Sample sample = Timer.start();
+
+        Query conversations = new Query();
+        conversations.fields().include("conversationId");
+
+        return mongoTemplate.find(conversations, Conversation.class)
+            .flatMap(conversation -> archive(conversation.getConversationId(), cutoff)
+                .onErrorResume(e -> {
+                    log.error("Failed to archive messages of conversation {}: {}",
+                        conversation.getConversationId(), e.getMessage());
+                    return Mono.just(0L);
+                }), ARCHIVE_CONCURRENCY)
+            .reduce(0L, Long::sum)
+            .doOnSuccess(archived -> {
+                sample.stop(archiveTimer);
+                log.info("Archived {} messages older than {} into buckets", archived, cutoff);
+            });
+    }
+
+    /**
+     * Archives one conversation's hot messages older than the cutoff.
+     *
+     * @param conversationId Conversation identifier
+     * @param cutoff Messages with an older timestamp are moved into buckets
+     * @return Mono<Long> Number of messages archived
+     */
+    public Mono<Long> archive(String conversationId, Instant cutoff) {
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId).and("timestamp").lt(cutoff))
+            .with(Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("id")))
+            .limit(archiveBatchSize);
+
+        return mongoTemplate.find(query, Message.class)
+            .collectList()
+            .flatMap(messages -> messages.isEmpty()
+                ? Mono.just(0L)
+                : archiveBatch(conversationId, messages)
+                    .flatMap(archived -> messages.size() < archiveBatchSize || archived == 0
+                        ? Mono.just(archived)
+                        : archive(conversationId, cutoff).map(more -> archived + more)));
+    }
+
+    /**
+     * Moves one batch of a conversation's messages (timestamp asc) into buckets.
+     */
+    private Mono<Long> archiveBatch(String conversationId, List<Message> messages) {
+        return archivedIds(messages)
+            .zipWith(newestBucket(conversationId).map(List::of).defaultIfEmpty(List.of()))
+            .flatMap(state -> {
+                Set<String> alreadyArchived = state.getT1();
+                MessageBucket head = state.getT2().isEmpty() ? null : state.getT2().get(0);
+                Instant now = Instant.now();
+
+                List<Message> copies = new ArrayList<>();
+                List<Message> stragglers = new ArrayList<>();
+                List<Message> fresh = new ArrayList<>();
+                for (Message message : messages) {
+                    if (alreadyArchived.contains(message.getMessageId())) {
+                        copies.add(message);
+                    } else if (head != null && message.getTimestamp().isBefore(head.getBucketEnd())) {
+                        stragglers.add(message);
+                    } else {
+                        fresh.add(message);
+                    }
+                }
+
+                Duration span = Duration.ofMinutes(maxSpanMinutes);
+                int next = 0;
+                List<Message> appended = new ArrayList<>();
+                if (head != null) {
+                    Instant headLimit = head.getBucketStart().plus(span);
+                    while (next < fresh.size()
+                        && head.getCount() + appended.size() < maxMessages
+                        && fresh.get(next).getTimestamp().isBefore(headLimit)) {
+                        appended.add(fresh.get(next++));
+                    }
+                }
+
+                List<MessageBucket> created = new ArrayList<>();
+                List<Message> chunk = new ArrayList<>();
+                for (; next < fresh.size(); next++) {
+                    Message message = fresh.get(next);
+                    if (!chunk.isEmpty() && (chunk.size() >= maxMessages
+                        || !message.getTimestamp().isBefore(chunk.get(0).getTimestamp().plus(span)))) {
+                        created.add(newBucket(conversationId, chunk, now));
+                        chunk = new ArrayList<>();
+                    }
+                    chunk.add(message);
+                }
+                if (!chunk.isEmpty()) {
+                    created.add(newBucket(conversationId, chunk, now));
+                }
+
+                return extend(head, appended, now)
+                    .flatMap(extended -> extended ? insert(created) : Mono.just(false))
+                    .flatMap(written -> {
+                        if (!written) {
+                            log.debug("Conversation {} archived concurrently, pass skipped", conversationId);
+                            return Mono.just(0L);
+                        }
+                        return Flux.concat(
+                                Flux.fromIterable(stragglers).concatMap(message -> place(conversationId, message, now)),
+                                Flux.fromIterable(copies).concatMap(this::refresh))
+                            .then(removeHot(messages));
+                    });
+            });
+    }
+
+    /**
+     * Message IDs of the batch already present in a bucket (earlier interrupted pass).
+     */
+    private Mono<Set<String>> archivedIds(List<Message> messages) {
+        Set<String> batchIds = new HashSet<>();
+        messages.forEach(message -> batchIds.add(message.getMessageId()));
+
+        Query query = Query.query(Criteria.where("messages.message_id").in(batchIds));
+        query.fields().include("messages.message_id");
+
+        return mongoTemplate.find(query, MessageBucket.class)
+            .flatMapIterable(MessageBucket::getMessages)
+            .map(document -> document.getString("message_id"))
+            .filter(batchIds::contains)
+            .<Set<String>>collect(HashSet::new, Set::add);
+    }
+
+    private Mono<MessageBucket> newestBucket(String conversationId) {
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId))
+            .with(Sort.by(Sort.Order.desc("bucketStart")));
+        query.fields().exclude("messages");
+        return mongoTemplate.findOne(query, MessageBucket.class);
+    }
+
+    private MessageBucket newBucket(String conversationId, List<Message> messages, Instant now) {
+        return MessageBucket.builder()
+            .id(conversationId + ":" + messages.get(0).getId())
+            .conversationId(conversationId)
+            .bucketStart(messages.get(0).getTimestamp())
+            .bucketEnd(messages.get(messages.size() - 1).getTimestamp())
+            .count(messages.size())
+            .messages(messages.stream().map(this::toDocument).toList())
+            .updatedAt(now)
+            .build();
+    }
+
+    /**
+     * Appends messages to the newest bucket, guarded by its count (false: raced).
+     */
+    private Mono<Boolean> extend(MessageBucket head, List<Message> appended, Instant now) {
+        if (appended.isEmpty()) {
+            return Mono.just(true);
+        }
+
+        Query query = Query.query(Criteria.where("id").is(head.getId()).and("count").is(head.getCount()));
+        Update update = new Update()
+            .inc("count", appended.size())
+            .max("bucketEnd", appended.get(appended.size() - 1).getTimestamp())
+            .set("updatedAt", now);
+        update.push("messages").each(appended.stream().map(this::toDocument).toArray());
+
+        return mongoTemplate.updateFirst(query, update, MessageBucket.class)
+            .map(result -> result.getModifiedCount() == 1);
+    }
+
+    /**
+     * Inserts new buckets (false: another archiver created them first).
+     */
+    private Mono<Boolean> insert(List<MessageBucket> created) {
+        if (created.isEmpty()) {
+            return Mono.just(true);
+        }
+        return mongoTemplate.insert(created, MessageBucket.class)
+            .then(Mono.just(true))
+            .onErrorResume(DuplicateKeyException.class, e -> Mono.just(false));
+    }
+
+    /**
+     * Pushes a late message into the bucket covering its timestamp (the oldest bucket if
+     * it precedes them all), widening the bucket's range.
+     */
+    private Mono<Void> place(String conversationId, Message message, Instant now) {
+        Update update = new Update()
+            .push("messages", toDocument(message))
+            .inc("count", 1)
+            .min("bucketStart", message.getTimestamp())
+            .max("bucketEnd", message.getTimestamp())
+            .set("updatedAt", now);
+
+        Query covering = Query.query(Criteria.where("conversationId").is(conversationId)
+                .and("bucketStart").lte(message.getTimestamp())
+                .and("messages.message_id").ne(message.getMessageId()))
+            .with(Sort.by(Sort.Order.desc("bucketStart")));
+        Query oldest = Query.query(Criteria.where("conversationId").is(conversationId)
+                .and("messages.message_id").ne(message.getMessageId()))
+            .with(Sort.by(Sort.Order.asc("bucketStart")));
+        covering.fields().exclude("messages");
+        oldest.fields().exclude("messages");
+
+        return mongoTemplate.findAndModify(covering, update, MessageBucket.class)
+            .switchIfEmpty(Mono.defer(() -> mongoTemplate.findAndModify(oldest, update, MessageBucket.class)))
+            .then();
+    }
+
+    /**
+     * Overwrites a message's bucket copy with its hot document (updated after being copied).
+     */
+    private Mono<Void> refresh(Message message) {
+        Query query = Query.query(Criteria.where("messages.message_id").is(message.getMessageId()));
+        return mongoTemplate.updateFirst(query, new Update().set("messages.$", toDocument(message)), MessageBucket.class)
+            .then();
+    }
+
+    /**
+     * Deletes archived messages from the hot collection, unless updated since they were read.
+     */
+    private Mono<Long> removeHot(List<Message> archived) {
+        ReactiveBulkOperations removes = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+        archived.forEach(message -> removes.remove(Query.query(Criteria.where("id").is(message.getId())
+            .and("status").is(message.getStatus())
+            .and("updatedAt").is(message.getUpdatedAt()))));
+
+        return removes.execute()
+            .map(result -> (long) result.getDeletedCount())
+            .doOnNext(archivedCounter::increment);
+    }
+
+    /**
+     * Moves every archived message back into the messages collection (rollback to the
+     * document mode), one bucket at a time.
+     *
+     * @return Mono<Long> Number of messages restored
+     */
+    public Mono<Long> restoreAll() {
+        Query query = new Query().cursorBatchSize(2);
+        return mongoTemplate.find(query, MessageBucket.class)
+            .concatMap(this::restore)
+            .reduce(0L, Long::sum)
+            .doOnSuccess(restored -> log.info("Restored {} messages from buckets", restored));
+    }
+
+    /**
+     * Re-inserts a bucket's messages, then deletes the bucket. Messages already present
+     * (earlier interrupted run) are skipped; any other failure keeps the bucket.
+     */
+    private Mono<Long> restore(MessageBucket bucket) {
+        List<Message> messages = bucket.getMessages().stream().map(this::toMessage).toList();
+
+        ReactiveBulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+        inserts.insert(messages);
+
+        return inserts.execute()
+            .map(result -> (long) result.getInsertedCount())
+            .onErrorResume(e -> {
+                Map<Integer, BulkWriteError> writeErrors = BulkWriteErrors.byIndex(e);
+                if (writeErrors == null || !writeErrors.values().stream().allMatch(BulkWriteErrors::isDuplicateKey)) {
+                    return Mono.error(e);
+                }
+                return Mono.just((long) (messages.size() - writeErrors.size()));
+            })
+            .flatMap(restored -> mongoTemplate.remove(Query.query(Criteria.where("id").is(bucket.getId())),
+                    MessageBucket.class)
+                .thenReturn(restored));
+    }
+
+    /**
+     * The message selected by a positional projection (messages.$).
+     */
+    private Message matchedMessage(MessageBucket bucket) {
+        return bucket.getMessages() == null || bucket.getMessages().isEmpty()
+            ? null
+            : toMessage(bucket.getMessages().get(0));
+    }
+
+    private Message toMessage(Document document) {
+        return mongoTemplate.getConverter().read(Message.class, document);
+    }
+
+    private Document toDocument(Message message) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(message, document);
+        document.remove("_class");
+        return document;
+    }
+}
@@ -0,0 +1,349 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.ConversationType;
+import com.chat4all.message.domain.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Message History Service
+ *
+ * Serves conversation history pages (GET /api/v1/conversations/{id}/messages) with
+ * keyset pagination: each page is one range scan of idx_conversation_timestamp
+ * {conversation_id: 1, timestamp: -1, _id: -1}, whatever the page depth.
+ *
+ * Query per page:
+ * - conversation_id = id
+ * - timestamp in [joinDate, cursor.timestamp] (join-date bound for GROUP members, Task T080)
+ * - (timestamp, _id) < cursor, for messages sharing the cursor's timestamp
+ * - sort timestamp desc, _id desc, limit + 1 (the extra document only decides hasMore)
+ *
+ * The join-date bound is part of the query, so pages are always full when more
+ * messages exist (filtering after the limit returned short pages).
+ *
+ * Bucketed storage mode ({@link MessageBucketStore}): older messages live in
+ * message_buckets. Each read takes the newest matching messages from both collections
+ * and merges them; buckets are only read down to the page's oldest hot message, so pages
+ * served entirely from the messages collection cost one index probe more.
+ *
+ * First pages of hot conversations are served from {@link RecentMessagesCache} (no
+ * MongoDB read). On a buffer miss the newest capacity messages are read once, installed
+ * as the buffer and the page is served from them. Deeper pages always query MongoDB.
+ *
+ * Configuration (message.history.*):
+ * - default-limit (default: 50)
+ * - max-limit (default: 100; larger requests are capped)
+ * - message.recent-cache.verify-sample-rate (default: 0.01): share of cache hits
+ *   re-read from MongoDB to measure staleness
+ *
+ * Metrics:
+ * - messages.history.query.time {view}: MongoDB page reads
+ * - messages.history.cache.requests {result=hit|miss}: first-page reads (hit rate)
+ * - messages.history.cache.verifications {result=fresh|stale}: sampled staleness
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MessageHistoryService {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ParticipantCache participantCache;
+    private final RecentMessagesCache recentMessagesCache;
+    private final MessageBucketStore messageBucketStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${message.history.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${message.history.max-limit:100}")
+    private int maxLimit;
+
+    @Value("${message.recent-cache.verify-sample-rate:0.01}")
+    private double verifySampleRate;
+
+    /**
+     * Fields returned by each history view.
+     */
+    public enum View {
+        /**
+         * Whole message documents
+         */
+        FULL,
+
+        /**
+         * What a message list renders: no recipientIds, metadata or audit timestamps
+         */
+        LIST
+    }
+
+    /**
+     * One page of history.
+     *
+     * @param messages Messages, newest first
+     * @param nextCursor Cursor of the next (older) page, or null if this is the last page
+     */
+    public record HistoryPage(List<Message> messages, String nextCursor) {
+
+        public static final HistoryPage EMPTY = new HistoryPage(List.of(), null);
+
+        public boolean hasMore() {
+            return nextCursor != null;
+        }
+    }
+
+    /**
+     * Reads one page of a conversation's history.
+     *
+     * @param conversationId Conversation identifier
+     * @param userId Requesting user (GROUP: messages before their join date are hidden), may be null
+     * @param position Decoded nextCursor of the previous page (see {@link HistoryCursor#decode}), null for the first page
+     * @param limit Requested page size (defaulted and capped)
+     * @param view Fields to return
+     * @return Mono<HistoryPage> Page of messages (empty page if the conversation does not exist)
+     */
+    public Mono<HistoryPage> getHistory(String conversationId, String userId, HistoryCursor position, int limit, View view) {
+        int pageSize = limit <= 0 ? defaultLimit : Math.min(limit, maxLimit);
+
+        // Task T080: membership (cached) for the join-date bound
+        return participantCache.get(conversationId)
+            .flatMap(membership -> {
+                Instant joinDate = userId != null && membership.type() == ConversationType.GROUP
+                    ? membership.joinDateOf(userId)
+                    : null;
+
+                // First pages that fit the buffer (a full buffer still tells whether more exist)
+                if (position == null && recentMessagesCache.isEnabled() && pageSize < recentMessagesCache.capacity()) {
+                    return firstPageFromRecent(conversationId, joinDate, pageSize, view);
+                }
+                return queryPage(conversationId, joinDate, position, pageSize, view);
+            })
+            .defaultIfEmpty(HistoryPage.EMPTY);
+    }
+
+    /**
+     * Serves a first page from the recent messages buffer, seeding the buffer on a miss.
+     */
+    private Mono<HistoryPage> firstPageFromRecent(String conversationId, Instant joinDate, int pageSize, View view) {
+        return recentMessagesCache.read(conversationId, pageSize + 1)
+            // Entries missing from the hash (should not happen): treat as a miss
+            .filter(snapshot -> snapshot.messages().size() == Math.min(snapshot.size(), pageSize + 1))
+            .map(snapshot -> {
+                countCacheRead("hit");
+                HistoryPage page = pageFrom(snapshot.messages(), joinDate, pageSize, view);
+                if (verifySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+                    verify(conversationId, joinDate, pageSize, view, page);
+                }
+                return page;
+            })
+            .switchIfEmpty(Mono.defer(() -> {
+                countCacheRead("miss");
+                return seedAndServe(conversationId, joinDate, pageSize, view);
+            }));
+    }
+
+    /**
+     * Reads the newest buffer-capacity messages from MongoDB, installs them as the
+     * conversation's buffer and serves the first page from them (one query).
+     */
+    private Mono<HistoryPage> seedAndServe(String conversationId, Instant joinDate, int pageSize, View view) {
+        return recentMessagesCache.version(conversationId)
+            .onErrorResume(e -> {
+                log.warn("Recent messages cache unavailable for conversation {}: {}", conversationId, e.getMessage());
+                return Mono.empty();
+            })
+            .flatMap(version -> findNewest(conversationId, null, null, recentMessagesCache.capacity(), View.FULL)
+                .flatMap(newest -> recentMessagesCache.seed(conversationId, version, newest)
+                    .then(Mono.fromSupplier(() -> pageFrom(newest, joinDate, pageSize, view)))))
+            .switchIfEmpty(Mono.defer(() -> queryPage(conversationId, joinDate, null, pageSize, view)));
+    }
+
+    /**
+     * Builds a first page from the newest messages of a conversation (newest first, every
+     * message newer than the oldest one present).
+     */
+    private static HistoryPage pageFrom(List<Message> newest, Instant joinDate, int pageSize, View view) {
+        List<Message> visible = newest.stream()
+            .filter(message -> joinDate == null || !message.getTimestamp().isBefore(joinDate))
+            .limit(pageSize + 1L)
+            .toList();
+
+        List<Message> page = visible.stream().limit(pageSize).map(message -> project(message, view)).toList();
+        if (visible.size() <= pageSize) {
+            return new HistoryPage(page, null);
+        }
+        Message oldest = page.get(pageSize - 1);
+        return new HistoryPage(page, HistoryCursor.encode(oldest.getTimestamp(), oldest.getId()));
+    }
+
+    /**
+     * Applies a view to a full message (the buffer holds full documents).
+     */
+    private static Message project(Message message, View view) {
+        if (view == View.FULL) {
+            return message;
+        }
+        return Message.builder()
+            .id(message.getId())
+            .messageId(message.getMessageId())
+            .conversationId(message.getConversationId())
+            .senderId(message.getSenderId())
+            .content(message.getContent())
+            .contentType(message.getContentType())
+            .fileIds(message.getFileIds())
+            .channel(message.getChannel())
+            .status(message.getStatus())
+            .timestamp(message.getTimestamp())
+            .build();
+    }
+
+    /**
+     * Staleness check: compares a page served from the buffer with MongoDB (fire-and-forget).
+     */
+    private void verify(String conversationId, Instant joinDate, int pageSize, View view, HistoryPage served) {
+        queryPage(conversationId, joinDate, null, pageSize, view)
+            .subscribe(
+                actual -> {
+                    boolean fresh = signature(actual).equals(signature(served));
+                    if (!fresh) {
+                        log.warn("Stale recent messages buffer for conversation {}", conversationId);
+                    }
+                    Counter.builder("messages.history.cache.verifications")
+                        .description("Sampled comparisons of cached first pages with MongoDB")
+                        .tag("result", fresh ? "fresh" : "stale")
+                        .register(meterRegistry)
+                        .increment();
+                },
+                e -> log.debug("Recent messages verification failed for conversation {}: {}", conversationId, e.getMessage()));
+    }
+
+    private static List<String> signature(HistoryPage page) {
+        return page.messages().stream()
+            .map(message -> message.getMessageId() + ":" + message.getStatus())
+            .toList();
+    }
+
+    private void countCacheRead(String result) {
+        Counter.builder("messages.history.cache.requests")
+            .description("First-page history reads by recent messages cache outcome")
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Runs the keyset query for one page.
+     */
+    private Mono<HistoryPage> queryPage(String conversationId, Instant joinDate, HistoryCursor position,
+                                        int pageSize, View view) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        return findNewest(conversationId, joinDate, position, pageSize + 1, view)
+            .map(messages -> {
+                if (messages.size() <= pageSize) {
+                    return new HistoryPage(messages, null);
+                }
+
+                List<Message> page = messages.subList(0, pageSize);
+                Message oldest = page.get(pageSize - 1);
+                return new HistoryPage(page, HistoryCursor.encode(oldest.getTimestamp(), oldest.getId()));
+            })
+            .doOnSuccess(page -> {
+                log.debug("History page for conversation {}: {} messages (joinDate={}, cursor={}, view={})",
+                    conversationId, page.messages().size(), joinDate, position != null, view);
+                sample.stop(Timer.builder("messages.history.query.time")
+                    .description("Time taken to read one page of conversation history")
+                    .tag("view", view.name())
+                    .register(meterRegistry));
+            });
+    }
+
+    /**
+     * Reads the newest count messages of a conversation before a position (history order),
+     * from the messages collection and, in the bucketed storage mode, from message_buckets.
+     */
+    private Mono<List<Message>> findNewest(String conversationId, Instant joinDate, HistoryCursor position,
+                                           int count, View view) {
+        Criteria criteria = Criteria.where("conversationId").is(conversationId);
+        if (position != null || joinDate != null) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (position != null) {
+                timestamp = position.id() != null ? timestamp.lte(position.timestamp()) : timestamp.lt(position.timestamp());
+            }
+            if (joinDate != null) {
+                timestamp.gte(joinDate);
+            }
+        }
+        if (position != null && position.id() != null) {
+            // Residual filter inside the [.., cursor.timestamp] range: drops the cursor's
+            // own timestamp up to and including the last message already returned
+            criteria.orOperator(
+                Criteria.where("timestamp").lt(position.timestamp()),
+                Criteria.where("id").lt(position.id()));
+        }
+
+        Query query = Query.query(criteria)
+            .with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id")))
+            .limit(count);
+        if (view == View.LIST) {
+            query.fields().include("messageId", "conversationId", "senderId", "content", "contentType",
+                "fileIds", "channel", "status", "timestamp");
+        }
+
+        Mono<List<Message>> hot = mongoTemplate.find(query, Message.class).collectList();
+        if (!messageBucketStore.isEnabled()) {
+            return hot;
+        }
+
+        return hot.flatMap(recent -> {
+            // A full hot result bounds the archived messages that can still rank in it
+            Instant notBefore = joinDate;
+            if (recent.size() == count) {
+                Instant oldestHot = recent.get(count - 1).getTimestamp();
+                notBefore = joinDate == null || oldestHot.isAfter(joinDate) ? oldestHot : joinDate;
+            }
+
+            return messageBucketStore.findOlder(conversationId, position, notBefore)
+                .take(count)
+                .collectList()
+                .map(archived -> merge(recent, archived, count, view));
+        });
+    }
+
+    /**
+     * Merges hot and archived messages into the newest count (history order). A message
+     * present in both (archived while being read) is taken from the messages collection.
+     */
+    private static List<Message> merge(List<Message> hot, List<Message> archived, int count, View view) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+
+        Map<String, Message> byId = new LinkedHashMap<>();
+        hot.forEach(message -> byId.put(message.getMessageId(), message));
+        archived.forEach(message -> byId.putIfAbsent(message.getMessageId(), project(message, view)));
+
+        return byId.values().stream()
+            .sorted(MessageBucketStore.NEWEST_FIRST)
+            .limit(count)
+            .toList();
+    }
+}
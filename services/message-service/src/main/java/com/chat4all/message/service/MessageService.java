@@ -9,17 +9,36 @@ import com.chat4all.message.kafka.MessageProducer;
 import com.chat4all.message.repository.MessageRepository;
 import com.chat4all.message.repository.MessageStatusHistoryRepository;
 import com.chat4all.message.websocket.MessageStatusWebSocketHandler;
+import com.mongodb.bulk.BulkWriteError;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -29,14 +48,21 @@ import java.util.UUID;
  * Handles message acceptance, persistence, status updates, and event publishing.
  * 
  * Key responsibilities:
- * 1. Idempotency check (via Redis)
+ * 1. Idempotency check (unique message_id index, Redis marker)
  * 2. Message persistence (to MongoDB)
  * 3. Event publishing (to Kafka)
  * 4. Status management (PENDING → SENT → DELIVERED → READ)
  * 
+ * Storage: messages are written to the messages collection. In the bucketed storage mode
+ * older messages live in message_buckets ({@link MessageBucketStore}); lookups and status
+ * changes fall back to it when a message is no longer in the messages collection.
+ * 
  * Metrics (T112):
  * - messages.processed.success: Counter for successfully processed messages
  * - messages.processing.time: Timer for message processing latency
+ * - messages.batch.processing.time: Timer for batch accept latency (POST /api/messages/batch)
+ * - messages.status.update.time: Timer for status update latency (atomic update + history)
+ * - messages.status.batch.time: Timer for batched status updates (StatusUpdateConsumer)
  * 
  * @author Chat4All Team
  * @version 1.0.0
@@ -46,13 +72,31 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class MessageService {
 
+    /**
+     * For each target status, the statuses allowed to precede it (query predicate of updateStatus)
+     */
+    private static final Map<MessageStatus, List<MessageStatus>> ALLOWED_PRIOR_STATUSES = new EnumMap<>(MessageStatus.class);
+
+    static {
+        for (MessageStatus target : MessageStatus.values()) {
+            ALLOWED_PRIOR_STATUSES.put(target, Arrays.stream(MessageStatus.values())
+                .filter(prior -> prior.canTransitionTo(target))
+                .toList());
+        }
+    }
+
     private final MessageRepository messageRepository;
     private final MessageStatusHistoryRepository statusHistoryRepository;
     private final IdempotencyService idempotencyService;
     private final MessageProducer messageProducer;
     private final ConversationService conversationService;
+    private final ParticipantCache participantCache;
+    private final RecentMessagesCache recentMessagesCache;
+    private final MessageBucketStore messageBucketStore;
+    private final InboundMessageWriter inboundMessageWriter;
     private final MessageStatusWebSocketHandler webSocketHandler;
     private final MeterRegistry meterRegistry;
+    private final ReactiveMongoTemplate mongoTemplate;
 
     /**
      * Accepts a new message for processing (reactive).
@@ -61,24 +105,36 @@ public class MessageService {
      * 
      * Flow:
      * 1. Start processing timer (metrics)
-     * 2. Check idempotency (prevent duplicates)
-     * 3. Generate message ID if not provided
-     * 4. Set initial status to PENDING
-     * 5. Populate recipientIds from conversation participants (User Story 4)
-     * 6. Persist to MongoDB
-     * 7. Publish MESSAGE_CREATED event to Kafka
+     * 2. Generate message ID if not provided
+     * 3. Populate recipientIds from the participants cache (User Story 4)
+     * 4. Set timestamps, initial status PENDING and metadata
+     * 5. Insert into MongoDB and, for client-supplied IDs, claim the Redis idempotency
+     *    key concurrently
+     * 6. Record the message on its conversation (count, last activity, preview) and in
+     *    the recent messages buffer
+     * 7. Publish MESSAGE_CREATED event to Kafka (fire-and-forget)
      * 8. Record processing time and success metrics
      * 
+     * Round-trips: one MongoDB insert (plus one Redis SETNX in parallel with it, client IDs
+     * only), one atomic conversation update, and one conversation read on a participants
+     * cache miss.
+     * 
+     * Idempotency (FR-006): the unique message_id index is the source of truth. A duplicate
+     * insert fails with DuplicateKeyException and is reported as a duplicate message; the
+     * Redis key is kept as a fast-path marker for other readers but no longer gates the
+     * insert, so a Redis key left behind by a failed attempt cannot reject a retry.
+     * 
      * @param message Message to accept
      * @return Mono<Message> Persisted message with generated ID
-     * @throws IllegalStateException if message is a duplicate
+     * @throws DuplicateMessageException if message is a duplicate
      */
     public Mono<Message> acceptMessage(Message message) {
         // Start timer for message processing latency (T112)
         Timer.Sample sample = Timer.start(meterRegistry);
 
         // Generate message ID if not provided (handles null or blank)
-        if (message.getMessageId() == null || message.getMessageId().trim().isEmpty()) {
+        boolean clientSuppliedId = message.getMessageId() != null && !message.getMessageId().trim().isEmpty();
+        if (!clientSuppliedId) {
             String generatedId = UUID.randomUUID().toString();
             message.setMessageId(generatedId);
             log.debug("Generated new messageId: {}", generatedId);
@@ -86,63 +142,228 @@ public class MessageService {
 
         final String messageId = message.getMessageId();
 
-        // Idempotency check (FR-006)
-        return idempotencyService.isDuplicate(messageId)
-            .flatMap(isDuplicate -> {
-                if (isDuplicate) {
-                    log.warn("Duplicate message detected: {}", messageId);
-                    return Mono.error(new IllegalStateException("Duplicate message: " + messageId));
+        // Populate recipientIds from conversation participants (Task T076/T077)
+        return populateRecipientIds(message)
+            .flatMap(messageWithRecipients -> {
+                // Set timestamps, initial status and metadata
+                prepareForInsert(messageWithRecipients, Instant.now());
+
+                // Persist to MongoDB (insert, not save: never overwrite an existing document)
+                Mono<Message> insert = messageRepository.insert(messageWithRecipients)
+                    .onErrorMap(DuplicateKeyException.class, e -> {
+                        log.warn("Duplicate message detected: {} (unique message_id index)", messageId);
+                        return new DuplicateMessageException(messageId, e);
+                    });
+
+                // Server-generated IDs cannot collide, so only client IDs need the Redis marker.
+                // isDuplicate() never errors; its answer is informational only.
+                if (clientSuppliedId) {
+                    insert = Mono.zip(insert, idempotencyService.isDuplicate(messageId))
+                        .map(result -> result.getT1());
                 }
 
-                // Populate recipientIds from conversation participants (Task T076/T077)
-                return populateRecipientIds(message)
-                    .flatMap(messageWithRecipients -> {
-                        // Set timestamps
-                        Instant now = Instant.now();
-                        if (messageWithRecipients.getTimestamp() == null) {
-                            messageWithRecipients.setTimestamp(now);
-                        }
-                        messageWithRecipients.setCreatedAt(now);
-                        messageWithRecipients.setUpdatedAt(now);
+                return insert
+                    // Conversation counters and preview (one atomic update) and the recent
+                    // messages buffer, concurrently; neither fails the accept
+                    .flatMap(savedMessage -> Mono.when(
+                            conversationService.recordMessageActivity(savedMessage)
+                                .onErrorResume(e -> {
+                                    log.warn("Failed to record activity for message {} in conversation {}: {}",
+                                        messageId, savedMessage.getConversationId(), e.getMessage());
+                                    return Mono.empty();
+                                }),
+                            recentMessagesCache.append(List.of(savedMessage)))
+                        .thenReturn(savedMessage))
+                    .doOnSuccess(savedMessage -> {
+                        log.info("Message accepted and persisted: {} (conversation: {}, recipients: {})",
+                            savedMessage.getMessageId(), savedMessage.getConversationId(), 
+                            savedMessage.getRecipientIds() != null ? savedMessage.getRecipientIds().size() : 0);
+
+                        // Publish MESSAGE_CREATED event to Kafka (fire-and-forget)
+                        publishMessageEvent(savedMessage, MessageEvent.EventType.MESSAGE_CREATED);
+
+                        // Metric: Record processing time (T112)
+                        sample.stop(Timer.builder("messages.processing.time")
+                            .description("Time taken to process a message from receipt to Kafka publish")
+                            .register(meterRegistry));
+
+                        // Metric: Count successfully processed messages (T112)
+                        Counter.builder("messages.processed.success")
+                            .description("Total number of messages successfully processed")
+                            .register(meterRegistry)
+                            .increment();
+                    });
+            });
+    }
+
+    /**
+     * Accepts a batch of messages for processing (reactive).
+     * 
+     * Batch counterpart of {@link #acceptMessage(Message)} (same rules and events) for
+     * broadcast and campaign tooling, with round-trips per batch instead of per message:
+     * 1. Generate missing message IDs and populate recipientIds (participants cache)
+     * 2. Reject IDs repeated within the batch
+     * 3. One unordered bulk insert into MongoDB and, concurrently, one pipelined claim of
+     *    the Redis idempotency keys of client-supplied IDs
+     * 4. One bulk update recording the messages on their conversations, and the recent
+     *    messages buffers
+     * 5. Publish MESSAGE_CREATED events as one producer batch (fire-and-forget)
+     * 
+     * A rejected message never fails the batch: each input gets an outcome, in input order.
+     * Duplicates (unique message_id index, or repeated in the batch) are rejected with
+     * DuplicateMessageException, as in acceptMessage; any other error is reported as is.
+     * 
+     * @param messages Messages to accept
+     * @return Flux<AcceptOutcome> One outcome per message, in input order
+     */
+    public Flux<AcceptOutcome> acceptMessages(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        List<String> clientSuppliedIds = new ArrayList<>();
+        for (Message message : messages) {
+            if (message.getMessageId() != null && !message.getMessageId().trim().isEmpty()) {
+                clientSuppliedIds.add(message.getMessageId());
+            } else {
+                message.setMessageId(UUID.randomUUID().toString());
+            }
+        }
 
-                        // Set initial status
-                        if (messageWithRecipients.getStatus() == null) {
-                            messageWithRecipients.setStatus(MessageStatus.PENDING);
+        return Flux.fromIterable(messages)
+            .flatMapSequential(this::populateRecipientIds)
+            .collectList()
+            .flatMap(prepared -> {
+                Instant now = Instant.now();
+                AcceptOutcome[] outcomes = new AcceptOutcome[prepared.size()];
+                List<Integer> toInsert = new ArrayList<>(prepared.size());
+                Set<String> seenIds = new HashSet<>();
+
+                for (int i = 0; i < prepared.size(); i++) {
+                    Message message = prepared.get(i);
+                    if (!seenIds.add(message.getMessageId())) {
+                        outcomes[i] = AcceptOutcome.rejected(message,
+                            new DuplicateMessageException(message.getMessageId(), null));
+                        continue;
+                    }
+                    prepareForInsert(message, now);
+                    // Assign _id up front: bulk inserts do not write it back to the entity
+                    if (message.getId() == null) {
+                        message.setId(new ObjectId().toHexString());
+                    }
+                    toInsert.add(i);
+                }
+
+                List<Message> documents = toInsert.stream().map(prepared::get).toList();
+                ReactiveBulkOperations inserts = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+                inserts.insert(documents);
+
+                // Redis markers are informational only (the unique index decides), as in acceptMessage()
+                Mono<Map<Integer, BulkWriteError>> insert = inserts.execute()
+                    .map(result -> Map.<Integer, BulkWriteError>of())
+                    .onErrorResume(e -> {
+                        Map<Integer, BulkWriteError> writeErrors = BulkWriteErrors.byIndex(e);
+                        if (writeErrors == null) {
+                            return Mono.error(e);
                         }
+                        return Mono.just(writeErrors);
+                    });
 
-                        // Initialize metadata if null
-                        if (messageWithRecipients.getMetadata() == null) {
-                            messageWithRecipients.setMetadata(Message.MessageMetadata.builder()
-                                .retryCount(0)
-                                .build());
+                return Mono.zip(insert, idempotencyService.claimAll(clientSuppliedIds))
+                    .map(result -> {
+                        Map<Integer, BulkWriteError> writeErrors = result.getT1();
+                        for (int j = 0; j < documents.size(); j++) {
+                            Message message = documents.get(j);
+                            BulkWriteError error = writeErrors.get(j);
+                            outcomes[toInsert.get(j)] = error == null
+                                ? AcceptOutcome.accepted(message)
+                                : AcceptOutcome.rejected(message, duplicateOrError(message, error));
+                        }
+                        return List.of(outcomes);
+                    })
+                    .onErrorResume(e -> {
+                        // Not a per-document failure (connection, timeout...): nothing was confirmed
+                        log.error("Batch insert failed ({} messages): {}", documents.size(), e.getMessage());
+                        RuntimeException error = e instanceof RuntimeException runtimeException
+                            ? runtimeException
+                            : new IllegalStateException(e.getMessage(), e);
+                        for (int index : toInsert) {
+                            outcomes[index] = AcceptOutcome.rejected(prepared.get(index), error);
                         }
+                        return Mono.just(List.of(outcomes));
+                    });
+            })
+            .flatMap(results -> {
+                List<Message> accepted = results.stream()
+                    .filter(AcceptOutcome::isAccepted)
+                    .map(AcceptOutcome::message)
+                    .toList();
 
-                        // Persist to MongoDB
-                        return messageRepository.save(messageWithRecipients)
-                            .doOnSuccess(savedMessage -> {
-                                log.info("Message accepted and persisted: {} (conversation: {}, recipients: {})",
-                                    savedMessage.getMessageId(), savedMessage.getConversationId(), 
-                                    savedMessage.getRecipientIds() != null ? savedMessage.getRecipientIds().size() : 0);
-
-                                // Publish MESSAGE_CREATED event to Kafka (fire-and-forget)
-                                publishMessageEvent(savedMessage, MessageEvent.EventType.MESSAGE_CREATED);
-
-                                // Metric: Record processing time (T112)
-                                sample.stop(Timer.builder("messages.processing.time")
-                                    .description("Time taken to process a message from receipt to Kafka publish")
-                                    .register(meterRegistry));
-
-                                // Metric: Count successfully processed messages (T112)
-                                Counter.builder("messages.processed.success")
-                                    .description("Total number of messages successfully processed")
-                                    .register(meterRegistry)
-                                    .increment();
-                            })
-                            .doOnError(DuplicateKeyException.class, e ->
-                                log.error("Duplicate key error for message: {}", messageId, e)
-                            );
+                // Conversation counters and previews (one bulk update) and the recent messages
+                // buffers, concurrently; neither fails the accept
+                return Mono.when(
+                        conversationService.recordMessageActivity(accepted)
+                            .onErrorResume(e -> {
+                                log.warn("Failed to record activity for batch of {} messages: {}", accepted.size(), e.getMessage());
+                                return Mono.empty();
+                            }),
+                        recentMessagesCache.append(accepted))
+                    .then(Mono.fromRunnable(() -> publishMessageEvents(accepted, MessageEvent.EventType.MESSAGE_CREATED)))
+                    .thenReturn(results)
+                    .doOnSuccess(ignored -> {
+                        log.info("Message batch accepted: {} of {} messages", accepted.size(), results.size());
+
+                        sample.stop(Timer.builder("messages.batch.processing.time")
+                            .description("Time taken to process a batch of messages from receipt to Kafka publish")
+                            .register(meterRegistry));
+
+                        Counter.builder("messages.processed.success")
+                            .description("Total number of messages successfully processed")
+                            .register(meterRegistry)
+                            .increment(accepted.size());
                     });
-            });
+            })
+            .flatMapMany(Flux::fromIterable);
+    }
+
+    /**
+     * Sets the fields of a newly accepted message: timestamps, initial status PENDING and
+     * metadata.
+     */
+    private static void prepareForInsert(Message message, Instant now) {
+        // Set timestamps
+        if (message.getTimestamp() == null) {
+            message.setTimestamp(now);
+        }
+        message.setCreatedAt(now);
+        message.setUpdatedAt(now);
+
+        // Set initial status
+        if (message.getStatus() == null) {
+            message.setStatus(MessageStatus.PENDING);
+        }
+
+        // Initialize metadata if null
+        if (message.getMetadata() == null) {
+            message.setMetadata(Message.MessageMetadata.builder()
+                .retryCount(0)
+                .build());
+        }
+    }
+
+    /**
+     * Reports a per-document insert error like acceptMessage() does (duplicates as
+     * DuplicateMessageException).
+     */
+    private static RuntimeException duplicateOrError(Message message, BulkWriteError error) {
+        RuntimeException exception = BulkWriteErrors.toException(message, error);
+        if (exception instanceof DuplicateKeyException) {
+            log.warn("Duplicate message detected: {} (unique message_id index)", message.getMessageId());
+            return new DuplicateMessageException(message.getMessageId(), exception);
+        }
+        return exception;
     }
 
     /**
@@ -154,6 +375,9 @@ public class MessageService {
      * For ONE_TO_ONE: 1 recipient (the other person)
      * For GROUP: N-1 recipients (all participants except sender)
      * 
+     * Participants come from {@link ParticipantCache}, so steady-state traffic to a
+     * conversation does not read the conversation document.
+     * 
      * @param message Message to populate recipientIds for
      * @return Mono<Message> Message with populated recipientIds
      */
@@ -170,20 +394,17 @@ public class MessageService {
             return Mono.just(message);
         }
 
-        // Fetch conversation and extract participants
-        return conversationService.getConversation(message.getConversationId())
-            .map(conversation -> {
-                if (conversation.getParticipants() != null && !conversation.getParticipants().isEmpty()) {
-                    // Filter out the sender from participants list
-                    List<String> recipients = conversation.getParticipants().stream()
-                        .filter(participantId -> !participantId.equals(message.getSenderId()))
-                        .toList();
+        // Look up membership (cached) and exclude the sender
+        return participantCache.get(message.getConversationId())
+            .map(membership -> {
+                if (!membership.participants().isEmpty()) {
+                    List<String> recipients = membership.recipientsExcluding(message.getSenderId());
 
                     message.setRecipientIds(recipients);
                     log.debug("Populated {} recipients for message: {} in conversation: {}", 
-                        recipients.size(), message.getMessageId(), conversation.getConversationId());
+                        recipients.size(), message.getMessageId(), message.getConversationId());
                 } else {
-                    log.warn("No participants found in conversation: {}", conversation.getConversationId());
+                    log.warn("No participants found in conversation: {}", message.getConversationId());
                 }
                 return message;
             })
@@ -203,6 +424,13 @@ public class MessageService {
      * - DELIVERED → READ
      * - Any status → FAILED
      * 
+     * Single atomic findAndModify: the query only matches the message while its status is
+     * one from which newStatus is reachable, so concurrent updates cannot overwrite each
+     * other or move the status backwards. The pre-image supplies the old status for the
+     * history entry. The message is only read again when the update does not match, to
+     * tell "not found" from "invalid transition". Archived messages (bucketed storage
+     * mode) get the same guarded update inside their bucket.
+     * 
      * @param messageId Message identifier
      * @param newStatus New status to set
      * @param updatedBy Actor triggering the update (e.g., "router-service", "webhook-whatsapp")
@@ -211,47 +439,76 @@ public class MessageService {
      * @throws IllegalStateException if status transition is invalid
      */
     public Mono<Void> updateStatus(String messageId, MessageStatus newStatus, String updatedBy) {
-        return getMessageById(messageId)
-            .switchIfEmpty(Mono.error(new IllegalArgumentException("Message not found: " + messageId)))
-            .flatMap(message -> {
-                MessageStatus oldStatus = message.getStatus();
-
-                // Validate status transition
-                if (!oldStatus.canTransitionTo(newStatus)) {
-                    return Mono.error(new IllegalStateException(String.format(
-                        "Invalid status transition for message %s: %s → %s",
-                        messageId, oldStatus, newStatus)));
-                }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Instant now = Instant.now();
+
+        Query query = Query.query(Criteria.where("messageId").is(messageId)
+            .and("status").in(allowedPriorStatuses(newStatus)));
+        Update update = new Update()
+            .set("status", newStatus)
+            .set("updatedAt", now);
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(false), Message.class)
+            .switchIfEmpty(Mono.defer(() ->
+                messageBucketStore.updateStatus(messageId, allowedPriorStatuses(newStatus), newStatus, now)))
+            .switchIfEmpty(Mono.defer(() -> rejectStatusUpdate(messageId, newStatus)))
+            .flatMap(previous -> {
+                MessageStatus oldStatus = previous.getStatus();
 
-                // Update status and timestamp
-                message.setStatus(newStatus);
-                message.setUpdatedAt(Instant.now());
+                // Pre-image + applied update = current document, no re-read needed
+                Message updatedMessage = previous;
+                updatedMessage.setStatus(newStatus);
+                updatedMessage.setUpdatedAt(now);
 
                 // Create status history entry
                 MessageStatusHistory history = MessageStatusHistory.createTransition(
                     messageId,
-                    message.getConversationId(),
+                    updatedMessage.getConversationId(),
                     oldStatus,
                     newStatus,
                     updatedBy != null ? updatedBy : "system"
                 );
 
-                // Save message and history in parallel, then publish event
-                return Mono.zip(
-                    messageRepository.save(message),
-                    statusHistoryRepository.save(history)
-                )
-                .doOnSuccess(tuple -> {
-                    Message savedMessage = tuple.getT1();
-                    log.info("Message status updated: {} → {} (message: {}, updatedBy: {})",
-                        oldStatus, newStatus, messageId, updatedBy);
-
-                    // Publish status update event (fire-and-forget)
-                    MessageEvent.EventType eventType = mapStatusToEventType(newStatus);
-                    publishMessageEvent(savedMessage, eventType);
-                })
-                .then();
-            });
+                return Mono.when(
+                        statusHistoryRepository.insert(history)
+                            .doOnSuccess(savedHistory -> {
+                                log.info("Message status updated: {} → {} (message: {}, updatedBy: {})",
+                                    oldStatus, newStatus, messageId, updatedBy);
+
+                                // Publish status update event (fire-and-forget)
+                                MessageEvent.EventType eventType = mapStatusToEventType(newStatus);
+                                publishMessageEvent(updatedMessage, eventType);
+                            }),
+                        recentMessagesCache.replace(List.of(updatedMessage)));
+            })
+            .doOnSuccess(v -> sample.stop(Timer.builder("messages.status.update.time")
+                .description("Time taken to apply a message status update (MongoDB update + history)")
+                .register(meterRegistry)));
+    }
+
+    /**
+     * Explains why a guarded status update matched no document.
+     * 
+     * @param messageId Message identifier
+     * @param newStatus Requested status
+     * @return Mono error: IllegalArgumentException (not found) or IllegalStateException (invalid transition)
+     */
+    private Mono<Message> rejectStatusUpdate(String messageId, MessageStatus newStatus) {
+        return getMessageById(messageId)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("Message not found: " + messageId)))
+            .flatMap(message -> Mono.error(new IllegalStateException(String.format(
+                "Invalid status transition for message %s: %s → %s",
+                messageId, message.getStatus(), newStatus))));
+    }
+
+    /**
+     * Statuses from which a message may move to the given status (FR-007).
+     * 
+     * @param newStatus Target status
+     * @return Statuses s with s.canTransitionTo(newStatus)
+     */
+    private static List<MessageStatus> allowedPriorStatuses(MessageStatus newStatus) {
+        return ALLOWED_PRIOR_STATUSES.get(newStatus);
     }
 
     /**
@@ -265,6 +522,257 @@ public class MessageService {
         return updateStatus(messageId, newStatus, "system");
     }
 
+    /**
+     * Applies a batch of status updates (reactive).
+     * 
+     * Updates for the same message are coalesced to the highest status that is a valid
+     * transition from the stored one: with forward-only transitions (FR-007), applying them
+     * one by one would end in the same state. The whole batch then costs three round-trips
+     * instead of several per update:
+     * 1. One find of all affected messages (pre-images: old status, event fields)
+     * 2. One unordered bulkWrite; each update is guarded by the exact pre-image status,
+     *    so a concurrent writer is detected instead of overwritten
+     * 3. One insertMany into message_status_history (and one recent messages buffer
+     *    update per conversation, concurrently)
+     * 
+     * Unknown messages and invalid transitions are logged and skipped, as in
+     * {@link #updateStatus(String, MessageStatus, String)}. Updates that lost a race with
+     * a concurrent writer are re-applied one at a time through that method.
+     * 
+     * Bucketed storage mode: messages missing from the messages collection are looked up
+     * in message_buckets (one more find) and updated inside their bucket, one guarded
+     * update each, concurrently with the bulkWrite.
+     * 
+     * @param updates Status updates in arrival order
+     * @return Mono<List<Message>> Messages whose status changed, as written (no re-read)
+     */
+    public Mono<List<Message>> updateStatuses(List<StatusUpdate> updates) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Map<String, List<StatusUpdate>> requested = new LinkedHashMap<>();
+        for (StatusUpdate update : updates) {
+            requested.computeIfAbsent(update.messageId(), id -> new ArrayList<>()).add(update);
+        }
+
+        if (requested.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        Query query = Query.query(Criteria.where("messageId").in(requested.keySet()));
+
+        return mongoTemplate.find(query, Message.class)
+            .collectMap(Message::getMessageId)
+            .zipWhen(hotById -> messageBucketStore.findByMessageIds(requested.keySet().stream()
+                    .filter(messageId -> !hotById.containsKey(messageId))
+                    .toList())
+                .collectMap(Message::getMessageId))
+            .flatMap(found -> {
+                Map<String, Message> hotById = found.getT1();
+                Map<String, Message> archivedById = found.getT2();
+                Instant now = Instant.now();
+                Map<String, StatusUpdate> targets = new HashMap<>();
+                Map<String, MessageStatus> archivedStatuses = new HashMap<>();
+                List<Message> applied = new ArrayList<>();
+                List<Message> archivedApplied = new ArrayList<>();
+                List<MessageStatusHistory> histories = new ArrayList<>();
+                ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class);
+
+                requested.forEach((messageId, messageUpdates) -> {
+                    Message message = hotById.containsKey(messageId) ? hotById.get(messageId) : archivedById.get(messageId);
+                    if (message == null) {
+                        log.warn("Status update for unknown message: {} ({} updates)", messageId, messageUpdates.size());
+                        return;
+                    }
+
+                    MessageStatus oldStatus = message.getStatus();
+                    StatusUpdate target = coalesce(oldStatus, messageUpdates);
+                    if (target == null) {
+                        log.error("Invalid status transition for message {}: {} → {}", messageId, oldStatus,
+                            messageUpdates.stream().map(StatusUpdate::status).toList());
+                        return;
+                    }
+
+                    if (hotById.containsKey(messageId)) {
+                        bulk.updateOne(
+                            Query.query(Criteria.where("messageId").is(messageId).and("status").is(oldStatus)),
+                            new Update().set("status", target.status()).set("updatedAt", now));
+                        applied.add(message);
+                    } else {
+                        archivedStatuses.put(messageId, oldStatus);
+                        archivedApplied.add(message);
+                    }
+
+                    MessageStatusHistory history = MessageStatusHistory.createTransition(
+                        messageId,
+                        message.getConversationId(),
+                        oldStatus,
+                        target.status(),
+                        target.updatedBy() != null ? target.updatedBy() : "system"
+                    );
+                    if (messageUpdates.size() > 1) {
+                        history.setMetadata(Map.<String, Object>of("coalesced",
+                            messageUpdates.stream().map(update -> update.status().name()).toList()));
+                    }
+                    histories.add(history);
+                    targets.put(messageId, target);
+
+                    message.setStatus(target.status());
+                    message.setUpdatedAt(now);
+                });
+
+                if (applied.isEmpty() && archivedApplied.isEmpty()) {
+                    return Mono.just(List.<Message>of());
+                }
+
+                Mono<List<Message>> hotWritten = applied.isEmpty()
+                    ? Mono.just(List.<Message>of())
+                    : bulk.execute()
+                        .flatMap(result -> result.getMatchedCount() == applied.size()
+                            ? Mono.just(applied)
+                            : reapplyLostUpdates(applied, targets, now));
+
+                return Mono.zip(hotWritten, writeArchivedStatuses(archivedApplied, archivedStatuses, targets, now),
+                        (hot, archived) -> {
+                            List<Message> written = new ArrayList<>(hot);
+                            written.addAll(archived);
+                            return written;
+                        })
+                    .flatMap(written -> Mono.when(
+                            statusHistoryRepository.insert(historiesOf(written, histories)),
+                            recentMessagesCache.replace(written))
+                        .then(Mono.just(written)));
+            })
+            .doOnSuccess(written -> {
+                written.forEach(message -> publishMessageEvent(message, mapStatusToEventType(message.getStatus())));
+
+                log.info("Status update batch applied: {} updates, {} messages, {} changed",
+                    updates.size(), requested.size(), written.size());
+                sample.stop(Timer.builder("messages.status.batch.time")
+                    .description("Time taken to apply a batch of message status updates")
+                    .register(meterRegistry));
+            });
+    }
+
+    /**
+     * Picks the update a message ends up in: the highest requested status reachable
+     * from the current one (FAILED always wins, as it is reachable from any status).
+     * 
+     * @return The winning update, or null if no requested status is a valid transition
+     */
+    static StatusUpdate coalesce(MessageStatus currentStatus, List<StatusUpdate> messageUpdates) {
+        if (currentStatus == null) {
+            return null;
+        }
+        StatusUpdate target = null;
+        for (StatusUpdate update : messageUpdates) {
+            if (currentStatus.canTransitionTo(update.status())
+                && (target == null || update.status().ordinal() >= target.status().ordinal())) {
+                target = update;
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Handles a bulk status write in which some guarded updates did not match (another
+     * writer changed the status between the batch read and the write).
+     * 
+     * An update counts as applied by this batch only if the message still carries the
+     * batch's status and updatedAt; anything else (including a concurrent writer that set
+     * the same status, or a message archived into a bucket meanwhile) is re-applied through
+     * {@link #updateStatus(String, MessageStatus, String)}, which skips transitions that
+     * already happened.
+     * 
+     * @param applied Messages the batch intended to update
+     * @param targets Coalesced updates by message ID
+     * @param now updatedAt written by the batch
+     * @return Mono<List<Message>> Messages whose batch update was applied
+     */
+    private Mono<List<Message>> reapplyLostUpdates(List<Message> applied, Map<String, StatusUpdate> targets,
+                                                   Instant now) {
+        Map<String, Message> intended = new LinkedHashMap<>();
+        applied.forEach(message -> intended.put(message.getMessageId(), message));
+
+        Query query = Query.query(Criteria.where("messageId").in(intended.keySet()));
+        query.fields().include("messageId", "status", "updatedAt");
+
+        // MongoDB dates have millisecond precision
+        Instant written = now.truncatedTo(ChronoUnit.MILLIS);
+
+        return mongoTemplate.find(query, Message.class)
+            .collectMap(Message::getMessageId)
+            .flatMap(current -> {
+                List<Message> mine = new ArrayList<>();
+                List<StatusUpdate> lost = new ArrayList<>();
+                intended.forEach((messageId, message) -> {
+                    Message stored = current.get(messageId);
+                    if (stored != null && stored.getStatus() == message.getStatus()
+                            && written.equals(stored.getUpdatedAt())) {
+                        mine.add(message);
+                    } else {
+                        if (stored == null) {
+                            log.debug("Message {} left the messages collection during a status batch", messageId);
+                        }
+                        lost.add(targets.get(messageId));
+                    }
+                });
+
+                log.warn("Status update batch raced with concurrent writers, re-applying {} updates individually",
+                    lost.size());
+
+                // updateStatus() records its own history and events
+                return Flux.fromIterable(lost)
+                    .concatMap(update -> updateStatus(update.messageId(), update.status(), update.updatedBy())
+                        .onErrorResume(e -> {
+                            log.error("Status update for message {} failed: {}", update.messageId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                    .then(Mono.just(mine));
+            });
+    }
+
+    /**
+     * Applies coalesced status updates to archived messages (bucketed storage mode), each
+     * guarded by its exact prior status; updates that lost a race are re-applied through
+     * {@link #updateStatus(String, MessageStatus, String)}.
+     * 
+     * @param archived Archived messages, status already set to the target
+     * @param priorStatuses Status of each message when it was read
+     * @param targets Coalesced updates by message ID
+     * @return Mono<List<Message>> Messages whose update was applied by this batch
+     */
+    private Mono<List<Message>> writeArchivedStatuses(List<Message> archived, Map<String, MessageStatus> priorStatuses,
+                                                      Map<String, StatusUpdate> targets, Instant now) {
+        return Flux.fromIterable(archived)
+            .flatMap(message -> messageBucketStore.updateStatus(message.getMessageId(),
+                    List.of(priorStatuses.get(message.getMessageId())), message.getStatus(), now)
+                .map(previous -> message)
+                .switchIfEmpty(Mono.defer(() -> {
+                    StatusUpdate update = targets.get(message.getMessageId());
+                    return updateStatus(update.messageId(), update.status(), update.updatedBy())
+                        .onErrorResume(e -> {
+                            log.error("Status update for message {} failed: {}", update.messageId(), e.getMessage());
+                            return Mono.empty();
+                        })
+                        .then(Mono.<Message>empty());
+                })))
+            .collectList();
+    }
+
+    /**
+     * Selects the history entries of the written messages.
+     */
+    private static List<MessageStatusHistory> historiesOf(List<Message> written, List<MessageStatusHistory> histories) {
+        if (written.size() == histories.size()) {
+            return histories;
+        }
+        Set<String> writtenIds = new HashSet<>();
+        written.forEach(message -> writtenIds.add(message.getMessageId()));
+        return histories.stream()
+            .filter(history -> writtenIds.contains(history.getMessageId()))
+            .toList();
+    }
+
     /**
      * Retrieves a message by its unique ID (reactive).
      * 
@@ -272,67 +780,71 @@ public class MessageService {
      * @return Mono<Message> containing the message if found
      */
     public Mono<Message> getMessageById(String messageId) {
-        return messageRepository.findByMessageId(messageId);
+        return messageRepository.findByMessageId(messageId)
+            .switchIfEmpty(Mono.defer(() -> messageBucketStore.findByMessageId(messageId)));
     }
 
     /**
      * Increments the retry count for a message (reactive).
      * 
      * Called by retry workers when attempting to resend a failed message.
+     * Single atomic update ($inc), so concurrent workers never lose an increment.
      * 
      * @param messageId Message identifier
      * @return Mono<Void> Completes when retry count is incremented
      */
     public Mono<Void> incrementRetryCount(String messageId) {
-        return getMessageById(messageId)
-            .switchIfEmpty(Mono.error(new IllegalArgumentException("Message not found: " + messageId)))
-            .flatMap(message -> {
-                if (message.getMetadata() == null) {
-                    message.setMetadata(Message.MessageMetadata.builder().retryCount(0).build());
-                }
-
-                int newRetryCount = (message.getMetadata().getRetryCount() != null
-                    ? message.getMetadata().getRetryCount() : 0) + 1;
+        Instant now = Instant.now();
+        Update update = new Update()
+            .inc("metadata.retryCount", 1)
+            .set("updatedAt", now);
 
-                message.getMetadata().setRetryCount(newRetryCount);
-                message.setUpdatedAt(Instant.now());
-
-                return messageRepository.save(message)
-                    .doOnSuccess(savedMessage ->
-                        log.info("Retry count incremented for message {}: {} attempts", messageId, newRetryCount)
-                    )
-                    .then();
-            });
+        return mongoTemplate.findAndModify(byMessageId(messageId), update,
+                FindAndModifyOptions.options().returnNew(true), Message.class)
+            .switchIfEmpty(Mono.defer(() -> messageBucketStore.incrementRetryCount(messageId, now)))
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("Message not found: " + messageId)))
+            .doOnSuccess(updatedMessage -> log.info("Retry count incremented for message {}: {} attempts",
+                messageId, updatedMessage.getMetadata() != null ? updatedMessage.getMetadata().getRetryCount() : null))
+            .flatMap(updatedMessage -> recentMessagesCache.replace(List.of(updatedMessage)));
     }
 
     /**
      * Marks a message as failed with an error message (reactive).
      * 
+     * Single atomic findAndModify ($set); any status may move to FAILED (FR-007).
+     * 
      * @param messageId Message identifier
      * @param errorMessage Error description
      * @return Mono<Void> Completes when message is marked as failed
      */
     public Mono<Void> markAsFailed(String messageId, String errorMessage) {
-        return getMessageById(messageId)
-            .switchIfEmpty(Mono.error(new IllegalArgumentException("Message not found: " + messageId)))
-            .flatMap(message -> {
-                message.setStatus(MessageStatus.FAILED);
-                message.setUpdatedAt(Instant.now());
+        Instant now = Instant.now();
+        Update update = new Update()
+            .set("status", MessageStatus.FAILED)
+            .set("metadata.errorMessage", errorMessage)
+            .set("updatedAt", now);
 
-                if (message.getMetadata() == null) {
-                    message.setMetadata(Message.MessageMetadata.builder().build());
-                }
-                message.getMetadata().setErrorMessage(errorMessage);
+        return mongoTemplate.findAndModify(byMessageId(messageId), update,
+                FindAndModifyOptions.options().returnNew(true), Message.class)
+            .switchIfEmpty(Mono.defer(() -> messageBucketStore.markAsFailed(messageId, errorMessage, now)))
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("Message not found: " + messageId)))
+            .doOnSuccess(savedMessage -> {
+                log.error("Message {} marked as FAILED: {}", messageId, errorMessage);
 
-                return messageRepository.save(message)
-                    .doOnSuccess(savedMessage -> {
-                        log.error("Message {} marked as FAILED: {}", messageId, errorMessage);
+                // Publish MESSAGE_FAILED event (fire-and-forget)
+                publishMessageEvent(savedMessage, MessageEvent.EventType.MESSAGE_FAILED);
+            })
+            .flatMap(savedMessage -> recentMessagesCache.replace(List.of(savedMessage)));
+    }
 
-                        // Publish MESSAGE_FAILED event (fire-and-forget)
-                        publishMessageEvent(savedMessage, MessageEvent.EventType.MESSAGE_FAILED);
-                    })
-                    .then();
-            });
+    /**
+     * Builds the query selecting a message by its business identifier.
+     * 
+     * @param messageId Message identifier
+     * @return Query on message_id (unique index)
+     */
+    private static Query byMessageId(String messageId) {
+        return Query.query(Criteria.where("messageId").is(messageId));
     }
 
     /**
@@ -342,11 +854,11 @@ public class MessageService {
      * 
      * Flow:
      * 1. Check idempotency using platformMessageId
-     * 2. Ensure conversation exists (create if needed)
+     * 2. Ensure conversation exists (participants cache; create if needed)
      * 3. Build Message entity with status RECEIVED
-     * 4. Persist to MongoDB
-     * 5. Update conversation last activity
-     * 6. Publish MESSAGE_RECEIVED event to Kafka
+     * 4. Persist to MongoDB and update conversation last activity (group commit,
+     *    see {@link InboundMessageWriter})
+     * 5. Publish MESSAGE_RECEIVED event to Kafka
      * 
      * @param platformMessageId Platform-specific message identifier (for deduplication)
      * @param conversationId Conversation identifier
@@ -388,89 +900,105 @@ public class MessageService {
                             
                             // Remove stale Redis key and reprocess message (resilient recovery)
                             return idempotencyService.remove(platformMessageId)
-                                .then(conversationService.getOrCreateConversation(conversationId, primaryChannel, senderId))
-                                .flatMap(conversation -> {
+                                .then(ensureConversation(conversationId, primaryChannel, senderId))
+                                .then(Mono.defer(() -> {
                                     log.info("Stale idempotency key removed, reprocessing message: {}", platformMessageId);
-                                    
-                                    // Build inbound message (duplicate logic for recovery path)
-                                    Instant now = Instant.now();
-                                    Message inboundMessage = Message.builder()
-                                        .messageId(UUID.randomUUID().toString())
-                                        .conversationId(conversationId)
-                                        .senderId(senderId)
-                                        .content(content)
-                                        .contentType(ContentType.TEXT)
-                                        .channel(channel)
-                                        .status(MessageStatus.RECEIVED)
-                                        .timestamp(timestamp != null ? timestamp : now)
-                                        .createdAt(now)
-                                        .updatedAt(now)
-                                        .metadata(Message.MessageMetadata.builder()
-                                            .platformMessageId(platformMessageId)
-                                            .retryCount(0)
-                                            .additionalData(metadata)
-                                            .build())
-                                        .build();
+
+                                    Message inboundMessage = buildInboundMessage(platformMessageId, conversationId,
+                                        senderId, content, channel, timestamp, metadata);
 
                                     // Persist recovered message
-                                    return messageRepository.save(inboundMessage)
-                                        .flatMap(savedMessage -> {
+                                    return inboundMessageWriter.write(inboundMessage)
+                                        .doOnSuccess(savedMessage -> {
                                             log.info("RECOVERED: Inbound message persisted after stale key removal: {} (platform: {})",
                                                 savedMessage.getMessageId(), platformMessageId);
-
-                                            return conversationService.updateLastActivity(conversationId, savedMessage.getTimestamp())
-                                                .thenReturn(savedMessage);
-                                        })
-                                        .doOnSuccess(savedMessage -> {
                                             publishMessageEvent(savedMessage, MessageEvent.EventType.MESSAGE_RECEIVED);
                                         });
-                                });
+                                }));
                         }));
                 }
 
                 // Normal path: Ensure conversation exists (create if needed)
-                return conversationService.getOrCreateConversation(conversationId, primaryChannel, senderId)
-                    .flatMap(conversation -> {
+                return ensureConversation(conversationId, primaryChannel, senderId)
+                    .then(Mono.defer(() -> {
                         log.debug("Conversation ready for inbound message: {}", conversationId);
 
-                        // Build inbound message
-                        Instant now = Instant.now();
-                        Message inboundMessage = Message.builder()
-                            .messageId(UUID.randomUUID().toString())
-                            .conversationId(conversationId)
-                            .senderId(senderId)
-                            .content(content)
-                            .contentType(ContentType.TEXT)
-                            .channel(channel)
-                            .status(MessageStatus.RECEIVED) // Inbound messages start as RECEIVED
-                            .timestamp(timestamp != null ? timestamp : now)
-                            .createdAt(now)
-                            .updatedAt(now)
-                            .metadata(Message.MessageMetadata.builder()
-                                .platformMessageId(platformMessageId)
-                                .retryCount(0)
-                                .additionalData(metadata)
-                                .build())
-                            .build();
-
-                        // Persist message
-                        return messageRepository.save(inboundMessage)
-                            .flatMap(savedMessage -> {
+                        Message inboundMessage = buildInboundMessage(platformMessageId, conversationId,
+                            senderId, content, channel, timestamp, metadata);
+
+                        // Persist message and update conversation last activity (group commit)
+                        return inboundMessageWriter.write(inboundMessage)
+                            .doOnSuccess(savedMessage -> {
                                 log.info("Inbound message persisted: {} (conversation: {}, platform: {})",
                                     savedMessage.getMessageId(), conversationId, platformMessageId);
 
-                                // Update conversation last activity
-                                return conversationService.updateLastActivity(conversationId, savedMessage.getTimestamp())
-                                    .thenReturn(savedMessage);
-                            })
-                            .doOnSuccess(savedMessage -> {
                                 // Publish MESSAGE_RECEIVED event to Kafka (fire-and-forget)
                                 publishMessageEvent(savedMessage, MessageEvent.EventType.MESSAGE_RECEIVED);
                             });
-                    });
+                    }));
             });
     }
 
+    /**
+     * Makes sure an inbound message's conversation exists.
+     * 
+     * Known conversations are answered by the participants cache without a MongoDB read;
+     * only unknown ones go through getOrCreateConversation.
+     * 
+     * @param conversationId Conversation identifier (may be null; a fallback is generated)
+     * @param primaryChannel Primary channel for conversation creation
+     * @param senderId Sender's platform identifier
+     * @return Mono<Void> Completes when the conversation exists
+     */
+    private Mono<Void> ensureConversation(
+        String conversationId,
+        com.chat4all.common.constant.Channel primaryChannel,
+        String senderId
+    ) {
+        if (conversationId == null || conversationId.trim().isEmpty()) {
+            return conversationService.getOrCreateConversation(conversationId, primaryChannel, senderId).then();
+        }
+
+        return participantCache.get(conversationId)
+            .map(membership -> true)
+            .switchIfEmpty(Mono.defer(() ->
+                conversationService.getOrCreateConversation(conversationId, primaryChannel, senderId)
+                    .thenReturn(true)))
+            .then();
+    }
+
+    /**
+     * Builds an inbound message entity (status RECEIVED).
+     */
+    private Message buildInboundMessage(
+        String platformMessageId,
+        String conversationId,
+        String senderId,
+        String content,
+        com.chat4all.common.constant.Channel channel,
+        Instant timestamp,
+        java.util.Map<String, Object> metadata
+    ) {
+        Instant now = Instant.now();
+        return Message.builder()
+            .messageId(UUID.randomUUID().toString())
+            .conversationId(conversationId)
+            .senderId(senderId)
+            .content(content)
+            .contentType(ContentType.TEXT)
+            .channel(channel)
+            .status(MessageStatus.RECEIVED) // Inbound messages start as RECEIVED
+            .timestamp(timestamp != null ? timestamp : now)
+            .createdAt(now)
+            .updatedAt(now)
+            .metadata(Message.MessageMetadata.builder()
+                .platformMessageId(platformMessageId)
+                .retryCount(0)
+                .additionalData(metadata)
+                .build())
+            .build();
+    }
+
     /**
      * Publishes a message event to Kafka.
      * 
@@ -482,20 +1010,7 @@ public class MessageService {
      */
     private void publishMessageEvent(Message message, MessageEvent.EventType eventType) {
         try {
-            MessageEvent event = MessageEvent.builder()
-                .messageId(message.getMessageId())
-                .conversationId(message.getConversationId())
-                .senderId(message.getSenderId())
-                .recipientIds(message.getRecipientIds()) // User Story 4: Multi-recipient support
-                .content(message.getContent())
-                .contentType(message.getContentType())
-                .fileId(message.getFileId())
-                .channel(message.getChannel())
-                .timestamp(message.getTimestamp())
-                .status(message.getStatus())
-                .eventType(eventType)
-                .metadata(message.getMetadata() != null ? message.getMetadata().getAdditionalData() : null)
-                .build();
+            MessageEvent event = buildMessageEvent(message, eventType);
 
             messageProducer.sendMessageEvent(event);
             log.debug("Published {} event for message {}", eventType, message.getMessageId());
@@ -506,13 +1021,54 @@ public class MessageService {
                 eventType, webSocketHandler.getActiveSessionCount());
 
         } catch (Exception e) {
-            // Event publishing failure should not block message acceptance
+            // Event publishing failure should not block message acceptance. Transient broker
+            // errors are already retried by the idempotent producer; what reaches this point
+            // (e.g. serialization) would fail again, and the message stays persisted in MongoDB.
             log.error("Failed to publish {} event for message {}: {}",
                 eventType, message.getMessageId(), e.getMessage(), e);
-            // TODO: Consider retry logic or DLQ for failed event publishing
         }
     }
 
+    /**
+     * Publishes events for a batch of messages: one producer batch to Kafka, then the
+     * WebSocket broadcasts. Failures are logged, as in publishMessageEvent().
+     * 
+     * @param messages Messages to publish
+     * @param eventType Type of event
+     */
+    private void publishMessageEvents(List<Message> messages, MessageEvent.EventType eventType) {
+        try {
+            List<MessageEvent> events = messages.stream()
+                .map(message -> buildMessageEvent(message, eventType))
+                .toList();
+
+            messageProducer.sendMessageEvents(events);
+            events.forEach(webSocketHandler::publishEvent);
+            log.debug("Published {} {} events", events.size(), eventType);
+
+        } catch (Exception e) {
+            log.error("Failed to publish {} events for {} messages: {}",
+                eventType, messages.size(), e.getMessage(), e);
+        }
+    }
+
+    private MessageEvent buildMessageEvent(Message message, MessageEvent.EventType eventType) {
+        return MessageEvent.builder()
+            .messageId(message.getMessageId())
+            .conversationId(message.getConversationId())
+            .senderId(message.getSenderId())
+            .recipientIds(message.getRecipientIds()) // User Story 4: Multi-recipient support
+            .content(message.getContent())
+            .contentType(message.getContentType())
+            .fileId(message.getFileId())
+            .channel(message.getChannel())
+            .timestamp(message.getTimestamp())
+            .status(message.getStatus())
+            .eventType(eventType)
+            .metadata(message.getMetadata() != null ? message.getMetadata().getAdditionalData() : null)
+            .build();
+    }
+
     /**
      * Maps MessageStatus to corresponding MessageEvent.EventType.
      * 
@@ -0,0 +1,182 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.Conversation;
+import com.chat4all.message.domain.ConversationParticipants;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Participants Cache
+ *
+ * Bounded in-process cache of conversation membership (type, participant IDs and join
+ * dates), used to fill in recipientIds on the message accept path and to apply the
+ * join-date filter on history reads without loading the whole conversation document
+ * from MongoDB on every request.
+ *
+ * Behaviour:
+ * - Hit: no datastore round-trip
+ * - Miss: one MongoDB read projected to the membership fields; concurrent misses for
+ *   the same conversation share it
+ * - Unknown conversations are not cached (the next request reads MongoDB again)
+ * - Membership changes (ParticipantManager, ConversationService) call {@link #evict(String)},
+ *   which invalidates the local entry and publishes the conversation ID on a Redis
+ *   pub/sub channel so every other instance drops its entry too
+ * - Pub/sub is fire-and-forget: after the subscription is (re)established the whole
+ *   cache is cleared, and ttl-seconds bounds staleness if an invalidation is lost
+ *
+ * Configuration (message.participants-cache.*):
+ * - enabled (default: true)
+ * - max-size (default: 100000 conversations)
+ * - ttl-seconds (default: 300)
+ * - invalidation-channel (default: chat4all:participants:invalidate)
+ *
+ * Metrics: cache.gets / cache.puts / cache.evictions {cache=participants}
+ *
+ * @author Chat4All Team
+ * @version 1.1.0
+ */
+@Slf4j
+@Component
+public class ParticipantCache {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final AsyncCache<String, ConversationParticipants> cache;
+    private final boolean enabled;
+    private final String invalidationChannel;
+
+    private Disposable invalidationSubscription;
+
+    public ParticipantCache(
+        ReactiveMongoTemplate mongoTemplate,
+        @Qualifier("reactiveStringRedisTemplate") ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${message.participants-cache.enabled:true}") boolean enabled,
+        @Value("${message.participants-cache.max-size:100000}") long maxSize,
+        @Value("${message.participants-cache.ttl-seconds:300}") long ttlSeconds,
+        @Value("${message.participants-cache.invalidation-channel:chat4all:participants:invalidate}") String invalidationChannel
+    ) {
+        this.mongoTemplate = mongoTemplate;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.enabled = enabled;
+        this.invalidationChannel = invalidationChannel;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "participants");
+        log.info("Participants cache initialized: enabled={}, maxSize={}, ttl={}s", enabled, maxSize, ttlSeconds);
+    }
+
+    /**
+     * Subscribes to cross-instance invalidations.
+     */
+    @PostConstruct
+    public void subscribeToInvalidations() {
+        if (!enabled) {
+            return;
+        }
+
+        invalidationSubscription = reactiveRedisTemplate.listenToChannel(invalidationChannel)
+            // Invalidations published while unsubscribed are lost; start from an empty cache
+            .doOnSubscribe(subscription -> cache.synchronous().invalidateAll())
+            .doOnError(e -> log.warn("Participants cache invalidation channel failed, resubscribing: {}",
+                e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(message -> {
+                cache.synchronous().invalidate(message.getMessage());
+                log.debug("Participants cache entry invalidated by peer: {}", message.getMessage());
+            });
+
+        log.info("Listening for participants cache invalidations on Redis channel: {}", invalidationChannel);
+    }
+
+    @PreDestroy
+    public void unsubscribeFromInvalidations() {
+        if (invalidationSubscription != null) {
+            invalidationSubscription.dispose();
+        }
+    }
+
+    /**
+     * Gets the membership of a conversation.
+     *
+     * @param conversationId Conversation identifier
+     * @return Mono<ConversationParticipants> Membership snapshot, or empty if the conversation does not exist
+     */
+    public Mono<ConversationParticipants> get(String conversationId) {
+        if (!enabled) {
+            return load(conversationId);
+        }
+
+        // A null result (unknown conversation) completes the future with null, which Caffeine
+        // does not store, so creating the conversation later is picked up immediately
+        return Mono.fromFuture(() -> cache.get(conversationId,
+            (key, executor) -> load(key).toFuture()));
+    }
+
+    /**
+     * Gets the participant IDs of a conversation.
+     *
+     * @param conversationId Conversation identifier
+     * @return Mono<List<String>> Participant IDs, or empty if the conversation does not exist
+     */
+    public Mono<List<String>> getParticipants(String conversationId) {
+        return get(conversationId).map(ConversationParticipants::participants);
+    }
+
+    /**
+     * Drops a conversation's cached membership on this and every other instance.
+     *
+     * Call after the membership change has been persisted. Never fails: a lost
+     * broadcast is bounded by the entry TTL.
+     *
+     * @param conversationId Conversation identifier
+     * @return Mono<Void> Completes once the invalidation has been published
+     */
+    public Mono<Void> evict(String conversationId) {
+        if (conversationId == null || !enabled) {
+            return Mono.empty();
+        }
+
+        cache.synchronous().invalidate(conversationId);
+        return reactiveRedisTemplate.convertAndSend(invalidationChannel, conversationId)
+            .doOnSuccess(receivers -> log.debug("Participants cache invalidation published: {} ({} receivers)",
+                conversationId, receivers))
+            .doOnError(e -> log.warn("Failed to publish participants cache invalidation for {}: {}",
+                conversationId, e.getMessage()))
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    /**
+     * Loads membership from MongoDB, reading only the membership fields.
+     */
+    private Mono<ConversationParticipants> load(String conversationId) {
+        Query query = Query.query(Criteria.where("conversationId").is(conversationId));
+        query.fields().include("conversationId", "type", "participants", "participantJoinDates");
+
+        return mongoTemplate.findOne(query, Conversation.class)
+            .map(ConversationParticipants::of);
+    }
+}
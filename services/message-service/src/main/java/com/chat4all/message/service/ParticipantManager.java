@@ -28,6 +28,7 @@ import java.util.UUID;
  * - Maximum 100 participants per group (FR-027)
  * - System messages are generated for join/leave events
  * - Participant changes update the conversation's updated_at timestamp
+ * - Participant changes evict the conversation from {@link ParticipantCache}
  * 
  * @author Chat4All Team
  * @version 1.0.0
@@ -42,6 +43,8 @@ public class ParticipantManager {
     
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
+    private final ParticipantCache participantCache;
+    private final RecentMessagesCache recentMessagesCache;
 
     /**
      * Adds a participant to a group conversation
@@ -107,12 +110,12 @@ public class ParticipantManager {
                     .flatMap(savedConversation -> {
                         log.info("Participant added successfully: userId={}, conversationId={}, totalParticipants={}", 
                             userId, conversationId, savedConversation.getParticipants().size());
-
-                        // Generate system message
-                        return generateSystemMessage(
-                            conversationId,
-                            String.format("User '%s' joined the group", userId)
-                        ).thenReturn(savedConversation);
+                        // Invalidate cached membership (all instances), then generate system message
+                        return participantCache.evict(conversationId)
+                            .then(generateSystemMessage(
+                                conversationId,
+                                String.format("User '%s' joined the group", userId)))
+                            .thenReturn(savedConversation);
                     });
             });
     }
@@ -177,12 +180,12 @@ public class ParticipantManager {
                     .flatMap(savedConversation -> {
                         log.info("Participant removed successfully: userId={}, conversationId={}, totalParticipants={}", 
                             userId, conversationId, savedConversation.getParticipants().size());
-
-                        // Generate system message
-                        return generateSystemMessage(
-                            conversationId,
-                            String.format("User '%s' left the group", userId)
-                        ).thenReturn(savedConversation);
+                        // Invalidate cached membership (all instances), then generate system message
+                        return participantCache.evict(conversationId)
+                            .then(generateSystemMessage(
+                                conversationId,
+                                String.format("User '%s' left the group", userId)))
+                            .thenReturn(savedConversation);
                     });
             });
     }
@@ -220,6 +223,7 @@ public class ParticipantManager {
             .build();
 
         return messageRepository.save(systemMessage)
+            .flatMap(msg -> recentMessagesCache.append(List.of(msg)).thenReturn(msg))
             .doOnSuccess(msg -> log.debug("System message created: messageId={}, content={}", 
                 msg.getMessageId(), messageContent))
             .doOnError(e -> log.error("Failed to create system message: conversationId={}", 
@@ -0,0 +1,361 @@
+package com.chat4all.message.service;
+
+import com.chat4all.message.domain.Message;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Recent Messages Cache
+ *
+ * Write-through ring buffer of the newest messages of each active conversation, kept in
+ * Redis so every message-service instance reads and writes the same buffer. First-page
+ * history reads of hot conversations are served from it (see MessageHistoryService);
+ * deeper pages always go to MongoDB.
+ *
+ * Layout per conversation (hash-tagged, so all keys of a conversation share a slot):
+ * - {prefix}{conversationId}:ids  sorted set, member = message _id, score = timestamp
+ *   (epoch millis); _id hex strings sort like ObjectIds, so equal timestamps order like
+ *   the MongoDB history sort (timestamp desc, _id desc)
+ * - {prefix}{conversationId}:msgs hash, _id → "{updatedAt millis}|{message JSON}"
+ * - {prefix}{conversationId}:ver  write counter
+ *
+ * Consistency:
+ * - A buffer only exists once seeded from MongoDB (the newest capacity messages), so it
+ *   always holds every message newer than its oldest entry
+ * - Writers (accept, batch accept, inbound, system messages) append only to existing
+ *   buffers; status/metadata changes replace entries that are present. Each write is one
+ *   Lua script (atomic, one round-trip) and bumps the write counter
+ * - A seed is discarded if any write happened between reading the counter and the seed
+ *   (the MongoDB read it is based on may be missing that write)
+ * - Redis failures are logged and never fail the write paths. A buffer lives ttl-seconds
+ *   from its seed and writes do not extend it, so a buffer that missed a write is served
+ *   for at most ttl-seconds, however busy the conversation (measured by the sampled
+ *   staleness check in MessageHistoryService)
+ *
+ * Configuration (message.recent-cache.*):
+ * - enabled (default: true)
+ * - capacity (default: 100 messages per conversation)
+ * - ttl-seconds (default: 300; fixed buffer lifetime, then reseeded from MongoDB)
+ * - key-prefix (default: chat4all:recent:)
+ *
+ * Metrics: messages.history.cache.writes {operation, result}
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class RecentMessagesCache {
+
+    /**
+     * KEYS: ids, msgs, ver. ARGV: capacity, ttl, then (score, _id, entry) per message.
+     * The TTL only applies to the write counter: the buffer keeps the expiry set by its seed.
+     */
+    private static final RedisScript<Long> APPEND_SCRIPT = RedisScript.of("""
+        redis.call('INCR', KEYS[3])
+        redis.call('EXPIRE', KEYS[3], ARGV[2])
+        if redis.call('EXISTS', KEYS[1]) == 0 then
+          return 0
+        end
+        for i = 3, #ARGV, 3 do
+          redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])
+          redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2])
+        end
+        local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[1])
+        if excess > 0 then
+          local evicted = redis.call('ZRANGE', KEYS[1], 0, excess - 1)
+          redis.call('ZREMRANGEBYRANK', KEYS[1], 0, excess - 1)
+          redis.call('HDEL', KEYS[2], unpack(evicted))
+        end
+        return 1
+        """, Long.class);
+
+    /**
+     * KEYS: ids, msgs, ver. ARGV: ttl, then (_id, updatedAt millis, entry) per message.
+     * Entries are only replaced by a version at least as recent (concurrent writers).
+     * As for appends, the TTL only applies to the write counter.
+     */
+    private static final RedisScript<Long> REPLACE_SCRIPT = RedisScript.of("""
+        redis.call('INCR', KEYS[3])
+        redis.call('EXPIRE', KEYS[3], ARGV[1])
+        local replaced = 0
+        for i = 2, #ARGV, 3 do
+          local current = redis.call('HGET', KEYS[2], ARGV[i])
+          if current then
+            local currentUpdatedAt = tonumber(string.sub(current, 1, string.find(current, '|', 1, true) - 1))
+            if tonumber(ARGV[i + 1]) >= currentUpdatedAt then
+              redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 2])
+              replaced = replaced + 1
+            end
+          end
+        end
+        return replaced
+        """, Long.class);
+
+    /**
+     * KEYS: ids, msgs, ver. ARGV: expected write counter, ttl, then (score, _id, entry) per message.
+     * The only place the buffer's expiry is set.
+     */
+    private static final RedisScript<Long> SEED_SCRIPT = RedisScript.of("""
+        if (redis.call('GET', KEYS[3]) or '0') ~= ARGV[1] then
+          return 0
+        end
+        redis.call('DEL', KEYS[1], KEYS[2])
+        for i = 3, #ARGV, 3 do
+          redis.call('ZADD', KEYS[1], ARGV[i], ARGV[i + 1])
+          redis.call('HSET', KEYS[2], ARGV[i + 1], ARGV[i + 2])
+        end
+        redis.call('EXPIRE', KEYS[1], ARGV[2])
+        redis.call('EXPIRE', KEYS[2], ARGV[2])
+        return 1
+        """, Long.class);
+
+    /**
+     * KEYS: ids, msgs. ARGV: count. Returns {"size": n, "messages": [...]} newest first, or nil.
+     */
+    private static final RedisScript<String> READ_SCRIPT = RedisScript.of("""
+        local ids = redis.call('ZREVRANGE', KEYS[1], 0, tonumber(ARGV[1]) - 1)
+        if #ids == 0 then
+          return false
+        end
+        local values = redis.call('HMGET', KEYS[2], unpack(ids))
+        local found = {}
+        for i = 1, #ids do
+          if values[i] then
+            found[#found + 1] = string.sub(values[i], string.find(values[i], '|', 1, true) + 1)
+          end
+        end
+        return '{"size":' .. redis.call('ZCARD', KEYS[1]) .. ',"messages":[' .. table.concat(found, ',') .. ']}'
+        """, String.class);
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int capacity;
+    private final long ttlSeconds;
+    private final String keyPrefix;
+
+    public RecentMessagesCache(
+        @Qualifier("reactiveStringRedisTemplate") ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${message.recent-cache.enabled:true}") boolean enabled,
+        @Value("${message.recent-cache.capacity:100}") int capacity,
+        @Value("${message.recent-cache.ttl-seconds:300}") long ttlSeconds,
+        @Value("${message.recent-cache.key-prefix:chat4all:recent:}") String keyPrefix
+    ) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.ttlSeconds = ttlSeconds;
+        this.keyPrefix = keyPrefix;
+
+        log.info("Recent messages cache initialized: enabled={}, capacity={}, ttl={}s", enabled, capacity, ttlSeconds);
+    }
+
+    /**
+     * Newest messages of a conversation, as held by the buffer.
+     *
+     * @param size Number of messages in the buffer (at most capacity)
+     * @param messages Up to the requested number of messages, newest first
+     */
+    public record Snapshot(int size, List<Message> messages) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Reads the newest messages of a conversation.
+     *
+     * @param conversationId Conversation identifier
+     * @param count Number of messages wanted (at most capacity)
+     * @return Mono<Snapshot> Buffer contents, or empty if the conversation has no buffer (or Redis failed)
+     */
+    public Mono<Snapshot> read(String conversationId, int count) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+
+        return reactiveRedisTemplate.execute(READ_SCRIPT,
+                List.of(idsKey(conversationId), messagesKey(conversationId)), List.of(String.valueOf(count)))
+            .next()
+            .flatMap(json -> {
+                try {
+                    return Mono.just(objectMapper.readValue(json, Snapshot.class));
+                } catch (JsonProcessingException e) {
+                    log.warn("Unreadable recent messages buffer for conversation {}: {}", conversationId, e.getMessage());
+                    return Mono.empty();
+                }
+            })
+            .onErrorResume(e -> {
+                log.warn("Failed to read recent messages of conversation {}: {}", conversationId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Reads the write counter of a conversation (call before the MongoDB read a seed is based on).
+     *
+     * @param conversationId Conversation identifier
+     * @return Mono<String> Current counter ("0" if never written)
+     */
+    public Mono<String> version(String conversationId) {
+        return reactiveRedisTemplate.opsForValue().get(versionKey(conversationId))
+            .defaultIfEmpty("0");
+    }
+
+    /**
+     * Installs a conversation's buffer from MongoDB, unless it was written since {@code version}.
+     *
+     * @param conversationId Conversation identifier
+     * @param version Counter read before the MongoDB query
+     * @param newestMessages The newest capacity messages (or all, if fewer), full documents
+     * @return Mono<Void> Completes when done; never fails
+     */
+    public Mono<Void> seed(String conversationId, String version, List<Message> newestMessages) {
+        if (!enabled || newestMessages.isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<String> args = new ArrayList<>();
+        args.add(version);
+        args.add(String.valueOf(ttlSeconds));
+        newestMessages.forEach(message -> addEntry(args, message, true));
+
+        return run("seed", conversationId, SEED_SCRIPT, args);
+    }
+
+    /**
+     * Records newly persisted messages (accept, batch accept, inbound, system messages).
+     *
+     * @param messages Persisted messages (_id, conversationId and timestamp set)
+     * @return Mono<Void> Completes when every affected buffer is updated; never fails
+     */
+    public Mono<Void> append(Collection<Message> messages) {
+        return writeByConversation("append", messages, APPEND_SCRIPT, conversationMessages -> {
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(capacity));
+            args.add(String.valueOf(ttlSeconds));
+            conversationMessages.forEach(message -> addEntry(args, message, true));
+            return args;
+        });
+    }
+
+    /**
+     * Records changes to already persisted messages (status, retry count, failure details).
+     *
+     * @param messages Current state of the messages (full documents)
+     * @return Mono<Void> Completes when every affected buffer is updated; never fails
+     */
+    public Mono<Void> replace(Collection<Message> messages) {
+        return writeByConversation("replace", messages, REPLACE_SCRIPT, conversationMessages -> {
+            List<String> args = new ArrayList<>();
+            args.add(String.valueOf(ttlSeconds));
+            conversationMessages.forEach(message -> addEntry(args, message, false));
+            return args;
+        });
+    }
+
+    private Mono<Void> writeByConversation(String operation, Collection<Message> messages, RedisScript<Long> script,
+                                           Function<List<Message>, List<String>> argsBuilder) {
+        if (!enabled || messages.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Map<String, List<Message>> messagesByConversation = new LinkedHashMap<>();
+        for (Message message : messages) {
+            if (message.getConversationId() != null && message.getId() != null && message.getTimestamp() != null) {
+                messagesByConversation.computeIfAbsent(message.getConversationId(), id -> new ArrayList<>())
+                    .add(message);
+            }
+        }
+
+        return Flux.fromIterable(messagesByConversation.entrySet())
+            .flatMap(entry -> Mono.defer(() -> run(operation, entry.getKey(), script, argsBuilder.apply(entry.getValue()))))
+            .then()
+            .onErrorResume(e -> {
+                log.warn("Failed to {} recent messages: {}", operation, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Void> run(String operation, String conversationId, RedisScript<Long> script, List<String> args) {
+        return reactiveRedisTemplate.execute(script,
+                List.of(idsKey(conversationId), messagesKey(conversationId), versionKey(conversationId)), args)
+            .next()
+            .doOnNext(result -> countWrite(operation, result > 0 ? "applied" : "skipped"))
+            .onErrorResume(e -> {
+                countWrite(operation, "failed");
+                log.warn("Failed to {} recent messages of conversation {}: {}", operation, conversationId, e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Adds one message's script arguments: score (timestamp) or updatedAt, _id, entry.
+     */
+    private void addEntry(List<String> args, Message message, boolean withScore) {
+        long updatedAt = message.getUpdatedAt() != null ? message.getUpdatedAt().toEpochMilli() : 0L;
+        if (withScore) {
+            args.add(String.valueOf(message.getTimestamp().toEpochMilli()));
+            args.add(message.getId());
+        } else {
+            args.add(message.getId());
+            args.add(String.valueOf(updatedAt));
+        }
+        try {
+            args.add(updatedAt + "|" + objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            // Message is a plain data class; serialization cannot fail in practice
+            throw new IllegalStateException("Failed to serialize message " + message.getMessageId(), e);
+        }
+    }
+
+    private void countWrite(String operation, String result) {
+        Counter.builder("messages.history.cache.writes")
+            .description("Recent messages cache write-through operations")
+            .tag("operation", operation)
+            .tag("result", result)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private String idsKey(String conversationId) {
+        return keyPrefix + "{" + conversationId + "}:ids";
+    }
+
+    private String messagesKey(String conversationId) {
+        return keyPrefix + "{" + conversationId + "}:msgs";
+    }
+
+    private String versionKey(String conversationId) {
+        return keyPrefix + "{" + conversationId + "}:ver";
+    }
+}
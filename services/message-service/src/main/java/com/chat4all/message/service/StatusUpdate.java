@@ -0,0 +1,16 @@
+package com.chat4all.message.service;
+
+import com.chat4all.common.constant.MessageStatus;
+
+/**
+ * A requested message status change (one status-updates event).
+ *
+ * @param messageId Message identifier
+ * @param status Requested status
+ * @param updatedBy Actor reporting the change (e.g., "router-service")
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record StatusUpdate(String messageId, MessageStatus status, String updatedBy) {
+}
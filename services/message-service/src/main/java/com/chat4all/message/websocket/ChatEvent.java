@@ -0,0 +1,19 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+
+/**
+ * Event pushed on /ws/chat, as logged for one user
+ *
+ * Envelope pairing a chat event with the event ID it got in that user's
+ * {@link ChatEventLog}; the shared {@link MessageEvent} itself is never modified, so
+ * the same instance can be pushed to every recipient with their own event ID.
+ *
+ * @param eventId Position in the user's event sequence (consecutive per user)
+ * @param event Event as consumed from chat-events
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record ChatEvent(long eventId, MessageEvent event) {
+}
@@ -0,0 +1,228 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chat Event Log (WebSocket session resumption)
+ *
+ * Short-lived, per-user log of the events pushed on /ws/chat, so a client whose socket
+ * dropped (network handover, deploy) can reconnect with lastEventId and receive only
+ * the events it missed instead of reloading its history over REST.
+ *
+ * Redis layout (hash-tagged, so the keys of a user share a slot):
+ * - {key-prefix}seq:{userId}: the user's event ID sequence
+ * - {key-prefix}log:{userId}: sorted set, score = event ID, member = "{eventId}|{event JSON}";
+ *   capped to max-events
+ * - {key-prefix}seen:{userId}: set when a session of the user closes, expires after
+ *   ttl-seconds (an empty log then means "no events since", not "log expired")
+ *
+ * Behaviour:
+ * - Every pushed event is appended to the log of each recipient (connected or not)
+ *   before it is delivered, so an event is either in the replay or delivered live to
+ *   the resumed session
+ * - Event IDs are per user and consecutive: one Lua script takes the next ID and adds
+ *   the entry (atomic, one round-trip), so log order is ID order and a missing ID means
+ *   a missing event. The sequence and the log expire ttl-seconds after the last append;
+ *   a new sequence starts at the current epoch millis, above any ID of the expired one
+ * - A replay is complete when the user's session closed less than ttl-seconds ago and
+ *   the replayed IDs follow lastEventId without gaps (none trimmed or expired);
+ *   otherwise the client must reload history
+ * - Best-effort: a recipient whose append fails gets the event without event ID (not
+ *   resumable); the other recipients keep theirs
+ *
+ * Configuration (message.websocket.resume.*):
+ * - enabled (default: true)
+ * - ttl-seconds (default: 300): how long after a disconnect a session can be resumed
+ * - max-events (default: 200): events kept per user
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ChatEventLog {
+
+    /**
+     * KEYS: seq, log. ARGV: event JSON, max-events, ttl seconds, epoch millis (new sequence start).
+     * Returns the event ID.
+     */
+    private static final RedisScript<Long> APPEND_SCRIPT = RedisScript.of("""
+        if redis.call('EXISTS', KEYS[1]) == 0 then
+          redis.call('SET', KEYS[1], ARGV[4])
+        end
+        local id = redis.call('INCR', KEYS[1])
+        redis.call('ZADD', KEYS[2], id, id .. '|' .. ARGV[1])
+        redis.call('ZREMRANGEBYRANK', KEYS[2], 0, -(tonumber(ARGV[2]) + 1))
+        redis.call('EXPIRE', KEYS[1], ARGV[3])
+        redis.call('EXPIRE', KEYS[2], ARGV[3])
+        return id
+        """, Long.class);
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int maxEvents;
+    private final String keyPrefix;
+
+    public ChatEventLog(
+        @Qualifier("reactiveStringRedisTemplate") ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+        ObjectMapper objectMapper,
+        @Value("${message.websocket.resume.enabled:true}") boolean enabled,
+        @Value("${message.websocket.resume.ttl-seconds:300}") long ttlSeconds,
+        @Value("${message.websocket.resume.max-events:200}") int maxEvents,
+        @Value("${message.websocket.cluster.key-prefix:chat4all:ws:}") String keyPrefix
+    ) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxEvents = maxEvents;
+        this.keyPrefix = keyPrefix;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends an event to its recipients' logs, each under the recipient's next event ID.
+     *
+     * @param userIds Recipient user IDs
+     * @param event Event to push (not modified)
+     * @return Mono<Map<String, Long>> Event ID by recipient, for the recipients whose append
+     *         succeeded (never fails)
+     */
+    public Mono<Map<String, Long>> append(Collection<String> userIds, MessageEvent event) {
+        if (!enabled || userIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            log.warn("Failed to log WebSocket event of message {}, not resumable: {}",
+                event.getMessageId(), e.getMessage());
+            return Mono.just(Map.of());
+        }
+
+        List<String> args = List.of(json, String.valueOf(maxEvents), String.valueOf(ttl.toSeconds()),
+            String.valueOf(System.currentTimeMillis()));
+        return Flux.fromIterable(userIds)
+            .flatMap(userId -> reactiveRedisTemplate.execute(APPEND_SCRIPT, List.of(seqKey(userId), logKey(userId)), args)
+                .next()
+                .map(eventId -> Map.entry(userId, eventId))
+                .onErrorResume(e -> {
+                    log.warn("Failed to log WebSocket event of message {} for user {}, not resumable: {}",
+                        event.getMessageId(), userId, e.getMessage());
+                    return Mono.empty();
+                }))
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Records that a session of the user closed (starts its resume window).
+     *
+     * @param userId User identifier
+     * @return Mono<Void> Completes once recorded (never fails)
+     */
+    public Mono<Void> markDisconnected(String userId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return reactiveRedisTemplate.opsForValue().set(seenKey(userId), "1", ttl)
+            .onErrorResume(e -> {
+                log.warn("Failed to record WebSocket disconnect of user {}: {}", userId, e.getMessage());
+                return Mono.just(false);
+            })
+            .then();
+    }
+
+    /**
+     * Reads the events logged for a user after lastEventId.
+     *
+     * @param userId User identifier
+     * @param lastEventId Last event ID up to which the client received every event
+     * @return Mono<Replay> Missed events in event ID order and whether they are all of them
+     */
+    public Mono<Replay> replay(String userId, long lastEventId) {
+        if (!enabled) {
+            return Mono.just(new Replay(List.of(), false));
+        }
+
+        Range<Double> missed = Range.rightUnbounded(Range.Bound.exclusive((double) lastEventId));
+        Mono<List<ChatEvent>> events = reactiveRedisTemplate.opsForZSet().rangeByScore(logKey(userId), missed)
+            .concatMap(this::parse)
+            .collectList();
+
+        return Mono.zip(events, reactiveRedisTemplate.hasKey(seenKey(userId)))
+            .map(result -> new Replay(result.getT1(), result.getT2() && consecutive(lastEventId, result.getT1())))
+            .onErrorResume(e -> {
+                log.warn("Failed to replay WebSocket events of user {}: {}", userId, e.getMessage());
+                return Mono.just(new Replay(List.of(), false));
+            });
+    }
+
+    /**
+     * Whether the events directly follow lastEventId with no ID missing (a gap means
+     * events were trimmed, expired or unreadable).
+     */
+    static boolean consecutive(long lastEventId, List<ChatEvent> events) {
+        long expected = lastEventId + 1;
+        for (ChatEvent event : events) {
+            if (event.eventId() != expected) {
+                return false;
+            }
+            expected++;
+        }
+        return true;
+    }
+
+    private Mono<ChatEvent> parse(String entry) {
+        try {
+            int separator = entry.indexOf('|');
+            long eventId = Long.parseLong(entry.substring(0, separator));
+            return Mono.just(new ChatEvent(eventId, objectMapper.readValue(entry.substring(separator + 1), MessageEvent.class)));
+        } catch (Exception e) {
+            log.warn("Skipping unreadable WebSocket log entry: {}", e.getMessage());
+            return Mono.empty();
+        }
+    }
+
+    private String seqKey(String userId) {
+        return keyPrefix + "seq:{" + userId + "}";
+    }
+
+    private String logKey(String userId) {
+        return keyPrefix + "log:{" + userId + "}";
+    }
+
+    private String seenKey(String userId) {
+        return keyPrefix + "seen:" + userId;
+    }
+
+    /**
+     * Events missed by a resuming session.
+     *
+     * @param events Missed events, oldest first
+     * @param complete false if events may be missing (the client should reload history)
+     */
+    public record Replay(List<ChatEvent> events, boolean complete) {
+    }
+}
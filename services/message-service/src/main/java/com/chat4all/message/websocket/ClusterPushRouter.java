@@ -0,0 +1,227 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cluster Push Router
+ *
+ * Delivers chat events to recipients connected to any message-service node. The
+ * chat-events topic is consumed once per cluster (one consumer group), so the node that
+ * consumes an event is usually not the one holding the recipients' sessions.
+ *
+ * Flow:
+ * 0. Append the event to the recipients' {@link ChatEventLog} (session resumption),
+ *    before any delivery; each recipient gets its own event ID
+ * 1. Look up the nodes of the recipients in the {@link PresenceRegistry} (Redis)
+ * 2. Recipients on this node: delivered to their local sessions
+ * 3. Recipients on other nodes: one message per node on that node's Redis pub/sub
+ *    channel ({key-prefix}node:{nodeId}) carrying the event, the node's recipients and
+ *    their event IDs
+ * 4. Each node listens on its own channel and delivers to its local sessions
+ *
+ * An event therefore costs one presence lookup per recipient (pipelined) plus one
+ * publish per node holding recipients; nodes without recipients receive nothing.
+ *
+ * Delivery stays best-effort, as before: pub/sub messages to a node that is gone are
+ * dropped (counted as unreachable), and if the presence registry is unavailable the
+ * event is delivered to local sessions only.
+ *
+ * Configuration: message.websocket.cluster.* (see {@link PresenceRegistry})
+ *
+ * Metrics:
+ * - websocket.push.deliveries {route=local|remote|unreachable}: recipients per route
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ClusterPushRouter {
+
+    private final WebSocketChatHandler webSocketChatHandler;
+    private final PresenceRegistry presenceRegistry;
+    private final ChatEventLog chatEventLog;
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final String keyPrefix;
+    private final Counter localDeliveries;
+    private final Counter remoteDeliveries;
+    private final Counter unreachableDeliveries;
+
+    private Disposable subscription;
+
+    public ClusterPushRouter(
+        WebSocketChatHandler webSocketChatHandler,
+        PresenceRegistry presenceRegistry,
+        ChatEventLog chatEventLog,
+        @Qualifier("reactiveStringRedisTemplate") ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${message.websocket.cluster.key-prefix:chat4all:ws:}") String keyPrefix
+    ) {
+        this.webSocketChatHandler = webSocketChatHandler;
+        this.presenceRegistry = presenceRegistry;
+        this.chatEventLog = chatEventLog;
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.keyPrefix = keyPrefix;
+        this.localDeliveries = deliveries(meterRegistry, "local");
+        this.remoteDeliveries = deliveries(meterRegistry, "remote");
+        this.unreachableDeliveries = deliveries(meterRegistry, "unreachable");
+    }
+
+    private static Counter deliveries(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("websocket.push.deliveries")
+            .description("Chat event recipients pushed, by route")
+            .tag("route", route)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to this node's delivery channel.
+     */
+    @PostConstruct
+    public void subscribe() {
+        if (!presenceRegistry.isEnabled()) {
+            return;
+        }
+
+        String channel = channel(presenceRegistry.nodeId());
+        subscription = reactiveRedisTemplate.listenToChannel(channel)
+            .doOnError(e -> log.warn("WebSocket node channel failed, resubscribing: {}", e.getMessage()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe(message -> receive(message.getMessage()));
+
+        log.info("Listening for node-addressed WebSocket deliveries on Redis channel: {}", channel);
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Pushes an event to the connected recipients, wherever they are connected.
+     *
+     * @param recipientIds Recipient user IDs
+     * @param event Event to push
+     * @return Mono<Integer> Number of recipients delivered to or forwarded (never fails)
+     */
+    public Mono<Integer> route(List<String> recipientIds, MessageEvent event) {
+        return chatEventLog.append(recipientIds, event)
+            .flatMap(eventIds -> deliver(recipientIds, event, eventIds));
+    }
+
+    private Mono<Integer> deliver(List<String> recipientIds, MessageEvent event, Map<String, Long> eventIds) {
+        if (!presenceRegistry.isEnabled()) {
+            return Mono.fromSupplier(() -> deliverLocally(recipientIds, event, eventIds));
+        }
+
+        String localNode = presenceRegistry.nodeId();
+        return presenceRegistry.locate(recipientIds)
+            .onErrorResume(e -> {
+                log.warn("WebSocket presence unavailable, delivering message {} to local sessions only: {}",
+                    event.getMessageId(), e.getMessage());
+                return Mono.just(Map.of(localNode, recipientIds));
+            })
+            .flatMapMany(byNode -> Flux.fromIterable(byNode.entrySet()))
+            .flatMap(entry -> entry.getKey().equals(localNode)
+                ? Mono.fromSupplier(() -> deliverLocally(entry.getValue(), event, eventIds))
+                : forward(entry.getKey(), entry.getValue(), event, eventIds))
+            .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Publishes an event for some recipients on their node's channel.
+     */
+    private Mono<Integer> forward(String nodeId, List<String> userIds, MessageEvent event, Map<String, Long> eventIds) {
+        Map<String, Long> nodeEventIds = new HashMap<>();
+        for (String userId : userIds) {
+            Long eventId = eventIds.get(userId);
+            if (eventId != null) {
+                nodeEventIds.put(userId, eventId);
+            }
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(new NodeDelivery(userIds, event, nodeEventIds));
+        } catch (Exception e) {
+            log.error("Failed to serialize node delivery of message {}: {}", event.getMessageId(), e.getMessage());
+            return Mono.just(0);
+        }
+
+        return reactiveRedisTemplate.convertAndSend(channel(nodeId), payload)
+            .map(receivers -> {
+                if (receivers == 0) {
+                    // Stale presence entry: the node is gone (its entries expire with the TTL)
+                    log.debug("WebSocket node {} unreachable, {} recipients of message {} skipped",
+                        nodeId, userIds.size(), event.getMessageId());
+                    unreachableDeliveries.increment(userIds.size());
+                    return 0;
+                }
+                remoteDeliveries.increment(userIds.size());
+                return userIds.size();
+            })
+            .onErrorResume(e -> {
+                log.warn("Failed to forward message {} to WebSocket node {}: {}",
+                    event.getMessageId(), nodeId, e.getMessage());
+                return Mono.just(0);
+            });
+    }
+
+    /**
+     * Handles a delivery addressed to this node.
+     */
+    private void receive(String payload) {
+        try {
+            NodeDelivery delivery = objectMapper.readValue(payload, NodeDelivery.class);
+            deliverLocally(delivery.userIds(), delivery.event(),
+                delivery.eventIds() != null ? delivery.eventIds() : Map.of());
+        } catch (Exception e) {
+            log.error("Invalid node-addressed WebSocket delivery: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delivers an event to the recipients connected to this node.
+     *
+     * @return Number of recipients with a local session
+     */
+    private int deliverLocally(List<String> userIds, MessageEvent event, Map<String, Long> eventIds) {
+        int delivered = webSocketChatHandler.deliverToUsers(userIds, event, eventIds);
+        localDeliveries.increment(delivered);
+        return delivered;
+    }
+
+    private String channel(String nodeId) {
+        return keyPrefix + "node:" + nodeId;
+    }
+
+    /**
+     * Event forwarded to a node, with the recipients connected to it and their event IDs.
+     */
+    record NodeDelivery(List<String> userIds, MessageEvent event, Map<String, Long> eventIds) {
+    }
+}
@@ -1,41 +1,68 @@
 package com.chat4all.message.websocket;
 
 import com.chat4all.common.event.MessageEvent;
+import com.chat4all.message.service.ParticipantCache;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * WebSocket Handler for Real-Time Message Status Updates
- * 
- * Handles WebSocket connections at /ws/messages and broadcasts:
+ *
+ * Handles WebSocket connections at /ws/messages and pushes, to the sessions subscribed
+ * to the message's conversation:
  * - MESSAGE_RECEIVED events (inbound messages from customers)
  * - MESSAGE_SENT events (outbound messages sent to platforms)
  * - MESSAGE_DELIVERED events (delivery confirmations)
  * - MESSAGE_READ events (read receipts)
  * - MESSAGE_FAILED events (delivery failures)
- * 
+ * - STATUS_UPDATE events (platform status webhooks)
+ *
+ * Subscriptions (the session is identified by the X-User-Id header, else the
+ * WebSocketAuthFilter attribute, else the userId query parameter; sessions without one
+ * are closed):
+ * - ?conversationId=c1&conversationId=c2: only these conversations; the session can
+ *   change them with text frames {"action":"subscribe"|"unsubscribe","conversationId":"..."}
+ * - No conversationId: every conversation the user takes part in (sender or recipient
+ *   of the message)
+ * - Conversation subscriptions are accepted only for participants (ParticipantCache),
+ *   so a session only receives the message status of its user's conversations
+ * - Limitation: the identity is only as trustworthy as its source. Behind a proxy that
+ *   sets X-User-Id a ?userId= parameter cannot override it; on direct connections the
+ *   userId query parameter is asserted by the client (MVP, no token validation yet)
+ *
  * Architecture:
- * - Uses Reactor Sinks for broadcasting to all connected clients
+ * - Subscription index: conversationId → sessions and userId → sessions (user-wide
+ *   subscriptions); publishing an event looks up the interested sessions only, so its
+ *   cost grows with the subscribers of the conversation, not with total connections
+ * - Each session has a bounded outbound queue ({@link OutboundQueueManager}); a slow
+ *   client only overflows its own queue (default policy COALESCE: pending statuses of a
+ *   message are superseded)
  * - Thread-safe session management with ConcurrentHashMap
- * - JSON serialization for event payloads
- * 
+ *
  * Event Flow:
- * 1. Client connects via WebSocket to /ws/messages
- * 2. Server adds session to active sessions map
+ * 1. Client connects via WebSocket to /ws/messages?userId=...[&conversationId=...]
+ * 2. Server validates the requested conversations and indexes the session
  * 3. Kafka consumer receives MessageEvent
- * 4. publishEvent() is called to broadcast to all sessions
+ * 4. publishEvent() queues the event for the sessions subscribed to its conversation
  * 5. Client receives JSON-formatted event
- * 
+ *
  * Example Event Payload:
  * {
  *   "eventType": "MESSAGE_RECEIVED",
@@ -44,91 +71,307 @@ import java.util.concurrent.ConcurrentHashMap;
  *   "status": "RECEIVED",
  *   "timestamp": "2025-11-24T22:00:00Z"
  * }
- * 
+ *
+ * Metrics:
+ * - websocket.status.fanout: sessions an event was queued for
+ *
  * @author Chat4All Team
  * @version 1.0.0
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MessageStatusWebSocketHandler implements WebSocketHandler {
 
     private final ObjectMapper objectMapper;
+    private final OutboundQueueManager outboundQueueManager;
+    private final ParticipantCache participantCache;
+    private final DistributionSummary fanout;
 
     /**
-     * Sink for broadcasting events to all WebSocket clients
-     * Uses multicast to support multiple subscribers
+     * Active WebSocket sessions
+     * Key: Session ID
+     * Value: Session subscription state
      */
-    private final Sinks.Many<MessageEvent> eventSink = Sinks.many()
-        .multicast()
-        .onBackpressureBuffer();
+    private final Map<String, StatusSession> activeSessions = new ConcurrentHashMap<>();
 
     /**
-     * Active WebSocket sessions
-     * Key: Session ID
-     * Value: WebSocketSession
+     * Conversation subscriptions
+     * Key: conversationId
+     * Value: Sessions subscribed to that conversation
      */
-    private final Map<String, WebSocketSession> activeSessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<StatusSession>> conversationIndex = new ConcurrentHashMap<>();
+
+    /**
+     * User-wide subscriptions
+     * Key: userId
+     * Value: Sessions of that user subscribed to all of the user's conversations
+     */
+    private final Map<String, Set<StatusSession>> userIndex = new ConcurrentHashMap<>();
+
+    public MessageStatusWebSocketHandler(
+        ObjectMapper objectMapper,
+        OutboundQueueManager outboundQueueManager,
+        ParticipantCache participantCache,
+        MeterRegistry meterRegistry
+    ) {
+        this.objectMapper = objectMapper;
+        this.outboundQueueManager = outboundQueueManager;
+        this.participantCache = participantCache;
+        this.fanout = DistributionSummary.builder("websocket.status.fanout")
+            .description("WebSocket sessions a status event was queued for")
+            .register(meterRegistry);
+    }
 
     /**
      * Handles new WebSocket connection
-     * 
+     *
      * @param session WebSocket session
      * @return Mono<Void> indicating completion
      */
     @Override
     public Mono<Void> handle(WebSocketSession session) {
         String sessionId = session.getId();
-        log.info("WebSocket client connected: {}", sessionId);
+        String userId = WebSocketSessions.forwardedUserId(session);
+
+        if (userId == null || userId.isEmpty()) {
+            log.warn("WebSocket connection rejected - no userId found: sessionId={}, uri={}",
+                sessionId, session.getHandshakeInfo().getUri());
+            return session.close(CloseStatus.POLICY_VIOLATION);
+        }
+
+        List<String> conversationIds = WebSocketSessions.queryParams(session)
+            .getOrDefault("conversationId", List.of());
+        StatusSession subscription = new StatusSession(
+            userId, outboundQueueManager.statusQueue(), conversationIds.isEmpty());
+        log.info("WebSocket client connected: {} (userId={}, conversations={})",
+            sessionId, userId, subscription.allConversations ? "all" : conversationIds);
 
         // Add session to active sessions
-        activeSessions.put(sessionId, session);
-
-        // Subscribe to event stream and send to client
-        Flux<String> messageFlux = eventSink.asFlux()
-            .map(event -> {
-                try {
-                    return objectMapper.writeValueAsString(event);
-                } catch (Exception e) {
-                    log.error("Failed to serialize event: {}", e.getMessage());
-                    return "{}";
-                }
-            })
-            .doOnError(error -> log.error("Error in WebSocket session {}: {}", sessionId, error.getMessage()))
+        activeSessions.put(sessionId, subscription);
+        if (subscription.allConversations) {
+            index(userIndex, userId, subscription);
+        }
+
+        Mono<Void> subscribed = Flux.fromIterable(conversationIds)
+            .distinct()
+            .concatMap(conversationId -> subscribe(subscription, conversationId))
+            .then();
+
+        // Subscribe to the session's event stream and send to client
+        // (frames wrap the event's shared payload, serialized once for all subscribers)
+        Flux<WebSocketMessage> messageFlux = subscription.queue.asFlux()
+            .map(event -> event.toMessage(session))
+            .doOnError(error -> log.error("Error in WebSocket session {}: {}", sessionId, error.getMessage()));
+
+        // Send messages to client (completes only when the queue overflows under DISCONNECT)
+        Mono<Void> outbound = session.send(messageFlux)
+            .then(Mono.defer(() -> subscription.queue.closeIfOverflowed(session)));
+
+        // Apply subscribe/unsubscribe frames from the client
+        Mono<Void> inbound = session.receive()
+            .map(WebSocketMessage::getPayloadAsText)
+            .concatMap(frame -> command(subscription, frame))
+            .then();
+
+        return subscribed
+            .then(outbound.and(inbound))
             .doFinally(signalType -> {
                 log.info("WebSocket client disconnected: {} (signal: {})", sessionId, signalType);
                 activeSessions.remove(sessionId);
+                close(subscription);
             });
-
-        // Send messages to client
-        return session.send(messageFlux.map(session::textMessage));
     }
 
     /**
-     * Publishes message event to all connected WebSocket clients
-     * 
-     * Called by Kafka consumer when new events arrive
-     * 
-     * @param event Message event to broadcast
+     * Queues a message event for the sessions subscribed to its conversation
+     *
+     * Called by the Kafka status consumer and MessageService when events arrive.
+     * User-wide subscribers are matched against the event's sender and recipients
+     * (or, when the event carries no recipients, the conversation's participants).
+     *
+     * @param event Message event to push
      */
     public void publishEvent(MessageEvent event) {
-        log.debug("Publishing event to {} WebSocket clients: type={}, messageId={}", 
-            activeSessions.size(), event.getEventType(), event.getMessageId());
-
-        // Emit event to all subscribers
-        Sinks.EmitResult result = eventSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to emit event to WebSocket clients: {}", result);
+        // Shared by all target sessions: serialized at most once, when first sent
+        OutboundEvent outbound = outboundQueueManager.outboundEvent(event);
+        int queued = offer(conversationIndex.get(event.getConversationId()), outbound);
+
+        if (userIndex.isEmpty()) {
+            record(event, queued);
+            return;
         }
+
+        if (event.getRecipientIds() != null) {
+            Set<String> users = new LinkedHashSet<>(event.getRecipientIds());
+            if (event.getSenderId() != null) {
+                users.add(event.getSenderId());
+            }
+            record(event, queued + offerToUsers(users, outbound));
+            return;
+        }
+
+        participantCache.getParticipants(event.getConversationId())
+            .defaultIfEmpty(List.of())
+            .subscribe(
+                participants -> record(event, queued + offerToUsers(participants, outbound)),
+                error -> {
+                    log.warn("Failed to resolve status subscribers of conversation {}: {}",
+                        event.getConversationId(), error.getMessage());
+                    record(event, queued);
+                });
     }
 
     /**
      * Gets count of active WebSocket connections
-     * 
+     *
      * @return Number of active sessions
      */
     public int getActiveSessionCount() {
         return activeSessions.size();
     }
+
+    /**
+     * Subscribes a session to a conversation if its user takes part in it.
+     */
+    private Mono<Void> subscribe(StatusSession subscription, String conversationId) {
+        return participantCache.getParticipants(conversationId)
+            .map(participants -> participants.contains(subscription.userId))
+            .defaultIfEmpty(false)
+            .onErrorResume(e -> {
+                log.warn("Failed to check participants of conversation {}: {}", conversationId, e.getMessage());
+                return Mono.just(false);
+            })
+            .doOnNext(participant -> {
+                if (!participant) {
+                    log.warn("Status subscription rejected: user {} is not a participant of conversation {}",
+                        subscription.userId, conversationId);
+                    return;
+                }
+                synchronized (subscription) {
+                    if (!subscription.closed && subscription.conversations.add(conversationId)) {
+                        index(conversationIndex, conversationId, subscription);
+                    }
+                }
+            })
+            .then();
+    }
+
+    private void unsubscribe(StatusSession subscription, String conversationId) {
+        synchronized (subscription) {
+            if (subscription.conversations.remove(conversationId)) {
+                unindex(conversationIndex, conversationId, subscription);
+            }
+        }
+    }
+
+    /**
+     * Applies a subscribe/unsubscribe frame; invalid frames are logged and ignored.
+     */
+    private Mono<Void> command(StatusSession subscription, String frame) {
+        JsonNode json;
+        try {
+            json = objectMapper.readTree(frame);
+        } catch (Exception e) {
+            log.warn("Invalid WebSocket status frame from user {}: {}", subscription.userId, e.getMessage());
+            return Mono.empty();
+        }
+
+        String action = json.path("action").asText();
+        String conversationId = json.path("conversationId").asText();
+        if (conversationId.isBlank()) {
+            log.warn("WebSocket status frame without conversationId from user {}", subscription.userId);
+            return Mono.empty();
+        }
+        if (subscription.allConversations) {
+            log.debug("Ignoring '{}' frame: session of user {} receives all of its conversations",
+                action, subscription.userId);
+            return Mono.empty();
+        }
+
+        return switch (action) {
+            case "subscribe" -> subscribe(subscription, conversationId);
+            case "unsubscribe" -> Mono.fromRunnable(() -> unsubscribe(subscription, conversationId));
+            default -> {
+                log.warn("Unknown WebSocket status action '{}' from user {}", action, subscription.userId);
+                yield Mono.empty();
+            }
+        };
+    }
+
+    /**
+     * Removes a closed session from the subscription index and releases its queue.
+     */
+    private void close(StatusSession subscription) {
+        synchronized (subscription) {
+            subscription.closed = true;
+            subscription.conversations.forEach(conversationId ->
+                unindex(conversationIndex, conversationId, subscription));
+            subscription.conversations.clear();
+        }
+        if (subscription.allConversations) {
+            unindex(userIndex, subscription.userId, subscription);
+        }
+        // Releases pending events also if the session ended before its queue was subscribed
+        subscription.queue.close();
+    }
+
+    private int offerToUsers(Collection<String> userIds, OutboundEvent outbound) {
+        int queued = 0;
+        for (String userId : userIds) {
+            queued += offer(userIndex.get(userId), outbound);
+        }
+        return queued;
+    }
+
+    private int offer(Set<StatusSession> subscribers, OutboundEvent outbound) {
+        if (subscribers == null) {
+            return 0;
+        }
+        int queued = 0;
+        for (StatusSession subscriber : subscribers) {
+            if (subscriber.queue.offer(outbound)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    private void record(MessageEvent event, int queued) {
+        fanout.record(queued);
+        log.debug("Pushed event to {} of {} WebSocket clients: type={}, messageId={}",
+            queued, activeSessions.size(), event.getEventType(), event.getMessageId());
+    }
+
+    private static void index(Map<String, Set<StatusSession>> index, String key, StatusSession subscription) {
+        index.compute(key, (k, subscribers) -> {
+            Set<StatusSession> sessions = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            sessions.add(subscription);
+            return sessions;
+        });
+    }
+
+    private static void unindex(Map<String, Set<StatusSession>> index, String key, StatusSession subscription) {
+        index.computeIfPresent(key, (k, subscribers) -> {
+            subscribers.remove(subscription);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * Subscription state of one /ws/messages session.
+     */
+    private static final class StatusSession {
+
+        private final String userId;
+        private final SessionOutboundQueue queue;
+        private final boolean allConversations;
+        private final Set<String> conversations = ConcurrentHashMap.newKeySet();
+        private boolean closed;
+
+        private StatusSession(String userId, SessionOutboundQueue queue, boolean allConversations) {
+            this.userId = userId;
+            this.queue = queue;
+            this.allConversations = allConversations;
+        }
+    }
 }
@@ -0,0 +1,131 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Event pushed to WebSocket sessions, encoded at most once
+ *
+ * One instance is shared by every session an event is queued for. The first session
+ * that sends it encodes the JSON payload; all others reuse the same bytes, wrapped
+ * (not copied) into their frame buffer. Events that every session drops or coalesces
+ * are never encoded.
+ *
+ * On /ws/chat each recipient has its own event ID ({@link ChatEventLog}):
+ * {@link #withEventId(long)} gives a per-recipient view sharing the payload, whose
+ * frames append ,"eventId":N to the shared JSON object (a composite buffer, so the
+ * shared bytes are still not copied).
+ *
+ * The payload is an immutable byte array rather than a pooled buffer, so events
+ * discarded by the outbound queues need no release.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+final class OutboundEvent {
+
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final Payload payload;
+    private final Long eventId;
+
+    OutboundEvent(MessageEvent event, OutboundQueueManager.Encoder encoder) {
+        this(new Payload(event, encoder), null);
+    }
+
+    private OutboundEvent(Payload payload, Long eventId) {
+        this.payload = payload;
+        this.eventId = eventId;
+    }
+
+    /**
+     * The same event, for a recipient that logged it under the given event ID.
+     */
+    OutboundEvent withEventId(long eventId) {
+        return new OutboundEvent(payload, eventId);
+    }
+
+    MessageEvent event() {
+        return payload.event;
+    }
+
+    /**
+     * Event ID of the recipient, or null if the event is not resumable
+     */
+    Long eventId() {
+        return eventId;
+    }
+
+    /**
+     * Text frame carrying the shared payload, for one session.
+     */
+    WebSocketMessage toMessage(WebSocketSession session) {
+        payload.encoder.frameSent();
+        DataBufferFactory bufferFactory = session.bufferFactory();
+        byte[] bytes = payload();
+        if (eventId == null || bytes == EMPTY_OBJECT) {
+            return new WebSocketMessage(WebSocketMessage.Type.TEXT, bufferFactory.wrap(bytes));
+        }
+        byte[] suffix = (",\"eventId\":" + eventId + "}").getBytes(StandardCharsets.UTF_8);
+        return new WebSocketMessage(WebSocketMessage.Type.TEXT, bufferFactory.join(List.of(
+            bufferFactory.wrap(ByteBuffer.wrap(bytes, 0, bytes.length - 1)),
+            bufferFactory.wrap(suffix))));
+    }
+
+    /**
+     * JSON payload without event ID, encoded on first use.
+     */
+    byte[] payload() {
+        return payload.bytes();
+    }
+
+    /**
+     * Encoded event shared by all recipient views.
+     */
+    private static final class Payload {
+
+        private final MessageEvent event;
+        private final OutboundQueueManager.Encoder encoder;
+        private volatile byte[] bytes;
+
+        Payload(MessageEvent event, OutboundQueueManager.Encoder encoder) {
+            this.event = event;
+            this.encoder = encoder;
+        }
+
+        byte[] bytes() {
+            byte[] encoded = bytes;
+            if (encoded == null) {
+                synchronized (this) {
+                    encoded = bytes;
+                    if (encoded == null) {
+                        encoded = encode(encoder.objectMapper());
+                        bytes = encoded;
+                    }
+                }
+            }
+            return encoded;
+        }
+
+        private byte[] encode(ObjectMapper objectMapper) {
+            try {
+                byte[] encoded = objectMapper.writeValueAsBytes(event);
+                encoder.encoded();
+                return encoded;
+            } catch (Exception e) {
+                log.error("Failed to serialize WebSocket event: messageId={}, error={}",
+                    event.getMessageId(), e.getMessage());
+                return EMPTY_OBJECT;
+            }
+        }
+    }
+}
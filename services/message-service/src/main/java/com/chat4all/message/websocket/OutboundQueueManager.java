@@ -0,0 +1,176 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbound Queue Manager
+ *
+ * Creates the bounded per-session outbound queues ({@link SessionOutboundQueue}) of the
+ * WebSocket endpoints and exports their node-wide state. Memory per session is bounded by
+ * the endpoint's capacity, however slowly its client reads.
+ *
+ * Also wraps events for pushing ({@link OutboundEvent}): an event queued for many
+ * sessions is serialized once and its bytes are shared by all of their frames.
+ *
+ * Configuration (message.websocket.outbound.{chat|status}.*):
+ * - capacity: pending events per session (default: chat 256, status 512)
+ * - overflow-policy: DROP_OLDEST | COALESCE | DISCONNECT (default: chat DROP_OLDEST,
+ *   status COALESCE)
+ *
+ * Metrics (tag endpoint=chat|status):
+ * - websocket.outbound.queue.depth: events pending across all sessions of this node
+ * - websocket.outbound.dropped {reason=oldest|coalesced|disconnect}: events not delivered
+ *   (coalesced: superseded by a newer status of the same message)
+ * - websocket.outbound.disconnects: sessions closed by the DISCONNECT policy
+ * - websocket.outbound.encoded / websocket.outbound.frames (no endpoint tag): events
+ *   serialized and frames sent; frames per encoding is the reuse achieved by fan-out
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Component
+public class OutboundQueueManager {
+
+    private final Endpoint chat;
+    private final Endpoint status;
+    private final Encoder encoder;
+
+    public OutboundQueueManager(
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${message.websocket.outbound.chat.capacity:256}") int chatCapacity,
+        @Value("${message.websocket.outbound.chat.overflow-policy:DROP_OLDEST}")
+        SessionOutboundQueue.OverflowPolicy chatPolicy,
+        @Value("${message.websocket.outbound.status.capacity:512}") int statusCapacity,
+        @Value("${message.websocket.outbound.status.overflow-policy:COALESCE}")
+        SessionOutboundQueue.OverflowPolicy statusPolicy
+    ) {
+        this.chat = new Endpoint("chat", chatCapacity, chatPolicy, meterRegistry);
+        this.status = new Endpoint("status", statusCapacity, statusPolicy, meterRegistry);
+        this.encoder = new Encoder(objectMapper, meterRegistry);
+    }
+
+    /**
+     * Wraps an event for queueing to any number of sessions (encoded once, on first send).
+     */
+    OutboundEvent outboundEvent(MessageEvent event) {
+        return new OutboundEvent(event, encoder);
+    }
+
+    /**
+     * New outbound queue for a /ws/chat session.
+     */
+    SessionOutboundQueue chatQueue() {
+        return chat.newQueue();
+    }
+
+    /**
+     * New outbound queue for a /ws/messages session.
+     */
+    SessionOutboundQueue statusQueue() {
+        return status.newQueue();
+    }
+
+    /**
+     * Serializer and encoding meters shared by all outbound events.
+     */
+    static final class Encoder {
+
+        private final ObjectMapper objectMapper;
+        private final Counter encoded;
+        private final Counter frames;
+
+        Encoder(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+            this.objectMapper = objectMapper;
+            this.encoded = Counter.builder("websocket.outbound.encoded")
+                .description("WebSocket events serialized")
+                .register(meterRegistry);
+            this.frames = Counter.builder("websocket.outbound.frames")
+                .description("WebSocket event frames sent")
+                .register(meterRegistry);
+        }
+
+        ObjectMapper objectMapper() {
+            return objectMapper;
+        }
+
+        void encoded() {
+            encoded.increment();
+        }
+
+        void frameSent() {
+            frames.increment();
+        }
+    }
+
+    /**
+     * Queue settings and meters of one WebSocket endpoint.
+     */
+    static final class Endpoint {
+
+        private final int capacity;
+        private final SessionOutboundQueue.OverflowPolicy policy;
+        private final AtomicInteger depth = new AtomicInteger();
+        private final Counter droppedOldest;
+        private final Counter coalesced;
+        private final Counter droppedOnDisconnect;
+        private final Counter disconnects;
+
+        Endpoint(String name, int capacity, SessionOutboundQueue.OverflowPolicy policy, MeterRegistry meterRegistry) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("WebSocket outbound queue capacity must be positive: " + name);
+            }
+            this.capacity = capacity;
+            this.policy = policy;
+
+            Gauge.builder("websocket.outbound.queue.depth", depth, AtomicInteger::get)
+                .description("Events pending in WebSocket outbound queues")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+            this.droppedOldest = dropped(meterRegistry, name, "oldest");
+            this.coalesced = dropped(meterRegistry, name, "coalesced");
+            this.droppedOnDisconnect = dropped(meterRegistry, name, "disconnect");
+            this.disconnects = Counter.builder("websocket.outbound.disconnects")
+                .description("WebSocket sessions closed because their outbound queue overflowed")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        }
+
+        private static Counter dropped(MeterRegistry meterRegistry, String name, String reason) {
+            return Counter.builder("websocket.outbound.dropped")
+                .description("Events dropped from WebSocket outbound queues")
+                .tag("endpoint", name)
+                .tag("reason", reason)
+                .register(meterRegistry);
+        }
+
+        SessionOutboundQueue newQueue() {
+            return new SessionOutboundQueue(capacity, policy, this);
+        }
+
+        void adjustDepth(int delta) {
+            depth.addAndGet(delta);
+        }
+
+        void droppedOldest() {
+            droppedOldest.increment();
+        }
+
+        void coalesced() {
+            coalesced.increment();
+        }
+
+        void disconnected(int droppedEvents) {
+            disconnects.increment();
+            droppedOnDisconnect.increment(droppedEvents);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.chat4all.message.websocket;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * WebSocket Presence Registry
+ *
+ * Cluster-wide index of which message-service nodes hold /ws/chat sessions of a user,
+ * so that pushes can be addressed to those nodes only ({@link ClusterPushRouter}).
+ *
+ * Redis layout (one sorted set per connected user):
+ * - Key: {key-prefix}presence:{userId}
+ * - Member: node ID, score: expiry time (epoch millis)
+ *
+ * Behaviour:
+ * - A node registers a user when it accepts the user's first session and removes the
+ *   entry when the user's last session on that node closes
+ * - Every presence-ttl-seconds / 3 the node refreshes the entries of its connected users;
+ *   entries of a node that died without cleaning up expire after presence-ttl-seconds
+ * - Lookups ignore expired entries, so a stale entry costs at most one unanswered
+ *   node-addressed delivery
+ * - Presence is best-effort: Redis errors are logged and never fail a WebSocket session
+ *
+ * Configuration (message.websocket.cluster.*):
+ * - enabled (default: true; false keeps pushes local to the consuming node)
+ * - node-id (default: HOSTNAME, random when empty; must be unique per running instance)
+ * - presence-ttl-seconds (default: 60)
+ * - key-prefix (default: chat4all:ws:)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class PresenceRegistry {
+
+    private final ReactiveRedisTemplate<String, String> reactiveRedisTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration ttl;
+    private final String keyPrefix;
+
+    /**
+     * Users with at least one session on this node (refreshed by the heartbeat)
+     */
+    private final Set<String> localUsers = ConcurrentHashMap.newKeySet();
+
+    private Disposable heartbeat;
+
+    public PresenceRegistry(
+        @Qualifier("reactiveStringRedisTemplate") ReactiveRedisTemplate<String, String> reactiveRedisTemplate,
+        @Value("${message.websocket.cluster.enabled:true}") boolean enabled,
+        @Value("${message.websocket.cluster.node-id:${HOSTNAME:}}") String nodeId,
+        @Value("${message.websocket.cluster.presence-ttl-seconds:60}") long ttlSeconds,
+        @Value("${message.websocket.cluster.key-prefix:chat4all:ws:}") String keyPrefix
+    ) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.keyPrefix = keyPrefix;
+    }
+
+    /**
+     * Starts refreshing this node's presence entries.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("WebSocket cluster routing disabled, pushes are delivered to local sessions only");
+            return;
+        }
+
+        heartbeat = Flux.interval(ttl.dividedBy(3), ttl.dividedBy(3))
+            .onBackpressureDrop()
+            .concatMap(tick -> Flux.fromIterable(localUsers)
+                .flatMap(this::announce, 64)
+                .onErrorResume(e -> {
+                    log.warn("Failed to refresh WebSocket presence of node {}: {}", nodeId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then())
+            .subscribe();
+
+        log.info("WebSocket presence registry started: nodeId={}, ttl={}s", nodeId, ttl.toSeconds());
+    }
+
+    /**
+     * Stops the heartbeat and removes this node's entries (graceful shutdown).
+     */
+    @PreDestroy
+    public void stop() {
+        if (heartbeat == null) {
+            return;
+        }
+        heartbeat.dispose();
+        Flux.fromIterable(localUsers)
+            .flatMap(userId -> reactiveRedisTemplate.opsForZSet().remove(key(userId), nodeId))
+            .onErrorResume(e -> Mono.empty())
+            .blockLast(Duration.ofSeconds(5));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Identifier of this node (target of node-addressed deliveries).
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Records that a user has a session on this node.
+     *
+     * @param userId User identifier
+     * @return Mono<Void> Completes once the entry is written (never fails)
+     */
+    public Mono<Void> register(String userId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        localUsers.add(userId);
+        return announce(userId)
+            .onErrorResume(e -> {
+                log.warn("Failed to register WebSocket presence of user {}: {}", userId, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * Records that a user has no session left on this node.
+     *
+     * @param userId User identifier
+     * @return Mono<Void> Completes once the entry is removed (never fails)
+     */
+    public Mono<Void> unregister(String userId) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        localUsers.remove(userId);
+        return reactiveRedisTemplate.opsForZSet().remove(key(userId), nodeId)
+            // The user reconnected while the entry was being removed
+            .then(Mono.defer(() -> localUsers.contains(userId) ? announce(userId) : Mono.<Void>empty()))
+            .onErrorResume(e -> {
+                log.warn("Failed to unregister WebSocket presence of user {}: {}", userId, e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Finds the nodes holding sessions of the given users.
+     *
+     * @param userIds User identifiers
+     * @return Mono<Map<String, List<String>>> Connected users by node ID (offline users are absent)
+     */
+    public Mono<Map<String, List<String>>> locate(Collection<String> userIds) {
+        Range<Double> live = Range.rightUnbounded(Range.Bound.inclusive((double) System.currentTimeMillis()));
+
+        return Flux.fromIterable(userIds)
+            .flatMap(userId -> reactiveRedisTemplate.opsForZSet().rangeByScore(key(userId), live)
+                .map(node -> Map.entry(node, userId)))
+            .<Map<String, List<String>>>collect(HashMap::new, (byNode, entry) ->
+                byNode.computeIfAbsent(entry.getKey(), node -> new ArrayList<>()).add(entry.getValue()));
+    }
+
+    /**
+     * Writes (or refreshes) this node's entry for a user and drops expired entries.
+     */
+    private Mono<Void> announce(String userId) {
+        String key = key(userId);
+        long now = System.currentTimeMillis();
+
+        return reactiveRedisTemplate.opsForZSet().add(key, nodeId, now + ttl.toMillis())
+            .then(reactiveRedisTemplate.opsForZSet()
+                .removeRangeByScore(key, Range.closed(Double.NEGATIVE_INFINITY, (double) now)))
+            .then(reactiveRedisTemplate.expire(key, ttl))
+            .then();
+    }
+
+    private String key(String userId) {
+        return keyPrefix + "presence:" + userId;
+    }
+}
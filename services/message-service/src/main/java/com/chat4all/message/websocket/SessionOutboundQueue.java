@@ -0,0 +1,287 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded outbound queue of one WebSocket session
+ *
+ * Holds the events pushed to a session until the connection accepts them (as shared
+ * {@link OutboundEvent}s, encoded once for all sessions). Events are
+ * handed to the socket only on demand (as the send pipeline requests them), so a client
+ * that reads slowly leaves its events here, where at most capacity of them are kept.
+ *
+ * Overflow policies (applied when an event arrives at a full queue):
+ * - DROP_OLDEST: the oldest pending event is discarded
+ * - COALESCE: a status event (SENT, DELIVERED, READ, FAILED, STATUS_UPDATE) replaces the pending status
+ *   event of the same message in place, whether or not the queue is full; a full queue
+ *   then drops its oldest event
+ * - DISCONNECT: pending events are discarded and the session is closed with
+ *   {@link #OVERFLOW_CLOSE_CODE}; the close reason carries a resume token: the highest
+ *   eventId up to which every event was handed to the socket (pass it as lastEventId
+ *   when reconnecting to /ws/chat, see {@link ChatEventLog}), or the message ID of the
+ *   last event handed for sessions whose events have none
+ *
+ * Event IDs are consecutive per user but events may reach the queue out of order
+ * (recipients' events are logged and delivered concurrently), so IDs handed ahead of a
+ * missing one are held until it arrives; the token never skips an event.
+ *
+ * Offers never block and may come from any thread; delivery is single-threaded.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+final class SessionOutboundQueue {
+
+    /**
+     * Close code of sessions disconnected by the DISCONNECT policy (application range)
+     */
+    static final int OVERFLOW_CLOSE_CODE = 4008;
+
+    private static final Set<MessageEvent.EventType> STATUS_EVENTS = EnumSet.of(
+        MessageEvent.EventType.MESSAGE_SENT,
+        MessageEvent.EventType.MESSAGE_DELIVERED,
+        MessageEvent.EventType.MESSAGE_READ,
+        MessageEvent.EventType.MESSAGE_FAILED,
+        MessageEvent.EventType.STATUS_UPDATE);
+
+    enum OverflowPolicy {
+        DROP_OLDEST,
+        COALESCE,
+        DISCONNECT
+    }
+
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final OutboundQueueManager.Endpoint endpoint;
+
+    /**
+     * Pending events in arrival order. Coalescable events are keyed by message ID so a
+     * newer status takes the place of the pending one; all others get a unique key.
+     */
+    private final LinkedHashMap<Object, OutboundEvent> pending = new LinkedHashMap<>();
+
+    /**
+     * Events discarded by a full queue (DROP_OLDEST, or COALESCE without a pending status to replace)
+     */
+    private long dropped;
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile FluxSink<OutboundEvent> sink;
+    private volatile boolean closed;
+    private volatile boolean overflowed;
+    private volatile String resumeToken;
+
+    /**
+     * Highest event ID up to which every event was handed to the socket, or -1 if none yet
+     */
+    private long eventIdWatermark = -1;
+
+    /**
+     * Event IDs handed ahead of a missing one (at most capacity, the highest are forgotten first)
+     */
+    private final TreeSet<Long> handedAhead = new TreeSet<>();
+
+    SessionOutboundQueue(int capacity, OverflowPolicy policy, OutboundQueueManager.Endpoint endpoint) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Events of this queue as requested by the session (subscribe once).
+     *
+     * Completes when the DISCONNECT policy triggers; cancelling releases pending events.
+     */
+    Flux<OutboundEvent> asFlux() {
+        return Flux.create(emitter -> {
+            sink = emitter;
+            emitter.onRequest(n -> drain());
+            emitter.onDispose(this::close);
+            if (overflowed) {
+                emitter.complete();
+            }
+        });
+    }
+
+    /**
+     * Queues an event for the session, applying the overflow policy when full.
+     *
+     * @param outbound Event to push
+     * @return false if the session is closed (or was just disconnected by this event)
+     */
+    boolean offer(OutboundEvent outbound) {
+        MessageEvent event = outbound.event();
+        boolean disconnect = false;
+
+        synchronized (pending) {
+            if (closed) {
+                return false;
+            }
+
+            Object key = policy == OverflowPolicy.COALESCE && STATUS_EVENTS.contains(event.getEventType())
+                ? event.getMessageId()
+                : new Object();
+
+            if (pending.containsKey(key)) {
+                pending.put(key, outbound);
+                endpoint.coalesced();
+            } else if (pending.size() < capacity) {
+                pending.put(key, outbound);
+                endpoint.adjustDepth(1);
+            } else if (policy == OverflowPolicy.DISCONNECT) {
+                endpoint.disconnected(pending.size() + 1);
+                release();
+                overflowed = true;
+                disconnect = true;
+            } else {
+                Iterator<OutboundEvent> oldest = pending.values().iterator();
+                oldest.next();
+                oldest.remove();
+                pending.put(key, outbound);
+                dropped++;
+                endpoint.droppedOldest();
+            }
+        }
+
+        if (disconnect) {
+            FluxSink<OutboundEvent> emitter = sink;
+            if (emitter != null) {
+                emitter.complete();
+            }
+            return false;
+        }
+
+        drain();
+        return true;
+    }
+
+    /**
+     * Number of events discarded so far because the queue was full.
+     */
+    long dropped() {
+        synchronized (pending) {
+            return dropped;
+        }
+    }
+
+    /**
+     * Starts event ID tracking of a resumed session at the client's lastEventId.
+     */
+    void resumeFrom(long lastEventId) {
+        synchronized (handedAhead) {
+            eventIdWatermark = lastEventId;
+        }
+    }
+
+    /**
+     * Records that the event with the given ID was sent to the client (queued or replayed).
+     */
+    void handedOut(long eventId) {
+        synchronized (handedAhead) {
+            if (eventIdWatermark < 0) {
+                eventIdWatermark = eventId;
+            } else if (eventId > eventIdWatermark) {
+                handedAhead.add(eventId);
+                while (!handedAhead.isEmpty() && handedAhead.first() == eventIdWatermark + 1) {
+                    eventIdWatermark = handedAhead.pollFirst();
+                }
+                if (handedAhead.size() > capacity) {
+                    // Forgetting an ID only makes a resume replay that event again
+                    handedAhead.pollLast();
+                }
+            }
+            resumeToken = String.valueOf(eventIdWatermark);
+        }
+    }
+
+    /**
+     * Records that an event without event ID was sent (its message ID is the resume token
+     * only while no event ID was seen).
+     */
+    private void handedOut(String messageId) {
+        synchronized (handedAhead) {
+            if (eventIdWatermark < 0) {
+                resumeToken = messageId;
+            }
+        }
+    }
+
+    /**
+     * Closes the session with the overflow status if the DISCONNECT policy triggered.
+     */
+    Mono<Void> closeIfOverflowed(WebSocketSession session) {
+        if (!overflowed) {
+            return Mono.empty();
+        }
+        String token = resumeToken != null ? resumeToken : "";
+        return session.close(new CloseStatus(OVERFLOW_CLOSE_CODE, "outbound queue overflow; resume=" + token));
+    }
+
+    /**
+     * Hands pending events to the session while it has outstanding demand.
+     */
+    private void drain() {
+        FluxSink<OutboundEvent> emitter = sink;
+        if (emitter == null || wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            while (emitter.requestedFromDownstream() > 0) {
+                OutboundEvent outbound = poll();
+                if (outbound == null) {
+                    break;
+                }
+                if (outbound.eventId() != null) {
+                    handedOut(outbound.eventId());
+                } else {
+                    handedOut(outbound.event().getMessageId());
+                }
+                emitter.next(outbound);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private OutboundEvent poll() {
+        synchronized (pending) {
+            Iterator<OutboundEvent> oldest = pending.values().iterator();
+            if (!oldest.hasNext()) {
+                return null;
+            }
+            OutboundEvent outbound = oldest.next();
+            oldest.remove();
+            endpoint.adjustDepth(-1);
+            return outbound;
+        }
+    }
+
+    /**
+     * Releases pending events; for sessions that end before subscribing (idempotent).
+     */
+    void close() {
+        synchronized (pending) {
+            release();
+        }
+    }
+
+    /**
+     * Discards pending events and rejects further offers (caller holds the lock).
+     */
+    private void release() {
+        closed = true;
+        endpoint.adjustDepth(-pending.size());
+        pending.clear();
+    }
+}
@@ -43,7 +43,7 @@ import java.util.List;
  * ```
  * 
  * Flow:
- * 1. Client connects to /ws/chat?userId=xxx
+ * 1. Client connects to /ws/chat?userId=xxx (or /ws/messages?userId=xxx)
  * 2. This filter extracts userId from query parameter
  * 3. Adds userId to ServerWebExchange attributes
  * 4. WebSocket handler reads userId from session.getAttributes().get("userId")
@@ -74,15 +74,16 @@ public class WebSocketAuthFilter implements WebFilter {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().value();
 
-        // Only process WebSocket chat connections
-        if (!path.equals("/ws/chat")) {
+        // Only process WebSocket connections (chat and status endpoints)
+        if (!path.equals("/ws/chat") && !path.equals("/ws/messages")) {
             return chain.filter(exchange);
         }
 
         log.debug("Processing WebSocket authentication for path: {}", path);
 
-        // Extract userId from multiple sources (priority order)
-        String userId = extractUserId(request);
+        // Extract userId from multiple sources (priority order; the status endpoint
+        // prefers the forwarded header, see WebSocketSessions.forwardedUserId)
+        String userId = path.equals("/ws/messages") ? extractForwardedUserId(request) : extractUserId(request);
 
         if (userId == null || userId.isEmpty()) {
             log.warn("WebSocket connection rejected - no userId found in request: {}", path);
@@ -139,6 +140,23 @@ public class WebSocketAuthFilter implements WebFilter {
         return null;
     }
 
+    /**
+     * Extracts userId preferring the X-User-Id header over the query parameter
+     * 
+     * Used for /ws/messages, so a client cannot replace a forwarded identity with ?userId=.
+     * 
+     * @param request ServerHttpRequest
+     * @return userId or null if not found
+     */
+    private String extractForwardedUserId(ServerHttpRequest request) {
+        String userIdHeader = request.getHeaders().getFirst("X-User-Id");
+        if (userIdHeader != null && !userIdHeader.isEmpty()) {
+            log.debug("Extracted userId from X-User-Id header: {}", userIdHeader);
+            return userIdHeader;
+        }
+        return extractUserId(request);
+    }
+
     /**
      * Validates JWT token and extracts userId from claims
      * 
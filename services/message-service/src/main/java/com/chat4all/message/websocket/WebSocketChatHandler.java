@@ -6,12 +6,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -22,18 +26,41 @@ import java.util.concurrent.ConcurrentHashMap;
  * - MESSAGE_RECEIVED events (inbound messages from external platforms)
  * 
  * Architecture:
- * - User-specific message queues: Each connected user has a dedicated sink
+ * - Session-specific bounded queues: each session of a user has its own outbound queue
+ *   (see {@link OutboundQueueManager}), so a slow client only fills its own queue and
+ *   overflows it according to message.websocket.outbound.chat.overflow-policy
  * - JWT-based authentication: userId extracted from WebSocket handshake
  * - Selective message delivery: Only sends messages where user is in recipientIds
  * - Thread-safe session management with ConcurrentHashMap
+ * - Cluster presence: the first session of a user registers this node in the
+ *   {@link PresenceRegistry}, the last one removes it, so events consumed on any node
+ *   reach the user ({@link ClusterPushRouter})
+ * - Session resumption: every event carries an eventId, consecutive per user; a client
+ *   reconnecting with ?lastEventId=N first receives the events it missed
+ *   ({@link ChatEventLog}), then a SESSION_RESUMED frame, then live events (without
+ *   duplicates)
  * 
  * Event Flow:
  * 1. Client connects via WebSocket to /ws/chat with JWT token
- * 2. Server extracts userId from JWT and creates user-specific sink
- * 3. ChatMessagePushService receives MessageEvent from Kafka
- * 4. For each recipientId in the event, deliver to that user's sink
+ * 2. Server extracts userId from JWT and creates the session's outbound queue
+ * 3. ChatMessagePushService receives MessageEvent from Kafka (on any node)
+ * 4. ClusterPushRouter delivers to the queues of recipients connected to this node
  * 5. User receives JSON-formatted message event in real-time
  * 
+ * Resume Handshake:
+ * 1. Client keeps the highest eventId N such that it received every event up to N
+ *    (events of different conversations may arrive out of order, e.g. 7 before 6;
+ *    a larger jump means events were missed, e.g. after a long idle period)
+ * 2. After a drop, it reconnects to /ws/chat?lastEventId=N (or uses the resume token
+ *    from a 4008 overflow close, computed the same way)
+ * 3. Server replays the logged events with eventId > N, oldest first; the client skips
+ *    those it already received
+ * 4. Server sends {"eventType":"SESSION_RESUMED","lastEventId":N,"replayed":count,"complete":true|false};
+ *    complete=false means events may be missing (session older than
+ *    message.websocket.resume.ttl-seconds, a gap in the replayed eventIds because the log
+ *    was trimmed or expired, or live events overflowed the session's queue during the
+ *    replay): reload history over REST
+ * 
  * Security:
  * - JWT validation on handshake (via WebSocketAuthInterceptor)
  * - User isolation: Each user only receives messages intended for them
@@ -49,7 +76,8 @@ import java.util.concurrent.ConcurrentHashMap;
  *   "contentType": "TEXT",
  *   "channel": "WHATSAPP",
  *   "status": "PENDING",
- *   "timestamp": "2025-11-28T22:00:00Z"
+ *   "timestamp": "2025-11-28T22:00:00Z",
+ *   "eventId": 1042
  * }
  * 
  * Usage (JavaScript Client):
@@ -70,14 +98,17 @@ import java.util.concurrent.ConcurrentHashMap;
 @RequiredArgsConstructor
 public class WebSocketChatHandler implements WebSocketHandler {
 
+    private final PresenceRegistry presenceRegistry;
+    private final OutboundQueueManager outboundQueueManager;
+    private final ChatEventLog chatEventLog;
     private final ObjectMapper objectMapper;
 
     /**
-     * User-specific message sinks
+     * Outbound queues of connected users
      * Key: userId (extracted from JWT)
-     * Value: Sink for broadcasting messages to that specific user
+     * Value: Outbound queue of each session of that user, by session ID
      */
-    private final Map<String, Sinks.Many<MessageEvent>> userSinks = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, SessionOutboundQueue>> userQueues = new ConcurrentHashMap<>();
 
     /**
      * Active WebSocket sessions
@@ -107,7 +138,7 @@ public class WebSocketChatHandler implements WebSocketHandler {
         String sessionId = session.getId();
         
         // Extract userId from query parameter first, then fall back to session attributes
-        String userId = extractUserId(session);
+        String userId = WebSocketSessions.userId(session);
         
         if (userId == null || userId.isEmpty()) {
             log.warn("WebSocket connection rejected - no userId found: sessionId={}, uri={}", 
@@ -121,22 +152,45 @@ public class WebSocketChatHandler implements WebSocketHandler {
         activeSessions.put(sessionId, session);
         sessionUserMap.put(sessionId, userId);
 
-        // Create or get user-specific sink
-        Sinks.Many<MessageEvent> userSink = userSinks.computeIfAbsent(userId, k -> {
-            log.debug("Creating new message sink for user: {}", userId);
-            return Sinks.many().multicast().onBackpressureBuffer();
+        // Create the session's outbound queue
+        SessionOutboundQueue queue = outboundQueueManager.chatQueue();
+        userQueues.compute(userId, (k, queues) -> {
+            Map<String, SessionOutboundQueue> sessionQueues = queues != null ? queues : new ConcurrentHashMap<>();
+            sessionQueues.put(sessionId, queue);
+            return sessionQueues;
         });
+        // Registered before anything is read: an event is then either logged before the
+        // replay read below, or routed to this node after the presence lookup sees it
+        Mono<Void> registered = presenceRegistry.register(userId);
 
-        // Subscribe to user-specific event stream and send to client
-        Flux<String> messageFlux = userSink.asFlux()
-            .map(event -> {
-                try {
-                    return objectMapper.writeValueAsString(event);
-                } catch (Exception e) {
-                    log.error("Failed to serialize message event for user {}: {}", userId, e.getMessage());
-                    return "{}";
-                }
-            })
+        // Resuming session: replay the missed events before the live ones, and skip live
+        // events that were also replayed (logged before the replay read)
+        Flux<OutboundEvent> live = queue.asFlux();
+        Flux<WebSocketMessage> replay = Flux.empty();
+        Long lastEventId = lastEventId(session);
+        if (lastEventId != null && chatEventLog.isEnabled()) {
+            Set<Long> replayed = new HashSet<>();
+            replay = chatEventLog.replay(userId, lastEventId)
+                .flatMapMany(missed -> Flux.fromIterable(missed.events())
+                    .doOnNext(logged -> {
+                        replayed.add(logged.eventId());
+                        queue.handedOut(logged.eventId());
+                    })
+                    .map(logged -> outboundQueueManager.outboundEvent(logged.event())
+                        .withEventId(logged.eventId())
+                        .toMessage(session))
+                    // Live events that overflowed the queue during the replay are gone
+                    .concatWith(Mono.fromSupplier(() ->
+                        resumedFrame(session, lastEventId, missed, queue.dropped() == 0))));
+            live = live.filter(outbound -> outbound.eventId() == null || !replayed.contains(outbound.eventId()));
+            queue.resumeFrom(lastEventId);
+        }
+
+        // Subscribe to the session's event stream and send to client
+        // (frames wrap the event's shared payload, serialized once for all recipients)
+        Flux<WebSocketMessage> messageFlux = registered
+            .thenMany(replay)
+            .concatWith(live.map(outbound -> outbound.toMessage(session)))
             .doOnError(error -> log.error("Error in WebSocket chat session {} (user: {}): {}", 
                 sessionId, userId, error.getMessage()))
             .doFinally(signalType -> {
@@ -145,89 +199,114 @@ public class WebSocketChatHandler implements WebSocketHandler {
                 
                 activeSessions.remove(sessionId);
                 sessionUserMap.remove(sessionId);
+                queue.close();
+                chatEventLog.markDisconnected(userId).subscribe();
                 
                 // Check if user has any other active sessions
-                boolean hasOtherSessions = sessionUserMap.containsValue(userId);
+                boolean hasOtherSessions = userQueues.computeIfPresent(userId, (k, queues) -> {
+                    queues.remove(sessionId);
+                    return queues.isEmpty() ? null : queues;
+                }) != null;
                 if (!hasOtherSessions) {
-                    log.debug("Removing message sink for user {} (no active sessions)", userId);
-                    userSinks.remove(userId);
+                    log.debug("Removing message queues of user {} (no active sessions)", userId);
+                    presenceRegistry.unregister(userId).subscribe();
                 }
             });
 
         // Send messages to client and keep connection alive with Mono.never()
-        return session.send(messageFlux.map(session::textMessage))
+        // (the send completes only when the queue overflows under the DISCONNECT policy)
+        return session.send(messageFlux)
+            .then(Mono.defer(() -> queue.closeIfOverflowed(session)))
             .and(Mono.never());  // Never complete - keeps WebSocket alive
     }
 
     /**
-     * Extracts userId from WebSocket session
-     * 
-     * Tries in order:
-     * 1. Query parameter "userId" from URI
-     * 2. Header "X-User-Id" from handshake headers
-     * 3. Session attribute "userId" (set by WebSocketAuthFilter)
+     * Reads the lastEventId query parameter of a resuming session.
      * 
      * @param session WebSocket session
-     * @return userId or null if not found
+     * @return Last event ID received by the client, or null for a new session
      */
-    private String extractUserId(WebSocketSession session) {
-        // Try query parameter first
-        String query = session.getHandshakeInfo().getUri().getQuery();
-        if (query != null && query.contains("userId=")) {
-            String[] params = query.split("&");
-            for (String param : params) {
-                if (param.startsWith("userId=")) {
-                    String userId = param.substring("userId=".length());
-                    log.debug("Extracted userId from query parameter: {}", userId);
-                    return userId;
-                }
-            }
+    private Long lastEventId(WebSocketSession session) {
+        String value = WebSocketSessions.queryParams(session).getFirst("lastEventId");
+        if (value == null || value.isEmpty()) {
+            return null;
         }
-        
-        // Try X-User-Id header
-        var headers = session.getHandshakeInfo().getHeaders();
-        if (headers.containsKey("X-User-Id")) {
-            String userId = headers.getFirst("X-User-Id");
-            log.debug("Extracted userId from X-User-Id header: {}", userId);
-            return userId;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring invalid lastEventId '{}' (sessionId={})", value, session.getId());
+            return null;
         }
-        
-        // Fall back to session attributes
-        String userId = (String) session.getAttributes().get("userId");
-        if (userId != null) {
-            log.debug("Extracted userId from session attributes: {}", userId);
+    }
+
+    /**
+     * Builds the frame that ends a replay.
+     * 
+     * @param noneDropped false if live events overflowed the session's queue during the replay
+     */
+    private WebSocketMessage resumedFrame(WebSocketSession session, long lastEventId, ChatEventLog.Replay replay,
+                                          boolean noneDropped) {
+        boolean complete = replay.complete() && noneDropped;
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("eventType", "SESSION_RESUMED");
+        frame.put("lastEventId", lastEventId);
+        frame.put("replayed", replay.events().size());
+        frame.put("complete", complete);
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(frame);
+        } catch (Exception e) {
+            log.error("Failed to serialize resume frame: {}", e.getMessage());
+            payload = "{\"eventType\":\"SESSION_RESUMED\",\"complete\":false}";
         }
-        return userId;
+        log.debug("WebSocket chat session {} resumed after eventId={}: replayed={}, complete={}",
+            session.getId(), lastEventId, replay.events().size(), complete);
+        return session.textMessage(payload);
     }
 
     /**
-     * Delivers message to a specific user
+     * Delivers message to a set of users
      * 
-     * Called by ChatMessagePushService when a new message event is received
-     * from Kafka. Only delivers if the user has an active WebSocket connection.
+     * Called by ClusterPushRouter for recipients connected to this node. Only
+     * delivers to users with an active WebSocket connection. The event is
+     * serialized once, by the first session that sends it, and shared by all;
+     * each user's frames carry that user's event ID.
      * 
-     * @param userId User ID to deliver message to
+     * @param userIds User IDs to deliver message to
      * @param event Message event to deliver
+     * @param eventIds Event ID by user ({@link ChatEventLog#append}); users without one
+     *                 get the event without event ID
+     * @return Number of users with an active connection
      */
-    public void deliverToUser(String userId, MessageEvent event) {
-        Sinks.Many<MessageEvent> userSink = userSinks.get(userId);
-        
-        if (userSink == null) {
-            log.debug("No active WebSocket connection for user {}, skipping real-time delivery", userId);
-            return;
-        }
+    public int deliverToUsers(Collection<String> userIds, MessageEvent event, Map<String, Long> eventIds) {
+        OutboundEvent shared = outboundQueueManager.outboundEvent(event);
+        int delivered = 0;
 
-        log.debug("Delivering message to user via WebSocket: userId={}, messageId={}, eventType={}", 
-            userId, event.getMessageId(), event.getEventType());
+        for (String userId : userIds) {
+            Map<String, SessionOutboundQueue> queues = userQueues.get(userId);
 
-        // Emit event to user's sink
-        Sinks.EmitResult result = userSink.tryEmitNext(event);
-        
-        if (result.isFailure()) {
-            log.warn("Failed to emit message to user {} via WebSocket: {}", userId, result);
-        } else {
-            log.debug("Successfully delivered message to user {}: messageId={}", userId, event.getMessageId());
+            if (queues == null) {
+                log.debug("No active WebSocket connection for user {}, skipping real-time delivery", userId);
+                continue;
+            }
+
+            log.debug("Delivering message to user via WebSocket: userId={}, messageId={}, eventType={}", 
+                userId, event.getMessageId(), event.getEventType());
+
+            // Queue event for each of the user's sessions (overflow policy applies per session)
+            Long eventId = eventIds.get(userId);
+            OutboundEvent outbound = eventId != null ? shared.withEventId(eventId) : shared;
+            queues.forEach((sessionId, queue) -> {
+                if (!queue.offer(outbound)) {
+                    log.debug("WebSocket session {} of user {} closed or overflowed, messageId={} not queued",
+                        sessionId, userId, event.getMessageId());
+                }
+            });
+            delivered++;
         }
+
+        return delivered;
     }
 
     /**
@@ -245,7 +324,7 @@ public class WebSocketChatHandler implements WebSocketHandler {
      * @return Number of unique users connected
      */
     public int getActiveUserCount() {
-        return userSinks.size();
+        return userQueues.size();
     }
 
     /**
@@ -255,6 +334,6 @@ public class WebSocketChatHandler implements WebSocketHandler {
      * @return true if user is connected, false otherwise
      */
     public boolean isUserConnected(String userId) {
-        return userSinks.containsKey(userId);
+        return userQueues.containsKey(userId);
     }
 }
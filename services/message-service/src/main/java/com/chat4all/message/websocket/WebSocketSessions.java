@@ -0,0 +1,101 @@
+package com.chat4all.message.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Handshake helpers shared by the WebSocket handlers
+ *
+ * Session attributes are not copied from the handshake exchange by default, so the
+ * handlers read the identity and parameters from the handshake request themselves.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+final class WebSocketSessions {
+
+    private WebSocketSessions() {
+    }
+
+    /**
+     * Extracts userId from WebSocket session
+     *
+     * Tries in order:
+     * 1. Query parameter "userId" from URI
+     * 2. Header "X-User-Id" from handshake headers
+     * 3. Session attribute "userId" (set by WebSocketAuthFilter)
+     *
+     * @param session WebSocket session
+     * @return userId or null if not found
+     */
+    static String userId(WebSocketSession session) {
+        // Try query parameter first
+        String userId = queryParams(session).getFirst("userId");
+        if (userId != null) {
+            log.debug("Extracted userId from query parameter: {}", userId);
+            return userId;
+        }
+
+        // Try X-User-Id header
+        var headers = session.getHandshakeInfo().getHeaders();
+        if (headers.containsKey("X-User-Id")) {
+            userId = headers.getFirst("X-User-Id");
+            log.debug("Extracted userId from X-User-Id header: {}", userId);
+            return userId;
+        }
+
+        // Fall back to session attributes
+        userId = (String) session.getAttributes().get("userId");
+        if (userId != null) {
+            log.debug("Extracted userId from session attributes: {}", userId);
+        }
+        return userId;
+    }
+
+    /**
+     * Extracts userId from WebSocket session, preferring the forwarded identity
+     *
+     * Used by /ws/messages, whose subscriptions are authorized by the user's identity.
+     * Tries in order:
+     * 1. Header "X-User-Id" (set by the API Gateway or proxy, not by the browser)
+     * 2. Session attribute "userId" (set by WebSocketAuthFilter)
+     * 3. Query parameter "userId" (direct connections without a forwarded identity)
+     *
+     * A query parameter can therefore not override the forwarded identity. Without a
+     * proxy that sets X-User-Id, the userId is asserted by the client itself.
+     *
+     * @param session WebSocket session
+     * @return userId or null if not found
+     */
+    static String forwardedUserId(WebSocketSession session) {
+        String userId = session.getHandshakeInfo().getHeaders().getFirst("X-User-Id");
+        if (userId != null && !userId.isEmpty()) {
+            log.debug("Extracted userId from X-User-Id header: {}", userId);
+            return userId;
+        }
+
+        userId = (String) session.getAttributes().get("userId");
+        if (userId != null) {
+            log.debug("Extracted userId from session attributes: {}", userId);
+            return userId;
+        }
+
+        userId = queryParams(session).getFirst("userId");
+        if (userId != null) {
+            log.debug("Extracted userId from query parameter: {}", userId);
+        }
+        return userId;
+    }
+
+    /**
+     * Query parameters of the handshake request (values as sent, not URL-decoded).
+     */
+    static MultiValueMap<String, String> queryParams(WebSocketSession session) {
+        return UriComponentsBuilder.fromUri(session.getHandshakeInfo().getUri())
+            .build(true)
+            .getQueryParams();
+    }
+}
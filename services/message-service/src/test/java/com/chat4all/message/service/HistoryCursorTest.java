@@ -0,0 +1,81 @@
+package com.chat4all.message.service;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link HistoryCursor}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class HistoryCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        Instant timestamp = Instant.parse("2025-11-28T22:00:00.123Z");
+        ObjectId id = new ObjectId();
+
+        HistoryCursor cursor = HistoryCursor.decode(HistoryCursor.encode(timestamp, id.toHexString()));
+
+        assertEquals(timestamp, cursor.timestamp());
+        assertEquals(id, cursor.id());
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String token = HistoryCursor.encode(Instant.ofEpochMilli(1), new ObjectId().toHexString());
+
+        assertEquals(-1, indexOfAny(token, "+/="));
+    }
+
+    @Test
+    void acceptsLegacyIsoTimestamp() {
+        HistoryCursor cursor = HistoryCursor.decode("2025-11-28T22:00:00Z");
+
+        assertEquals(Instant.parse("2025-11-28T22:00:00Z"), cursor.timestamp());
+        assertNull(cursor.id());
+    }
+
+    @Test
+    void rejectsTokenThatIsNotBase64() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    void rejectsTokenWithoutSeparator() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(base64("1732831200000")));
+    }
+
+    @Test
+    void rejectsTokenWithInvalidId() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(base64("1732831200000:xyz")));
+    }
+
+    @Test
+    void rejectsTokenWithInvalidTimestamp() {
+        String token = base64("soon:" + new ObjectId().toHexString());
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(token));
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int indexOfAny(String value, String characters) {
+        for (int i = 0; i < value.length(); i++) {
+            if (characters.indexOf(value.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.chat4all.message.service;
+
+import com.chat4all.common.constant.MessageStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for the status coalescing of {@link MessageService#updateStatuses(List)}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class MessageServiceStatusCoalescingTest {
+
+    @Test
+    void picksHighestReachableStatus() {
+        StatusUpdate delivered = update(MessageStatus.DELIVERED);
+
+        assertSame(delivered, MessageService.coalesce(MessageStatus.PENDING,
+            List.of(update(MessageStatus.SENT), delivered)));
+    }
+
+    @Test
+    void ignoresArrivalOrder() {
+        StatusUpdate read = update(MessageStatus.READ);
+
+        assertSame(read, MessageService.coalesce(MessageStatus.PENDING,
+            List.of(read, update(MessageStatus.SENT), update(MessageStatus.DELIVERED))));
+    }
+
+    @Test
+    void failedWinsOverAnyProgress() {
+        StatusUpdate failed = update(MessageStatus.FAILED);
+
+        assertSame(failed, MessageService.coalesce(MessageStatus.SENT,
+            List.of(failed, update(MessageStatus.READ))));
+    }
+
+    @Test
+    void skipsTransitionsThatAlreadyHappened() {
+        StatusUpdate read = update(MessageStatus.READ);
+
+        assertSame(read, MessageService.coalesce(MessageStatus.DELIVERED,
+            List.of(update(MessageStatus.SENT), read, update(MessageStatus.DELIVERED))));
+    }
+
+    @Test
+    void returnsNullWhenNoTransitionIsValid() {
+        assertNull(MessageService.coalesce(MessageStatus.DELIVERED,
+            List.of(update(MessageStatus.SENT), update(MessageStatus.DELIVERED))));
+        assertNull(MessageService.coalesce(MessageStatus.READ, List.of(update(MessageStatus.DELIVERED))));
+        assertNull(MessageService.coalesce(null, List.of(update(MessageStatus.SENT))));
+    }
+
+    @Test
+    void laterUpdateWinsForTheSameStatus() {
+        StatusUpdate later = new StatusUpdate("msg-1", MessageStatus.SENT, "webhook-whatsapp");
+
+        StatusUpdate target = MessageService.coalesce(MessageStatus.PENDING,
+            List.of(update(MessageStatus.SENT), later));
+
+        assertEquals("webhook-whatsapp", target.updatedBy());
+    }
+
+    private static StatusUpdate update(MessageStatus status) {
+        return new StatusUpdate("msg-1", status, "router-service");
+    }
+}
@@ -0,0 +1,50 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the gap check of {@link ChatEventLog#replay(String, long)}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class ChatEventLogTest {
+
+    @Test
+    void emptyReplayHasNoGap() {
+        assertTrue(ChatEventLog.consecutive(10, List.of()));
+    }
+
+    @Test
+    void eventsDirectlyFollowingLastEventIdAreComplete() {
+        assertTrue(ChatEventLog.consecutive(10, events(11, 12, 13)));
+    }
+
+    @Test
+    void trimmedHeadIsAGap() {
+        assertFalse(ChatEventLog.consecutive(10, events(12, 13)));
+    }
+
+    @Test
+    void missingEventInTheMiddleIsAGap() {
+        assertFalse(ChatEventLog.consecutive(10, events(11, 13)));
+    }
+
+    @Test
+    void restartedSequenceIsAGap() {
+        assertFalse(ChatEventLog.consecutive(10, events(1732831200001L)));
+    }
+
+    private static List<ChatEvent> events(long... eventIds) {
+        return Arrays.stream(eventIds)
+            .mapToObj(eventId -> new ChatEvent(eventId, MessageEvent.builder().messageId("msg-" + eventId).build()))
+            .toList();
+    }
+}
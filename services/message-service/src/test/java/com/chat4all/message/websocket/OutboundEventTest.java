@@ -0,0 +1,65 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketSession;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link OutboundEvent} frames.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class OutboundEventTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboundQueueManager.Encoder encoder = new OutboundQueueManager.Encoder(objectMapper, meterRegistry);
+
+    @Test
+    void framesOfRecipientViewsCarryTheirEventId() throws Exception {
+        OutboundEvent shared = new OutboundEvent(MessageEvent.builder()
+            .messageId("msg-1")
+            .eventType(MessageEvent.EventType.MESSAGE_CREATED)
+            .build(), encoder);
+        WebSocketSession session = session();
+
+        JsonNode alice = objectMapper.readTree(shared.withEventId(41).toMessage(session).getPayloadAsText());
+        JsonNode bob = objectMapper.readTree(shared.withEventId(7).toMessage(session).getPayloadAsText());
+        JsonNode plain = objectMapper.readTree(shared.toMessage(session).getPayloadAsText());
+
+        assertEquals(41, alice.get("eventId").asLong());
+        assertEquals(7, bob.get("eventId").asLong());
+        assertFalse(plain.has("eventId"));
+        assertEquals("msg-1", alice.get("messageId").asText());
+        assertEquals("msg-1", plain.get("messageId").asText());
+    }
+
+    @Test
+    void encodesOncePerEvent() {
+        OutboundEvent shared = new OutboundEvent(MessageEvent.builder().messageId("msg-1").build(), encoder);
+        WebSocketSession session = session();
+
+        shared.withEventId(1).toMessage(session);
+        shared.withEventId(2).toMessage(session);
+        shared.toMessage(session);
+
+        assertEquals(1.0, meterRegistry.counter("websocket.outbound.encoded").count());
+        assertEquals(3.0, meterRegistry.counter("websocket.outbound.frames").count());
+    }
+
+    private static WebSocketSession session() {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.bufferFactory()).thenReturn(DefaultDataBufferFactory.sharedInstance);
+        return session;
+    }
+}
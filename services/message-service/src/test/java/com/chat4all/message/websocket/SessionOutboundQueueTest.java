@@ -0,0 +1,198 @@
+package com.chat4all.message.websocket;
+
+import com.chat4all.common.event.MessageEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SessionOutboundQueue} overflow policies and resume tokens.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class SessionOutboundQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboundQueueManager.Encoder encoder = new OutboundQueueManager.Encoder(new ObjectMapper(), meterRegistry);
+
+    @Test
+    void dropOldestDiscardsOldestPendingEvent() {
+        SessionOutboundQueue queue = queue(2, SessionOutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        StepVerifier.create(queue.asFlux().map(SessionOutboundQueueTest::describe), 0)
+            .then(() -> {
+                assertTrue(queue.offer(event("m1", MessageEvent.EventType.MESSAGE_CREATED)));
+                assertTrue(queue.offer(event("m2", MessageEvent.EventType.MESSAGE_CREATED)));
+                assertTrue(queue.offer(event("m3", MessageEvent.EventType.MESSAGE_CREATED)));
+            })
+            .thenRequest(3)
+            .expectNext("MESSAGE_CREATED:m2", "MESSAGE_CREATED:m3")
+            .then(() -> assertEquals(1, queue.dropped()))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void dropOldestKeepsEveryStatusEvent() {
+        SessionOutboundQueue queue = queue(4, SessionOutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        StepVerifier.create(queue.asFlux().map(SessionOutboundQueueTest::describe), 0)
+            .then(() -> {
+                queue.offer(event("m1", MessageEvent.EventType.MESSAGE_SENT));
+                queue.offer(event("m1", MessageEvent.EventType.MESSAGE_DELIVERED));
+            })
+            .thenRequest(2)
+            .expectNext("MESSAGE_SENT:m1", "MESSAGE_DELIVERED:m1")
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void coalesceReplacesPendingStatusInPlace() {
+        SessionOutboundQueue queue = queue(2, SessionOutboundQueue.OverflowPolicy.COALESCE);
+
+        StepVerifier.create(queue.asFlux().map(SessionOutboundQueueTest::describe), 0)
+            .then(() -> {
+                queue.offer(event("m1", MessageEvent.EventType.MESSAGE_SENT));
+                queue.offer(event("m2", MessageEvent.EventType.MESSAGE_CREATED));
+                // Queue is full: these replace m1's pending status instead of dropping
+                queue.offer(event("m1", MessageEvent.EventType.MESSAGE_DELIVERED));
+                queue.offer(event("m1", MessageEvent.EventType.MESSAGE_READ));
+            })
+            .thenRequest(2)
+            .expectNext("MESSAGE_READ:m1", "MESSAGE_CREATED:m2")
+            .then(() -> assertEquals(0, queue.dropped()))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void coalesceDropsOldestWhenNothingToReplace() {
+        SessionOutboundQueue queue = queue(1, SessionOutboundQueue.OverflowPolicy.COALESCE);
+
+        StepVerifier.create(queue.asFlux().map(SessionOutboundQueueTest::describe), 0)
+            .then(() -> {
+                queue.offer(event("m1", MessageEvent.EventType.MESSAGE_CREATED));
+                queue.offer(event("m2", MessageEvent.EventType.MESSAGE_CREATED));
+            })
+            .thenRequest(1)
+            .expectNext("MESSAGE_CREATED:m2")
+            .then(() -> assertEquals(1, queue.dropped()))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void disconnectCompletesStreamAndClosesWithResumeToken() {
+        SessionOutboundQueue queue = queue(1, SessionOutboundQueue.OverflowPolicy.DISCONNECT);
+        OutboundEvent shared = event("m1", MessageEvent.EventType.MESSAGE_CREATED);
+
+        StepVerifier.create(queue.asFlux(), 1)
+            .then(() -> assertTrue(queue.offer(shared.withEventId(5))))
+            .expectNextCount(1)
+            .then(() -> {
+                assertTrue(queue.offer(event("m2", MessageEvent.EventType.MESSAGE_CREATED).withEventId(6)));
+                assertFalse(queue.offer(event("m3", MessageEvent.EventType.MESSAGE_CREATED).withEventId(7)));
+            })
+            .expectComplete()
+            .verify();
+
+        assertEquals("outbound queue overflow; resume=5", closeReason(queue));
+        assertFalse(queue.offer(event("m4", MessageEvent.EventType.MESSAGE_CREATED)));
+    }
+
+    @Test
+    void resumeTokenNeverSkipsAMissingEvent() {
+        SessionOutboundQueue queue = queue(1, SessionOutboundQueue.OverflowPolicy.DISCONNECT);
+        queue.resumeFrom(10);
+
+        // 12 was sent before 11: the token stays at 10 until 11 is sent too
+        queue.handedOut(12);
+        queue.handedOut(14);
+        assertEquals("outbound queue overflow; resume=10", overflowCloseReason(queue));
+    }
+
+    @Test
+    void resumeTokenAdvancesOnceGapIsFilled() {
+        SessionOutboundQueue queue = queue(1, SessionOutboundQueue.OverflowPolicy.DISCONNECT);
+        queue.resumeFrom(10);
+
+        queue.handedOut(12);
+        queue.handedOut(11);
+        queue.handedOut(14);
+        assertEquals("outbound queue overflow; resume=12", overflowCloseReason(queue));
+    }
+
+    @Test
+    void resumeTokenFallsBackToMessageId() {
+        SessionOutboundQueue queue = queue(1, SessionOutboundQueue.OverflowPolicy.DISCONNECT);
+
+        StepVerifier.create(queue.asFlux(), 1)
+            .then(() -> queue.offer(event("m1", MessageEvent.EventType.MESSAGE_SENT)))
+            .expectNextCount(1)
+            .then(() -> {
+                queue.offer(event("m2", MessageEvent.EventType.MESSAGE_SENT));
+                queue.offer(event("m3", MessageEvent.EventType.MESSAGE_SENT));
+            })
+            .expectComplete()
+            .verify();
+
+        assertEquals("outbound queue overflow; resume=m1", closeReason(queue));
+    }
+
+    @Test
+    void closedQueueRejectsOffers() {
+        SessionOutboundQueue queue = queue(4, SessionOutboundQueue.OverflowPolicy.DROP_OLDEST);
+
+        queue.close();
+
+        assertFalse(queue.offer(event("m1", MessageEvent.EventType.MESSAGE_CREATED)));
+    }
+
+    private SessionOutboundQueue queue(int capacity, SessionOutboundQueue.OverflowPolicy policy) {
+        return new OutboundQueueManager.Endpoint("chat", capacity, policy, meterRegistry).newQueue();
+    }
+
+    private OutboundEvent event(String messageId, MessageEvent.EventType eventType) {
+        return new OutboundEvent(MessageEvent.builder().messageId(messageId).eventType(eventType).build(), encoder);
+    }
+
+    private static String describe(OutboundEvent outbound) {
+        return outbound.event().getEventType() + ":" + outbound.event().getMessageId();
+    }
+
+    /**
+     * Overflows an unsubscribed capacity-1 queue and returns its close reason.
+     */
+    private String overflowCloseReason(SessionOutboundQueue queue) {
+        queue.offer(event("pending", MessageEvent.EventType.MESSAGE_CREATED));
+        assertFalse(queue.offer(event("overflow", MessageEvent.EventType.MESSAGE_CREATED)));
+        return closeReason(queue);
+    }
+
+    private static String closeReason(SessionOutboundQueue queue) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.close(any(CloseStatus.class))).thenReturn(Mono.empty());
+
+        queue.closeIfOverflowed(session).block();
+
+        ArgumentCaptor<CloseStatus> status = ArgumentCaptor.forClass(CloseStatus.class);
+        verify(session).close(status.capture());
+        assertEquals(SessionOutboundQueue.OVERFLOW_CLOSE_CODE, status.getValue().getCode());
+        return status.getValue().getReason();
+    }
+}
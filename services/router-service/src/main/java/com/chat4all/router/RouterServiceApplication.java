@@ -16,6 +16,7 @@ import org.springframework.kafka.annotation.EnableKafka;
  * - Performs deduplication checks using Redis + MongoDB
  * - Routes messages to external platform connectors (WhatsApp, Telegram, Instagram)
  * - Handles retries with exponential backoff (max 3 attempts)
+ * - Retries failed passes from delayed retry topics (5s, 1m, 10m)
  * - Publishes failed messages to DLQ (Dead Letter Queue)
  * - Publishes status updates back to Kafka (status-updates topic)
  * 
@@ -24,8 +25,11 @@ import org.springframework.kafka.annotation.EnableKafka;
  * - DeduplicationHandler: Prevents duplicate message delivery
  * - RoutingHandler: Determines target connector based on channel
  * - ConnectorClient: HTTP client for connector communication
- * - RetryHandler: Resilience4j-based retry logic
- * - DLQHandler: Dead Letter Queue for failed messages
+ * - ConnectorConcurrencyLimiter / ConnectorCircuitBreaker: Per-channel adaptive bulkhead and circuit breaker
+ * - RetryHandler: Non-blocking retry with jittered backoff and retry budgets
+ * - RetryTopicHandler / RetryTierConsumer: Durable delayed retries via Kafka topics
+ * - DLQHandler: Dead Letter Queue for failed messages (count, retry, bulk replay)
+ * - DLQController: DLQ administration API (/api/v1/dlq)
  * - StatusUpdateProducer: Publishes status changes to Kafka
  * 
  * @author Chat4All Team
@@ -0,0 +1,121 @@
+package com.chat4all.router.api;
+
+import com.chat4all.router.dlq.DLQHandler;
+import com.chat4all.router.dto.DLQReplayStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * DLQ Controller
+ *
+ * Administration API for the Dead Letter Queue (chat-events-dlq).
+ *
+ * Endpoints:
+ * - GET  /api/v1/dlq/count - Messages retained in the DLQ
+ * - POST /api/v1/dlq/messages/{messageId}/retry - Replay one message
+ * - POST /api/v1/dlq/replay?from=&to=&limit=&ratePerSecond= - Start a bulk replay
+ * - GET  /api/v1/dlq/replay - Status of the current (or last) bulk replay
+ * - DELETE /api/v1/dlq/replay - Cancel the running bulk replay
+ *
+ * Replayed messages re-enter routing through the first retry tier, so a bulk replay after
+ * a connector outage is paced (ratePerSecond) and failures escalate through the retry
+ * tiers again instead of looping.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/dlq")
+@RequiredArgsConstructor
+public class DLQController {
+
+    private final DLQHandler dlqHandler;
+
+    /**
+     * Gets the number of messages retained in the DLQ.
+     *
+     * @return 200 OK with {"count": n}
+     */
+    @GetMapping("/count")
+    public ResponseEntity<Map<String, Long>> getCount() {
+        return ResponseEntity.ok(Map.of("count", dlqHandler.getDLQMessageCount()));
+    }
+
+    /**
+     * Replays the latest DLQ record of one message.
+     *
+     * @param messageId The message ID
+     * @return 202 Accepted if republished, 404 Not Found if not in the DLQ
+     */
+    @PostMapping("/messages/{messageId}/retry")
+    public ResponseEntity<Void> retryMessage(@PathVariable String messageId) {
+        log.info("API request: Retry message from DLQ - messageId={}", messageId);
+
+        return dlqHandler.retryFromDLQ(messageId)
+            ? ResponseEntity.accepted().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Starts a bulk replay of the DLQ records written in [from, to).
+     *
+     * @param from ISO-8601 start time (optional, default: oldest retained record)
+     * @param to ISO-8601 end time (optional, default: now)
+     * @param limit Maximum number of messages to replay (0 = unlimited)
+     * @param ratePerSecond Maximum republish rate
+     * @return 202 Accepted with the replay status, 400 Bad Request for an invalid rate,
+     *         409 Conflict if a replay is already running
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<DLQReplayStatus> startReplay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "0") long limit,
+            @RequestParam(defaultValue = "50") int ratePerSecond) {
+
+        log.info("API request: Start DLQ replay - from={}, to={}, limit={}, ratePerSecond={}",
+            from, to, limit, ratePerSecond);
+
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(dlqHandler.startReplay(from, to, limit, ratePerSecond));
+        } catch (IllegalArgumentException e) {
+            log.warn("API error: Invalid DLQ replay request - {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.warn("API error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(dlqHandler.getReplayStatus());
+        }
+    }
+
+    /**
+     * Gets the status of the current (or last) bulk replay.
+     *
+     * @return 200 OK with the replay status, 404 Not Found if no replay was started
+     */
+    @GetMapping("/replay")
+    public ResponseEntity<DLQReplayStatus> getReplayStatus() {
+        DLQReplayStatus status = dlqHandler.getReplayStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Cancels the running bulk replay.
+     *
+     * @return 202 Accepted if a running replay was asked to stop, 404 Not Found otherwise
+     */
+    @DeleteMapping("/replay")
+    public ResponseEntity<Void> cancelReplay() {
+        return dlqHandler.cancelReplay()
+            ? ResponseEntity.accepted().build()
+            : ResponseEntity.notFound().build();
+    }
+}
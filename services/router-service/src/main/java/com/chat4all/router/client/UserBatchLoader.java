@@ -0,0 +1,175 @@
+package com.chat4all.router.client;
+
+import com.chat4all.router.dto.UserDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched loader for User Service lookups.
+ *
+ * <p>Gathers single-user lookups that arrive within a short window
+ * (app.identity-cache.batch.window-ms) into one POST /api/v1/users/resolve call, so
+ * concurrent cache misses - typically the recipients of one GROUP message - cost one
+ * round-trip instead of one each. A batch is sent early once it reaches
+ * app.identity-cache.batch.max-size users.
+ *
+ * <p>Every requested user gets an answer: {@code Optional.empty()} only for users the
+ * User Service did not return (unknown users, cached as 404s); a user without linked
+ * identities is a found user with an empty identity list. A failed request fails every
+ * lookup of its batch.
+ *
+ * <p><b>Metrics:</b>
+ * - router.identity_cache.load.latency {result=success|error}: bulk request time
+ * - router.identity_cache.load.batch_size: users per bulk request
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class UserBatchLoader {
+
+    private final UserServiceClient userServiceClient;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary batchSize;
+
+    @Value("${app.identity-cache.batch.window-ms:2}")
+    private long windowMs;
+
+    @Value("${app.identity-cache.batch.max-size:200}")
+    private int maxBatchSize;
+
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<Optional<UserDTO>>> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    public UserBatchLoader(UserServiceClient userServiceClient, MeterRegistry meterRegistry) {
+        this.userServiceClient = userServiceClient;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = DistributionSummary.builder("router.identity_cache.load.batch_size")
+            .description("Users resolved per User Service bulk request")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Loads one user as part of the current batch window.
+     *
+     * @param userId Internal user UUID
+     * @return Future completed with the user, or empty if the user cannot be resolved
+     */
+    public CompletableFuture<Optional<UserDTO>> load(String userId) {
+        CompletableFuture<Optional<UserDTO>> result;
+        Map<String, CompletableFuture<Optional<UserDTO>>> full = null;
+
+        synchronized (lock) {
+            result = pending.computeIfAbsent(userId, id -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new HashMap<>();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                Schedulers.parallel().schedule(this::flushPending, windowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        return result;
+    }
+
+    /**
+     * Loads many users immediately, split into requests of at most max-size users.
+     *
+     * @param userIds Internal user UUIDs
+     * @return Future completed with an entry for every requested user
+     */
+    public CompletableFuture<Map<String, Optional<UserDTO>>> loadAll(Collection<? extends String> userIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            chunks.add(ids.subList(from, Math.min(from + maxBatchSize, ids.size())));
+        }
+
+        return Flux.fromIterable(chunks)
+            .flatMap(this::resolve)
+            .collect(HashMap<String, Optional<UserDTO>>::new, Map::putAll)
+            .<Map<String, Optional<UserDTO>>>map(map -> map)
+            .toFuture();
+    }
+
+    /**
+     * Sends the batch gathered during the current window.
+     */
+    private void flushPending() {
+        Map<String, CompletableFuture<Optional<UserDTO>>> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new HashMap<>();
+            flushScheduled = false;
+        }
+
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Resolves a batch and completes its futures.
+     */
+    private void send(Map<String, CompletableFuture<Optional<UserDTO>>> batch) {
+        resolve(batch.keySet()).subscribe(
+            users -> batch.forEach((userId, future) -> future.complete(users.get(userId))),
+            error -> batch.values().forEach(future -> future.completeExceptionally(error))
+        );
+    }
+
+    /**
+     * Resolves users with one bulk request, with an entry for every requested user.
+     */
+    private Mono<Map<String, Optional<UserDTO>>> resolve(Collection<String> userIds) {
+        List<String> ids = new ArrayList<>(userIds);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        batchSize.record(ids.size());
+
+        return userServiceClient.resolveUsers(ids)
+            .map(users -> {
+                // UUIDs are matched case-insensitively, but keyed as requested
+                Map<String, UserDTO> byId = new HashMap<>();
+                users.forEach(user -> byId.put(user.getId().toLowerCase(), user));
+
+                Map<String, Optional<UserDTO>> result = new HashMap<>();
+                ids.forEach(id -> result.put(id, Optional.ofNullable(byId.get(id.toLowerCase()))));
+                return result;
+            })
+            .doOnSuccess(result -> sample.stop(loadTimer("success")))
+            .doOnError(error -> {
+                sample.stop(loadTimer("error"));
+                log.warn("Bulk user resolution failed - count={}, error={}", ids.size(), error.getMessage());
+            });
+    }
+
+    private Timer loadTimer(String result) {
+        return Timer.builder("router.identity_cache.load.latency")
+            .description("Time to resolve a batch of users from the User Service")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
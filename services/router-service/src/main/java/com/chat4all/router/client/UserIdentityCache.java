@@ -0,0 +1,161 @@
+package com.chat4all.router.client;
+
+import com.chat4all.router.dto.UserDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Near-cache in front of {@link UserServiceClient}.
+ *
+ * <p>Every message to an internal user needs that user's external identities; without a
+ * cache each recipient costs one HTTP round-trip to the User Service. This cache keeps
+ * recently resolved users in process:
+ * - Bounded size (app.identity-cache.max-size), evicting least recently/frequently used entries
+ * - Positive TTL (app.identity-cache.ttl-seconds) for found users, including users with
+ *   no linked identity (cached as found with an empty identity list; linking one publishes
+ *   an invalidation)
+ * - Negative TTL (app.identity-cache.negative-ttl-seconds) only for unknown users (404),
+ *   so unknown IDs don't hammer the User Service
+ * - Request coalescing: concurrent lookups of the same user share one in-flight load
+ * - Batching: misses are loaded through {@link UserBatchLoader}, which groups concurrent
+ *   misses into one bulk request; {@link #prefetch(Collection)} loads all missing
+ *   recipients of a GROUP message with one request up front
+ * - Errors (timeouts, 5xx) are never cached
+ *
+ * <p><b>Invalidation:</b> the User Service publishes a UserIdentityChangedEvent after each
+ * committed change; IdentityEventConsumer calls {@link #invalidate(String)}. The TTL bounds
+ * staleness if an event is lost.
+ *
+ * <p><b>Metrics:</b>
+ * - cache.gets / cache.puts / cache.evictions {cache=user-identity} (Caffeine binder)
+ * - router.identity_cache.hit_ratio: hit ratio since startup
+ * - router.identity_cache.load.latency / load.batch_size: see {@link UserBatchLoader}
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class UserIdentityCache {
+
+    private static final String CACHE_NAME = "user-identity";
+
+    private final UserBatchLoader userBatchLoader;
+    private final AsyncCache<String, Optional<UserDTO>> cache;
+
+    public UserIdentityCache(UserBatchLoader userBatchLoader,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.identity-cache.max-size:100000}") long maxSize,
+                             @Value("${app.identity-cache.ttl-seconds:300}") long ttlSeconds,
+                             @Value("${app.identity-cache.negative-ttl-seconds:30}") long negativeTtlSeconds) {
+        this.userBatchLoader = userBatchLoader;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new FoundOrMissingExpiry(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(negativeTtlSeconds)))
+            .recordStats()
+            .buildAsync();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("router.identity_cache.hit_ratio", cache, c -> c.synchronous().stats().hitRate())
+            .description("User identity near-cache hit ratio since startup")
+            .register(meterRegistry);
+
+        log.info("UserIdentityCache initialized: maxSize={}, ttl={}s, negativeTtl={}s",
+            maxSize, ttlSeconds, negativeTtlSeconds);
+    }
+
+    /**
+     * Resolves a user through the cache.
+     *
+     * <p>Same contract as {@link UserServiceClient#getUser(String)}: emits the user, completes
+     * empty if the user does not exist, or errors if the User Service is unavailable.
+     *
+     * @param userId Internal user UUID
+     * @return Mono emitting UserDTO if found, or empty Mono if user not found
+     */
+    public Mono<UserDTO> getUser(String userId) {
+        // suppressCancel: a cancelled subscriber must not cancel a load shared with other callers
+        return Mono.fromFuture(() -> cache.get(userId, (id, executor) -> userBatchLoader.load(id)), true)
+            .flatMap(user -> user.map(Mono::just).orElseGet(Mono::empty));
+    }
+
+    /**
+     * Loads all users that are not cached yet with bulk requests, and waits for them.
+     *
+     * <p>Users already cached or being loaded are not requested again. Completes
+     * normally even if the User Service is unavailable; individual lookups then retry.
+     *
+     * @param userIds Internal user UUIDs
+     * @return Mono completing when all users are cached (or loading failed)
+     */
+    public Mono<Void> prefetch(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromFuture(() -> cache.getAll(userIds, (missing, executor) -> userBatchLoader.loadAll(missing)), true)
+            .doOnError(error -> log.warn("Identity prefetch failed - count={}, error={}", userIds.size(), error.getMessage()))
+            .onErrorResume(error -> Mono.empty())
+            .then();
+    }
+
+    /**
+     * Evicts a user (including a cached 404 or an in-flight load).
+     *
+     * @param userId Internal user UUID
+     */
+    public void invalidate(String userId) {
+        cache.synchronous().invalidate(userId);
+        log.debug("Evicted user from identity cache - userId={}", userId);
+    }
+
+    /**
+     * Gets the number of cached entries (for monitoring).
+     *
+     * @return Approximate entry count
+     */
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Expires found users after the positive TTL and 404s after the (shorter) negative TTL.
+     * Reads do not extend the lifetime, so changes missed by invalidation are bounded by the TTL.
+     */
+    private static final class FoundOrMissingExpiry implements Expiry<String, Optional<UserDTO>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        private FoundOrMissingExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<UserDTO> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<UserDTO> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<UserDTO> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -10,10 +10,14 @@ import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Reactive client for communicating with the User Service.
- * Resolves internal user IDs to external platform identities.
+ * Resolves internal user IDs to external platform identities, one at a time
+ * ({@link #getUser(String)}) or in bulk ({@link #resolveUsers(Collection)}).
  * 
  * <p>Uses WebClient for non-blocking, reactive HTTP calls with:
  * - Circuit breaker pattern via retry logic
@@ -100,4 +104,44 @@ public class UserServiceClient {
                 })
                 .onErrorResume(WebClientResponseException.NotFound.class, error -> Mono.empty());
     }
+    
+    /**
+     * Resolves many users to their external identities with a single request.
+     * 
+     * <p>Calls POST /api/v1/users/resolve, which loads all identities with one SQL query.
+     * Users that don't exist are absent from the result (the bulk equivalent of a 404);
+     * users without a linked identity are returned with no identities.
+     * 
+     * <p><b>Error Handling:</b>
+     * - 5xx Server Error: Retries up to 2 times with exponential backoff
+     * - Network timeout: 10 second timeout
+     * - Other errors are propagated (nothing is treated as "not found")
+     * 
+     * @param userIds Internal user UUIDs (at most 1000)
+     * @return Mono emitting the resolved users
+     */
+    public Mono<List<UserDTO>> resolveUsers(Collection<String> userIds) {
+        log.debug("Resolving users in bulk from User Service - count={}", userIds.size());
+        
+        return webClient
+                .post()
+                .uri("/api/v1/users/resolve")
+                .bodyValue(Map.of("userIds", userIds))
+                .retrieve()
+                .bodyToFlux(UserDTO.class)
+                .collectList()
+                .timeout(Duration.ofSeconds(10))
+                .retryWhen(Retry.backoff(2, Duration.ofMillis(500))
+                        .filter(throwable -> !(throwable instanceof WebClientResponseException.BadRequest))
+                        .doBeforeRetry(retrySignal -> 
+                            log.warn("Retrying User Service bulk resolve - attempt {}, error: {}", 
+                                    retrySignal.totalRetries() + 1, 
+                                    retrySignal.failure().getMessage())
+                        )
+                )
+                .doOnSuccess(users -> log.debug("Users resolved in bulk - requested={}, resolved={}", 
+                        userIds.size(), users != null ? users.size() : 0))
+                .doOnError(error -> log.error("Error calling User Service bulk resolve - count={}, error={}", 
+                        userIds.size(), error.getMessage()));
+    }
 }
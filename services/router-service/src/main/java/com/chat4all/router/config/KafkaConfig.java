@@ -1,22 +1,27 @@
 package com.chat4all.router.config;
 
 import com.chat4all.common.event.MessageEvent;
+import com.chat4all.common.event.UserIdentityChangedEvent;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
 
 /**
  * Kafka Configuration for Router Service
@@ -26,7 +31,15 @@ import java.util.Map;
  * Consumer Configuration:
  * - Manual offset commit (for at-least-once delivery)
  * - Deserializes MessageEvent from JSON
- * - Concurrency: 3 (configured in application.yml)
+ * - Concurrency: app.kafka.consumer.concurrency (default: 3)
+ * - Listener mode selected by app.routing.consumer.mode:
+ *   single (MessageEventConsumer), batch (BatchMessageEventConsumer),
+ *   ordered-parallel (OrderedParallelMessageEventConsumer)
+ * - Batch modes: one poll batch per listener call, max.poll.records = app.routing.batch.max-poll-records
+ * - Retry tiers (RetryTierConsumer): group {group-id}-retry, one record per listener call,
+ *   max.poll.records = app.routing.retry-topics.max-poll-records (waits are nack pauses)
+ * - Identity events: per-instance consumer group (every router instance sees every
+ *   invalidation), starts at the latest offset
  * 
  * Producer Configuration:
  * - Idempotent producer (prevents duplicates)
@@ -46,6 +59,18 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String consumerGroupId;
 
+    @Value("${app.kafka.consumer.concurrency:3}")
+    private int consumerConcurrency;
+
+    @Value("${app.routing.batch.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    @Value("${app.routing.parallel.commit-interval-ms:1000}")
+    private long parallelCommitIntervalMs;
+
+    @Value("${app.routing.retry-topics.max-poll-records:50}")
+    private int retryMaxPollRecords;
+
     /**
      * Consumer Factory for MessageEvent objects.
      */
@@ -78,7 +103,110 @@ public class KafkaConfig {
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
-        factory.setConcurrency(3); // 3 concurrent consumers
+        factory.setConcurrency(consumerConcurrency);
+        return factory;
+    }
+
+    /**
+     * Kafka Listener Container Factory for batch consumption (BatchMessageEventConsumer).
+     * 
+     * Delivers a whole poll batch per listener call; offsets are committed once per batch
+     * via manual acknowledgment.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MessageEvent> batchKafkaListenerContainerFactory() {
+        return createBatchListenerContainerFactory();
+    }
+
+    /**
+     * Kafka Listener Container Factory for per-conversation parallel consumption
+     * (OrderedParallelMessageEventConsumer).
+     * 
+     * The listener commits offsets itself through the Consumer; idle events let it commit
+     * completed work while no new records arrive, and the rebalance listener commits
+     * completed offsets before partitions are revoked.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MessageEvent> orderedParallelKafkaListenerContainerFactory(
+            ObjectProvider<ConsumerAwareRebalanceListener> rebalanceListener) {
+        ConcurrentKafkaListenerContainerFactory<String, MessageEvent> factory = createBatchListenerContainerFactory();
+        factory.getContainerProperties().setIdleEventInterval(parallelCommitIntervalMs);
+        rebalanceListener.ifAvailable(factory.getContainerProperties()::setConsumerRebalanceListener);
+        return factory;
+    }
+
+    /**
+     * Builds a batch listener factory with manual acknowledgment and max.poll.records override.
+     */
+    private ConcurrentKafkaListenerContainerFactory<String, MessageEvent> createBatchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, MessageEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setConcurrency(consumerConcurrency);
+
+        Properties consumerOverrides = new Properties();
+        consumerOverrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchMaxPollRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerOverrides);
+        return factory;
+    }
+
+    /**
+     * Kafka Listener Container Factory for the delayed retry topics (RetryTierConsumer).
+     * 
+     * Record listener with manual acknowledgment so a record that is not yet due can be
+     * nacked (partition paused until it is). Small polls keep the records fetched while
+     * paused to a minimum.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MessageEvent> retryTierKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, MessageEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setConcurrency(1);
+
+        Properties consumerOverrides = new Properties();
+        consumerOverrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(retryMaxPollRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerOverrides);
+        return factory;
+    }
+
+    /**
+     * Consumer Factory for UserIdentityChangedEvent objects (identity cache invalidation).
+     * 
+     * Uses a unique group per instance so invalidations are broadcast to all router
+     * instances. History is irrelevant to a fresh cache, so consumption starts at latest.
+     */
+    @Bean
+    public ConsumerFactory<String, UserIdentityChangedEvent> identityEventConsumerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId + "-identity-cache-" + UUID.randomUUID());
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        return new DefaultKafkaConsumerFactory<>(
+            config,
+            new StringDeserializer(),
+            new JsonDeserializer<>(UserIdentityChangedEvent.class, false)
+        );
+    }
+
+    /**
+     * Kafka Listener Container Factory for identity events (IdentityEventConsumer).
+     * 
+     * Single consumer thread; cache evictions are cheap and idempotent, so offsets are
+     * committed by the container after each poll.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, UserIdentityChangedEvent> identityEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, UserIdentityChangedEvent> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(identityEventConsumerFactory());
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setConcurrency(1);
         return factory;
     }
 
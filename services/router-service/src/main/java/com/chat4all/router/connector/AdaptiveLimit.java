@@ -0,0 +1,98 @@
+package com.chat4all.router.connector;
+
+/**
+ * Adaptive Limit
+ *
+ * AIMD concurrency limit driven by observed connector latency (in the spirit of TCP
+ * Vegas/AIMD congestion control): the limit grows while the connector answers as fast
+ * as it does unloaded, and shrinks as soon as it slows down or fails.
+ *
+ * Per sample (one completed delivery):
+ * - Failure (5xx, timeout, connection error): limit = limit * backoff-ratio
+ * - Latency above min-rtt * latency-tolerance (queueing at the connector): same decrease
+ * - Otherwise, if the limit is actually in use (in-flight >= limit / 2):
+ *   limit = limit + 1 / limit (about +1 per round trip of a full window)
+ *
+ * Decreases happen at most once per window: samples of deliveries started before the
+ * last decrease describe the old limit and cannot shrink it again, so one slow burst
+ * costs one backoff step instead of collapsing the limit to the minimum.
+ *
+ * The minimum RTT is the no-load baseline. It is re-probed every min-rtt-probe-samples
+ * samples so a baseline measured during a lucky moment (or before a connector deploy
+ * that made it permanently slower) does not shrink the limit forever.
+ *
+ * Not thread-safe on its own; callers synchronize on the instance.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final int minRttProbeSamples;
+
+    private double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long samplesSinceProbe;
+    private long lastDecreaseNanos;
+    private boolean decreased;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit,
+                  double backoffRatio, double latencyTolerance, int minRttProbeSamples) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.minRttProbeSamples = minRttProbeSamples;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Updates the limit with one completed delivery.
+     *
+     * @param startNanos System.nanoTime() when the delivery started
+     * @param rttNanos Duration of the delivery
+     * @param inFlight Deliveries in flight when this one started
+     * @param failed true if the delivery failed with a transient error
+     */
+    void onSample(long startNanos, long rttNanos, int inFlight, boolean failed) {
+        if (!failed) {
+            if (++samplesSinceProbe >= minRttProbeSamples) {
+                samplesSinceProbe = 0;
+                minRttNanos = rttNanos;
+            } else {
+                minRttNanos = Math.min(minRttNanos, rttNanos);
+            }
+        }
+
+        boolean congested = !failed && minRttNanos != Long.MAX_VALUE
+            && rttNanos > minRttNanos * latencyTolerance;
+
+        if (failed || congested) {
+            if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = startNanos + rttNanos;
+                decreased = true;
+            }
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * @return Current limit (whole permits)
+     */
+    int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return Minimum observed RTT in milliseconds (0 before the first sample)
+     */
+    double getMinRttMillis() {
+        return minRttNanos == Long.MAX_VALUE ? 0.0 : minRttNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.chat4all.router.connector;
+
+import com.chat4all.common.constant.Channel;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Connector Circuit Breaker
+ *
+ * Router-side circuit breaker per channel, in front of the connector bulkhead
+ * ({@link ConnectorConcurrencyLimiter}). The connectors have their own breakers, but
+ * those only trip after the router has already paid for the HTTP call; this one stops
+ * the router from calling a failing connector at all.
+ *
+ * Behaviour:
+ * - Closed: deliveries pass; errors (5xx, timeouts, connection errors) and slow calls
+ *   are recorded
+ * - Open: deliveries fail immediately with CallNotPermittedException; RoutingHandler
+ *   parks such messages on the deferred topic until the connector may have recovered
+ * - Half-open: a few probe deliveries decide whether to close or reopen
+ * - Rejections by the bulkhead (ConnectorSaturatedException) are not connector
+ *   failures and are not recorded
+ * - Permanent failures (4xx, emitted as false) count as successful calls
+ *
+ * Configuration: resilience4j.circuitbreaker.instances.{whatsapp|telegram|instagram}-connector
+ * (base config: resilience4j.circuitbreaker.configs.connector)
+ *
+ * Metrics:
+ * - router.circuit_breaker.state {channel}: 0 = closed, 1 = open, 2 = half-open,
+ *   3 = other (disabled, forced open, metrics only)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ConnectorCircuitBreaker {
+
+    private static final String BASE_CONFIG = "connector";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Channel, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ConnectorCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry, MeterRegistry meterRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the operation if the channel's circuit allows it, recording its outcome.
+     *
+     * @param channel The connector's channel
+     * @param operation Supplier of the operation (subscribed only when permitted)
+     * @param <T> Result type
+     * @return Mono emitting the operation's result, or CallNotPermittedException if the
+     *         circuit is open
+     */
+    public <T> Mono<T> execute(Channel channel, Supplier<Mono<T>> operation) {
+        CircuitBreaker circuitBreaker = getCircuitBreaker(channel);
+
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+
+            long start = System.nanoTime();
+            return operation.get()
+                .doOnSuccess(result -> circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                .doOnError(error -> {
+                    if (error instanceof ConnectorSaturatedException) {
+                        circuitBreaker.releasePermission();
+                    } else {
+                        circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, error);
+                    }
+                })
+                .doOnCancel(circuitBreaker::releasePermission);
+        });
+    }
+
+    /**
+     * Checks whether deliveries to a channel are currently rejected.
+     *
+     * @param channel The connector's channel
+     * @return true if the circuit is open (or forced open)
+     */
+    public boolean isOpen(Channel channel) {
+        CircuitBreaker.State state = getCircuitBreaker(channel).getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    /**
+     * Gets (or creates) the circuit breaker of a channel and registers its gauge.
+     */
+    private CircuitBreaker getCircuitBreaker(Channel channel) {
+        return breakers.computeIfAbsent(channel, key -> {
+            CircuitBreaker circuitBreaker =
+                circuitBreakerRegistry.circuitBreaker(key.getValue() + "-connector", BASE_CONFIG);
+            circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Connector circuit breaker {}: {}", event.getCircuitBreakerName(),
+                    event.getStateTransition()));
+            Gauge.builder("router.circuit_breaker.state", circuitBreaker, ConnectorCircuitBreaker::stateValue)
+                .description("Router-side connector circuit state (0 closed, 1 open, 2 half-open)")
+                .tag("channel", key.name())
+                .register(meterRegistry);
+            return circuitBreaker;
+        });
+    }
+
+    private static double stateValue(CircuitBreaker circuitBreaker) {
+        return switch (circuitBreaker.getState()) {
+            case CLOSED -> 0;
+            case OPEN -> 1;
+            case HALF_OPEN -> 2;
+            default -> 3;
+        };
+    }
+}
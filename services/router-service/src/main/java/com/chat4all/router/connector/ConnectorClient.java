@@ -1,11 +1,13 @@
 package com.chat4all.router.connector;
 
+import com.chat4all.common.constant.Channel;
 import com.chat4all.common.event.MessageEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.HashMap;
@@ -19,8 +21,9 @@ import java.util.Map;
  * Responsibilities:
  * - Make HTTP POST requests to connector services
  * - Handle HTTP errors and timeouts
- * - Support circuit breaker pattern (via Resilience4j)
+ * - Support circuit breaker pattern (ConnectorCircuitBreaker, Resilience4j)
  * - Return delivery success/failure status
+ * - Reuse one pooled WebClient per connector (ConnectorWebClientRegistry)
  * 
  * Connector Service Contract:
  * - Endpoint: POST /v1/messages
@@ -35,7 +38,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ConnectorClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private final ConnectorWebClientRegistry webClientRegistry;
 
     /**
      * Delivers a message to the specified connector service.
@@ -56,7 +59,7 @@ public class ConnectorClient {
             Map<String, Object> payload = buildConnectorRequest(messageEvent);
 
             // Make HTTP POST to connector
-            WebClient webClient = webClientBuilder.baseUrl(connectorUrl).build();
+            WebClient webClient = webClientRegistry.get(connectorUrl);
             
             webClient
                 .post()
@@ -80,6 +83,62 @@ public class ConnectorClient {
         }
     }
 
+    /**
+     * Delivers a message to its default recipient on the given connector (non-blocking).
+     * 
+     * Same recipient resolution as {@link #deliverMessage(MessageEvent, String)}.
+     * 
+     * @param messageEvent The message event to deliver
+     * @param connectorUrl The base URL of the connector service
+     * @return Mono emitting true on success, false on permanent failure
+     */
+    public Mono<Boolean> deliver(MessageEvent messageEvent, String connectorUrl) {
+        return deliver(messageEvent, connectorUrl, messageEvent.getChannel(), resolveDefaultRecipient(messageEvent));
+    }
+
+    /**
+     * Delivers a message to a specific recipient on the given connector (non-blocking).
+     * 
+     * Used by the fan-out pipeline in RoutingHandler, so many recipients can be
+     * delivered concurrently without parking a thread per HTTP call.
+     * 
+     * Result semantics:
+     * - 2xx → emits true
+     * - 4xx → emits false (permanent failure, retrying will not help)
+     * - 5xx, timeouts, connection errors → error signal (transient, eligible for retry)
+     * 
+     * @param messageEvent The message event to deliver
+     * @param connectorUrl The base URL of the connector service
+     * @param channel The connector's channel (decides the recipient field name)
+     * @param recipientId The platform-specific recipient ID
+     * @return Mono emitting true on success, false on permanent failure
+     */
+    public Mono<Boolean> deliver(MessageEvent messageEvent, String connectorUrl, Channel channel, String recipientId) {
+        log.debug("ConnectorClient.deliver called: messageId={}, connectorUrl={}, recipientId={}",
+            messageEvent.getMessageId(), connectorUrl, recipientId);
+
+        return Mono.defer(() -> webClientRegistry.get(connectorUrl)
+                .post()
+                .uri("/v1/messages")
+                .bodyValue(buildConnectorRequest(messageEvent, channel, recipientId))
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(Duration.ofSeconds(10)))
+            .map(response -> {
+                log.info("Connector delivery succeeded: messageId={}, recipientId={}",
+                    messageEvent.getMessageId(), recipientId);
+                return Boolean.TRUE;
+            })
+            .onErrorResume(WebClientResponseException.class, e -> {
+                if (e.getStatusCode().is5xxServerError()) {
+                    return Mono.error(e);
+                }
+                log.error("Connector rejected message: messageId={}, recipientId={}, status={}, body={}",
+                    messageEvent.getMessageId(), recipientId, e.getStatusCode(), e.getResponseBodyAsString());
+                return Mono.just(Boolean.FALSE);
+            });
+    }
+
     /**
      * Builds the request payload for the connector service.
      * 
@@ -90,6 +149,33 @@ public class ConnectorClient {
      * @return Request map
      */
     private Map<String, Object> buildConnectorRequest(MessageEvent messageEvent) {
+        return buildConnectorRequest(messageEvent, messageEvent.getChannel(), resolveDefaultRecipient(messageEvent));
+    }
+
+    /**
+     * Resolves the recipient for single-recipient delivery.
+     * 
+     * @param messageEvent The message event
+     * @return First recipient ID, or conversationId when no recipients are set
+     */
+    private String resolveDefaultRecipient(MessageEvent messageEvent) {
+        // Extract recipient ID from the recipientIds list
+        if (messageEvent.getRecipientIds() != null && !messageEvent.getRecipientIds().isEmpty()) {
+            return messageEvent.getRecipientIds().get(0); // Use first recipient
+        }
+        // Fallback to conversationId for backward compatibility
+        return messageEvent.getConversationId();
+    }
+
+    /**
+     * Builds the request payload for an explicit recipient and channel.
+     * 
+     * @param messageEvent The message event
+     * @param channel Target connector channel
+     * @param recipientId Platform-specific recipient ID
+     * @return Request map
+     */
+    private Map<String, Object> buildConnectorRequest(MessageEvent messageEvent, Channel channel, String recipientId) {
         Map<String, Object> request = new HashMap<>();
         
         request.put("messageId", messageEvent.getMessageId());
@@ -97,18 +183,9 @@ public class ConnectorClient {
         request.put("conversationId", messageEvent.getConversationId());
         request.put("senderId", messageEvent.getSenderId());
         
-        // Extract recipient ID from the recipientIds list
-        String recipientId;
-        if (messageEvent.getRecipientIds() != null && !messageEvent.getRecipientIds().isEmpty()) {
-            recipientId = messageEvent.getRecipientIds().get(0); // Use first recipient
-        } else {
-            // Fallback to conversationId for backward compatibility
-            recipientId = messageEvent.getConversationId();
-        }
-        
         // Add channel-specific recipient field
         // WhatsApp uses "to", Telegram uses "chatId", Instagram uses "recipient"
-        switch (messageEvent.getChannel()) {
+        switch (channel) {
             case WHATSAPP -> request.put("to", recipientId);
             case TELEGRAM -> request.put("chatId", recipientId);
             case INSTAGRAM -> request.put("recipient", recipientId);
@@ -131,7 +208,7 @@ public class ConnectorClient {
         log.debug("  Connector URL: {}", connectorUrl);
 
         try {
-            WebClient webClient = webClientBuilder.baseUrl(connectorUrl).build();
+            WebClient webClient = webClientRegistry.get(connectorUrl);
             
             String response = webClient
                 .get()
@@ -0,0 +1,346 @@
+package com.chat4all.router.connector;
+
+import com.chat4all.common.constant.Channel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Connector Concurrency Limiter
+ *
+ * Per-channel bulkhead for connector deliveries with an adaptive concurrency limit,
+ * across all messages being routed by this router instance.
+ *
+ * Why:
+ * - Fan-out sends to all recipients of a GROUP message concurrently
+ * - Without a cap, a few large groups could open hundreds of simultaneous
+ *   requests against a single connector and trip its rate limits
+ * - A slow connector must not absorb the router's capacity: each channel has its own
+ *   permits, so a Telegram brownout cannot stall WhatsApp deliveries
+ *
+ * Behaviour:
+ * - Non-blocking: callers waiting for a permit are parked as MonoSinks, not threads
+ * - FIFO: waiters are served in arrival order when a permit is released
+ * - Permits are released on success, error and cancellation
+ * - Adaptive: the limit follows the connector's observed latency and errors
+ *   ({@link AdaptiveLimit}, AIMD); it shrinks when the connector slows down
+ * - Fail fast: a caller that cannot get a permit within max-wait-ms, or finds
+ *   max-queued callers already waiting, gets a {@link ConnectorSaturatedException}
+ *
+ * Configuration (app.routing.connector-limit.*):
+ * - initial-limit (default: 16)
+ * - min-limit (default: 1)
+ * - max-limit (default: app.routing.fanout.max-concurrency-per-connector, 64)
+ * - backoff-ratio (default: 0.9)
+ * - latency-tolerance (default: 2.0 × min RTT)
+ * - min-rtt-probe-samples (default: 1000)
+ * - max-wait-ms (default: 2000)
+ * - max-queued (default: 1000)
+ *
+ * Metrics (tagged by channel):
+ * - router.connector.limit: current concurrency limit
+ * - router.connector.in_flight: deliveries holding a permit
+ * - router.connector.queued: deliveries waiting for a permit
+ * - router.connector.min_rtt_ms: no-load latency baseline
+ * - router.connector.rejected: deliveries rejected as saturated
+ *
+ * @author Chat4All Team
+ * @version 2.0.0
+ */
+@Slf4j
+@Component
+public class ConnectorConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.routing.connector-limit.initial-limit:16}")
+    private int initialLimit;
+
+    @Value("${app.routing.connector-limit.min-limit:1}")
+    private int minLimit;
+
+    @Value("${app.routing.connector-limit.max-limit:${app.routing.fanout.max-concurrency-per-connector:64}}")
+    private int maxLimit;
+
+    @Value("${app.routing.connector-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    @Value("${app.routing.connector-limit.latency-tolerance:2.0}")
+    private double latencyTolerance;
+
+    @Value("${app.routing.connector-limit.min-rtt-probe-samples:1000}")
+    private int minRttProbeSamples;
+
+    @Value("${app.routing.connector-limit.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    @Value("${app.routing.connector-limit.max-queued:1000}")
+    private int maxQueued;
+
+    private final Map<Channel, Permits> permitsByChannel = new ConcurrentHashMap<>();
+
+    public ConnectorConcurrencyLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the supplied operation once a permit for the channel's connector is available.
+     *
+     * The operation is subscribed lazily, so no HTTP call starts before the permit is held.
+     * Its duration and outcome (error = transient connector failure) feed the adaptive limit.
+     *
+     * @param channel The connector's channel (bulkhead key)
+     * @param operation Supplier of the operation to run under the permit
+     * @param <T> Result type
+     * @return Mono emitting the operation's result, or ConnectorSaturatedException if no
+     *         permit could be obtained in time
+     */
+    public <T> Mono<T> withPermit(Channel channel, Supplier<Mono<T>> operation) {
+        Permits permits = getPermits(channel);
+
+        return Mono.usingWhen(
+            permits.acquire(Duration.ofMillis(maxWaitMs)),
+            permit -> operation.get(),
+            permit -> permit.release(false),
+            (permit, error) -> permit.release(true),
+            permit -> permit.release(false)
+        );
+    }
+
+    /**
+     * Gets the number of in-flight deliveries for a channel (for monitoring).
+     *
+     * @param channel The connector's channel
+     * @return In-flight delivery count
+     */
+    public int getInFlight(Channel channel) {
+        Permits permits = permitsByChannel.get(channel);
+        return permits != null ? permits.inFlight.get() : 0;
+    }
+
+    /**
+     * Gets the current concurrency limit for a channel (for monitoring).
+     *
+     * @param channel The connector's channel
+     * @return Current limit
+     */
+    public int getLimit(Channel channel) {
+        Permits permits = permitsByChannel.get(channel);
+        return permits != null ? permits.limit() : initialLimit;
+    }
+
+    /**
+     * Gets (or creates) the permits of a channel and registers its gauges.
+     */
+    private Permits getPermits(Channel channel) {
+        return permitsByChannel.computeIfAbsent(channel, key -> {
+            Permits permits = new Permits(key, new AdaptiveLimit(
+                initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, minRttProbeSamples));
+            String tag = key.name();
+            Gauge.builder("router.connector.limit", permits, Permits::limit)
+                .description("Adaptive concurrency limit of the connector")
+                .tag("channel", tag)
+                .register(meterRegistry);
+            Gauge.builder("router.connector.in_flight", permits.inFlight, AtomicInteger::get)
+                .description("Deliveries in flight to the connector")
+                .tag("channel", tag)
+                .register(meterRegistry);
+            Gauge.builder("router.connector.queued", permits.queued, AtomicInteger::get)
+                .description("Deliveries waiting for a connector permit")
+                .tag("channel", tag)
+                .register(meterRegistry);
+            Gauge.builder("router.connector.min_rtt_ms", permits, Permits::minRttMillis)
+                .description("No-load latency baseline of the connector")
+                .tag("channel", tag)
+                .register(meterRegistry);
+            return permits;
+        });
+    }
+
+    /**
+     * Non-blocking counting semaphore with an adaptive limit for a single channel.
+     */
+    private final class Permits {
+
+        private final Channel channel;
+        private final AdaptiveLimit adaptiveLimit;
+        private final AtomicInteger inFlight = new AtomicInteger(0);
+        private final AtomicInteger queued = new AtomicInteger(0);
+        private final Queue<Permit> waiters = new ConcurrentLinkedQueue<>();
+
+        private volatile int limit;
+
+        private Permits(Channel channel, AdaptiveLimit adaptiveLimit) {
+            this.channel = channel;
+            this.adaptiveLimit = adaptiveLimit;
+            this.limit = adaptiveLimit.getLimit();
+        }
+
+        private int limit() {
+            return limit;
+        }
+
+        private double minRttMillis() {
+            synchronized (adaptiveLimit) {
+                return adaptiveLimit.getMinRttMillis();
+            }
+        }
+
+        private Mono<Permit> acquire(Duration maxWait) {
+            Mono<Permit> permitMono = Mono.create(sink -> {
+                Permit permit = new Permit(this, sink);
+                sink.onCancel(permit::cancel);
+
+                if (tryAcquire()) {
+                    permit.grant();
+                    return;
+                }
+
+                permit.queued = true;
+                if (queued.incrementAndGet() > maxQueued) {
+                    permit.reject();
+                    return;
+                }
+
+                log.debug("Connector concurrency limit reached ({}), queueing delivery: {}", limit, channel);
+                waiters.offer(permit);
+
+                // A permit may have been released between the failed tryAcquire and the offer
+                drain();
+            });
+
+            return permitMono
+                .timeout(maxWait)
+                .onErrorMap(TimeoutException.class, e -> saturated("no permit within " + maxWait.toMillis() + "ms"));
+        }
+
+        private ConnectorSaturatedException saturated(String detail) {
+            meterRegistry.counter("router.connector.rejected", "channel", channel.name()).increment();
+            log.warn("Connector saturated, rejecting delivery: channel={}, limit={}, inFlight={}, {}",
+                channel, limit, inFlight.get(), detail);
+            return new ConnectorSaturatedException(channel, "Connector " + channel + " saturated: " + detail);
+        }
+
+        private boolean tryAcquire() {
+            while (true) {
+                int current = inFlight.get();
+                if (current >= limit) {
+                    return false;
+                }
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void releaseSlot(Permit permit, boolean failed, boolean sample) {
+            if (sample) {
+                long now = System.nanoTime();
+                synchronized (adaptiveLimit) {
+                    adaptiveLimit.onSample(permit.grantedAt, now - permit.grantedAt, permit.inFlightAtGrant, failed);
+                    limit = adaptiveLimit.getLimit();
+                }
+            }
+            inFlight.decrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            while (!waiters.isEmpty() && tryAcquire()) {
+                Permit next = waiters.poll();
+                if (next == null || !next.grant()) {
+                    // Queue emptied concurrently or waiter was cancelled - give the slot back
+                    inFlight.decrementAndGet();
+                    if (next == null) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A single caller's claim on a connector slot.
+     *
+     * State machine: WAITING → GRANTED → RELEASED, or WAITING → CANCELLED.
+     * Release is idempotent so cancellation racing with completion never frees a slot twice.
+     */
+    private static final class Permit {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int RELEASED = 2;
+        private static final int CANCELLED = 3;
+
+        private final Permits owner;
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private volatile boolean queued;
+        private long grantedAt;
+        private int inFlightAtGrant;
+
+        private Permit(Permits owner, MonoSink<Permit> sink) {
+            this.owner = owner;
+            this.sink = sink;
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            leaveQueue();
+            grantedAt = System.nanoTime();
+            inFlightAtGrant = owner.inFlight.get();
+            sink.success(this);
+            return true;
+        }
+
+        private void reject() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                leaveQueue();
+                sink.error(owner.saturated("queue full"));
+            }
+        }
+
+        private void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                leaveQueue();
+                owner.waiters.remove(this);
+            } else {
+                // Granted but the subscriber went away before (or while) using it
+                releaseNow(false, false);
+            }
+        }
+
+        private Mono<Void> release(boolean failed) {
+            return Mono.fromRunnable(() -> releaseNow(failed, true));
+        }
+
+        private void releaseNow(boolean failed, boolean sample) {
+            if (state.compareAndSet(GRANTED, RELEASED)) {
+                owner.releaseSlot(this, failed, sample);
+            }
+        }
+
+        private void leaveQueue() {
+            if (queued) {
+                queued = false;
+                owner.queued.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.chat4all.router.connector;
+
+import com.chat4all.common.constant.Channel;
+
+/**
+ * Thrown when a delivery could not get a connector permit in time
+ * (see {@link ConnectorConcurrencyLimiter}).
+ *
+ * The connector is already saturated with in-flight deliveries, so the delivery is
+ * rejected instead of queueing behind it; it is not counted as a connector failure.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public class ConnectorSaturatedException extends RuntimeException {
+
+    private final Channel channel;
+
+    public ConnectorSaturatedException(Channel channel, String message) {
+        super(message);
+        this.channel = channel;
+    }
+
+    public Channel getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,161 @@
+package com.chat4all.router.connector;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connector WebClient Registry
+ *
+ * Builds and caches one tuned WebClient per connector base URL, so every delivery
+ * to the same connector reuses the same codecs and pooled keep-alive connections.
+ *
+ * Per-connector client settings:
+ * - Dedicated Reactor Netty connection pool (max connections, pending-acquire limits)
+ * - TCP keep-alive, idle/lifetime eviction of pooled connections
+ * - gzip request/response compression
+ * - h2c (HTTP/2 cleartext, upgrade from HTTP/1.1) for connectors listed in app.connectors.http.h2c-urls
+ *
+ * Metrics (exported via Micrometer):
+ * - reactor.netty.connection.provider.*{name=connector-<host>}: pool occupancy
+ *   (total/active/idle/pending connections) and pending acquire time
+ * - reactor.netty.http.client.*: connect time, data sent/received, response time
+ * - connector.client.connections.opened / .closed{connector}: connection churn
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class ConnectorWebClientRegistry {
+
+    private final WebClient.Builder webClientBuilder;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> connectionProviders = new ConcurrentHashMap<>();
+
+    @Value("${app.connectors.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${app.connectors.http.pending-acquire-max-count:1000}")
+    private int pendingAcquireMaxCount;
+
+    @Value("${app.connectors.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${app.connectors.http.max-idle-time-ms:30000}")
+    private long maxIdleTimeMs;
+
+    @Value("${app.connectors.http.max-life-time-ms:300000}")
+    private long maxLifeTimeMs;
+
+    @Value("${app.connectors.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.connectors.http.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${app.connectors.http.h2c-urls:}")
+    private List<String> h2cUrls;
+
+    public ConnectorWebClientRegistry(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        this.webClientBuilder = webClientBuilder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gets the pooled WebClient for a connector, creating it on first use.
+     *
+     * @param connectorUrl The base URL of the connector service
+     * @return Shared WebClient bound to the connector's base URL
+     */
+    public WebClient get(String connectorUrl) {
+        return clients.computeIfAbsent(connectorUrl, this::createClient);
+    }
+
+    /**
+     * Builds a WebClient with a dedicated connection pool for one connector.
+     *
+     * @param connectorUrl The base URL of the connector service
+     * @return Configured WebClient
+     */
+    private WebClient createClient(String connectorUrl) {
+        String connectorName = connectorName(connectorUrl);
+
+        ConnectionProvider provider = ConnectionProvider.builder("connector-" + connectorName)
+            .maxConnections(maxConnections)
+            .pendingAcquireMaxCount(pendingAcquireMaxCount)
+            .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+            .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+            .maxLifeTime(Duration.ofMillis(maxLifeTimeMs))
+            .evictInBackground(Duration.ofMillis(maxIdleTimeMs))
+            .metrics(true)
+            .build();
+        connectionProviders.put(connectorUrl, provider);
+
+        boolean h2c = h2cUrls != null && h2cUrls.contains(connectorUrl);
+
+        HttpClient httpClient = HttpClient.create(provider)
+            .option(ChannelOption.SO_KEEPALIVE, true)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+            .keepAlive(true)
+            .compress(compressionEnabled)
+            .protocol(h2c
+                ? new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11}
+                : new HttpProtocol[] {HttpProtocol.HTTP11})
+            .metrics(true, uri -> uri)
+            .doOnConnected(connection -> meterRegistry.counter("connector.client.connections.opened",
+                "connector", connectorName).increment())
+            .doOnDisconnected(connection -> meterRegistry.counter("connector.client.connections.closed",
+                "connector", connectorName).increment());
+
+        log.info("Created pooled WebClient for connector: url={}, maxConnections={}, pendingAcquireMax={}, h2c={}, gzip={}",
+            connectorUrl, maxConnections, pendingAcquireMaxCount, h2c, compressionEnabled);
+
+        return webClientBuilder.clone()
+            .baseUrl(connectorUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
+
+    /**
+     * Derives a low-cardinality metric name from the connector URL (its host).
+     *
+     * @param connectorUrl The base URL of the connector service
+     * @return Connector host, or the raw URL if it cannot be parsed
+     */
+    private String connectorName(String connectorUrl) {
+        try {
+            String host = URI.create(connectorUrl).getHost();
+            return host != null ? host : connectorUrl;
+        } catch (IllegalArgumentException e) {
+            return connectorUrl;
+        }
+    }
+
+    /**
+     * Closes all connector connection pools on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        log.info("Disposing {} connector connection pools", connectionProviders.size());
+        connectionProviders.values().forEach(ConnectionProvider::dispose);
+        connectionProviders.clear();
+        clients.clear();
+    }
+}
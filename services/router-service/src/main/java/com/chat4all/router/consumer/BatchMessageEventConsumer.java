@@ -0,0 +1,162 @@
+package com.chat4all.router.consumer;
+
+import com.chat4all.common.event.MessageEvent;
+import com.chat4all.router.handler.DeduplicationHandler;
+import com.chat4all.router.handler.RoutingHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch Message Event Consumer
+ *
+ * Batch-mode alternative to {@link MessageEventConsumer}, enabled with app.routing.consumer.mode=batch.
+ *
+ * Flow (per poll batch):
+ * 1. Receive up to max-poll-records MessageEvents from Kafka
+ * 2. Claim the whole batch with one pipelined Redis round-trip (atomic SET NX per message);
+ *    if another routing pass holds a claim, the batch is cut there and the rest is redelivered
+ * 3. Group remaining events by conversationId (the partition key)
+ * 4. Route conversations concurrently; events of one conversation in offset order
+ * 5. Mark routed events as processed with one pipelined Redis round-trip
+ * 6. Commit offsets once for the whole batch (or nack from the cut)
+ * 7. On failure, release the claims and nack the whole batch (redelivered after in-flight-retry-ms)
+ *
+ * Configuration:
+ * - app.routing.batch.max-poll-records: records per batch (default: 500)
+ * - app.routing.batch.max-in-flight: conversations routed concurrently per batch (default: 64)
+ * - app.kafka.consumer.concurrency: listener threads (default: 3)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.routing.consumer.mode", havingValue = "batch")
+public class BatchMessageEventConsumer {
+
+    private final DeduplicationHandler deduplicationHandler;
+    private final RoutingHandler routingHandler;
+
+    @Value("${app.routing.batch.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${app.deduplication.in-flight-retry-ms:5000}")
+    private long inFlightRetryMs;
+
+    /**
+     * Kafka batch listener for chat-events topic.
+     *
+     * @param records The poll batch
+     * @param acknowledgment Manual acknowledgment handle (commits the whole batch)
+     */
+    @KafkaListener(
+        topics = "${app.kafka.topics.chat-events}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consumeMessageEvents(List<ConsumerRecord<String, MessageEvent>> records,
+                                     Acknowledgment acknowledgment) {
+        log.info("Received batch of {} MessageEvents from Kafka", records.size());
+
+        Map<String, MessageEvent> claimed = new LinkedHashMap<>();
+
+        try {
+            // Step 1: Drop tombstones and in-batch redeliveries (keep first occurrence)
+            Map<String, Integer> firstIndexById = new LinkedHashMap<>();
+            for (int i = 0; i < records.size(); i++) {
+                ConsumerRecord<String, MessageEvent> record = records.get(i);
+                MessageEvent event = record.value();
+                if (event == null || event.getMessageId() == null) {
+                    log.warn("Skipping record without MessageEvent: partition={}, offset={}",
+                        record.partition(), record.offset());
+                    continue;
+                }
+                firstIndexById.putIfAbsent(event.getMessageId(), i);
+            }
+
+            // Step 2: Deduplication claims (single pipelined round-trip)
+            Map<String, DeduplicationHandler.ClaimResult> claims =
+                deduplicationHandler.claimAll(firstIndexById.keySet());
+
+            // A message claimed by another routing pass stops the batch there: records from
+            // that one on are redelivered later (keeps offsets contiguous and conversations ordered)
+            int redeliverFrom = records.size();
+            for (Map.Entry<String, Integer> entry : firstIndexById.entrySet()) {
+                if (claims.get(entry.getKey()) == DeduplicationHandler.ClaimResult.IN_FLIGHT) {
+                    redeliverFrom = Math.min(redeliverFrom, entry.getValue());
+                }
+            }
+
+            List<String> deferred = new ArrayList<>();
+            int duplicates = 0;
+            for (Map.Entry<String, Integer> entry : firstIndexById.entrySet()) {
+                DeduplicationHandler.ClaimResult claim = claims.get(entry.getKey());
+                if (claim == DeduplicationHandler.ClaimResult.DUPLICATE) {
+                    duplicates++;
+                } else if (claim == DeduplicationHandler.ClaimResult.CLAIMED) {
+                    if (entry.getValue() < redeliverFrom) {
+                        claimed.put(entry.getKey(), records.get(entry.getValue()).value());
+                    } else {
+                        deferred.add(entry.getKey());
+                    }
+                }
+            }
+            deduplicationHandler.releaseAll(deferred);
+
+            // Step 3: Group by conversation, preserving offset order within each conversation
+            Map<String, List<MessageEvent>> eventsByConversation = new LinkedHashMap<>();
+            for (MessageEvent event : claimed.values()) {
+                eventsByConversation
+                    .computeIfAbsent(event.getPartitionKey(), key -> new ArrayList<>())
+                    .add(event);
+            }
+
+            // Step 4: Route conversations concurrently, each conversation sequentially
+            List<String> routedIds = Flux.fromIterable(eventsByConversation.values())
+                .flatMap(conversationEvents -> Flux.fromIterable(conversationEvents)
+                    .concatMap(event -> routingHandler.routeMessageAsync(event)
+                        .thenReturn(event.getMessageId())), maxInFlight)
+                .collectList()
+                .block();
+
+            // Step 5: Mark as processed in deduplication cache (single pipelined round-trip)
+            if (routedIds != null) {
+                deduplicationHandler.markAllAsProcessed(routedIds);
+            }
+
+            // Step 6: Acknowledge the batch (or the part before a message routed elsewhere)
+            if (redeliverFrom < records.size()) {
+                log.info("Message routed elsewhere at batch index {}, redelivering the rest in {}ms",
+                    redeliverFrom, inFlightRetryMs);
+                acknowledgment.nack(redeliverFrom, Duration.ofMillis(inFlightRetryMs));
+            } else {
+                acknowledgment.acknowledge();
+            }
+            log.info("Successfully processed batch: records={}, duplicates={}, routed={}, conversations={}",
+                records.size(), duplicates, routedIds != null ? routedIds.size() : 0,
+                eventsByConversation.size());
+
+        } catch (Exception e) {
+            log.error("Error processing batch of {} messages: {}", records.size(), e.getMessage(), e);
+            deduplicationHandler.releaseAll(claimed.keySet());
+
+            // Seek back to the start of the batch: the whole batch is redelivered after the delay
+            log.error("Batch processing failed, redelivering the batch in {}ms", inFlightRetryMs);
+            acknowledgment.nack(0, Duration.ofMillis(inFlightRetryMs));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.chat4all.router.consumer;
+
+import com.chat4all.common.event.UserIdentityChangedEvent;
+import com.chat4all.router.client.UserIdentityCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identity Event Consumer
+ *
+ * Keeps the router's {@link UserIdentityCache} coherent with the User Service.
+ *
+ * Flow:
+ * 1. User Service commits a user/identity change
+ * 2. UserIdentityChangedEvent published to identity-events (keyed by userId)
+ * 3. Every router instance (own consumer group) evicts the user from its near-cache
+ * 4. The next message to that user reloads it from the User Service
+ *
+ * Evictions are idempotent, so redelivery is harmless. Lost events are covered by the
+ * cache TTL (app.identity-cache.ttl-seconds).
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdentityEventConsumer {
+
+    private final UserIdentityCache userIdentityCache;
+
+    /**
+     * Kafka listener for identity-events topic.
+     *
+     * No groupId here: the container factory assigns a per-instance group.
+     *
+     * @param event The identity change from the User Service
+     */
+    @KafkaListener(
+        topics = "${app.kafka.topics.identity-events}",
+        containerFactory = "identityEventKafkaListenerContainerFactory"
+    )
+    public void consumeIdentityEvent(@Payload UserIdentityChangedEvent event) {
+        if (event == null || event.getUserId() == null) {
+            log.warn("Ignoring identity event without userId");
+            return;
+        }
+
+        log.debug("Received identity change: userId={}, changeType={}",
+            event.getUserId(), event.getChangeType());
+        userIdentityCache.invalidate(event.getUserId());
+    }
+}
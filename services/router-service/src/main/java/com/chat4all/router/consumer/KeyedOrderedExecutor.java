@@ -0,0 +1,141 @@
+package com.chat4all.router.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Keyed Ordered Executor
+ *
+ * Runs asynchronous tasks so that tasks sharing a key execute strictly one after another
+ * (in submission order), while tasks with different keys run concurrently.
+ *
+ * Used by OrderedParallelMessageEventConsumer with key = conversationId: one slow
+ * conversation only delays its own later messages, not the rest of the partition.
+ *
+ * Implementation:
+ * - One CompletableFuture "tail" per active key; a new task atomically replaces the tail
+ *   and starts when the previous tail completes
+ * - Tails are removed once the last task for a key completes (no per-key state at rest)
+ * - A failed task never blocks later tasks for the same key
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+public class KeyedOrderedExecutor {
+
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger(0);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition taskCompleted = lock.newCondition();
+
+    /**
+     * Submits a task for a key.
+     *
+     * The task is started after every previously submitted task for the same key has completed.
+     *
+     * @param key Ordering key (e.g. conversationId)
+     * @param task Supplier of the reactive task, invoked when it is the key's turn
+     * @return Future completed when the task has finished (successfully or not)
+     * @throws NullPointerException if key is null (nothing is submitted)
+     */
+    public CompletableFuture<Void> submit(String key, Supplier<Mono<?>> task) {
+        Objects.requireNonNull(key, "key must not be null");
+        pending.incrementAndGet();
+
+        // Atomically become the new tail; the task starts when the previous tail completes
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(key, next);
+
+        (previous != null ? previous : CompletableFuture.<Void>completedFuture(null))
+            .thenCompose(ignored -> run(key, task))
+            .whenComplete((ignored, error) -> next.complete(null));
+
+        next.whenComplete((ignored, error) -> {
+            tails.remove(key, next);
+            pending.decrementAndGet();
+            signalCompletion();
+        });
+        return next;
+    }
+
+    /**
+     * Runs a task, converting every outcome into a normally completed future.
+     */
+    private CompletableFuture<Void> run(String key, Supplier<Mono<?>> task) {
+        try {
+            return task.get()
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Keyed task failed: key={}, error={}", key, e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .toFuture();
+        } catch (Exception e) {
+            log.error("Keyed task could not be started: key={}, error={}", key, e.getMessage(), e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Gets the number of submitted tasks that have not completed yet.
+     *
+     * @return Pending task count
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Gets the number of keys with at least one pending task.
+     *
+     * @return Active key count
+     */
+    public int getActiveKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Waits until the pending task count drops to the threshold or the timeout elapses.
+     *
+     * @param threshold Maximum pending tasks to wait for
+     * @param timeoutMs Maximum time to wait, in milliseconds
+     * @return true if pending tasks are at or below the threshold
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public boolean awaitPendingAtMost(int threshold, long timeoutMs) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        lock.lock();
+        try {
+            while (pending.get() > threshold) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = taskCompleted.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalCompletion() {
+        lock.lock();
+        try {
+            taskCompleted.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -5,6 +5,8 @@ import com.chat4all.router.handler.DeduplicationHandler;
 import com.chat4all.router.handler.RoutingHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -12,6 +14,8 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 /**
  * Message Event Consumer (T044)
  * 
@@ -19,7 +23,8 @@ import org.springframework.stereotype.Component;
  * 
  * Flow:
  * 1. Receive MessageEvent from Kafka
- * 2. Check for duplicates (deduplication)
+ * 2. Claim the message (atomic deduplication); duplicates are skipped, messages claimed
+ *    by another routing pass are redelivered later
  * 3. Route message to appropriate connector
  * 4. Handle success/failure
  * 5. Manually commit offset after successful processing
@@ -30,17 +35,26 @@ import org.springframework.stereotype.Component;
  * - Error handling with DLQ fallback
  * - Distributed tracing support
  * 
+ * Active when app.routing.consumer.mode=single (default).
+ * 
  * @author Chat4All Team
  * @version 1.0.0
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.routing.consumer.mode", havingValue = "single", matchIfMissing = true)
 public class MessageEventConsumer {
 
     private final DeduplicationHandler deduplicationHandler;
     private final RoutingHandler routingHandler;
 
+    /**
+     * Delay before redelivering a message claimed by another routing pass
+     */
+    @Value("${app.deduplication.in-flight-retry-ms:5000}")
+    private long inFlightRetryMs;
+
     /**
      * Kafka listener for chat-events topic.
      * 
@@ -71,18 +85,31 @@ public class MessageEventConsumer {
                 offset);
 
         try {
-            // Step 1: Deduplication check
-            log.debug("Checking for duplicate message: {}", messageEvent.getMessageId());
-            if (deduplicationHandler.isDuplicate(messageEvent.getMessageId())) {
+            // Step 1: Deduplication claim (single atomic SET NX EX)
+            log.debug("Claiming message for routing: {}", messageEvent.getMessageId());
+            DeduplicationHandler.ClaimResult claim = deduplicationHandler.claim(messageEvent.getMessageId());
+            if (claim == DeduplicationHandler.ClaimResult.DUPLICATE) {
                 log.warn("Duplicate message detected, skipping processing: {}", messageEvent.getMessageId());
                 acknowledgment.acknowledge();
                 return;
             }
+            if (claim == DeduplicationHandler.ClaimResult.IN_FLIGHT) {
+                // Another pass holds the claim - redeliver this record once it is done (or expired)
+                log.info("Message is being routed elsewhere, redelivering in {}ms: {}",
+                        inFlightRetryMs, messageEvent.getMessageId());
+                acknowledgment.nack(Duration.ofMillis(inFlightRetryMs));
+                return;
+            }
 
             // Step 2: Route message to appropriate connector
             log.debug("Routing message to connector: messageId={}, channel={}",
                     messageEvent.getMessageId(), messageEvent.getChannel());
-            routingHandler.routeMessage(messageEvent);
+            try {
+                routingHandler.routeMessage(messageEvent);
+            } catch (RuntimeException e) {
+                deduplicationHandler.release(messageEvent.getMessageId());
+                throw e;
+            }
 
             // Step 3: Mark as processed in deduplication cache
             deduplicationHandler.markAsProcessed(messageEvent.getMessageId());
@@ -0,0 +1,288 @@
+package com.chat4all.router.consumer;
+
+import com.chat4all.common.event.MessageEvent;
+import com.chat4all.router.handler.DeduplicationHandler;
+import com.chat4all.router.handler.RoutingHandler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Ordered Parallel Message Event Consumer
+ *
+ * Parallel-consumer style alternative to {@link MessageEventConsumer}, enabled with
+ * app.routing.consumer.mode=ordered-parallel.
+ *
+ * Kafka only guarantees order per partition, but the router only needs order per
+ * conversation. Records of one partition are therefore fanned out to a
+ * {@link KeyedOrderedExecutor} keyed by conversationId (MessageEvent.getPartitionKey):
+ * messages of one conversation are routed in offset order, different conversations
+ * sharing a partition are routed concurrently. A slow recipient only stalls its own
+ * conversation.
+ *
+ * Offset management (at-least-once):
+ * - {@link PartitionOffsetTracker} records in-flight offsets per partition
+ * - Only offsets below the lowest in-flight offset are committed, on the consumer thread,
+ *   after each poll batch and on container idle events (app.routing.parallel.commit-interval-ms)
+ * - On revocation, completed offsets are committed and the partition's state is dropped;
+ *   records still in flight may be redelivered to the new owner and are caught by deduplication
+ *
+ * Deduplication:
+ * - The poll batch is claimed with one pipelined Redis round-trip (atomic SET NX per message)
+ * - A message claimed by another routing pass (e.g. the previous owner of a revoked
+ *   partition) waits in its conversation's queue until that claim is resolved
+ *
+ * Backpressure:
+ * - When more than app.routing.parallel.max-pending-records are in flight, the listener waits
+ *   (up to app.routing.parallel.max-backpressure-wait-ms) before polling again
+ *
+ * Metrics:
+ * - router.parallel.pending: records submitted but not yet routed
+ * - router.parallel.active_conversations: conversations with pending records
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.routing.consumer.mode", havingValue = "ordered-parallel")
+public class OrderedParallelMessageEventConsumer implements ConsumerAwareRebalanceListener {
+
+    static final String LISTENER_ID = "router-ordered-parallel";
+
+    private final DeduplicationHandler deduplicationHandler;
+    private final RoutingHandler routingHandler;
+
+    private final KeyedOrderedExecutor executor = new KeyedOrderedExecutor();
+    private final PartitionOffsetTracker offsetTracker = new PartitionOffsetTracker();
+    private final Queue<String> routedSinceLastCommit = new ConcurrentLinkedQueue<>();
+
+    @Value("${app.routing.parallel.max-pending-records:5000}")
+    private int maxPendingRecords;
+
+    @Value("${app.routing.parallel.max-backpressure-wait-ms:30000}")
+    private long maxBackpressureWaitMs;
+
+    @Value("${app.deduplication.in-flight-retry-ms:5000}")
+    private long inFlightRetryMs;
+
+    public OrderedParallelMessageEventConsumer(DeduplicationHandler deduplicationHandler,
+                                               RoutingHandler routingHandler,
+                                               MeterRegistry meterRegistry) {
+        this.deduplicationHandler = deduplicationHandler;
+        this.routingHandler = routingHandler;
+
+        Gauge.builder("router.parallel.pending", executor, KeyedOrderedExecutor::getPending)
+            .description("Records submitted to the keyed executor but not yet routed")
+            .register(meterRegistry);
+        Gauge.builder("router.parallel.active_conversations", executor, KeyedOrderedExecutor::getActiveKeys)
+            .description("Conversations with at least one record in flight")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Kafka batch listener for chat-events topic.
+     *
+     * Submits each record to the keyed executor and returns without waiting for routing,
+     * then commits whatever offsets have become safe.
+     *
+     * @param records The poll batch
+     * @param consumer The Kafka consumer owning this listener thread (used for commits)
+     */
+    @KafkaListener(
+        id = LISTENER_ID,
+        idIsGroup = false,
+        topics = "${app.kafka.topics.chat-events}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "orderedParallelKafkaListenerContainerFactory"
+    )
+    public void consumeMessageEvents(List<ConsumerRecord<String, MessageEvent>> records,
+                                     Consumer<?, ?> consumer) {
+        log.debug("Received batch of {} MessageEvents from Kafka (pending: {})",
+            records.size(), executor.getPending());
+
+        // Step 1: Register offsets in partition order before anything can complete
+        List<Runnable> completions = new ArrayList<>(records.size());
+        Set<String> messageIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, MessageEvent> record : records) {
+            completions.add(offsetTracker.register(
+                new TopicPartition(record.topic(), record.partition()), record.offset()));
+            if (record.value() != null && record.value().getMessageId() != null) {
+                messageIds.add(record.value().getMessageId());
+            }
+        }
+
+        // Step 2: Deduplication claims (single pipelined round-trip)
+        Map<String, DeduplicationHandler.ClaimResult> claims = deduplicationHandler.claimAll(messageIds);
+        Set<String> submitted = new LinkedHashSet<>();
+
+        // Step 3: Fan out to per-conversation ordered workers
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, MessageEvent> record = records.get(i);
+            Runnable completion = completions.get(i);
+            MessageEvent event = record.value();
+
+            if (event == null || event.getMessageId() == null
+                    || claims.get(event.getMessageId()) == DeduplicationHandler.ClaimResult.DUPLICATE
+                    || !submitted.add(event.getMessageId())) {
+                log.debug("Skipping duplicate or empty record: partition={}, offset={}",
+                    record.partition(), record.offset());
+                completion.run();
+                continue;
+            }
+
+            // Events without a conversation have nothing to be ordered with: key them by message
+            String key = event.getPartitionKey() != null ? event.getPartitionKey() : event.getMessageId();
+            boolean claimed = claims.get(event.getMessageId()) == DeduplicationHandler.ClaimResult.CLAIMED;
+            executor.submit(key, () -> claimed
+                    ? routeAndRecord(event)
+                    : awaitClaimAndRoute(event))
+                .whenComplete((ignored, error) -> completion.run());
+        }
+
+        // Step 4: Commit offsets that are fully processed
+        commitCompleted(consumer);
+
+        // Step 5: Backpressure - don't poll more while too much work is in flight
+        awaitCapacity();
+    }
+
+    /**
+     * Routes a claimed message and queues it to be marked as processed.
+     */
+    private Mono<?> routeAndRecord(MessageEvent event) {
+        return routingHandler.routeMessageAsync(event)
+            .doOnTerminate(() -> routedSinceLastCommit.offer(event.getMessageId()));
+    }
+
+    /**
+     * Waits (in the conversation's queue, keeping its order) until the routing pass that
+     * holds the message's claim has finished or expired, then routes it if still needed.
+     */
+    private Mono<?> awaitClaimAndRoute(MessageEvent event) {
+        log.info("Message is being routed elsewhere, waiting for its claim: {}", event.getMessageId());
+        return deduplicationHandler.awaitClaim(event.getMessageId(), Duration.ofMillis(inFlightRetryMs))
+            .flatMap(claim -> claim == DeduplicationHandler.ClaimResult.CLAIMED
+                ? routeAndRecord(event)
+                : Mono.empty());
+    }
+
+    /**
+     * Commits completed offsets while the container is idle (no new records polled).
+     *
+     * Idle events are published on the consumer thread, so committing here is safe.
+     *
+     * @param event Container idle event
+     */
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        commitCompleted(event.getConsumer());
+    }
+
+    /**
+     * Commits completed offsets of partitions about to be revoked and forgets them.
+     */
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        markRoutedAsProcessed();
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.collectCommittable(partitions);
+        if (!offsets.isEmpty()) {
+            try {
+                consumer.commitSync(offsets);
+                log.info("Committed offsets for revoked partitions: {}", offsets);
+            } catch (Exception e) {
+                log.error("Error committing offsets for revoked partitions {}: {}", partitions, e.getMessage());
+            }
+        }
+        offsetTracker.remove(partitions);
+    }
+
+    /**
+     * Forgets lost partitions; their offsets can no longer be committed by this consumer.
+     */
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        log.warn("Partitions lost, dropping in-flight offset tracking: {}", partitions);
+        offsetTracker.remove(partitions);
+    }
+
+    /**
+     * Marks routed messages as processed and commits offsets that became safe.
+     *
+     * Must run on the consumer thread.
+     *
+     * @param consumer The Kafka consumer
+     */
+    private void commitCompleted(Consumer<?, ?> consumer) {
+        markRoutedAsProcessed();
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.collectCommittable(consumer.assignment());
+        if (offsets.isEmpty()) {
+            return;
+        }
+
+        consumer.commitAsync(offsets, (committed, error) -> {
+            if (error != null) {
+                log.error("Error committing offsets {}: {}", committed, error.getMessage());
+            } else {
+                log.debug("Committed offsets: {}", committed);
+            }
+        });
+    }
+
+    /**
+     * Marks all messages routed since the last commit in the deduplication cache
+     * (single pipelined round-trip, kept off the Netty threads that complete routing).
+     */
+    private void markRoutedAsProcessed() {
+        List<String> routed = new ArrayList<>();
+        String messageId;
+        while ((messageId = routedSinceLastCommit.poll()) != null) {
+            routed.add(messageId);
+        }
+        deduplicationHandler.markAllAsProcessed(routed);
+    }
+
+    /**
+     * Waits until in-flight records drop below the configured maximum.
+     */
+    private void awaitCapacity() {
+        if (executor.getPending() <= maxPendingRecords) {
+            return;
+        }
+
+        log.warn("Router saturated: {} records in flight (max {}), pausing consumption",
+            executor.getPending(), maxPendingRecords);
+        try {
+            if (!executor.awaitPendingAtMost(maxPendingRecords, maxBackpressureWaitMs)) {
+                log.warn("Still {} records in flight after {}ms, resuming consumption",
+                    executor.getPending(), maxBackpressureWaitMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.chat4all.router.consumer;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Partition Offset Tracker
+ *
+ * Tracks in-flight record offsets per partition when records of one partition complete
+ * out of order, and computes the highest offset that is safe to commit.
+ *
+ * Commit rule (at-least-once):
+ * - Committable offset = lowest in-flight offset, or (highest seen offset + 1) if none in flight
+ * - Every record below the committed offset is guaranteed to be fully processed
+ *
+ * Threading:
+ * - register / collectCommittable / remove: Kafka consumer thread only
+ * - completion callbacks returned by register: any thread
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public class PartitionOffsetTracker {
+
+    private final Map<TopicPartition, PartitionState> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a record as in flight. Must be called in offset order per partition.
+     * 
+     * The returned callback is bound to the current ownership of the partition, so a
+     * completion arriving after the partition was revoked and reassigned has no effect.
+     *
+     * @param partition Record partition
+     * @param offset Record offset
+     * @return Callback marking the record as fully processed (safe to call from any thread)
+     */
+    public Runnable register(TopicPartition partition, long offset) {
+        PartitionState state = partitions.computeIfAbsent(partition, tp -> new PartitionState());
+        state.inFlight.add(offset);
+        state.highestSeen = Math.max(state.highestSeen, offset);
+        return () -> state.inFlight.remove(offset);
+    }
+
+    /**
+     * Collects offsets that advanced since the last commit, for the given partitions.
+     *
+     * @param assigned Partitions owned by the calling consumer
+     * @return Offsets to commit (empty if nothing advanced)
+     */
+    public Map<TopicPartition, OffsetAndMetadata> collectCommittable(Collection<TopicPartition> assigned) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+
+        for (TopicPartition partition : assigned) {
+            PartitionState state = partitions.get(partition);
+            if (state == null || state.highestSeen < 0) {
+                continue;
+            }
+
+            NavigableSet<Long> inFlight = state.inFlight;
+            Long lowestInFlight = inFlight.isEmpty() ? null : inFlight.first();
+            long committable = lowestInFlight != null ? lowestInFlight : state.highestSeen + 1;
+
+            if (committable > state.lastCommitted) {
+                offsets.put(partition, new OffsetAndMetadata(committable));
+                state.lastCommitted = committable;
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Gets the number of in-flight records for a partition (for monitoring).
+     *
+     * @param partition The partition
+     * @return In-flight record count
+     */
+    public int getInFlight(TopicPartition partition) {
+        PartitionState state = partitions.get(partition);
+        return state != null ? state.inFlight.size() : 0;
+    }
+
+    /**
+     * Drops tracking state for partitions that are no longer owned (after revocation).
+     *
+     * @param revoked Revoked partitions
+     */
+    public void remove(Collection<TopicPartition> revoked) {
+        revoked.forEach(partitions::remove);
+    }
+
+    /**
+     * Per-partition tracking state.
+     */
+    private static final class PartitionState {
+        private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>();
+        private volatile long highestSeen = -1;
+        private long lastCommitted = -1;
+    }
+}
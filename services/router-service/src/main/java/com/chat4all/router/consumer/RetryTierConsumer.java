@@ -0,0 +1,134 @@
+package com.chat4all.router.consumer;
+
+import com.chat4all.common.event.MessageEvent;
+import com.chat4all.router.handler.RoutingHandler;
+import com.chat4all.router.retry.RetryContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Retry Tier Consumer
+ *
+ * Consumes the delayed retry topics written by RetryTopicHandler and routes each message
+ * again once its due time (chat4all-retry-due-at header) has passed. Also consumes the
+ * deferred topic (messages held back while their connector's circuit was open).
+ *
+ * Flow:
+ * 1. Receive a record from chat-events-retry-5s / -1m / -10m or chat-events-deferred
+ * 2. Not yet due: nack with the remaining wait; the container pauses the partition
+ *    (no thread sleeps, no busy polling) and redelivers the same record afterwards
+ * 3. Due: route again with the record's RetryContext; a failed pass escalates to the
+ *    next tier (or the DLQ) before the offset is committed
+ *
+ * Every record of a tier has the same delay, so records are due in offset order and only
+ * the head of each partition ever has to wait.
+ *
+ * Retries bypass deduplication on purpose: the message was marked as processed when its
+ * first pass was handed over to the retry topic.
+ *
+ * Active when app.routing.retry-topics.enabled=true (default).
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.routing.retry-topics.enabled", havingValue = "true", matchIfMissing = true)
+public class RetryTierConsumer {
+
+    private final RoutingHandler routingHandler;
+
+    /**
+     * Longest single pause; longer waits are split into several nacks so the consumer
+     * stays well within max.poll.interval.ms
+     */
+    @Value("${app.routing.retry-topics.max-pause-ms:30000}")
+    private long maxPauseMs;
+
+    @KafkaListener(
+        id = "router-retry-5s",
+        topics = "${app.kafka.topics.retry-5s:chat-events-retry-5s}",
+        groupId = "${spring.kafka.consumer.group-id}-retry",
+        containerFactory = "retryTierKafkaListenerContainerFactory"
+    )
+    public void consumeRetry5s(ConsumerRecord<String, MessageEvent> record, Acknowledgment acknowledgment) {
+        processRetry(record, acknowledgment);
+    }
+
+    @KafkaListener(
+        id = "router-retry-1m",
+        topics = "${app.kafka.topics.retry-1m:chat-events-retry-1m}",
+        groupId = "${spring.kafka.consumer.group-id}-retry",
+        containerFactory = "retryTierKafkaListenerContainerFactory"
+    )
+    public void consumeRetry1m(ConsumerRecord<String, MessageEvent> record, Acknowledgment acknowledgment) {
+        processRetry(record, acknowledgment);
+    }
+
+    @KafkaListener(
+        id = "router-retry-10m",
+        topics = "${app.kafka.topics.retry-10m:chat-events-retry-10m}",
+        groupId = "${spring.kafka.consumer.group-id}-retry",
+        containerFactory = "retryTierKafkaListenerContainerFactory"
+    )
+    public void consumeRetry10m(ConsumerRecord<String, MessageEvent> record, Acknowledgment acknowledgment) {
+        processRetry(record, acknowledgment);
+    }
+
+    @KafkaListener(
+        id = "router-deferred",
+        topics = "${app.kafka.topics.deferred:chat-events-deferred}",
+        groupId = "${spring.kafka.consumer.group-id}-retry",
+        containerFactory = "retryTierKafkaListenerContainerFactory"
+    )
+    public void consumeDeferred(ConsumerRecord<String, MessageEvent> record, Acknowledgment acknowledgment) {
+        processRetry(record, acknowledgment);
+    }
+
+    /**
+     * Waits for the record's due time, then routes it again.
+     *
+     * @param record The retry record
+     * @param acknowledgment Manual acknowledgment handle
+     */
+    private void processRetry(ConsumerRecord<String, MessageEvent> record, Acknowledgment acknowledgment) {
+        MessageEvent messageEvent = record.value();
+        if (messageEvent == null) {
+            log.warn("Skipping retry record without payload: topic={}, partition={}, offset={}",
+                record.topic(), record.partition(), record.offset());
+            acknowledgment.acknowledge();
+            return;
+        }
+
+        long waitMs = RetryContext.dueAt(record.headers()) - System.currentTimeMillis();
+        if (waitMs > 0) {
+            log.debug("Retry not due yet: messageId={}, topic={}, waitMs={}",
+                messageEvent.getMessageId(), record.topic(), waitMs);
+            acknowledgment.nack(Duration.ofMillis(Math.min(waitMs, maxPauseMs)));
+            return;
+        }
+
+        RetryContext retryContext = RetryContext.fromHeaders(record.headers());
+        log.info("Retrying message: messageId={}, topic={}, attempt={}",
+            messageEvent.getMessageId(), record.topic(), retryContext.attempt());
+
+        try {
+            routingHandler.routeMessageAsync(messageEvent, retryContext).block();
+            acknowledgment.acknowledge();
+        } catch (Exception e) {
+            // Routing never errors; this is a failure to hand over to the next tier
+            log.error("Error retrying message {}, will be redelivered: {}",
+                messageEvent.getMessageId(), e.getMessage(), e);
+            acknowledgment.nack(Duration.ofSeconds(1));
+        }
+    }
+}
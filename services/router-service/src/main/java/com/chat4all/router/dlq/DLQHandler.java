@@ -1,95 +1,163 @@
 package com.chat4all.router.dlq;
 
 import com.chat4all.common.event.MessageEvent;
-import lombok.RequiredArgsConstructor;
+import com.chat4all.router.dto.DLQReplayStatus;
+import com.chat4all.router.retry.RetryContext;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 
 /**
  * Dead Letter Queue Handler (T049)
- * 
- * Handles messages that have exceeded maximum retry attempts.
- * 
+ *
+ * Handles messages that have exhausted every retry tier (see RetryTopicHandler).
+ *
  * Responsibilities (FR-009):
  * - Publish failed messages to DLQ Kafka topic (chat-events-dlq)
  * - Log failure details for monitoring and debugging
  * - Preserve original message metadata
  * - Enable manual intervention for failed messages
- * 
+ *
  * DLQ Message Format:
- * - Original MessageEvent
- * - Failure reason
- * - Timestamp of failure
- * - Number of retry attempts
- * 
- * DLQ Processing (future):
- * - Manual review dashboard
- * - Automatic retry after connector recovery
- * - Alert/notification on DLQ threshold
- * 
+ * - Value: original MessageEvent
+ * - Headers: attempt count, first failure time, failure reason, original topic
+ *   (RetryContext headers) and chat4all-dead-lettered-at
+ *
+ * DLQ Processing:
+ * - getDLQMessageCount: messages retained in the DLQ topic
+ * - retryFromDLQ: replays the latest DLQ record of one message
+ * - startReplay: bulk replay of a time window at a controlled rate
+ *
+ * Replayed messages are republished to the first retry tier with a fresh retry history
+ * and are due immediately; if they fail again they escalate through the tiers as usual.
+ * DLQ records are never deleted, so replaying the same window twice re-routes its
+ * messages twice.
+ *
  * @author Chat4All Team
- * @version 1.0.0
+ * @version 2.0.0
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DLQHandler {
 
+    public static final String DEAD_LETTERED_AT_HEADER = "chat4all-dead-lettered-at";
+    public static final String REPLAYED_FROM_HEADER = "chat4all-replayed-from";
+
+    private static final String DLQ_TOOLS_GROUP = "router-dlq-tools";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final int MAX_EMPTY_POLLS = 10;
+
     private final KafkaTemplate<String, MessageEvent> kafkaTemplate;
+    private final ConsumerFactory<String, MessageEvent> consumerFactory;
+
+    private final AtomicReference<ReplayJob> currentReplay = new AtomicReference<>();
 
     @Value("${app.kafka.topics.dlq:chat-events-dlq}")
     private String dlqTopic;
 
+    @Value("${app.kafka.topics.retry-5s:chat-events-retry-5s}")
+    private String replayTopic;
+
+    public DLQHandler(KafkaTemplate<String, MessageEvent> kafkaTemplate,
+                      ConsumerFactory<String, MessageEvent> consumerFactory) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.consumerFactory = consumerFactory;
+    }
+
     /**
      * Sends a failed message to the Dead Letter Queue.
-     * 
+     *
      * Called when a message has failed delivery after all retry attempts.
-     * 
+     *
      * @param messageEvent The message that failed delivery
      * @param failureReason Description of why delivery failed
      * @param retryAttempts Number of retry attempts made
      */
     public void sendToDLQ(MessageEvent messageEvent, String failureReason, int retryAttempts) {
+        sendToDLQ(messageEvent, failureReason, new RetryContext(retryAttempts, System.currentTimeMillis(), 0, 0L));
+    }
+
+    /**
+     * Sends a failed message to the Dead Letter Queue with its retry history in headers.
+     *
+     * @param messageEvent The message that failed delivery
+     * @param failureReason Description of why delivery failed
+     * @param context Retry history (attempts, first failure time)
+     * @return Future completed when the DLQ write is acknowledged; never completes
+     *         exceptionally (failures are logged for manual intervention)
+     */
+    public CompletableFuture<Void> sendToDLQ(MessageEvent messageEvent, String failureReason, RetryContext context) {
         log.error("Sending message to DLQ: messageId={}, reason={}, attempts={}",
                 messageEvent.getMessageId(),
                 failureReason,
-                retryAttempts);
+                context.attempt());
 
         try {
-            // In production, we'd wrap in a DLQMessage with metadata
-            // For MVP, we'll just send the original event
-            
-            kafkaTemplate.send(dlqTopic, messageEvent.getMessageId(), messageEvent)
-                .whenComplete((result, ex) -> {
+            ProducerRecord<String, MessageEvent> record =
+                new ProducerRecord<>(dlqTopic, messageEvent.getMessageId(), messageEvent);
+            long now = System.currentTimeMillis();
+            context.writeTo(record.headers(), now, failureReason, null);
+            record.headers().add(DEAD_LETTERED_AT_HEADER, String.valueOf(now).getBytes(StandardCharsets.UTF_8));
+
+            return kafkaTemplate.send(record)
+                .handle((result, ex) -> {
                     if (ex != null) {
                         log.error("Failed to send message to DLQ: messageId={}, error={}",
                                 messageEvent.getMessageId(), ex.getMessage(), ex);
+                        logFailedMessage(messageEvent, failureReason, context.attempt());
                     } else {
                         log.info("Message sent to DLQ successfully: messageId={}, partition={}, offset={}",
                                 messageEvent.getMessageId(),
                                 result.getRecordMetadata().partition(),
                                 result.getRecordMetadata().offset());
                     }
+                    return null;
                 });
 
         } catch (Exception e) {
             log.error("Error sending message to DLQ: messageId={}, error={}",
                     messageEvent.getMessageId(), e.getMessage(), e);
-            
+
             // Critical failure - can't send to DLQ
             // In production, this should trigger alerts
             // For now, we'll just log to file/console
-            logFailedMessage(messageEvent, failureReason, retryAttempts);
+            logFailedMessage(messageEvent, failureReason, context.attempt());
+            return CompletableFuture.completedFuture(null);
         }
     }
 
     /**
      * Logs a failed message to persistent storage when DLQ is unavailable.
-     * 
+     *
      * Fallback mechanism for critical failures.
-     * 
+     *
      * @param messageEvent The failed message
      * @param failureReason Reason for failure
      * @param retryAttempts Number of retry attempts
@@ -111,32 +179,290 @@ public class DLQHandler {
 
     /**
      * Gets the count of messages in DLQ (for monitoring).
-     * 
-     * MVP: Not implemented
-     * Production: Query Kafka consumer lag for DLQ topic
-     * 
+     *
+     * Counts records retained in the DLQ topic (end offset - beginning offset, summed
+     * over partitions); records expire with the topic's retention.
+     *
      * @return Number of messages in DLQ
      */
     public long getDLQMessageCount() {
-        // TODO: Implement DLQ monitoring
-        log.debug("getDLQMessageCount called (not implemented in MVP)");
-        return 0L;
+        try (Consumer<String, MessageEvent> consumer = consumerFactory.createConsumer(DLQ_TOOLS_GROUP, "-dlq-count")) {
+            List<TopicPartition> partitions = dlqPartitions(consumer);
+            Map<TopicPartition, Long> beginning = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+
+            return partitions.stream()
+                .mapToLong(tp -> end.getOrDefault(tp, 0L) - beginning.getOrDefault(tp, 0L))
+                .sum();
+        }
     }
 
     /**
      * Retries a message from DLQ (for manual intervention).
-     * 
-     * MVP: Not implemented
-     * Production: Re-publish to chat-events topic for retry
-     * 
+     *
+     * Scans the DLQ for the latest record of the message and republishes it for routing.
+     *
      * @param messageId The message ID to retry
+     * @return true if the message was found and republished
+     */
+    public boolean retryFromDLQ(String messageId) {
+        log.info("Retrying message from DLQ: messageId={}", messageId);
+
+        AtomicReference<ConsumerRecord<String, MessageEvent>> latest = new AtomicReference<>();
+        scan(null, null, () -> false, record -> {
+            if (messageId.equals(record.key())
+                    || (record.value() != null && messageId.equals(record.value().getMessageId()))) {
+                latest.set(record);
+            }
+            return true;
+        });
+
+        if (latest.get() == null) {
+            log.warn("Message not found in DLQ: messageId={}", messageId);
+            return false;
+        }
+
+        republish(latest.get());
+        log.info("Message republished from DLQ: messageId={}, partition={}, offset={}",
+            messageId, latest.get().partition(), latest.get().offset());
+        return true;
+    }
+
+    /**
+     * Starts a bulk replay of DLQ records in the background.
+     *
+     * Only one replay runs at a time. Records are replayed in partition order, at most
+     * ratePerSecond per second, so a recovered connector is not flooded.
+     *
+     * @param from Replay records written at or after this time (null = from the beginning)
+     * @param to Replay records written before this time (null = up to now)
+     * @param limit Maximum number of messages to replay (0 = unlimited)
+     * @param ratePerSecond Maximum republish rate (must be positive)
+     * @return Status of the started replay
+     * @throws IllegalArgumentException if ratePerSecond is not positive
+     * @throws IllegalStateException if a replay is already running
+     */
+    public DLQReplayStatus startReplay(Instant from, Instant to, long limit, int ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive");
+        }
+
+        ReplayJob job = new ReplayJob(from, to != null ? to : Instant.now(), limit, ratePerSecond);
+        ReplayJob running = currentReplay.get();
+        if (running != null && running.isRunning()) {
+            throw new IllegalStateException("DLQ replay already running: " + running.replayId);
+        }
+        if (!currentReplay.compareAndSet(running, job)) {
+            throw new IllegalStateException("DLQ replay already running");
+        }
+
+        log.info("Starting DLQ replay: replayId={}, from={}, to={}, limit={}, ratePerSecond={}",
+            job.replayId, from, job.to, limit, ratePerSecond);
+        Schedulers.boundedElastic().schedule(() -> runReplay(job));
+        return job.toStatus();
+    }
+
+    /**
+     * Gets the status of the current (or last) replay.
+     *
+     * @return Replay status, or null if no replay was started
+     */
+    public DLQReplayStatus getReplayStatus() {
+        ReplayJob job = currentReplay.get();
+        return job != null ? job.toStatus() : null;
+    }
+
+    /**
+     * Requests cancellation of the running replay.
+     *
+     * @return true if a running replay was asked to stop
+     */
+    public boolean cancelReplay() {
+        ReplayJob job = currentReplay.get();
+        if (job == null || !job.isRunning()) {
+            return false;
+        }
+        job.cancelled.set(true);
+        return true;
+    }
+
+    /**
+     * Runs a replay job to completion (on a bounded elastic thread).
+     */
+    private void runReplay(ReplayJob job) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / job.ratePerSecond;
+        long[] nextSendAt = {System.nanoTime()};
+
+        try {
+            scan(job.from, job.to, job.cancelled::get, record -> {
+                job.scanned.incrementAndGet();
+                if (record.value() == null) {
+                    return true;
+                }
+
+                long waitNanos = nextSendAt[0] - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                nextSendAt[0] = Math.max(nextSendAt[0], System.nanoTime() - intervalNanos) + intervalNanos;
+
+                republish(record);
+                long replayed = job.replayed.incrementAndGet();
+                return job.limit <= 0 || replayed < job.limit;
+            });
+            job.finish(job.cancelled.get() ? "CANCELLED" : "COMPLETED", null);
+        } catch (Exception e) {
+            log.error("DLQ replay failed: replayId={}, error={}", job.replayId, e.getMessage(), e);
+            job.finish("FAILED", e.getMessage());
+        }
+
+        log.info("DLQ replay finished: replayId={}, state={}, scanned={}, replayed={}",
+            job.replayId, job.state, job.scanned.get(), job.replayed.get());
+    }
+
+    /**
+     * Republishes a DLQ record to the first retry tier, due immediately, with a fresh
+     * retry history. Waits for the Kafka acknowledgment.
+     */
+    private void republish(ConsumerRecord<String, MessageEvent> dlqRecord) {
+        MessageEvent event = dlqRecord.value();
+        ProducerRecord<String, MessageEvent> record =
+            new ProducerRecord<>(replayTopic, event.getPartitionKey(), event);
+        RetryContext.initial().writeTo(record.headers(), 0L,
+            RetryContext.readString(dlqRecord.headers(), RetryContext.FAILURE_REASON_HEADER),
+            RetryContext.readString(dlqRecord.headers(), RetryContext.ORIGINAL_TOPIC_HEADER));
+        record.headers().add(REPLAYED_FROM_HEADER,
+            (dlqRecord.topic() + "-" + dlqRecord.partition() + "@" + dlqRecord.offset()).getBytes(StandardCharsets.UTF_8));
+
+        kafkaTemplate.send(record).join();
+    }
+
+    /**
+     * Reads the DLQ from the given time up to its end offsets at scan start.
+     *
+     * @param from First record time (null = from the beginning)
+     * @param to Records at or after this time are skipped (null = no upper bound)
+     * @param stop Checked between polls; true stops the scan
+     * @param handler Called per record; returning false stops the scan
+     */
+    private void scan(Instant from, Instant to, BooleanSupplier stop, RecordHandler handler) {
+        try (Consumer<String, MessageEvent> consumer = consumerFactory.createConsumer(DLQ_TOOLS_GROUP, "-dlq-scan")) {
+            List<TopicPartition> partitions = dlqPartitions(consumer);
+            if (partitions.isEmpty()) {
+                return;
+            }
+
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+
+            if (from != null) {
+                Map<TopicPartition, Long> timestamps = new HashMap<>();
+                partitions.forEach(tp -> timestamps.put(tp, from.toEpochMilli()));
+                Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(timestamps);
+                partitions.forEach(tp -> {
+                    OffsetAndTimestamp offset = offsets.get(tp);
+                    consumer.seek(tp, offset != null ? offset.offset() : end.get(tp));
+                });
+            } else {
+                consumer.seekToBeginning(partitions);
+            }
+
+            Set<TopicPartition> remaining = new HashSet<>(partitions);
+            Predicate<TopicPartition> done = tp -> consumer.position(tp) >= end.get(tp);
+            remaining.removeIf(done);
+
+            int emptyPolls = 0;
+            while (!remaining.isEmpty() && !stop.getAsBoolean() && emptyPolls < MAX_EMPTY_POLLS) {
+                ConsumerRecords<String, MessageEvent> records = consumer.poll(POLL_TIMEOUT);
+                emptyPolls = records.isEmpty() ? emptyPolls + 1 : 0;
+
+                for (ConsumerRecord<String, MessageEvent> record : records) {
+                    TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= end.get(tp)
+                            || (to != null && record.timestamp() >= to.toEpochMilli())) {
+                        continue;
+                    }
+                    if (stop.getAsBoolean() || !handler.handle(record)) {
+                        return;
+                    }
+                }
+                remaining.removeIf(done);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<TopicPartition> dlqPartitions(Consumer<String, MessageEvent> consumer) {
+        List<PartitionInfo> infos = consumer.partitionsFor(dlqTopic);
+        if (infos == null) {
+            return List.of();
+        }
+        return infos.stream()
+            .map(info -> new TopicPartition(dlqTopic, info.partition()))
+            .toList();
+    }
+
+    /**
+     * Per-record callback of a DLQ scan.
+     */
+    @FunctionalInterface
+    private interface RecordHandler {
+        /**
+         * @return false to stop the scan
+         */
+        boolean handle(ConsumerRecord<String, MessageEvent> record) throws InterruptedException;
+    }
+
+    /**
+     * State of one bulk replay.
      */
-    public void retryFromDLQ(String messageId) {
-        log.info("retryFromDLQ called for message: {} (not implemented in MVP)", messageId);
-        
-        // TODO: Implement manual retry from DLQ
-        // 1. Fetch message from DLQ topic
-        // 2. Reset retry counter
-        // 3. Re-publish to chat-events topic
+    private static final class ReplayJob {
+        private final String replayId = UUID.randomUUID().toString();
+        private final Instant from;
+        private final Instant to;
+        private final long limit;
+        private final int ratePerSecond;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private volatile String state = "RUNNING";
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ReplayJob(Instant from, Instant to, long limit, int ratePerSecond) {
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        private boolean isRunning() {
+            return "RUNNING".equals(state);
+        }
+
+        private void finish(String finalState, String errorMessage) {
+            this.error = errorMessage;
+            this.finishedAt = Instant.now();
+            this.state = finalState;
+        }
+
+        private DLQReplayStatus toStatus() {
+            return DLQReplayStatus.builder()
+                .replayId(replayId)
+                .state(state)
+                .from(from)
+                .to(to)
+                .ratePerSecond(ratePerSecond)
+                .limit(limit)
+                .scanned(scanned.get())
+                .replayed(replayed.get())
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+        }
     }
 }
@@ -0,0 +1,80 @@
+package com.chat4all.router.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DLQ Replay Status DTO
+ *
+ * Progress of a bulk DLQ replay started through POST /api/v1/dlq/replay.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DLQReplayStatus {
+
+    /**
+     * Replay job identifier
+     */
+    private String replayId;
+
+    /**
+     * RUNNING, COMPLETED, CANCELLED or FAILED
+     */
+    private String state;
+
+    /**
+     * Only DLQ records written at or after this time are replayed (null = from the beginning)
+     */
+    private Instant from;
+
+    /**
+     * Only DLQ records written before this time are replayed (null = up to the replay start)
+     */
+    private Instant to;
+
+    /**
+     * Maximum number of messages republished per second
+     */
+    private int ratePerSecond;
+
+    /**
+     * Maximum number of messages to replay (0 = unlimited)
+     */
+    private long limit;
+
+    /**
+     * DLQ records read so far
+     */
+    private long scanned;
+
+    /**
+     * Messages republished for routing so far
+     */
+    private long replayed;
+
+    /**
+     * When the replay started
+     */
+    private Instant startedAt;
+
+    /**
+     * When the replay finished (null while running)
+     */
+    private Instant finishedAt;
+
+    /**
+     * Error message if the replay failed
+     */
+    private String error;
+}
@@ -1,50 +1,84 @@
 package com.chat4all.router.handler;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Deduplication Handler (T045)
- * 
- * Prevents duplicate message delivery by checking message_id against Redis and MongoDB.
- * 
+ *
+ * Prevents duplicate message delivery by claiming each message_id in Redis before routing.
+ *
  * Strategy (FR-006):
- * 1. Check Redis for message_id (fast in-memory check)
- * 2. If not found in Redis, check MongoDB (backup persistence layer)
- * 3. If found in either, message is a duplicate - skip processing
- * 4. If not found, mark as processed and continue
- * 
+ * 1. Claim the message atomically: SET router:processed:{id} inflight:{instance} NX EX {claim-ttl}
+ * 2. Claim taken → route the message, then mark it processed (7-day TTL)
+ * 3. Key holds "processed" → duplicate, skip
+ * 4. Key holds another claim → another router instance is routing it right now (IN_FLIGHT);
+ *    the consumer retries later. If that instance died, its claim expires after claim-ttl
+ *    and the message is claimed again, so nothing is lost
+ * 5. Routing error → the claim is released so the redelivery can claim it
+ *
+ * The claim is a single atomic command, so two router instances can never both route
+ * the same message (the old check-then-set left a window between hasKey and set).
+ *
+ * Batch API: {@link #claimAll(Collection)} and {@link #markAllAsProcessed(Collection)}
+ * pipeline a whole poll batch into one Redis round-trip each.
+ *
+ * Local pre-check (app.deduplication.local-cache.*): an in-process LRU of message IDs known
+ * to be processed answers hot duplicates (redelivery after a rebalance, producer retries)
+ * without a Redis round-trip. It only ever holds confirmed processed IDs, so unlike a Bloom
+ * filter it has no false positives and can never skip a new message.
+ *
  * Redis Key Format: "router:processed:{message_id}"
  * TTL: 7 days (aligns with Kafka retention and message-service idempotency)
- * 
- * Why Two Layers?
- * - Redis: Fast in-memory check for recent messages (hot path)
- * - MongoDB: Persistent backup for messages beyond Redis TTL or after Redis restarts
- * 
+ *
+ * Failure handling: if Redis is unavailable, claims fail open (CLAIMED) - better to risk a
+ * duplicate than block all messages.
+ *
+ * Metrics:
+ * - router.dedup.redis.latency {operation}: Redis round-trip time (claim, claim_batch,
+ *   mark, mark_batch, release, release_batch)
+ * - router.dedup.claims {result}: claim outcomes (claimed, duplicate, in_flight, error)
+ * - router.dedup.local_hits: duplicates answered by the local pre-check
+ *
  * @author Chat4All Team
- * @version 1.0.0
+ * @version 2.0.0
  */
 @Slf4j
 @Component
 public class DeduplicationHandler {
 
-    private final RedisTemplate<String, String> redisTemplate;
-
     /**
-     * Constructor with explicit bean qualifier to resolve ambiguity.
-     * 
-     * Spring Boot auto-configuration creates multiple RedisTemplate beans.
-     * We need the String-based template for deduplication keys.
-     * 
-     * @param redisTemplate The String-based Redis template bean
+     * Outcome of a claim.
      */
-    public DeduplicationHandler(@Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public enum ClaimResult {
+        /** This instance owns the message and must route it */
+        CLAIMED,
+        /** The message was already processed */
+        DUPLICATE,
+        /** Another routing pass holds the claim; retry later */
+        IN_FLIGHT
     }
 
     /**
@@ -52,6 +86,25 @@ public class DeduplicationHandler {
      */
     private static final String ROUTER_PROCESSED_PREFIX = "router:processed:";
 
+    private static final String PROCESSED_VALUE = "processed";
+    private static final String IN_FLIGHT_PREFIX = "inflight:";
+
+    /**
+     * Deletes the key only if it still holds this instance's claim
+     */
+    private static final byte[] RELEASE_SCRIPT =
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, Boolean> processedIds;
+
+    /**
+     * Claim value of this router instance
+     */
+    private final String claimValue = IN_FLIGHT_PREFIX + UUID.randomUUID();
+
     /**
      * TTL for deduplication keys (7 days = Kafka retention)
      */
@@ -59,94 +112,327 @@ public class DeduplicationHandler {
     private int ttlDays;
 
     /**
-     * Checks if a message has already been processed by the router.
-     * 
-     * This prevents duplicate message delivery to connectors, which could result in
-     * sending the same message twice to WhatsApp/Telegram/Instagram.
-     * 
+     * TTL of a claim; must exceed the longest routing pass (in-process retries included)
+     */
+    @Value("${app.deduplication.claim-ttl-seconds:300}")
+    private long claimTtlSeconds;
+
+    /**
+     * Constructor with explicit bean qualifier to resolve ambiguity.
+     *
+     * Spring Boot auto-configuration creates multiple RedisTemplate beans.
+     * We need the String-based template for deduplication keys.
+     *
+     * @param redisTemplate The String-based Redis template bean
+     * @param meterRegistry Meter registry for latency metrics
+     * @param localCacheEnabled Whether the local pre-check is enabled
+     * @param localCacheMaxSize Maximum number of processed IDs kept in process
+     * @param localCacheTtlSeconds How long a processed ID is kept in process
+     */
+    public DeduplicationHandler(@Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.deduplication.local-cache.enabled:true}") boolean localCacheEnabled,
+                                @Value("${app.deduplication.local-cache.max-size:100000}") long localCacheMaxSize,
+                                @Value("${app.deduplication.local-cache.ttl-seconds:600}") long localCacheTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.processedIds = localCacheEnabled
+            ? Caffeine.newBuilder()
+                .maximumSize(localCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localCacheTtlSeconds))
+                .build()
+            : null;
+    }
+
+    /**
+     * Claims a message for routing with one atomic Redis command (SET NX EX).
+     *
      * @param messageId Unique message identifier
-     * @return true if message was already processed, false if this is the first time
+     * @return CLAIMED if this instance must route the message, DUPLICATE if it was already
+     *         processed, IN_FLIGHT if another routing pass holds the claim
      */
-    public boolean isDuplicate(String messageId) {
+    public ClaimResult claim(String messageId) {
+        if (isLocallyProcessed(messageId)) {
+            return ClaimResult.DUPLICATE;
+        }
+
         String key = buildKey(messageId);
 
         try {
-            // Check Redis first (fast path)
-            Boolean exists = redisTemplate.hasKey(key);
-            
-            if (Boolean.TRUE.equals(exists)) {
-                log.warn("Duplicate message detected in Redis: {}", messageId);
-                return true;
-            }
+            List<Object> results = timed("claim", () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                appendClaim(connection.stringCommands(), key);
+                return null;
+            }));
 
-            // TODO: In production, also check MongoDB here as backup
-            // For MVP, Redis is sufficient with 7-day TTL
-            
-            log.debug("Message is new (not found in deduplication cache): {}", messageId);
-            return false;
+            ClaimResult result = toClaimResult(messageId, results.get(0), results.get(1));
+            countClaim(result);
+            return result;
 
         } catch (Exception e) {
-            log.error("Error checking deduplication for message {}: {}. Assuming not duplicate to avoid blocking.", 
+            log.error("Error claiming message {}: {}. Assuming not duplicate to avoid blocking.",
                     messageId, e.getMessage());
+            meterRegistry.counter("router.dedup.claims", "result", "error").increment();
             // Fail open - if Redis is down, allow processing
             // Better to risk duplicate than block all messages
-            return false;
+            return ClaimResult.CLAIMED;
         }
     }
 
     /**
-     * Marks a message as processed in the deduplication cache.
-     * 
-     * Called after successful routing to prevent future duplicate deliveries.
-     * 
+     * Claims a whole poll batch in one pipelined Redis round-trip.
+     *
+     * Fails open like {@link #claim(String)}: on Redis errors every message is CLAIMED.
+     *
+     * @param messageIds Message identifiers of the batch (distinct)
+     * @return Claim result per message ID, in iteration order of messageIds
+     */
+    public Map<String, ClaimResult> claimAll(Collection<String> messageIds) {
+        Map<String, ClaimResult> claims = new LinkedHashMap<>();
+        List<String> toClaim = new ArrayList<>(messageIds.size());
+        for (String messageId : messageIds) {
+            if (isLocallyProcessed(messageId)) {
+                claims.put(messageId, ClaimResult.DUPLICATE);
+            } else {
+                claims.put(messageId, null);
+                toClaim.add(messageId);
+            }
+        }
+        if (toClaim.isEmpty()) {
+            return claims;
+        }
+
+        try {
+            List<Object> results = timed("claim_batch", () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String messageId : toClaim) {
+                    appendClaim(connection.stringCommands(), buildKey(messageId));
+                }
+                return null;
+            }));
+
+            int duplicates = 0;
+            for (int i = 0; i < toClaim.size(); i++) {
+                String messageId = toClaim.get(i);
+                ClaimResult result = toClaimResult(messageId, results.get(2 * i), results.get(2 * i + 1));
+                countClaim(result);
+                claims.put(messageId, result);
+                if (result != ClaimResult.CLAIMED) {
+                    duplicates++;
+                }
+            }
+
+            if (duplicates > 0) {
+                log.warn("Duplicate or in-flight messages detected in Redis batch: {} of {}", duplicates, toClaim.size());
+            }
+
+        } catch (Exception e) {
+            log.error("Error claiming batch of {} messages: {}. Assuming none are duplicates.",
+                    toClaim.size(), e.getMessage());
+            meterRegistry.counter("router.dedup.claims", "result", "error").increment(toClaim.size());
+            // Fail open - if Redis is down, allow processing
+            toClaim.forEach(messageId -> claims.put(messageId, ClaimResult.CLAIMED));
+        }
+        return claims;
+    }
+
+    /**
+     * Claims a message, waiting while another routing pass holds the claim.
+     *
+     * Redis calls run on the bounded elastic scheduler; the wait is a timer, not a sleep.
+     * Ends when the other pass marks the message processed (DUPLICATE) or its claim is
+     * released or expires (CLAIMED).
+     *
+     * @param messageId Unique message identifier
+     * @param retryInterval Delay between claim attempts
+     * @return Mono emitting CLAIMED or DUPLICATE
+     */
+    public Mono<ClaimResult> awaitClaim(String messageId, Duration retryInterval) {
+        return Mono.fromCallable(() -> claim(messageId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .filter(result -> result != ClaimResult.IN_FLIGHT)
+            .repeatWhenEmpty(Integer.MAX_VALUE, repeats -> repeats.delayElements(retryInterval));
+    }
+
+    /**
+     * Marks a message as processed in the deduplication cache (replaces the claim).
+     *
+     * Called after routing to prevent future duplicate deliveries.
+     *
      * @param messageId Unique message identifier
      */
     public void markAsProcessed(String messageId) {
         String key = buildKey(messageId);
 
         try {
-            redisTemplate.opsForValue().set(
-                key, 
-                "processed", 
-                Duration.ofDays(ttlDays)
-            );
+            timed("mark", () -> {
+                redisTemplate.opsForValue().set(key, PROCESSED_VALUE, Duration.ofDays(ttlDays));
+                return null;
+            });
+            rememberProcessed(messageId);
             log.debug("Marked message as processed in deduplication cache: {}", messageId);
 
             // TODO: In production, also persist to MongoDB here for backup
             // This ensures deduplication survives Redis restarts
 
         } catch (Exception e) {
-            log.error("Error marking message {} as processed: {}. Continuing anyway.", 
+            log.error("Error marking message {} as processed: {}. Continuing anyway.",
                     messageId, e.getMessage());
             // Non-critical failure - don't block processing
-            // Worst case: message might be reprocessed if router restarts
+            // Worst case: message might be reprocessed after the claim expires
         }
     }
 
     /**
-     * Builds the Redis key for deduplication tracking.
-     * 
+     * Marks a batch of messages as processed in one pipelined Redis round-trip.
+     *
+     * @param messageIds Message identifiers to mark
+     */
+    public void markAllAsProcessed(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+
+        byte[] value = PROCESSED_VALUE.getBytes(StandardCharsets.UTF_8);
+        Expiration ttl = Expiration.from(Duration.ofDays(ttlDays));
+
+        try {
+            timed("mark_batch", () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String messageId : messageIds) {
+                    connection.stringCommands().set(
+                        buildKey(messageId).getBytes(StandardCharsets.UTF_8),
+                        value,
+                        ttl,
+                        RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            }));
+            messageIds.forEach(this::rememberProcessed);
+            log.debug("Marked {} messages as processed in deduplication cache", messageIds.size());
+
+        } catch (Exception e) {
+            log.error("Error marking batch of {} messages as processed: {}. Continuing anyway.",
+                    messageIds.size(), e.getMessage());
+            // Non-critical failure - don't block processing
+        }
+    }
+
+    /**
+     * Releases this instance's claim so a redelivery of the message can claim it again.
+     *
+     * Called when routing failed before the message was handed over. A claim that has
+     * expired and been taken by another instance is left alone.
+     *
      * @param messageId Unique message identifier
-     * @return Redis key string
      */
-    private String buildKey(String messageId) {
-        return ROUTER_PROCESSED_PREFIX + messageId;
+    public void release(String messageId) {
+        releaseAll(List.of(messageId));
+    }
+
+    /**
+     * Releases this instance's claims of several messages in one pipelined Redis round-trip.
+     *
+     * @param messageIds Message identifiers to release
+     */
+    public void releaseAll(Collection<String> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+
+        byte[] claim = claimValue.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            timed(messageIds.size() == 1 ? "release" : "release_batch",
+                () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String messageId : messageIds) {
+                        connection.scriptingCommands().eval(RELEASE_SCRIPT, ReturnType.INTEGER, 1,
+                            buildKey(messageId).getBytes(StandardCharsets.UTF_8), claim);
+                    }
+                    return null;
+                }));
+            log.debug("Released {} deduplication claims", messageIds.size());
+
+        } catch (Exception e) {
+            log.error("Error releasing {} deduplication claims: {}. They expire after {}s.",
+                    messageIds.size(), e.getMessage(), claimTtlSeconds);
+        }
     }
 
     /**
      * Removes a message from deduplication cache (for testing/manual intervention).
-     * 
+     *
      * WARNING: Use with caution in production!
-     * 
+     *
      * @param messageId Unique message identifier
      */
     public void removeFromCache(String messageId) {
         String key = buildKey(messageId);
         try {
             redisTemplate.delete(key);
+            if (processedIds != null) {
+                processedIds.invalidate(messageId);
+            }
             log.warn("Removed message from deduplication cache: {}", messageId);
         } catch (Exception e) {
             log.error("Error removing message {} from cache: {}", messageId, e.getMessage());
         }
     }
+
+    /**
+     * Appends SET key claim NX EX claim-ttl followed by GET key to a pipeline.
+     */
+    private void appendClaim(RedisStringCommands commands, String key) {
+        byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+        commands.set(rawKey, claimValue.getBytes(StandardCharsets.UTF_8),
+            Expiration.seconds(claimTtlSeconds), RedisStringCommands.SetOption.ifAbsent());
+        commands.get(rawKey);
+    }
+
+    /**
+     * Interprets the SET NX and GET replies of one claim.
+     */
+    private ClaimResult toClaimResult(String messageId, Object setReply, Object currentValue) {
+        if (Boolean.TRUE.equals(setReply)) {
+            return ClaimResult.CLAIMED;
+        }
+        if (PROCESSED_VALUE.equals(currentValue)) {
+            rememberProcessed(messageId);
+            log.warn("Duplicate message detected in Redis: {}", messageId);
+            return ClaimResult.DUPLICATE;
+        }
+        // Claimed by another pass (or the claim expired between SET and GET: retry later)
+        log.info("Message is being routed by another pass: messageId={}, claim={}", messageId, currentValue);
+        return ClaimResult.IN_FLIGHT;
+    }
+
+    private void countClaim(ClaimResult result) {
+        meterRegistry.counter("router.dedup.claims", "result", result.name().toLowerCase()).increment();
+    }
+
+    private boolean isLocallyProcessed(String messageId) {
+        if (processedIds != null && processedIds.getIfPresent(messageId) != null) {
+            meterRegistry.counter("router.dedup.local_hits").increment();
+            log.debug("Duplicate message detected in local cache: {}", messageId);
+            return true;
+        }
+        return false;
+    }
+
+    private void rememberProcessed(String messageId) {
+        if (processedIds != null) {
+            processedIds.put(messageId, Boolean.TRUE);
+        }
+    }
+
+    private <T> T timed(String operation, Supplier<T> redisCall) {
+        return meterRegistry.timer("router.dedup.redis.latency", "operation", operation).record(redisCall);
+    }
+
+    /**
+     * Builds the Redis key for deduplication tracking.
+     *
+     * @param messageId Unique message identifier
+     * @return Redis key string
+     */
+    private String buildKey(String messageId) {
+        return ROUTER_PROCESSED_PREFIX + messageId;
+    }
 }
@@ -3,16 +3,23 @@ package com.chat4all.router.handler;
 import com.chat4all.common.constant.Channel;
 import com.chat4all.common.constant.MessageStatus;
 import com.chat4all.common.event.MessageEvent;
-import com.chat4all.router.client.UserServiceClient;
+import com.chat4all.router.client.UserIdentityCache;
+import com.chat4all.router.connector.ConnectorCircuitBreaker;
 import com.chat4all.router.connector.ConnectorClient;
+import com.chat4all.router.connector.ConnectorConcurrencyLimiter;
 import com.chat4all.router.dto.ExternalIdentityDTO;
-import com.chat4all.router.dto.UserDTO;
 import com.chat4all.router.kafka.StatusUpdateProducer;
+import com.chat4all.router.retry.RetryContext;
 import com.chat4all.router.retry.RetryHandler;
+import com.chat4all.router.retry.RetryTopicHandler;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -41,7 +48,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 
  * Identity Resolution Flow:
  * 1. Check if recipientId is a UUID (internal user) or platform ID (direct)
- * 2. If UUID: Call User Service to resolve external identities
+ * 2. If UUID: Resolve external identities via User Service (through UserIdentityCache)
  * 3. Fan-out message to all linked platform identities
  * 4. If direct platform ID: Send directly to specified platform
  * 
@@ -52,6 +59,20 @@ import java.util.concurrent.atomic.AtomicInteger;
  * 4. Update message status based on delivery result (partial or full success)
  * 5. Publish status update to Kafka
  * 
+ * Failed Deliveries:
+ * - A pass that ends FAILED is handed to RetryTopicHandler instead of publishing FAILED
+ * - The message is routed again from a delayed retry topic (5s, 1m, 10m)
+ * - FAILED is published only once the last tier fails and the message is dead-lettered
+ * - Messages for a channel whose circuit is open are not attempted: they are parked on
+ *   the deferred topic (without using up a retry tier) and emit PENDING
+ * 
+ * Fan-out Pipeline:
+ * - Recipients (and each user's linked identities) are delivered concurrently, non-blocking
+ * - Per-message cap: app.routing.fanout.max-concurrency-per-message (default: 16)
+ * - Per-channel bulkhead: adaptive concurrency limit per connector (ConnectorConcurrencyLimiter)
+ * - Per-channel circuit breaker in front of the bulkhead (ConnectorCircuitBreaker)
+ * - Group delivery latency is bounded by the slowest recipient, not the sum of all recipients
+ * 
  * Metrics (T113):
  * - messages.routed.total: Counter for routed messages (tagged by destination_channel)
  * - messages.routed.failure: Counter for routing failures (tagged by error_type)
@@ -65,9 +86,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class RoutingHandler {
 
     private final RetryHandler retryHandler;
+    private final RetryTopicHandler retryTopicHandler;
     private final ConnectorClient connectorClient;
+    private final ConnectorConcurrencyLimiter connectorConcurrencyLimiter;
+    private final ConnectorCircuitBreaker connectorCircuitBreaker;
     private final StatusUpdateProducer statusUpdateProducer;
-    private final UserServiceClient userServiceClient;
+    private final UserIdentityCache userIdentityCache;
     private final MeterRegistry meterRegistry;
 
     // Connector URLs (Docker Compose service names)
@@ -75,38 +99,112 @@ public class RoutingHandler {
     private static final String TELEGRAM_CONNECTOR_URL = "http://telegram-connector:8086";
     private static final String INSTAGRAM_CONNECTOR_URL = "http://instagram-connector:8087";
 
+    /**
+     * Maximum number of recipients of a single message delivered concurrently
+     */
+    @Value("${app.routing.fanout.max-concurrency-per-message:16}")
+    private int maxConcurrencyPerMessage;
+
     /**
      * Routes a message to the appropriate connector(s) based on its channel and recipients.
      * 
      * This is the main entry point for message routing logic.
      * Supports both single-recipient (ONE_TO_ONE) and multi-recipient (GROUP) delivery.
+     * Blocks the caller until the whole fan-out has completed.
      * 
      * Task: T078 - Multi-recipient delivery support
      * 
      * @param messageEvent The message event to route
      */
     public void routeMessage(MessageEvent messageEvent) {
-        log.info("Routing message: messageId={}, channel={}, conversationId={}, recipients={}",
-                messageEvent.getMessageId(),
-                messageEvent.getChannel(),
-                messageEvent.getConversationId(),
-                messageEvent.getRecipientIds() != null ? messageEvent.getRecipientIds().size() : 0);
+        routeMessageAsync(messageEvent).block();
+    }
+
+    /**
+     * Routes a message without blocking the caller.
+     * 
+     * The final status (DELIVERED/FAILED) is published to Kafka before the Mono completes.
+     * Never emits an error: routing failures are mapped to FAILED.
+     * 
+     * @param messageEvent The message event to route
+     * @return Mono emitting the final message status
+     */
+    public Mono<MessageStatus> routeMessageAsync(MessageEvent messageEvent) {
+        return routeMessageAsync(messageEvent, RetryContext.initial());
+    }
+
+    /**
+     * Routes a message (first pass or a retry from a retry topic) without blocking the caller.
+     * 
+     * A successful pass publishes its status before the Mono completes. A FAILED pass is
+     * handed to RetryTopicHandler before the Mono completes (parked on the next retry tier,
+     * or dead-lettered with status FAILED), so the caller may commit its offset afterwards.
+     * A message for a channel whose circuit is open is parked on the deferred topic and
+     * emits PENDING. Never emits an error: routing failures are mapped to FAILED.
+     * 
+     * @param messageEvent The message event to route
+     * @param retryContext Retry history of the message (initial for the first pass)
+     * @return Mono emitting the status of this pass
+     */
+    public Mono<MessageStatus> routeMessageAsync(MessageEvent messageEvent, RetryContext retryContext) {
+        return Mono.defer(() -> {
+            log.info("Routing message: messageId={}, channel={}, conversationId={}, recipients={}, attempt={}",
+                    messageEvent.getMessageId(),
+                    messageEvent.getChannel(),
+                    messageEvent.getConversationId(),
+                    messageEvent.getRecipientIds() != null ? messageEvent.getRecipientIds().size() : 0,
+                    retryContext.attempt());
+
+            // Don't spend a pass (or a retry tier) on a connector known to be down
+            if (getConnectorUrl(messageEvent.getChannel()) != null
+                    && connectorCircuitBreaker.isOpen(messageEvent.getChannel())) {
+                return deferForOpenCircuit(messageEvent, retryContext);
+            }
 
-        try {
             // Check if this is a multi-recipient message (GROUP conversation)
             if (isMultiRecipientMessage(messageEvent)) {
                 log.info("Multi-recipient message detected: {} recipients", 
                     messageEvent.getRecipientIds().size());
-                routeMultiRecipientMessage(messageEvent);
-            } else {
-                // Single recipient - original routing logic
-                routeSingleRecipientMessage(messageEvent);
+                return routeMultiRecipientMessage(messageEvent);
             }
-
-        } catch (Exception e) {
+            // Single recipient - original routing logic
+            return routeSingleRecipientMessage(messageEvent);
+        })
+        .flatMap(finalStatus -> {
+            if (finalStatus == MessageStatus.FAILED) {
+                return retryTopicHandler.handleFailure(messageEvent, retryContext,
+                        "Delivery failed for all recipients on channel " + messageEvent.getChannel())
+                    .thenReturn(finalStatus);
+            }
+            if (finalStatus != MessageStatus.PENDING) {
+                updateMessageStatus(messageEvent, finalStatus);
+            }
+            return Mono.just(finalStatus);
+        })
+        .onErrorResume(CallNotPermittedException.class, e -> deferForOpenCircuit(messageEvent, retryContext))
+        .onErrorResume(e -> {
             log.error("Error routing message {}: {}", messageEvent.getMessageId(), e.getMessage(), e);
-            updateMessageStatus(messageEvent, MessageStatus.FAILED);
-        }
+            return retryTopicHandler.handleFailure(messageEvent, retryContext,
+                    "Routing error: " + e.getMessage())
+                .thenReturn(MessageStatus.FAILED);
+        });
+    }
+
+    /**
+     * Parks a message whose connector circuit is open on the deferred topic.
+     * 
+     * @param messageEvent The message event
+     * @param retryContext Retry history of the message (kept as is)
+     * @return Mono emitting PENDING once the message is parked
+     */
+    private Mono<MessageStatus> deferForOpenCircuit(MessageEvent messageEvent, RetryContext retryContext) {
+        String channel = messageEvent.getChannel() != null ? messageEvent.getChannel().name() : "UNKNOWN";
+        log.warn("Connector circuit open, deferring message: messageId={}, channel={}",
+            messageEvent.getMessageId(), channel);
+        meterRegistry.counter("router.circuit_breaker.deferred", "channel", channel).increment();
+
+        return retryTopicHandler.defer(messageEvent, retryContext, "Circuit open for channel " + channel)
+            .thenReturn(MessageStatus.PENDING);
     }
 
     /**
@@ -129,65 +227,92 @@ public class RoutingHandler {
      * - Overall status is DELIVERED if at least one recipient succeeds
      * - Overall status is FAILED only if ALL recipients fail
      * 
+     * Recipients are delivered concurrently (up to maxConcurrencyPerMessage at a time),
+     * and each recipient's connector calls are retried independently.
+     * Internal (UUID) recipients are resolved in bulk before delivery starts.
+     * 
      * Task: T078
      * 
      * @param messageEvent The message event with multiple recipients
+     * @return Mono emitting the final message status
      */
-    private void routeMultiRecipientMessage(MessageEvent messageEvent) {
+    private Mono<MessageStatus> routeMultiRecipientMessage(MessageEvent messageEvent) {
         List<String> recipients = messageEvent.getRecipientIds();
         AtomicInteger successCount = new AtomicInteger(0);
         AtomicInteger failureCount = new AtomicInteger(0);
 
-        log.info("Starting fan-out delivery to {} recipients for message: {}", 
-            recipients.size(), messageEvent.getMessageId());
+        log.info("Starting fan-out delivery to {} recipients for message: {} (concurrency: {})", 
+            recipients.size(), messageEvent.getMessageId(), maxConcurrencyPerMessage);
 
-        // Iterate over each recipient and attempt delivery
-        for (String recipientId : recipients) {
-            try {
-                log.debug("Delivering to recipient: {} (channel: {})", 
-                    recipientId, messageEvent.getChannel());
+        // Resolve all internal recipients with one bulk User Service call up front,
+        // so the per-recipient lookups below are served from the identity cache
+        List<String> internalRecipients = recipients.stream()
+            .filter(this::isUUID)
+            .distinct()
+            .toList();
 
-                // Determine connector URL for this recipient's channel
-                // For MVP: All recipients use the same channel from the message
-                // For Production: Would resolve per-recipient channel from user preferences
-                String connectorUrl = getConnectorUrl(messageEvent.getChannel());
+        return userIdentityCache.prefetch(internalRecipients)
+            .thenMany(Flux.fromIterable(recipients))
+            .flatMap(recipientId -> deliverToRecipientSafely(messageEvent, recipientId)
+                .doOnNext(delivered -> {
+                    if (delivered) {
+                        successCount.incrementAndGet();
+                        log.info("✓ Delivery succeeded for recipient: {} (message: {})", 
+                            recipientId, messageEvent.getMessageId());
+                        
+                        // Metric: Count successful routing (T113)
+                        meterRegistry.counter("messages.routed.total",
+                            "destination_channel", messageEvent.getChannel() != null ? 
+                                messageEvent.getChannel().name() : "UNKNOWN"
+                        ).increment();
+                    } else {
+                        failureCount.incrementAndGet();
+                        log.error("✗ Delivery failed for recipient: {} (message: {})", 
+                            recipientId, messageEvent.getMessageId());
+                        
+                        // Metric: Count routing failures (T113)
+                        meterRegistry.counter("messages.routed.failure",
+                            "error_type", "delivery_failed",
+                            "destination_channel", messageEvent.getChannel() != null ? 
+                                messageEvent.getChannel().name() : "UNKNOWN"
+                        ).increment();
+                    }
+                }), maxConcurrencyPerMessage)
+            .then(Mono.fromSupplier(() -> {
+                // Determine overall message status based on partial/full success
+                MessageStatus finalStatus = determineFinalStatus(successCount.get(), failureCount.get());
+                
+                log.info("Fan-out delivery completed: message={}, recipients={}, success={}, failed={}, finalStatus={}",
+                    messageEvent.getMessageId(), recipients.size(), 
+                    successCount.get(), failureCount.get(), finalStatus);
+                return finalStatus;
+            }));
+    }
 
-                if (connectorUrl == null) {
-                    log.warn("No connector for channel: {} (recipient: {}), skipping", 
-                        messageEvent.getChannel(), recipientId);
-                    continue;
-                }
+    /**
+     * Delivers to one recipient of a fan-out, isolating its failures from the other recipients.
+     * 
+     * @param messageEvent The message to deliver
+     * @param recipientId The recipient ID (internal UUID or platform ID)
+     * @return Mono emitting the delivery result, or empty if the recipient was skipped
+     */
+    private Mono<Boolean> deliverToRecipientSafely(MessageEvent messageEvent, String recipientId) {
+        log.debug("Delivering to recipient: {} (channel: {})", 
+            recipientId, messageEvent.getChannel());
 
-                // Attempt delivery with retry logic
-                boolean delivered = retryHandler.executeWithRetry(
-                    () -> deliverToRecipient(messageEvent, recipientId, connectorUrl)
-                );
+        // Determine connector URL for this recipient's channel
+        // For MVP: All recipients use the same channel from the message
+        // For Production: Would resolve per-recipient channel from user preferences
+        String connectorUrl = getConnectorUrl(messageEvent.getChannel());
 
-                if (delivered) {
-                    successCount.incrementAndGet();
-                    log.info("✓ Delivery succeeded for recipient: {} (message: {})", 
-                        recipientId, messageEvent.getMessageId());
-                    
-                    // Metric: Count successful routing (T113)
-                    meterRegistry.counter("messages.routed.total",
-                        "destination_channel", messageEvent.getChannel() != null ? 
-                            messageEvent.getChannel().name() : "UNKNOWN"
-                    ).increment();
-                } else {
-                    failureCount.incrementAndGet();
-                    log.error("✗ Delivery failed for recipient: {} (message: {})", 
-                        recipientId, messageEvent.getMessageId());
-                    
-                    // Metric: Count routing failures (T113)
-                    meterRegistry.counter("messages.routed.failure",
-                        "error_type", "delivery_failed",
-                        "destination_channel", messageEvent.getChannel() != null ? 
-                            messageEvent.getChannel().name() : "UNKNOWN"
-                    ).increment();
-                }
+        if (connectorUrl == null) {
+            log.warn("No connector for channel: {} (recipient: {}), skipping", 
+                messageEvent.getChannel(), recipientId);
+            return Mono.empty();
+        }
 
-            } catch (Exception e) {
-                failureCount.incrementAndGet();
+        return deliverToRecipient(messageEvent, recipientId, connectorUrl)
+            .onErrorResume(e -> {
                 log.error("✗ Exception delivering to recipient: {} (message: {}): {}", 
                     recipientId, messageEvent.getMessageId(), e.getMessage(), e);
                 
@@ -198,18 +323,9 @@ public class RoutingHandler {
                         messageEvent.getChannel().name() : "UNKNOWN"
                 ).increment();
                 
-                // Continue with next recipient - don't let one failure block others
-            }
-        }
-
-        // Determine overall message status based on partial/full success
-        MessageStatus finalStatus = determineFinalStatus(successCount.get(), failureCount.get());
-        
-        log.info("Fan-out delivery completed: message={}, recipients={}, success={}, failed={}, finalStatus={}",
-            messageEvent.getMessageId(), recipients.size(), 
-            successCount.get(), failureCount.get(), finalStatus);
-
-        updateMessageStatus(messageEvent, finalStatus);
+                // Don't let one failure block others
+                return Mono.just(Boolean.FALSE);
+            });
     }
 
     /**
@@ -218,8 +334,9 @@ public class RoutingHandler {
      * Original routing logic for backward compatibility.
      * 
      * @param messageEvent The message event
+     * @return Mono emitting the final message status
      */
-    private void routeSingleRecipientMessage(MessageEvent messageEvent) {
+    private Mono<MessageStatus> routeSingleRecipientMessage(MessageEvent messageEvent) {
         log.info("Single-recipient message routing: messageId={}, channel={}",
             messageEvent.getMessageId(), messageEvent.getChannel());
 
@@ -229,48 +346,47 @@ public class RoutingHandler {
         if (connectorUrl == null) {
             log.warn("No connector configured for channel: {}. Skipping external delivery.", 
                     messageEvent.getChannel());
-            // For INTERNAL channel, we don't deliver externally
-            updateMessageStatus(messageEvent, MessageStatus.DELIVERED);
             
             // Metric: Count routing (even for INTERNAL channel) (T113)
             meterRegistry.counter("messages.routed.total",
                 "destination_channel", messageEvent.getChannel() != null ? 
                     messageEvent.getChannel().name() : "UNKNOWN"
             ).increment();
-            return;
+
+            // For INTERNAL channel, we don't deliver externally
+            return Mono.just(MessageStatus.DELIVERED);
         }
 
         // Step 2: Attempt delivery with retry logic
         log.info("Delivering to {} connector for message: {}", 
                 messageEvent.getChannel(), messageEvent.getMessageId());
-        
-        boolean delivered = retryHandler.executeWithRetry(
-            () -> deliverMessage(messageEvent, connectorUrl)
-        );
-
-        // Step 3: Update status based on result
-        if (delivered) {
-            log.info("Message successfully delivered: messageId={}, channel={}", 
-                    messageEvent.getMessageId(), messageEvent.getChannel());
-            updateMessageStatus(messageEvent, MessageStatus.DELIVERED);
-            
-            // Metric: Count successful routing (T113)
-            meterRegistry.counter("messages.routed.total",
-                "destination_channel", messageEvent.getChannel() != null ? 
-                    messageEvent.getChannel().name() : "UNKNOWN"
-            ).increment();
-        } else {
-            log.error("Message delivery failed after retries: messageId={}, channel={}", 
-                    messageEvent.getMessageId(), messageEvent.getChannel());
-            updateMessageStatus(messageEvent, MessageStatus.FAILED);
-            
-            // Metric: Count routing failures (T113)
-            meterRegistry.counter("messages.routed.failure",
-                "error_type", "delivery_failed",
-                "destination_channel", messageEvent.getChannel() != null ? 
-                    messageEvent.getChannel().name() : "UNKNOWN"
-            ).increment();
-        }
+
+        // Step 3: Map result to final status
+        return deliverMessage(messageEvent, connectorUrl)
+            .map(delivered -> {
+                if (delivered) {
+                    log.info("Message successfully delivered: messageId={}, channel={}", 
+                            messageEvent.getMessageId(), messageEvent.getChannel());
+                    
+                    // Metric: Count successful routing (T113)
+                    meterRegistry.counter("messages.routed.total",
+                        "destination_channel", messageEvent.getChannel() != null ? 
+                            messageEvent.getChannel().name() : "UNKNOWN"
+                    ).increment();
+                    return MessageStatus.DELIVERED;
+                }
+
+                log.error("Message delivery failed after retries: messageId={}, channel={}", 
+                        messageEvent.getMessageId(), messageEvent.getChannel());
+                
+                // Metric: Count routing failures (T113)
+                meterRegistry.counter("messages.routed.failure",
+                    "error_type", "delivery_failed",
+                    "destination_channel", messageEvent.getChannel() != null ? 
+                        messageEvent.getChannel().name() : "UNKNOWN"
+                ).increment();
+                return MessageStatus.FAILED;
+            });
     }
 
     /**
@@ -285,36 +401,26 @@ public class RoutingHandler {
      * @param messageEvent The message to deliver
      * @param recipientId The specific recipient ID (either internal UUID or platform ID)
      * @param connectorUrl The connector service URL
-     * @return true if delivery succeeded to at least one identity
+     * @return Mono emitting true if delivery succeeded to at least one identity
      */
-    private boolean deliverToRecipient(MessageEvent messageEvent, String recipientId, String connectorUrl) {
+    private Mono<Boolean> deliverToRecipient(MessageEvent messageEvent, String recipientId, String connectorUrl) {
         log.info(">>> DELIVERING TO RECIPIENT <<<");
         log.info("    Message ID: {}", messageEvent.getMessageId());
         log.info("    Recipient ID: {}", recipientId);
         log.info("    Channel: {}", messageEvent.getChannel());
         log.info("    Connector URL: {}", connectorUrl);
 
-        try {
-            // Check if recipientId is a UUID (internal user ID)
-            if (isUUID(recipientId)) {
-                log.info("Recipient ID is UUID - resolving to external identities via User Service");
-                return deliverToInternalUser(messageEvent, recipientId);
-            } else {
-                // Direct platform ID - send directly
-                log.info("Recipient ID is direct platform ID - delivering directly");
-                return deliverDirectly(messageEvent, recipientId, connectorUrl);
-            }
-            
-        } catch (Exception e) {
-            log.error(">>> DELIVERY FAILED FOR RECIPIENT: {} - ERROR: {} <<<", 
-                recipientId, e.getMessage());
-            // CRITICAL: Register failure metric BEFORE re-throwing
-            meterRegistry.counter("messages.routed.failure",
-                "destination_channel", messageEvent.getChannel() != null ? 
-                    messageEvent.getChannel().name() : "UNKNOWN",
-                "error_type", e.getClass().getSimpleName()).increment();
-            throw new RuntimeException("Connector delivery failed for recipient: " + recipientId, e);
+        // Check if recipientId is a UUID (internal user ID)
+        if (isUUID(recipientId)) {
+            log.info("Recipient ID is UUID - resolving to external identities via User Service");
+            return deliverToInternalUser(messageEvent, recipientId);
         }
+
+        // Direct platform ID - send directly
+        log.info("Recipient ID is direct platform ID - delivering directly");
+        return deliverDirectly(messageEvent, recipientId, connectorUrl, messageEvent.getChannel())
+            .doOnError(e -> log.error(">>> DELIVERY FAILED FOR RECIPIENT: {} - ERROR: {} <<<", 
+                recipientId, e.getMessage()));
     }
 
     /**
@@ -322,119 +428,128 @@ public class RoutingHandler {
      * 
      * Fan-out Strategy:
      * - Resolves user UUID to all linked platform identities
-     * - Delivers to ALL identities (multi-platform delivery)
+     * - Delivers to ALL identities concurrently (multi-platform delivery)
      * - Returns success if AT LEAST ONE identity delivery succeeds
      * 
      * @param messageEvent The message to deliver
      * @param userId Internal user UUID
-     * @return true if at least one platform delivery succeeded
+     * @return Mono emitting true if at least one platform delivery succeeded
      */
-    private boolean deliverToInternalUser(MessageEvent messageEvent, String userId) {
+    private Mono<Boolean> deliverToInternalUser(MessageEvent messageEvent, String userId) {
         log.info("Resolving internal user to external identities: userId={}", userId);
-        
-        try {
-            // Call User Service to get external identities
-            UserDTO user = userServiceClient.getUser(userId).block();
-            
-            if (user == null) {
+
+        // Resolve external identities (near-cache in front of User Service)
+        return userIdentityCache.getUser(userId)
+            .flatMap(user -> {
+                List<ExternalIdentityDTO> identities = user.getExternalIdentities();
+                
+                if (identities == null || identities.isEmpty()) {
+                    log.warn("User has no linked external identities: userId={}, displayName={}", 
+                        userId, user.getDisplayName());
+                    return Mono.just(Boolean.FALSE);
+                }
+                
+                log.info("User has {} linked identities - fanning out message", identities.size());
+                return deliverToIdentities(messageEvent, userId, identities);
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> {
                 log.warn("User not found in User Service: userId={}", userId);
-                return false;
-            }
-            
-            List<ExternalIdentityDTO> identities = user.getExternalIdentities();
-            
-            if (identities == null || identities.isEmpty()) {
-                log.warn("User has no linked external identities: userId={}, displayName={}", 
-                    userId, user.getDisplayName());
-                return false;
-            }
-            
-            log.info("User has {} linked identities - fanning out message", identities.size());
-            
-            // Fan-out to all external identities
-            AtomicInteger successCount = new AtomicInteger(0);
-            AtomicInteger failureCount = new AtomicInteger(0);
-            
-            for (ExternalIdentityDTO identity : identities) {
-                try {
-                    log.info("Delivering to identity: platform={}, platformUserId={}", 
-                        identity.getPlatform(), identity.getPlatformUserId());
-                    
-                    // Get connector URL for this platform
-                    String connectorUrl = getConnectorUrl(identity.getPlatform());
-                    
-                    if (connectorUrl == null) {
-                        log.warn("No connector for platform: {}, skipping", identity.getPlatform());
-                        continue;
-                    }
-                    
-                    // Deliver to this specific platform identity
-                    boolean delivered = deliverDirectly(messageEvent, identity.getPlatformUserId(), connectorUrl);
-                    
-                    if (delivered) {
-                        successCount.incrementAndGet();
-                        log.info("✓ Delivered to {}: {}", identity.getPlatform(), identity.getPlatformUserId());
-                    } else {
-                        failureCount.incrementAndGet();
-                        log.error("✗ Failed to deliver to {}: {}", identity.getPlatform(), identity.getPlatformUserId());
-                    }
-                    
-                } catch (Exception e) {
-                    failureCount.incrementAndGet();
-                    log.error("✗ Exception delivering to {}: {} - {}", 
-                        identity.getPlatform(), identity.getPlatformUserId(), e.getMessage());
-                    // Continue with other identities
+                return Boolean.FALSE;
+            }))
+            .onErrorResume(e -> {
+                log.error("Error resolving user identities: userId={}, error={}", userId, e.getMessage(), e);
+                return Mono.just(Boolean.FALSE);
+            });
+    }
+
+    /**
+     * Fans a message out to all external identities of one internal user.
+     * 
+     * @param messageEvent The message to deliver
+     * @param userId Internal user UUID (for logging)
+     * @param identities Linked platform identities
+     * @return Mono emitting true if at least one identity delivery succeeded
+     */
+    private Mono<Boolean> deliverToIdentities(MessageEvent messageEvent, String userId,
+                                              List<ExternalIdentityDTO> identities) {
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger failureCount = new AtomicInteger(0);
+
+        return Flux.fromIterable(identities)
+            .flatMap(identity -> {
+                log.info("Delivering to identity: platform={}, platformUserId={}", 
+                    identity.getPlatform(), identity.getPlatformUserId());
+                
+                // Get connector URL for this platform
+                String connectorUrl = getConnectorUrl(identity.getPlatform());
+                
+                if (connectorUrl == null) {
+                    log.warn("No connector for platform: {}, skipping", identity.getPlatform());
+                    return Mono.<Boolean>empty();
                 }
-            }
-            
-            log.info("Identity fan-out completed: userId={}, total={}, success={}, failed={}", 
-                userId, identities.size(), successCount.get(), failureCount.get());
-            
-            // Success if at least one identity delivery succeeded
-            return successCount.get() > 0;
-            
-        } catch (Exception e) {
-            log.error("Error resolving user identities: userId={}, error={}", userId, e.getMessage(), e);
-            return false;
-        }
+                
+                // Deliver to this specific platform identity
+                return deliverDirectly(messageEvent, identity.getPlatformUserId(), connectorUrl, identity.getPlatform())
+                    .doOnNext(delivered -> {
+                        if (delivered) {
+                            successCount.incrementAndGet();
+                            log.info("✓ Delivered to {}: {}", identity.getPlatform(), identity.getPlatformUserId());
+                        } else {
+                            failureCount.incrementAndGet();
+                            log.error("✗ Failed to deliver to {}: {}", identity.getPlatform(), identity.getPlatformUserId());
+                        }
+                    })
+                    .onErrorResume(e -> {
+                        failureCount.incrementAndGet();
+                        log.error("✗ Exception delivering to {}: {} - {}", 
+                            identity.getPlatform(), identity.getPlatformUserId(), e.getMessage());
+                        // Continue with other identities
+                        return Mono.empty();
+                    });
+            })
+            .then(Mono.fromSupplier(() -> {
+                log.info("Identity fan-out completed: userId={}, total={}, success={}, failed={}", 
+                    userId, identities.size(), successCount.get(), failureCount.get());
+                
+                // Success if at least one identity delivery succeeded
+                return successCount.get() > 0;
+            }));
     }
 
     /**
      * Delivers a message directly to a platform-specific ID.
      * 
+     * The HTTP call holds a per-connector permit and is retried on transient errors.
+     * 
      * @param messageEvent The message to deliver
      * @param platformUserId The platform-specific user ID
      * @param connectorUrl The connector URL
-     * @return true if delivery succeeded
+     * @param channel The connector's channel
+     * @return Mono emitting true if delivery succeeded
      */
-    private boolean deliverDirectly(MessageEvent messageEvent, String platformUserId, String connectorUrl) {
+    private Mono<Boolean> deliverDirectly(MessageEvent messageEvent, String platformUserId,
+                                          String connectorUrl, Channel channel) {
         log.debug("Direct delivery: platformUserId={}, connectorUrl={}", platformUserId, connectorUrl);
-        
-        try {
-            boolean success = connectorClient.deliverMessage(messageEvent, connectorUrl);
-            
-            // Record metrics for successful delivery
-            if (success) {
-                meterRegistry.counter("messages.routed.total",
-                    "destination_channel", messageEvent.getChannel().name()).increment();
-                log.info(">>> DIRECT DELIVERY SUCCEEDED - Metric recorded <<<");
-            } else {
-                log.info(">>> DIRECT DELIVERY FAILED <<<");
-                // CRITICAL: Register failure metric before returning
-                meterRegistry.counter("messages.routed.failure",
-                    "destination_channel", messageEvent.getChannel().name(),
-                    "error_type", "delivery_failed").increment();
-            }
-            
-            return success;
-        } catch (Exception e) {
-            log.error(">>> DIRECT DELIVERY FAILED: {} <<<", e.getMessage());
-            // CRITICAL: Register failure metric BEFORE re-throwing
-            meterRegistry.counter("messages.routed.failure",
-                "destination_channel", messageEvent.getChannel().name(),
-                "error_type", e.getClass().getSimpleName()).increment();
-            throw new RuntimeException("Direct connector delivery failed", e);
-        }
+
+        return retryHandler.executeWithRetry(channel, connectorUrl,
+                () -> connectorCircuitBreaker.execute(channel,
+                    () -> connectorConcurrencyLimiter.withPermit(channel,
+                        () -> connectorClient.deliver(messageEvent, connectorUrl, channel, platformUserId))),
+                Boolean.FALSE)
+            .doOnNext(success -> {
+                // Record metrics for delivery
+                if (success) {
+                    meterRegistry.counter("messages.routed.total",
+                        "destination_channel", channel.name()).increment();
+                    log.info(">>> DIRECT DELIVERY SUCCEEDED - Metric recorded <<<");
+                } else {
+                    log.info(">>> DIRECT DELIVERY FAILED <<<");
+                    // CRITICAL: Register failure metric before returning
+                    meterRegistry.counter("messages.routed.failure",
+                        "destination_channel", channel.name(),
+                        "error_type", "delivery_failed").increment();
+                }
+            });
     }
 
     /**
@@ -483,44 +598,36 @@ public class RoutingHandler {
     /**
      * Delivers a message to the specified connector.
      * 
-     * Makes actual HTTP POST to connector service.
+     * Makes actual HTTP POST to connector service, retried on transient errors.
      * 
      * @param messageEvent The message to deliver
      * @param connectorUrl The connector service URL
-     * @return true if delivery succeeded, false otherwise
+     * @return Mono emitting true if delivery succeeded, false otherwise
      */
-    private boolean deliverMessage(MessageEvent messageEvent, String connectorUrl) {
+    private Mono<Boolean> deliverMessage(MessageEvent messageEvent, String connectorUrl) {
         log.info(">>> DELIVERING TO CONNECTOR <<<");
         log.info("    Message ID: {}", messageEvent.getMessageId());
         log.info("    Channel: {}", messageEvent.getChannel());
         log.info("    Connector URL: {}", connectorUrl);
         log.info("    Content: {}", messageEvent.getContent());
 
-        try {
-            // Make actual HTTP call to connector
-            boolean success = connectorClient.deliverMessage(messageEvent, connectorUrl);
-            
-            log.info(">>> DELIVERY {} <<<", success ? "SUCCEEDED" : "FAILED");
-            
-            // CRITICAL: Register failure metric if delivery failed
-            if (!success) {
-                meterRegistry.counter("messages.routed.failure",
-                    "destination_channel", messageEvent.getChannel() != null ? 
-                        messageEvent.getChannel().name() : "UNKNOWN",
-                    "error_type", "delivery_failed").increment();
-            }
-            
-            return success;
-            
-        } catch (Exception e) {
-            log.error(">>> DELIVERY FAILED WITH ERROR: {} <<<", e.getMessage());
-            // CRITICAL: Register failure metric BEFORE re-throwing
-            meterRegistry.counter("messages.routed.failure",
-                "destination_channel", messageEvent.getChannel() != null ? 
-                    messageEvent.getChannel().name() : "UNKNOWN",
-                "error_type", e.getClass().getSimpleName()).increment();
-            throw new RuntimeException("Connector delivery failed", e);
-        }
+        // Make actual HTTP call to connector
+        return retryHandler.executeWithRetry(messageEvent.getChannel(), connectorUrl,
+                () -> connectorCircuitBreaker.execute(messageEvent.getChannel(),
+                    () -> connectorConcurrencyLimiter.withPermit(messageEvent.getChannel(),
+                        () -> connectorClient.deliver(messageEvent, connectorUrl))),
+                Boolean.FALSE)
+            .doOnNext(success -> {
+                log.info(">>> DELIVERY {} <<<", success ? "SUCCEEDED" : "FAILED");
+                
+                // CRITICAL: Register failure metric if delivery failed
+                if (!success) {
+                    meterRegistry.counter("messages.routed.failure",
+                        "destination_channel", messageEvent.getChannel() != null ? 
+                            messageEvent.getChannel().name() : "UNKNOWN",
+                        "error_type", "delivery_failed").increment();
+                }
+            });
     }
 
     /**
@@ -0,0 +1,85 @@
+package com.chat4all.router.retry;
+
+/**
+ * Retry Budget
+ *
+ * Token bucket limiting retries against one connector to a fraction of its traffic.
+ *
+ * Why:
+ * - During a connector outage every delivery fails, and per-call retries multiply the
+ *   load on the failing connector by maxAttempts (attempts per delivery)
+ * - The budget caps that amplification: retries stop once they exceed the configured
+ *   ratio of first attempts, and deliveries fail fast instead
+ *
+ * Token accounting:
+ * - Each first attempt deposits {@code ratio} tokens
+ * - Tokens also refill at {@code minRetriesPerSecond}, so low-traffic connectors can still retry
+ * - Each retry withdraws one token; without a token the retry is denied
+ * - The bucket holds at most {@code maxTokens}
+ *
+ * Thread-safe.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minRetriesPerSecond;
+    private final double maxTokens;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param ratio Tokens deposited per first attempt (e.g. 0.2 = retries up to 20% of traffic)
+     * @param minRetriesPerSecond Tokens refilled per second regardless of traffic
+     * @param maxTokens Bucket capacity (also the initial balance)
+     */
+    public RetryBudget(double ratio, double minRetriesPerSecond, double maxTokens) {
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a first attempt.
+     */
+    public synchronized void deposit() {
+        refill();
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * Tries to spend one token on a retry.
+     *
+     * @return true if the retry is within budget
+     */
+    public synchronized boolean tryWithdraw() {
+        refill();
+        if (tokens < 1.0) {
+            return false;
+        }
+        tokens -= 1.0;
+        return true;
+    }
+
+    /**
+     * Gets the current token balance (for monitoring).
+     *
+     * @return Available retry tokens
+     */
+    public synchronized double getTokens() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        lastRefillNanos = now;
+        tokens = Math.min(maxTokens, tokens + elapsedSeconds * minRetriesPerSecond);
+    }
+}
@@ -0,0 +1,147 @@
+package com.chat4all.router.retry;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Retry Context
+ *
+ * Delivery history of a message travelling through the retry topics, carried in Kafka
+ * record headers so that no router instance has to keep state for a message it is
+ * waiting to retry.
+ *
+ * Headers:
+ * - chat4all-retry-attempt: failed routing passes so far (0 = first pass)
+ * - chat4all-retry-due-at: epoch millis at which the record may be routed again
+ * - chat4all-first-failure-at: epoch millis of the first failed pass
+ * - chat4all-failure-reason: reason of the last failed pass
+ * - chat4all-original-topic: topic the message was first consumed from
+ * - chat4all-deferrals: times the message was deferred because its connector's circuit was open
+ * - chat4all-first-deferred-at: epoch millis of the first deferral
+ *
+ * @param attempt Failed routing passes so far (0 = first pass)
+ * @param firstFailureAt Epoch millis of the first failure (0 if none yet)
+ * @param deferrals Deferrals so far (0 = never deferred)
+ * @param firstDeferredAt Epoch millis of the first deferral (0 if none yet)
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record RetryContext(int attempt, long firstFailureAt, int deferrals, long firstDeferredAt) {
+
+    public static final String ATTEMPT_HEADER = "chat4all-retry-attempt";
+    public static final String DUE_AT_HEADER = "chat4all-retry-due-at";
+    public static final String FIRST_FAILURE_AT_HEADER = "chat4all-first-failure-at";
+    public static final String FAILURE_REASON_HEADER = "chat4all-failure-reason";
+    public static final String ORIGINAL_TOPIC_HEADER = "chat4all-original-topic";
+    public static final String DEFERRALS_HEADER = "chat4all-deferrals";
+    public static final String FIRST_DEFERRED_AT_HEADER = "chat4all-first-deferred-at";
+
+    private static final RetryContext INITIAL = new RetryContext(0, 0L, 0, 0L);
+
+    /**
+     * Context of a message on its first routing pass.
+     *
+     * @return Initial context
+     */
+    public static RetryContext initial() {
+        return INITIAL;
+    }
+
+    /**
+     * Reads the context from record headers (missing headers = first pass).
+     *
+     * @param headers Record headers
+     * @return Retry context
+     */
+    public static RetryContext fromHeaders(Headers headers) {
+        return new RetryContext(
+            (int) readLong(headers, ATTEMPT_HEADER, 0L),
+            readLong(headers, FIRST_FAILURE_AT_HEADER, 0L),
+            (int) readLong(headers, DEFERRALS_HEADER, 0L),
+            readLong(headers, FIRST_DEFERRED_AT_HEADER, 0L));
+    }
+
+    /**
+     * Reads the due time of a retry record.
+     *
+     * @param headers Record headers
+     * @return Epoch millis at which the record is due (0 = immediately)
+     */
+    public static long dueAt(Headers headers) {
+        return readLong(headers, DUE_AT_HEADER, 0L);
+    }
+
+    /**
+     * Context after one more failed pass.
+     *
+     * @param now Epoch millis of the failure
+     * @return Context with the attempt incremented and the first failure time set
+     */
+    public RetryContext nextAttempt(long now) {
+        return new RetryContext(attempt + 1, firstFailureAt > 0 ? firstFailureAt : now, deferrals, firstDeferredAt);
+    }
+
+    /**
+     * Context after one more deferral (the attempt count is unchanged).
+     *
+     * @param now Epoch millis of the deferral
+     * @return Context with the deferrals incremented and the first deferral time set
+     */
+    public RetryContext nextDeferral(long now) {
+        return new RetryContext(attempt, firstFailureAt, deferrals + 1, firstDeferredAt > 0 ? firstDeferredAt : now);
+    }
+
+    /**
+     * Writes the context and failure metadata to record headers.
+     *
+     * @param headers Headers to write to (existing values are replaced)
+     * @param dueAt Epoch millis at which the record may be routed again
+     * @param failureReason Reason of the last failure
+     * @param originalTopic Topic the message was first consumed from (omitted if null)
+     */
+    public void writeTo(Headers headers, long dueAt, String failureReason, String originalTopic) {
+        write(headers, ATTEMPT_HEADER, String.valueOf(attempt));
+        write(headers, DUE_AT_HEADER, String.valueOf(dueAt));
+        write(headers, FIRST_FAILURE_AT_HEADER, String.valueOf(firstFailureAt));
+        write(headers, FAILURE_REASON_HEADER, failureReason != null ? failureReason : "unknown");
+        write(headers, ORIGINAL_TOPIC_HEADER, originalTopic);
+        write(headers, DEFERRALS_HEADER, String.valueOf(deferrals));
+        write(headers, FIRST_DEFERRED_AT_HEADER, String.valueOf(firstDeferredAt));
+    }
+
+    /**
+     * Reads a string header.
+     *
+     * @param headers Record headers
+     * @param key Header key
+     * @return Header value, or null if absent
+     */
+    public static String readString(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null && header.value() != null
+            ? new String(header.value(), StandardCharsets.UTF_8)
+            : null;
+    }
+
+    private static long readLong(Headers headers, String key, long defaultValue) {
+        String value = readString(headers, key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private static void write(Headers headers, String key, String value) {
+        headers.remove(key);
+        if (value != null) {
+            headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
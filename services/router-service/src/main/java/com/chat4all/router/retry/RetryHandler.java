@@ -1,141 +1,215 @@
 package com.chat4all.router.retry;
 
-import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
-import io.github.resilience4j.retry.RetryRegistry;
+import com.chat4all.common.constant.Channel;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 /**
  * Retry Handler (T048)
- * 
- * Implements retry logic with exponential backoff using Resilience4j.
- * 
- * Configuration (FR-008):
- * - Max attempts: 3
- * - Initial delay: 1 second
- * - Exponential multiplier: 2x
- * - Max delay: 10 seconds
- * 
- * Backoff sequence:
+ *
+ * Non-blocking retry scheduler for connector deliveries: exponential backoff with full
+ * jitter, per-channel policies and a retry budget per connector.
+ *
+ * Waits are scheduled on a timer (Mono.delay) instead of sleeping the caller's thread,
+ * so a connector brownout never parks Kafka listener or Netty threads and cannot stall
+ * deliveries to other channels.
+ *
+ * Default policy (FR-008):
+ * - Max attempts: app.routing.max-retries (default: 3 attempts in total, first one
+ *   included, as before; the property name is kept for compatibility)
+ * - Base delay: app.routing.retry-delay-ms (default: 1000ms)
+ * - Max delay: app.routing.retry.max-delay-ms (default: 10000ms)
+ *
+ * Per-channel overrides (optional, fall back to the defaults):
+ * - app.routing.retry.channels.{whatsapp|telegram|instagram}.max-attempts
+ * - app.routing.retry.channels.{...}.base-delay-ms
+ * - app.routing.retry.channels.{...}.max-delay-ms
+ *
+ * Backoff sequence (full jitter, base 1s, max 10s):
  * - Attempt 1: Immediate
- * - Attempt 2: Wait 1 second
- * - Attempt 3: Wait 2 seconds
- * - Attempt 4: Wait 4 seconds (but max is 3 attempts, so this won't happen)
- * 
- * After max retries exceeded:
- * - Message is marked as FAILED
+ * - Attempt 2: random wait in [0, 1s]
+ * - Attempt 3: random wait in [0, 2s]
+ *
+ * Retry budget (per connector URL, see {@link RetryBudget}):
+ * - app.routing.retry.budget.ratio (default: 0.2 retries per first attempt)
+ * - app.routing.retry.budget.min-retries-per-second (default: 5)
+ * - app.routing.retry.budget.max-tokens (default: 100)
+ *
+ * After max attempts (or budget) exceeded:
+ * - The fallback value is returned; the message is marked as FAILED
  * - DLQ handler is invoked (T049)
- * 
+ *
+ * Open circuit (CallNotPermittedException from ConnectorCircuitBreaker):
+ * - Not retried and not replaced by the fallback: the error is propagated so the caller
+ *   can defer the message until the connector may have recovered
+ *
+ * Metrics:
+ * - router.retry.attempts {channel}: retries scheduled
+ * - router.retry.exhausted {channel}: operations that failed after all retries
+ * - router.retry.budget.denied {connector}: retries denied by the budget
+ * - router.retry.budget.tokens {connector}: available retry tokens
+ *
  * @author Chat4All Team
- * @version 1.0.0
+ * @version 2.0.0
  */
 @Slf4j
 @Component
 public class RetryHandler {
 
-    private final Retry retry;
+    private static final String CHANNEL_PREFIX = "app.routing.retry.channels.";
 
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Channel, RetryPolicy> channelPolicies = new EnumMap<>(Channel.class);
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+
+    private RetryPolicy defaultPolicy;
+
+    /**
+     * Total attempts per operation (historical property name)
+     */
     @Value("${app.routing.max-retries:3}")
-    private int maxRetries;
+    private int maxAttempts;
 
     @Value("${app.routing.retry-delay-ms:1000}")
     private long retryDelayMs;
 
+    @Value("${app.routing.retry.max-delay-ms:10000}")
+    private long maxDelayMs;
+
+    @Value("${app.routing.retry.budget.ratio:0.2}")
+    private double budgetRatio;
+
+    @Value("${app.routing.retry.budget.min-retries-per-second:5}")
+    private double budgetMinRetriesPerSecond;
+
+    @Value("${app.routing.retry.budget.max-tokens:100}")
+    private double budgetMaxTokens;
+
+    public RetryHandler(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
-     * Constructor that initializes Resilience4j Retry instance.
+     * Builds the default and per-channel retry policies.
      */
-    public RetryHandler() {
-        // Build retry configuration
-        RetryConfig config = RetryConfig.custom()
-            .maxAttempts(3)
-            .waitDuration(Duration.ofSeconds(1))
-            .retryExceptions(Exception.class)
-            .ignoreExceptions(IllegalArgumentException.class)
-            .build();
-
-        // Create retry registry and get retry instance
-        RetryRegistry registry = RetryRegistry.of(config);
-        this.retry = registry.retry("messageDelivery");
-
-        // Add event listeners for logging
-        retry.getEventPublisher()
-            .onRetry(event -> log.warn("Retry attempt {} for operation: {}", 
-                event.getNumberOfRetryAttempts(), 
-                event.getName()))
-            .onSuccess(event -> log.info("Operation succeeded after {} attempts: {}", 
-                event.getNumberOfRetryAttempts(), 
-                event.getName()))
-            .onError(event -> log.error("Operation failed after {} attempts: {}", 
-                event.getNumberOfRetryAttempts(), 
-                event.getLastThrowable().getMessage()));
+    @PostConstruct
+    void initPolicies() {
+        defaultPolicy = new RetryPolicy(maxAttempts, Duration.ofMillis(retryDelayMs), Duration.ofMillis(maxDelayMs));
+
+        for (Channel channel : Channel.values()) {
+            String prefix = CHANNEL_PREFIX + channel.getValue() + ".";
+            RetryPolicy policy = new RetryPolicy(
+                environment.getProperty(prefix + "max-attempts", Integer.class, defaultPolicy.maxAttempts()),
+                Duration.ofMillis(environment.getProperty(prefix + "base-delay-ms", Long.class, retryDelayMs)),
+                Duration.ofMillis(environment.getProperty(prefix + "max-delay-ms", Long.class, maxDelayMs)));
+            channelPolicies.put(channel, policy);
+        }
+
+        log.info("Retry policies initialized: default={}, channels={}", defaultPolicy, channelPolicies);
     }
 
     /**
-     * Executes a supplier function with retry logic.
-     * 
-     * This wraps any operation (typically message delivery) with automatic retries.
-     * 
+     * Executes a reactive operation with retry logic (non-blocking).
+     *
+     * The operation is re-subscribed for each attempt. Retries use the channel's policy and
+     * spend the connector's retry budget; IllegalArgumentException is never retried.
+     *
      * Example usage:
      * <pre>
-     * boolean result = retryHandler.executeWithRetry(() -> {
-     *     return connectorClient.deliverMessage(message, url);
-     * });
+     * Mono&lt;Boolean&gt; delivered = retryHandler.executeWithRetry(Channel.WHATSAPP, url,
+     *     () -&gt; connectorClient.deliver(message, url), Boolean.FALSE);
      * </pre>
-     * 
-     * @param operation The operation to execute (supplier that returns Boolean)
+     *
+     * @param channel The delivery channel (selects the policy; null = default policy)
+     * @param connectorUrl The connector base URL (selects the retry budget)
+     * @param operation Supplier of the operation, invoked once per attempt
+     * @param fallback Value emitted when all attempts fail
      * @param <T> The return type of the operation
-     * @return The result of the operation, or false if all retries failed
+     * @return Mono emitting the operation's result, or the fallback if all retries failed;
+     *         CallNotPermittedException is propagated
      */
-    public <T> T executeWithRetry(Supplier<T> operation) {
-        try {
-            // Decorate the supplier with retry logic
-            Supplier<T> decoratedSupplier = Retry.decorateSupplier(retry, operation);
-            
-            log.debug("Executing operation with retry logic (max {} attempts)", maxRetries);
-            
-            // Execute the operation
-            T result = decoratedSupplier.get();
-            
-            log.debug("Operation completed successfully");
-            return result;
-
-        } catch (Exception e) {
-            log.error("Operation failed after all retry attempts: {}", e.getMessage(), e);
-            
-            // Return null or default value based on type
-            // For Boolean operations, return false
-            if (operation.get() instanceof Boolean) {
-                return (T) Boolean.FALSE;
+    public <T> Mono<T> executeWithRetry(Channel channel, String connectorUrl,
+                                        Supplier<Mono<T>> operation, T fallback) {
+        RetryPolicy policy = getPolicy(channel);
+        RetryBudget budget = getBudget(connectorUrl);
+        String channelTag = channel != null ? channel.name() : "UNKNOWN";
+
+        return Mono.defer(() -> {
+            budget.deposit();
+            return Mono.defer(operation)
+                .retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                    Throwable failure = signal.failure();
+                    long retry = signal.totalRetries();
+
+                    if (failure instanceof IllegalArgumentException
+                            || failure instanceof CallNotPermittedException
+                            || retry + 1 >= policy.maxAttempts()) {
+                        return Mono.error(failure);
+                    }
+                    if (!budget.tryWithdraw()) {
+                        meterRegistry.counter("router.retry.budget.denied", "connector", connectorUrl).increment();
+                        log.warn("Retry budget exhausted for connector {}, not retrying: {}",
+                            connectorUrl, failure.getMessage());
+                        return Mono.error(failure);
+                    }
+
+                    Duration delay = policy.backoff(retry);
+                    meterRegistry.counter("router.retry.attempts", "channel", channelTag).increment();
+                    log.warn("Attempt {} of {} for {} in {}ms: {}",
+                        retry + 2, policy.maxAttempts(), connectorUrl, delay.toMillis(), failure.getMessage());
+                    return Mono.delay(delay);
+                })));
+        })
+        .onErrorResume(e -> {
+            Throwable cause = Exceptions.isRetryExhausted(e) && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CallNotPermittedException) {
+                return Mono.error(cause);
             }
-            return null;
-        }
+            meterRegistry.counter("router.retry.exhausted", "channel", channelTag).increment();
+            log.error("Operation failed after all retry attempts: {}", cause.getMessage());
+            return Mono.just(fallback);
+        });
     }
 
     /**
-     * Executes a runnable operation with retry logic (no return value).
-     * 
-     * @param operation The operation to execute
+     * Gets the retry policy of a channel.
+     *
+     * @param channel The channel (null = default policy)
+     * @return The channel's policy
      */
-    public void executeWithRetry(Runnable operation) {
-        executeWithRetry(() -> {
-            operation.run();
-            return true;
-        });
+    public RetryPolicy getPolicy(Channel channel) {
+        return channel != null ? channelPolicies.getOrDefault(channel, defaultPolicy) : defaultPolicy;
     }
 
     /**
-     * Gets the current retry statistics.
-     * 
-     * Useful for monitoring and debugging.
-     * 
-     * @return Retry metrics
+     * Gets (or creates) the retry budget of a connector.
      */
-    public Retry.Metrics getMetrics() {
-        return retry.getMetrics();
+    private RetryBudget getBudget(String connectorUrl) {
+        return budgets.computeIfAbsent(connectorUrl, url -> {
+            RetryBudget budget = new RetryBudget(budgetRatio, budgetMinRetriesPerSecond, budgetMaxTokens);
+            Gauge.builder("router.retry.budget.tokens", budget, RetryBudget::getTokens)
+                .description("Retry tokens available for the connector")
+                .tag("connector", url)
+                .register(meterRegistry);
+            return budget;
+        });
     }
 }
@@ -0,0 +1,38 @@
+package com.chat4all.router.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry Policy
+ *
+ * Exponential backoff with full jitter for one channel:
+ * delay(n) = random(0, min(maxDelay, baseDelay * 2^n)) for retry n = 0, 1, 2...
+ *
+ * Full jitter spreads the retries of many messages that failed together (e.g. during a
+ * connector brownout) over the whole backoff window instead of retrying in lockstep.
+ *
+ * @param maxAttempts Total attempts including the first one (1 = no retry)
+ * @param baseDelay Backoff window of the first retry
+ * @param maxDelay Upper bound of the backoff window
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+public record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    /**
+     * Computes the (jittered) delay before a retry.
+     *
+     * @param retry Zero-based retry number
+     * @return Delay to wait before the retry
+     */
+    public Duration backoff(long retry) {
+        long baseMs = Math.max(1, baseDelay.toMillis());
+        long capMs = Math.max(baseMs, maxDelay.toMillis());
+
+        // Cap the exponent so the shift cannot overflow
+        long windowMs = retry >= 30 ? capMs : Math.min(capMs, baseMs << retry);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(windowMs + 1));
+    }
+}
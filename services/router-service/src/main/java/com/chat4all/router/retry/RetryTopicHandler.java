@@ -0,0 +1,234 @@
+package com.chat4all.router.retry;
+
+import com.chat4all.common.constant.MessageStatus;
+import com.chat4all.common.event.MessageEvent;
+import com.chat4all.router.dlq.DLQHandler;
+import com.chat4all.router.kafka.StatusUpdateProducer;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Retry Topic Handler
+ *
+ * Durable, delayed retries for messages whose routing pass failed after the in-process
+ * retries of {@link RetryHandler}. Instead of publishing FAILED right away, the message is
+ * parked on a tiered retry topic and routed again once its delay has elapsed:
+ *
+ * <pre>
+ * chat-events ──fail──► chat-events-retry-5s ──fail──► chat-events-retry-1m
+ *             ──fail──► chat-events-retry-10m ──fail──► chat-events-dlq (status FAILED)
+ * </pre>
+ *
+ * - Attempt count, due time and failure metadata travel in record headers ({@link RetryContext})
+ * - RetryTierConsumer waits for the due time without holding routing threads
+ * - Only when the last tier fails is the message dead-lettered and marked FAILED
+ *
+ * Messages that were not attempted because the connector's circuit is open are parked on
+ * the deferred topic instead ({@link #defer}); that does not use up a retry tier. A message
+ * deferred for longer than max-defer-ms in total (an outage outlasting it) is dead-lettered
+ * and marked FAILED, so the deferred topic cannot grow without bound.
+ *
+ * Configuration:
+ * - app.routing.retry-topics.enabled (default: true; false = publish FAILED immediately)
+ * - app.kafka.topics.retry-5s / retry-1m / retry-10m
+ * - app.kafka.topics.deferred (default: chat-events-deferred)
+ * - app.routing.circuit-breaker.defer-ms (default: 10000)
+ * - app.routing.circuit-breaker.max-defer-ms (default: 3600000): total deferral time
+ *   before a message is dead-lettered
+ *
+ * Metrics:
+ * - router.retry_topic.scheduled {topic}: messages parked on a retry tier or the deferred topic
+ * - router.retry_topic.dead_lettered: messages sent to the DLQ after the last tier
+ * - router.retry_topic.deferral_expired: messages dead-lettered after max-defer-ms of deferrals
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Slf4j
+@Component
+public class RetryTopicHandler {
+
+    private final KafkaTemplate<String, MessageEvent> kafkaTemplate;
+    private final DLQHandler dlqHandler;
+    private final StatusUpdateProducer statusUpdateProducer;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.routing.retry-topics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.kafka.topics.chat-events}")
+    private String chatEventsTopic;
+
+    @Value("${app.kafka.topics.retry-5s:chat-events-retry-5s}")
+    private String retry5sTopic;
+
+    @Value("${app.kafka.topics.retry-1m:chat-events-retry-1m}")
+    private String retry1mTopic;
+
+    @Value("${app.kafka.topics.retry-10m:chat-events-retry-10m}")
+    private String retry10mTopic;
+
+    @Value("${app.kafka.topics.deferred:chat-events-deferred}")
+    private String deferredTopic;
+
+    @Value("${app.routing.circuit-breaker.defer-ms:10000}")
+    private long deferMs;
+
+    @Value("${app.routing.circuit-breaker.max-defer-ms:3600000}")
+    private long maxDeferMs;
+
+    private List<Tier> tiers;
+
+    public RetryTopicHandler(KafkaTemplate<String, MessageEvent> kafkaTemplate,
+                             DLQHandler dlqHandler,
+                             StatusUpdateProducer statusUpdateProducer,
+                             MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.dlqHandler = dlqHandler;
+        this.statusUpdateProducer = statusUpdateProducer;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void initTiers() {
+        tiers = List.of(
+            new Tier(retry5sTopic, Duration.ofSeconds(5)),
+            new Tier(retry1mTopic, Duration.ofMinutes(1)),
+            new Tier(retry10mTopic, Duration.ofMinutes(10)));
+        log.info("Retry topics {}: {}", enabled ? "enabled" : "disabled", tiers);
+    }
+
+    /**
+     * Handles a failed routing pass: parks the message on the next retry tier, or
+     * dead-letters it and publishes FAILED once all tiers are used up.
+     *
+     * Completes when the message has been durably handed over (Kafka ack), so the caller
+     * may commit the offset of the failed record afterwards.
+     *
+     * @param messageEvent The message whose routing pass failed
+     * @param context Retry history of this pass
+     * @param failureReason Why the pass failed
+     * @return Mono completing once the failure is handled
+     */
+    public Mono<Void> handleFailure(MessageEvent messageEvent, RetryContext context, String failureReason) {
+        if (!enabled) {
+            return publishFailed(messageEvent, failureReason);
+        }
+
+        long now = System.currentTimeMillis();
+        RetryContext next = context.nextAttempt(now);
+        int tierIndex = next.attempt() - 1;
+
+        if (tierIndex >= tiers.size()) {
+            return deadLetter(messageEvent, next, failureReason);
+        }
+
+        Tier tier = tiers.get(tierIndex);
+        ProducerRecord<String, MessageEvent> record =
+            new ProducerRecord<>(tier.topic(), messageEvent.getPartitionKey(), messageEvent);
+        next.writeTo(record.headers(), now + tier.delay().toMillis(), failureReason, chatEventsTopic);
+
+        return Mono.fromFuture(() -> kafkaTemplate.send(record))
+            .doOnSuccess(result -> {
+                meterRegistry.counter("router.retry_topic.scheduled", "topic", tier.topic()).increment();
+                log.warn("Message scheduled for retry: messageId={}, attempt={}, topic={}, delay={}s, reason={}",
+                    messageEvent.getMessageId(), next.attempt(), tier.topic(), tier.delay().toSeconds(), failureReason);
+            })
+            .then()
+            .onErrorResume(e -> {
+                log.error("Failed to schedule retry, dead-lettering instead: messageId={}, error={}",
+                    messageEvent.getMessageId(), e.getMessage());
+                return deadLetter(messageEvent, next, failureReason);
+            });
+    }
+
+    /**
+     * Parks a message that was not attempted (connector circuit open) on the deferred
+     * topic, keeping its retry history: the attempt count is not incremented.
+     *
+     * Once the message has been deferred for longer than max-defer-ms since its first
+     * deferral, it is dead-lettered and marked FAILED instead.
+     *
+     * @param messageEvent The message to defer
+     * @param context Retry history of the message
+     * @param reason Why the message was deferred
+     * @return Mono completing once the message is durably parked
+     */
+    public Mono<Void> defer(MessageEvent messageEvent, RetryContext context, String reason) {
+        if (!enabled) {
+            return publishFailed(messageEvent, reason);
+        }
+
+        long now = System.currentTimeMillis();
+        RetryContext next = context.nextDeferral(now);
+        if (now - next.firstDeferredAt() > maxDeferMs) {
+            meterRegistry.counter("router.retry_topic.deferral_expired").increment();
+            log.error("Message deferred for over {}ms ({} deferrals), dead-lettering: messageId={}, reason={}",
+                maxDeferMs, next.deferrals(), messageEvent.getMessageId(), reason);
+            return deadLetter(messageEvent, next, reason + " (deferred " + next.deferrals() + " times)");
+        }
+
+        ProducerRecord<String, MessageEvent> record =
+            new ProducerRecord<>(deferredTopic, messageEvent.getPartitionKey(), messageEvent);
+        next.writeTo(record.headers(), now + deferMs, reason, chatEventsTopic);
+
+        return Mono.fromFuture(() -> kafkaTemplate.send(record))
+            .doOnSuccess(result -> {
+                meterRegistry.counter("router.retry_topic.scheduled", "topic", deferredTopic).increment();
+                log.warn("Message deferred: messageId={}, deferral={}, delay={}ms, reason={}",
+                    messageEvent.getMessageId(), next.deferrals(), deferMs, reason);
+            })
+            .then()
+            .onErrorResume(e -> {
+                log.error("Failed to defer message, handling as failed pass: messageId={}, error={}",
+                    messageEvent.getMessageId(), e.getMessage());
+                return handleFailure(messageEvent, context, reason);
+            });
+    }
+
+    /**
+     * Gets the retry tier topics, in escalation order.
+     *
+     * @return Tier topic names
+     */
+    public List<String> getTierTopics() {
+        return tiers.stream().map(Tier::topic).toList();
+    }
+
+    /**
+     * Sends a message to the DLQ and publishes FAILED.
+     */
+    private Mono<Void> deadLetter(MessageEvent messageEvent, RetryContext context, String failureReason) {
+        meterRegistry.counter("router.retry_topic.dead_lettered").increment();
+
+        return Mono.fromFuture(() -> dlqHandler.sendToDLQ(messageEvent, failureReason, context))
+            .onErrorResume(e -> Mono.empty())
+            .then(publishFailed(messageEvent, failureReason));
+    }
+
+    private Mono<Void> publishFailed(MessageEvent messageEvent, String failureReason) {
+        return Mono.fromRunnable(() -> {
+            try {
+                statusUpdateProducer.publishStatusUpdate(messageEvent.getMessageId(), MessageStatus.FAILED, failureReason);
+            } catch (Exception e) {
+                log.error("Error publishing FAILED status for message {}: {}",
+                    messageEvent.getMessageId(), e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * A retry tier: topic and the delay before its records are routed again.
+     */
+    private record Tier(String topic, Duration delay) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.chat4all.router.connector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link AdaptiveLimit}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class AdaptiveLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void initialLimitIsClampedToBounds() {
+        assertEquals(100, new AdaptiveLimit(500, 1, 100, 0.9, 2.0, 1000).getLimit());
+        assertEquals(5, new AdaptiveLimit(0, 5, 100, 0.9, 2.0, 1000).getLimit());
+    }
+
+    @Test
+    void growsWhileFastAndInUse() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 0.9, 2.0, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(i * 20 * MS, 10 * MS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit should grow, was " + limit.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhenUnderused() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 0.9, 2.0, 1000);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(i * 20 * MS, 10 * MS, 1, false);
+        }
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void neverGrowsAboveMax() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 12, 0.9, 2.0, 1000);
+
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(i * 20 * MS, 10 * MS, 100, false);
+        }
+
+        assertEquals(12, limit.getLimit());
+    }
+
+    @Test
+    void failureDecreasesLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 0.5, 2.0, 1000);
+
+        limit.onSample(0, 10 * MS, 10, true);
+
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void latencyAboveToleranceDecreasesLimit() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 0.5, 2.0, 1000);
+
+        limit.onSample(0, 10 * MS, 1, false);
+        limit.onSample(100 * MS, 30 * MS, 1, false);
+
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    void decreasesAtMostOncePerWindow() {
+        AdaptiveLimit limit = new AdaptiveLimit(16, 1, 100, 0.5, 2.0, 1000);
+
+        // Decrease window ends at 0 + 100ms
+        limit.onSample(0, 100 * MS, 16, true);
+        assertEquals(8, limit.getLimit());
+
+        // Started before the window ended: describes the old limit
+        limit.onSample(50 * MS, 100 * MS, 16, true);
+        assertEquals(8, limit.getLimit());
+
+        // Started after it: decreases again
+        limit.onSample(200 * MS, 100 * MS, 8, true);
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void neverDecreasesBelowMin() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 3, 100, 0.5, 2.0, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(i * 1000 * MS, MS, 10, true);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void minRttIsReprobed() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 0.9, 100.0, 3);
+        assertEquals(0.0, limit.getMinRttMillis());
+
+        limit.onSample(0, 10 * MS, 1, false);
+        limit.onSample(100 * MS, 50 * MS, 1, false);
+        assertEquals(10.0, limit.getMinRttMillis());
+
+        // Third sample starts a new probe: its RTT becomes the baseline
+        limit.onSample(200 * MS, 50 * MS, 1, false);
+        assertEquals(50.0, limit.getMinRttMillis());
+    }
+
+    @Test
+    void failuresDoNotUpdateMinRtt() {
+        AdaptiveLimit limit = new AdaptiveLimit(10, 1, 100, 0.9, 2.0, 1000);
+
+        limit.onSample(0, MS, 1, true);
+
+        assertEquals(0.0, limit.getMinRttMillis());
+    }
+}
@@ -0,0 +1,103 @@
+package com.chat4all.router.consumer;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link KeyedOrderedExecutor}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class KeyedOrderedExecutorTest {
+
+    private final KeyedOrderedExecutor executor = new KeyedOrderedExecutor();
+
+    @Test
+    void runsTasksOfOneKeyInSubmissionOrder() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+
+        executor.submit("conv-1", () -> Mono.fromRunnable(() -> events.add("first:start"))
+            .then(Mono.delay(Duration.ofMillis(50)))
+            .doOnSuccess(ignored -> events.add("first:end")));
+        CompletableFuture<Void> second = executor.submit("conv-1",
+            () -> Mono.fromRunnable(() -> events.add("second:start")));
+
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("first:start", "first:end", "second:start"), events);
+    }
+
+    @Test
+    void runsTasksOfDifferentKeysConcurrently() throws Exception {
+        Sinks.Empty<Void> blocker = Sinks.empty();
+
+        CompletableFuture<Void> blocked = executor.submit("conv-1", blocker::asMono);
+        CompletableFuture<Void> other = executor.submit("conv-2", Mono::empty);
+
+        other.get(5, TimeUnit.SECONDS);
+        assertFalse(blocked.isDone());
+
+        blocker.tryEmitEmpty();
+        blocked.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedTaskDoesNotBlockItsKey() throws Exception {
+        CompletableFuture<Void> failed = executor.submit("conv-1", () -> Mono.error(new IllegalStateException("boom")));
+        CompletableFuture<Void> next = executor.submit("conv-1", Mono::empty);
+
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(failed.isDone());
+        assertFalse(failed.isCompletedExceptionally());
+    }
+
+    @Test
+    void taskThatCannotStartCompletes() throws Exception {
+        CompletableFuture<Void> future = executor.submit("conv-1", () -> {
+            throw new IllegalStateException("no task");
+        });
+
+        future.get(5, TimeUnit.SECONDS);
+        assertFalse(future.isCompletedExceptionally());
+    }
+
+    @Test
+    void releasesKeyStateOnceIdle() throws Exception {
+        executor.submit("conv-1", Mono::empty);
+        executor.submit("conv-2", () -> Mono.delay(Duration.ofMillis(20)));
+
+        assertTrue(executor.awaitPendingAtMost(0, 5000));
+        assertEquals(0, executor.getPending());
+        assertEquals(0, executor.getActiveKeys());
+    }
+
+    @Test
+    void awaitTimesOutWhilePending() throws Exception {
+        Sinks.Empty<Void> blocker = Sinks.empty();
+        executor.submit("conv-1", blocker::asMono);
+
+        assertFalse(executor.awaitPendingAtMost(0, 50));
+        assertEquals(1, executor.getPending());
+
+        blocker.tryEmitEmpty();
+        assertTrue(executor.awaitPendingAtMost(0, 5000));
+    }
+
+    @Test
+    void rejectsNullKeyWithoutSubmitting() {
+        assertThrows(NullPointerException.class, () -> executor.submit(null, Mono::empty));
+        assertEquals(0, executor.getPending());
+    }
+}
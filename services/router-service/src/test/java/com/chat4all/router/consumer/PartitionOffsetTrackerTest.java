@@ -0,0 +1,80 @@
+package com.chat4all.router.consumer;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link PartitionOffsetTracker}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class PartitionOffsetTrackerTest {
+
+    private static final TopicPartition PARTITION_0 = new TopicPartition("chat-events", 0);
+    private static final TopicPartition PARTITION_1 = new TopicPartition("chat-events", 1);
+
+    private final PartitionOffsetTracker tracker = new PartitionOffsetTracker();
+
+    @Test
+    void commitsUpToLowestInFlightOffset() {
+        Runnable first = tracker.register(PARTITION_0, 10);
+        Runnable second = tracker.register(PARTITION_0, 11);
+        Runnable third = tracker.register(PARTITION_0, 12);
+
+        // Completed out of order: offset 10 still blocks the commit
+        second.run();
+        third.run();
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(10)), tracker.collectCommittable(List.of(PARTITION_0)));
+
+        first.run();
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(13)), tracker.collectCommittable(List.of(PARTITION_0)));
+    }
+
+    @Test
+    void reportsOnlyOffsetsThatAdvanced() {
+        tracker.register(PARTITION_0, 5).run();
+
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(6)), tracker.collectCommittable(List.of(PARTITION_0)));
+        assertTrue(tracker.collectCommittable(List.of(PARTITION_0)).isEmpty());
+    }
+
+    @Test
+    void skipsPartitionsNotAssigned() {
+        tracker.register(PARTITION_0, 0).run();
+        tracker.register(PARTITION_1, 0).run();
+
+        assertEquals(Map.of(PARTITION_1, new OffsetAndMetadata(1)), tracker.collectCommittable(List.of(PARTITION_1)));
+    }
+
+    @Test
+    void countsInFlightRecords() {
+        Runnable done = tracker.register(PARTITION_0, 0);
+        tracker.register(PARTITION_0, 1);
+        assertEquals(2, tracker.getInFlight(PARTITION_0));
+
+        done.run();
+        assertEquals(1, tracker.getInFlight(PARTITION_0));
+        assertEquals(0, tracker.getInFlight(PARTITION_1));
+    }
+
+    @Test
+    void completionFromRevokedOwnershipHasNoEffect() {
+        Runnable stale = tracker.register(PARTITION_0, 7);
+        tracker.remove(List.of(PARTITION_0));
+
+        // Reassigned: the record is delivered again and is in flight for the new owner
+        tracker.register(PARTITION_0, 7);
+        stale.run();
+
+        assertEquals(1, tracker.getInFlight(PARTITION_0));
+        assertEquals(Map.of(PARTITION_0, new OffsetAndMetadata(7)), tracker.collectCommittable(List.of(PARTITION_0)));
+    }
+}
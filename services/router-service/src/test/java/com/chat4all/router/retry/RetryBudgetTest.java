@@ -0,0 +1,58 @@
+package com.chat4all.router.retry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RetryBudget}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class RetryBudgetTest {
+
+    @Test
+    void startsFullAndDeniesOnceSpent() {
+        RetryBudget budget = new RetryBudget(0.2, 0, 2);
+
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    void firstAttemptsEarnRetries() {
+        RetryBudget budget = new RetryBudget(0.5, 0, 1);
+        assertTrue(budget.tryWithdraw());
+
+        budget.deposit();
+        assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    void balanceIsCappedAtMaxTokens() {
+        RetryBudget budget = new RetryBudget(1.0, 0, 3);
+
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+
+        assertEquals(3.0, budget.getTokens(), 1e-9);
+    }
+
+    @Test
+    void refillsOverTimeWithoutTraffic() throws InterruptedException {
+        RetryBudget budget = new RetryBudget(0, 1000, 1);
+        assertTrue(budget.tryWithdraw());
+
+        Thread.sleep(20);
+
+        assertTrue(budget.tryWithdraw());
+    }
+}
@@ -0,0 +1,60 @@
+package com.chat4all.router.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RetryPolicy}.
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+class RetryPolicyTest {
+
+    private static final int SAMPLES = 1000;
+
+    private final RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(100), Duration.ofSeconds(1));
+
+    @Test
+    void backoffWindowDoublesPerRetry() {
+        assertWithin(policy, 0, 100);
+        assertWithin(policy, 1, 200);
+        assertWithin(policy, 2, 400);
+        assertWithin(policy, 3, 800);
+    }
+
+    @Test
+    void backoffWindowIsCappedAtMaxDelay() {
+        assertWithin(policy, 4, 1000);
+        assertWithin(policy, 29, 1000);
+        // Large retry numbers must not overflow the shift
+        assertWithin(policy, 64, 1000);
+        assertWithin(policy, Long.MAX_VALUE, 1000);
+    }
+
+    @Test
+    void backoffIsJittered() {
+        long first = policy.backoff(3).toMillis();
+        boolean varied = false;
+        for (int i = 0; i < SAMPLES && !varied; i++) {
+            varied = policy.backoff(3).toMillis() != first;
+        }
+        assertTrue(varied, "backoff should be randomized");
+    }
+
+    @Test
+    void zeroBaseDelayStillBacksOff() {
+        assertWithin(new RetryPolicy(3, Duration.ZERO, Duration.ZERO), 5, 1);
+    }
+
+    private static void assertWithin(RetryPolicy policy, long retry, long maxMs) {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delayMs = policy.backoff(retry).toMillis();
+            assertTrue(delayMs >= 0 && delayMs <= maxMs,
+                "retry " + retry + ": delay " + delayMs + "ms outside [0, " + maxMs + "]");
+        }
+    }
+}
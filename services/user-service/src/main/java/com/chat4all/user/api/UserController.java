@@ -2,6 +2,7 @@ package com.chat4all.user.api;
 
 import com.chat4all.user.domain.User;
 import com.chat4all.user.dto.CreateUserRequest;
+import com.chat4all.user.dto.ResolveUsersRequest;
 import com.chat4all.user.dto.UserDTO;
 import com.chat4all.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,6 +20,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -33,6 +35,7 @@ import java.util.UUID;
  *   <li>POST /api/v1/users - Create new user</li>
  *   <li>GET /api/v1/users/{id} - Get user by ID with all external identities</li>
  *   <li>GET /api/v1/users - List all users</li>
+ *   <li>POST /api/v1/users/resolve - Resolve many users to their external identities</li>
  * </ul>
  * 
  * @author Chat4All Development Team
@@ -179,6 +182,39 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
     
+    /**
+     * Resolves many users to their external identities in one call.
+     * 
+     * <p>Used by the Router Service for group message fan-out: all recipients of a
+     * message are resolved with one HTTP round-trip and one SQL query.
+     * Unknown users are omitted from the response; users without a linked identity are
+     * returned with an empty externalIdentities list.
+     * 
+     * <p><b>Request Body:</b>
+     * <pre>{@code
+     * {
+     *   "userIds": [
+     *     "550e8400-e29b-41d4-a716-446655440000",
+     *     "550e8400-e29b-41d4-a716-446655440001"
+     *   ]
+     * }
+     * }</pre>
+     * 
+     * <p><b>Response (200 OK):</b> list of UserDTOs (same shape as GET /api/v1/users/{id})
+     * 
+     * @param request the user IDs to resolve (1 to 1000)
+     * @return ResponseEntity with resolved UserDTOs and HTTP 200 OK
+     */
+    @PostMapping("/resolve")
+    public ResponseEntity<List<UserDTO>> resolveUsers(@Valid @RequestBody ResolveUsersRequest request) {
+        log.debug("API request: Resolve users - count={}", request.getUserIds().size());
+        
+        List<UserDTO> users = userService.resolveUsers(new LinkedHashSet<>(request.getUserIds()));
+        log.debug("API response: Resolved {} of {} users", users.size(), request.getUserIds().size());
+        
+        return ResponseEntity.ok(users);
+    }
+    
     /**
      * Global exception handler for this controller.
      * 
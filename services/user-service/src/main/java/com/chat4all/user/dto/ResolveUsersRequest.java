@@ -0,0 +1,39 @@
+package com.chat4all.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for resolving many users to their external identities at once.
+ *
+ * <p>Used by the Router Service to resolve all recipients of a group message
+ * with a single call instead of one GET per recipient.
+ *
+ * @author Chat4All Development Team
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResolveUsersRequest {
+
+    /**
+     * Maximum number of user IDs accepted per request.
+     */
+    public static final int MAX_USER_IDS = 1000;
+
+    /**
+     * Internal user UUIDs to resolve (duplicates are ignored).
+     */
+    @NotEmpty(message = "At least one user ID is required")
+    @Size(max = MAX_USER_IDS, message = "At most " + MAX_USER_IDS + " user IDs per request")
+    private List<UUID> userIds;
+}
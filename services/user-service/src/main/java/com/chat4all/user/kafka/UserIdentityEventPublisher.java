@@ -0,0 +1,65 @@
+package com.chat4all.user.kafka;
+
+import com.chat4all.common.event.UserIdentityChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Publishes user identity changes to Kafka for cache invalidation in other services.
+ *
+ * <p>Services raise a {@link UserIdentityChangedEvent} as a Spring application event
+ * inside their transaction; this listener forwards it to the {@code identity-events}
+ * topic only after the transaction has committed, so consumers never evict a cache
+ * entry and then reload the pre-change state.
+ *
+ * <p><b>Delivery:</b> fire-and-forget with callback logging. A lost event only delays
+ * invalidation until the consumer's cache TTL expires.
+ *
+ * @author Chat4All Development Team
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIdentityEventPublisher {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Value("${app.kafka.topics.identity-events:identity-events}")
+    private String identityEventsTopic;
+
+    /**
+     * Forwards a committed identity change to Kafka, keyed by userId.
+     *
+     * @param event the identity change raised by UserService or IdentityMappingService
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void publish(UserIdentityChangedEvent event) {
+        log.debug("Publishing identity change: userId={}, changeType={}",
+                  event.getUserId(), event.getChangeType());
+
+        try {
+            kafkaTemplate.send(identityEventsTopic, event.getUserId(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("Failed to publish identity change: userId={}, changeType={}, error={}",
+                                  event.getUserId(), event.getChangeType(), ex.getMessage());
+                    } else {
+                        log.debug("Identity change published: userId={}, partition={}, offset={}",
+                                  event.getUserId(),
+                                  result.getRecordMetadata().partition(),
+                                  result.getRecordMetadata().offset());
+                    }
+                });
+        } catch (Exception e) {
+            log.error("Error publishing identity change: userId={}, error={}",
+                      event.getUserId(), e.getMessage(), e);
+            // Non-critical - consumers fall back to cache TTL
+        }
+    }
+}
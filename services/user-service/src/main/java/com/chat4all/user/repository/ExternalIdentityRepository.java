@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -27,6 +28,7 @@ import java.util.UUID;
  * Custom Query Methods:
  * - findByPlatformAndPlatformUserId: Critical method for incoming message routing
  * - findByUserId: Get all identities for a specific user
+ * - findByUserIdIn: Get all identities for many users at once (bulk resolution)
  * - findByPlatform: Get all identities for a specific platform
  * - findByVerified: Filter identities by verification status
  * 
@@ -96,6 +98,19 @@ public interface ExternalIdentityRepository extends JpaRepository<ExternalIdenti
     @Query("SELECT ei FROM ExternalIdentity ei JOIN FETCH ei.user WHERE ei.user.id = :userId")
     List<ExternalIdentity> findByUserId(@Param("userId") UUID userId);
 
+    /**
+     * Get all external identities for a set of users in a single query
+     * Eagerly fetches the User to avoid N+1 queries
+     * 
+     * Used for bulk resolution of group message recipients.
+     * Users without any linked identity produce no rows.
+     * 
+     * @param userIds User IDs to find identities for
+     * @return List of all external identities linked to any of the users
+     */
+    @Query("SELECT ei FROM ExternalIdentity ei JOIN FETCH ei.user WHERE ei.user.id IN :userIds")
+    List<ExternalIdentity> findByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
     /**
      * Get all identities for a specific platform
      * Useful for analytics (e.g., "How many WhatsApp users do we have?")
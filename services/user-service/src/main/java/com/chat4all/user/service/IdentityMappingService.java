@@ -1,6 +1,7 @@
 package com.chat4all.user.service;
 
 import com.chat4all.common.constant.Channel;
+import com.chat4all.common.event.UserIdentityChangedEvent;
 import com.chat4all.user.domain.ExternalIdentity;
 import com.chat4all.user.domain.User;
 import com.chat4all.user.dto.LinkIdentityRequest;
@@ -8,10 +9,12 @@ import com.chat4all.user.repository.ExternalIdentityRepository;
 import com.chat4all.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -47,6 +50,7 @@ public class IdentityMappingService {
     
     private final UserRepository userRepository;
     private final ExternalIdentityRepository externalIdentityRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Links an external platform identity to an internal user.
@@ -113,6 +117,8 @@ public class IdentityMappingService {
             ExternalIdentity savedIdentity = externalIdentityRepository.save(identity);
             log.info("Linked identity successfully: identityId={}, userId={}, platform={}", 
                      savedIdentity.getId(), userId, request.getPlatform());
+            publishIdentityChange(userId, UserIdentityChangedEvent.ChangeType.IDENTITY_LINKED,
+                                  request.getPlatform(), request.getPlatformUserId());
             return savedIdentity;
         } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException(
@@ -206,6 +212,8 @@ public class IdentityMappingService {
         
         log.info("Unlinked identity successfully: identityId={}, userId={}, platform={}, platformUserId={}", 
                  identityId, userId, platform, platformUserId);
+        publishIdentityChange(userId, UserIdentityChangedEvent.ChangeType.IDENTITY_UNLINKED,
+                              platform, platformUserId);
     }
     
     /**
@@ -389,7 +397,27 @@ public class IdentityMappingService {
         if (phone == null) return "";
         return phone.replaceAll("[^0-9]", "");
     }
-    
+
+    /**
+     * Raises an identity link/unlink change, published to Kafka after commit.
+     *
+     * @param userId the UUID of the owning user
+     * @param changeType the kind of change
+     * @param platform the identity's platform
+     * @param platformUserId the identity's platform-specific user ID
+     */
+    private void publishIdentityChange(UUID userId, UserIdentityChangedEvent.ChangeType changeType,
+                                       Channel platform, String platformUserId) {
+        eventPublisher.publishEvent(UserIdentityChangedEvent.builder()
+            .eventId(UUID.randomUUID().toString())
+            .userId(userId.toString())
+            .changeType(changeType)
+            .platform(platform)
+            .platformUserId(platformUserId)
+            .timestamp(Instant.now())
+            .build());
+    }
+
     /**
      * Calculates string similarity percentage using Levenshtein distance.
      * 
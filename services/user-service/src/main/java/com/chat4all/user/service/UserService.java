@@ -1,16 +1,25 @@
 package com.chat4all.user.service;
 
+import com.chat4all.common.event.UserIdentityChangedEvent;
+import com.chat4all.user.domain.ExternalIdentity;
 import com.chat4all.user.domain.User;
 import com.chat4all.user.dto.CreateUserRequest;
 import com.chat4all.user.dto.ExternalIdentityDTO;
 import com.chat4all.user.dto.UserDTO;
+import com.chat4all.user.repository.ExternalIdentityRepository;
 import com.chat4all.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,6 +35,7 @@ import java.util.stream.Collectors;
  * <ul>
  *   <li>User creation with validation and defaults</li>
  *   <li>User retrieval with eager loading of external identities</li>
+ *   <li>Bulk identity resolution for group message routing</li>
  *   <li>User profile updates</li>
  *   <li>DTO mapping for API responses</li>
  * </ul>
@@ -39,6 +49,8 @@ import java.util.stream.Collectors;
 public class UserService {
     
     private final UserRepository userRepository;
+    private final ExternalIdentityRepository externalIdentityRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Creates a new user profile.
@@ -82,6 +94,7 @@ public class UserService {
         
         User savedUser = userRepository.save(user);
         log.info("Created user successfully: userId={}", savedUser.getId());
+        publishUserChange(savedUser.getId(), UserIdentityChangedEvent.ChangeType.USER_CREATED);
         
         return savedUser;
     }
@@ -114,6 +127,60 @@ public class UserService {
         return mapToDTO(user);
     }
     
+    /**
+     * Resolves many users to their external identities at once.
+     * 
+     * <p>Runs a single JOIN FETCH query over all identities of the requested users,
+     * so resolving the recipients of a 100-participant group costs one SQL query
+     * instead of one per participant.
+     * 
+     * <p>Every existing user is returned, users without identities with an empty
+     * identity list (looked up with a second query, only when there are any); unknown
+     * user IDs are omitted, so callers can tell "not found" from "nothing linked".
+     * 
+     * @param userIds the UUIDs of the users to resolve
+     * @return DTOs of the resolved users, each with its external identities
+     * @throws IllegalArgumentException if userIds is null or empty
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> resolveUsers(Collection<UUID> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one user ID is required");
+        }
+        
+        log.debug("Resolving {} users", userIds.size());
+        
+        List<ExternalIdentity> identities = externalIdentityRepository.findByUserIdIn(userIds);
+        
+        // Group identities by owning user, keeping query order
+        Map<UUID, User> users = new LinkedHashMap<>();
+        Map<UUID, List<ExternalIdentityDTO>> identitiesByUser = new LinkedHashMap<>();
+        for (ExternalIdentity identity : identities) {
+            User user = identity.getUser();
+            users.putIfAbsent(user.getId(), user);
+            identitiesByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>())
+                .add(mapIdentityToDTO(identity));
+        }
+        
+        // Users without any identity are not in the join result
+        List<UUID> withoutIdentities = userIds.stream()
+            .filter(id -> !users.containsKey(id))
+            .collect(Collectors.toList());
+        if (!withoutIdentities.isEmpty()) {
+            userRepository.findAllById(withoutIdentities).forEach(user -> {
+                users.putIfAbsent(user.getId(), user);
+                identitiesByUser.putIfAbsent(user.getId(), new ArrayList<>());
+            });
+        }
+        
+        log.debug("Resolved {} of {} users ({} identities)", 
+                  users.size(), userIds.size(), identities.size());
+        
+        return users.values().stream()
+            .map(user -> mapToDTO(user, identitiesByUser.get(user.getId())))
+            .collect(Collectors.toList());
+    }
+    
     /**
      * Retrieves all users in the system.
      * 
@@ -160,6 +227,7 @@ public class UserService {
         User updatedUser = userRepository.save(user);
         
         log.info("Updated display name successfully: userId={}", userId);
+        publishUserChange(userId, UserIdentityChangedEvent.ChangeType.USER_UPDATED);
         return updatedUser;
     }
     
@@ -193,9 +261,25 @@ public class UserService {
         User updatedUser = userRepository.save(user);
         
         log.info("Updated email successfully: userId={}", userId);
+        publishUserChange(userId, UserIdentityChangedEvent.ChangeType.USER_UPDATED);
         return updatedUser;
     }
     
+    /**
+     * Raises a user-level identity change, published to Kafka after commit.
+     * 
+     * @param userId the UUID of the changed user
+     * @param changeType the kind of change
+     */
+    private void publishUserChange(UUID userId, UserIdentityChangedEvent.ChangeType changeType) {
+        eventPublisher.publishEvent(UserIdentityChangedEvent.builder()
+            .eventId(UUID.randomUUID().toString())
+            .userId(userId.toString())
+            .changeType(changeType)
+            .timestamp(Instant.now())
+            .build());
+    }
+    
     /**
      * Maps a User entity to a UserDTO for API responses.
      * 
@@ -207,15 +291,20 @@ public class UserService {
      */
     private UserDTO mapToDTO(User user) {
         List<ExternalIdentityDTO> identities = user.getExternalIdentities().stream()
-            .map(identity -> ExternalIdentityDTO.builder()
-                .id(identity.getId())
-                .platform(identity.getPlatform())
-                .platformUserId(identity.getPlatformUserId())
-                .verified(identity.isVerified())
-                .linkedAt(identity.getLinkedAt())
-                .build())
+            .map(this::mapIdentityToDTO)
             .collect(Collectors.toList());
         
+        return mapToDTO(user, identities);
+    }
+    
+    /**
+     * Maps a User entity and its already mapped identities to a UserDTO.
+     * 
+     * @param user the User entity to map
+     * @param identities the user's external identities
+     * @return UserDTO with all user information
+     */
+    private UserDTO mapToDTO(User user, List<ExternalIdentityDTO> identities) {
         return UserDTO.builder()
             .id(user.getId())
             .displayName(user.getDisplayName())
@@ -227,4 +316,20 @@ public class UserService {
             .externalIdentities(identities)
             .build();
     }
+    
+    /**
+     * Maps an ExternalIdentity entity to an ExternalIdentityDTO.
+     * 
+     * @param identity the ExternalIdentity entity to map
+     * @return ExternalIdentityDTO for API responses
+     */
+    private ExternalIdentityDTO mapIdentityToDTO(ExternalIdentity identity) {
+        return ExternalIdentityDTO.builder()
+            .id(identity.getId())
+            .platform(identity.getPlatform())
+            .platformUserId(identity.getPlatformUserId())
+            .verified(identity.isVerified())
+            .linkedAt(identity.getLinkedAt())
+            .build();
+    }
 }
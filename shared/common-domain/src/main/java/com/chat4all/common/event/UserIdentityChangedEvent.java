@@ -0,0 +1,97 @@
+package com.chat4all.common.event;
+
+import com.chat4all.common.constant.Channel;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * User Identity Changed Event
+ *
+ * Published to Kafka by user-service after a change to a user or its linked
+ * external identities has been committed.
+ *
+ * Event Flow:
+ * 1. User is created/updated, or an external identity is linked/unlinked
+ * 2. Transaction commits in user-service (PostgreSQL)
+ * 3. UserIdentityChangedEvent published to Kafka
+ * 4. Router-service evicts the user from its identity cache
+ *
+ * Kafka Topic: identity-events
+ * Partition Key: userId (ensures ordering per user)
+ *
+ * Consumers:
+ * - Router Service: Invalidates cached UserDTO / ExternalIdentityDTO entries
+ *
+ * @author Chat4All Team
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserIdentityChangedEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique event identifier (UUIDv4)
+     */
+    private String eventId;
+
+    /**
+     * Internal user UUID whose identity data changed
+     */
+    private String userId;
+
+    /**
+     * Kind of change
+     */
+    private ChangeType changeType;
+
+    /**
+     * Platform of the linked/unlinked identity (null for user-level changes)
+     */
+    private Channel platform;
+
+    /**
+     * Platform-specific user ID of the linked/unlinked identity (null for user-level changes)
+     */
+    private String platformUserId;
+
+    /**
+     * When the change was committed
+     */
+    private Instant timestamp;
+
+    /**
+     * Change type enumeration
+     */
+    public enum ChangeType {
+        /**
+         * New user created (clears negative cache entries for the ID)
+         */
+        USER_CREATED,
+
+        /**
+         * User profile updated (display name, email)
+         */
+        USER_UPDATED,
+
+        /**
+         * External identity linked to the user
+         */
+        IDENTITY_LINKED,
+
+        /**
+         * External identity removed from the user
+         */
+        IDENTITY_UNLINKED
+    }
+}